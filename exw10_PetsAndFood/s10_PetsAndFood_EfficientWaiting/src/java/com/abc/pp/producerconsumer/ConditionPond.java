@@ -0,0 +1,102 @@
+package com.abc.pp.producerconsumer;
+
+import java.util.concurrent.*;
+import java.util.concurrent.locks.*;
+
+import com.abc.pp.producerconsumer.Pond.PondState;
+
+/**
+ * Same as {@link Pond}, but guarded by a {@link ReentrantLock} instead of
+ * the object's monitor. A thread waiting for a state waits on a
+ * {@link Condition} (which parks it), not in Object.wait() - a virtual thread
+ * blocked in Object.wait() inside a synchronized method pins its carrier
+ * thread for as long as it waits, while one parked on a Condition lets the
+ * carrier go run other virtual threads.
+ * <p>
+ * There is one condition per state, so setPondState() only wakes up the
+ * threads waiting for the state the pond just moved to (instead of
+ * notifyAll() waking every waiter).
+ */
+public class ConditionPond {
+    private PondState state;
+
+    private final ReentrantLock lock;
+    // indexed by PondState.ordinal()
+    private final Condition[] becameState;
+
+    public ConditionPond() {
+        state = PondState.EMPTY;
+        lock = new ReentrantLock();
+
+        PondState[] states = PondState.values();
+        becameState = new Condition[states.length];
+        for ( int i = 0; i < becameState.length; i++ ) {
+            becameState[i] = lock.newCondition();
+        }
+    }
+
+    public PondState getPondState() {
+        lock.lock();
+        try {
+            return state;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void setPondState(PondState proposedState)
+            throws IllegalStateException {
+
+        lock.lock();
+        try {
+            if (!state.canTransitionTo(proposedState)) {
+                throw new IllegalStateException("in state=" + state +
+                    ", can't transition to " + proposedState);
+            }
+
+            state = proposedState;
+            becameState[proposedState.ordinal()].signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public boolean waitUntilStateIs(PondState targetState, long msTimeout)
+            throws InterruptedException {
+
+        return waitUntilStateIs(targetState, msTimeout, TimeUnit.MILLISECONDS);
+    }
+
+    public boolean waitUntilStateIs(PondState targetState,
+                                    long timeout,
+                                    TimeUnit unit)
+            throws InterruptedException {
+
+        lock.lockInterruptibly();
+        try {
+            Condition condition = becameState[targetState.ordinal()];
+            if (timeout == 0) {
+                while (state != targetState) {
+                    condition.await();
+                }
+                return ThreadTools.SUCCESS;
+            }
+
+            long nsRemaining = unit.toNanos(timeout);
+            while (state != targetState) {
+                if (nsRemaining <= 0) {
+                    return ThreadTools.TIMED_OUT;
+                }
+                nsRemaining = condition.awaitNanos(nsRemaining);
+            }
+            return ThreadTools.SUCCESS;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void waitUntilStateIs(PondState targetState)
+            throws InterruptedException {
+        waitUntilStateIs(targetState, 0);
+    }
+}
@@ -1,5 +1,7 @@
 package com.abc.pp.producerconsumer;
 
+import java.util.concurrent.*;
+
 public class Pond {
     private PondState state;
 
@@ -27,26 +29,34 @@ public class Pond {
                                                  long msTimeout)
             throws InterruptedException {
 
+        return waitUntilStateIs(targetState, msTimeout, TimeUnit.MILLISECONDS);
+    }
+
+    public synchronized boolean waitUntilStateIs(PondState targetState,
+                                                 long timeout,
+                                                 TimeUnit unit)
+            throws InterruptedException {
+
         if (state == targetState) {
             return ThreadTools.SUCCESS;
         }
 
-        if (msTimeout == 0) {
+        if (timeout == 0) {
             do {
                 wait();
             } while (state != targetState);
             return ThreadTools.SUCCESS;
         }
 
-        long msEndTime = System.currentTimeMillis() + msTimeout;
-        long msRemaining = msTimeout;
+        long nsEndTime = System.nanoTime() + unit.toNanos(timeout);
+        long nsRemaining = unit.toNanos(timeout);
 
-        while (msRemaining > 0) {
-            wait(msRemaining);
+        while (nsRemaining > 0) {
+            TimeUnit.NANOSECONDS.timedWait(this, nsRemaining);
             if (state == targetState) {
                 return ThreadTools.SUCCESS;
             }
-            msRemaining = msEndTime - System.currentTimeMillis();
+            nsRemaining = nsEndTime - System.nanoTime();
         }
         return ThreadTools.TIMED_OUT;
     }
@@ -0,0 +1,202 @@
+package com.abc.pp.prime;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.function.*;
+
+/**
+ * Tests every number in a range for primality on a work-stealing
+ * {@link ForkJoinPool} and hands the primes over in increasing order.
+ * <p>
+ * The range is cut into chunks which are tested independently. A prime test
+ * costs more the bigger the number is (Miller-Rabin does about one modular
+ * multiplication per bit), so the chunks are sized by estimated work instead
+ * of by length: a chunk's length is inversely proportional to the bit length
+ * of its first number, making chunks near the top of a range smaller than
+ * those near the bottom. There are about 8 chunks per pool thread overall,
+ * so idle threads can steal the leftover chunks of slow ones.
+ * <p>
+ * Each chunk collects its primes in a primitive long buffer (no boxing).
+ * Chunks are submitted a few per thread ahead of the one being handed over,
+ * and the calling thread joins them in order, passes each buffer's primes
+ * on, and reuses the buffer for a later chunk - so the output streams out
+ * in order while the scan is still running, with bounded memory however
+ * big the range is.
+ */
+public class ParallelPrimeScanner {
+    private static final int MIN_CHUNK_SIZE = 1 << 10;
+    private static final int MAX_CHUNK_SIZE = 1 << 20;
+    // target number of chunks per pool thread over the whole range
+    private static final int CHUNKS_PER_THREAD = 8;
+    // chunks submitted (per pool thread) ahead of the one being handed over
+    private static final int IN_FLIGHT_PER_THREAD = 4;
+
+    private final ForkJoinPool pool;
+    private final LongPredicate primeTest;
+
+    /**
+     * @param pool the pool the chunks run on.
+     * @param primeTest returns true for primes; called from the pool's
+     * threads, so it must be thread safe.
+     */
+    public ParallelPrimeScanner(ForkJoinPool pool, LongPredicate primeTest) {
+        if (pool == null) {
+            throw new IllegalArgumentException("pool must not be null");
+        }
+        if (primeTest == null) {
+            throw new IllegalArgumentException("primeTest must not be null");
+        }
+        this.pool = pool;
+        this.primeTest = primeTest;
+    }
+
+    /** Uses {@link PrimeTools#isPrime(long)}. */
+    public ParallelPrimeScanner(ForkJoinPool pool) {
+        this(pool, new LongPredicate() {
+            @Override
+            public boolean test(long n) {
+                return PrimeTools.isPrime(n);
+            }
+        });
+    }
+
+    public ForkJoinPool getPool() {
+        return pool;
+    }
+
+    /** Counts the primes in [start, limit] (both inclusive). */
+    public long countPrimes(long start, long limit) {
+        return scan(start, limit, null);
+    }
+
+    /**
+     * Tests every number in [start, limit] (both inclusive, like
+     * PrimeCheckDemo) and passes the primes to action in increasing order,
+     * on the calling thread. action may be null to just count them.
+     * @return the number of primes found.
+     */
+    public long scan(long start, long limit, LongConsumer action) {
+        // nothing below 2 is prime (and this keeps limit - next from overflowing)
+        start = Math.max(start, 0);
+        if (start > limit) {
+            return 0;
+        }
+
+        int parallelism = pool.getParallelism();
+        int maxInFlight = IN_FLIGHT_PER_THREAD * parallelism;
+        // an upper bound for the whole range's work, in "bits tested"
+        double totalWork = ((double) limit - start + 1) * bitLength(limit);
+        double workPerChunk = totalWork / (CHUNKS_PER_THREAD * parallelism);
+
+        Deque<ChunkTask> inFlight = new ArrayDeque<>();
+        Deque<LongBuffer> spareBuffers = new ArrayDeque<>();
+        long next = start;
+        boolean allSubmitted = false;
+        long primeCount = 0;
+        try {
+            while (!allSubmitted || !inFlight.isEmpty()) {
+                while (!allSubmitted && inFlight.size() < maxInFlight) {
+                    long size = chunkSize(next, workPerChunk);
+                    // careful not to overflow near Long.MAX_VALUE
+                    long last = limit - next < size ? limit : next + size - 1;
+                    LongBuffer buffer = spareBuffers.isEmpty()
+                        ? new LongBuffer()
+                        : spareBuffers.pollFirst();
+                    ChunkTask task = new ChunkTask(next, last, buffer);
+                    pool.execute(task);
+                    inFlight.addLast(task);
+                    if (last == limit) {
+                        allSubmitted = true;
+                    } else {
+                        next = last + 1;
+                    }
+                }
+
+                LongBuffer primes = inFlight.pollFirst().join();
+                primeCount += primes.size();
+                if (action != null) {
+                    primes.forEach(action);
+                }
+                primes.clear();
+                spareBuffers.addLast(primes);
+            }
+        } finally {
+            // only still in flight if something threw
+            for ( ChunkTask task : inFlight ) {
+                task.cancel(false);
+            }
+        }
+        return primeCount;
+    }
+
+    private static int bitLength(long n) {
+        return Math.max(1, 64 - Long.numberOfLeadingZeros(n));
+    }
+
+    private static long chunkSize(long first, double workPerChunk) {
+        long size = (long) (workPerChunk / bitLength(first));
+        return Math.max(MIN_CHUNK_SIZE, Math.min(MAX_CHUNK_SIZE, size));
+    }
+
+    /** Tests [first, last] and returns the primes (in increasing order). */
+    private final class ChunkTask extends RecursiveTask<LongBuffer> {
+        private static final long serialVersionUID = 1L;
+
+        private final long first;
+        private final long last;
+        private final LongBuffer primes;
+
+        public ChunkTask(long first, long last, LongBuffer primes) {
+            this.first = first;
+            this.last = last;
+            this.primes = primes;
+        }
+
+        @Override
+        protected LongBuffer compute() {
+            for ( long n = first; ; n++ ) {
+                if (primeTest.test(n)) {
+                    primes.add(n);
+                }
+                if (n == last) {
+                    return primes;
+                }
+            }
+        }
+    } // type ChunkTask
+
+    /**
+     * A growable long[]. Filled by one pool thread, then read by the calling
+     * thread after join() (which makes the writes visible).
+     */
+    private static final class LongBuffer {
+        private long[] values;
+        private int size;
+
+        public LongBuffer() {
+            values = new long[256];
+            size = 0;
+        }
+
+        public void add(long value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, 2 * size);
+            }
+            values[size++] = value;
+        }
+
+        public int size() {
+            return size;
+        }
+
+        public void forEach(LongConsumer action) {
+            for ( int i = 0; i < size; i++ ) {
+                action.accept(values[i]);
+            }
+        }
+
+        public void clear() {
+            size = 0;
+        }
+    } // type LongBuffer
+}
@@ -0,0 +1,349 @@
+package com.abc.pp.prime;
+
+import java.io.*;
+import java.nio.*;
+import java.nio.channels.*;
+import java.nio.channels.FileChannel.*;
+
+/**
+ * A file which remembers which numbers in [0, limit) are prime, so they only
+ * have to be sieved once - later runs (and other processes) memory-map the
+ * file with {@link FileChannel#map} and answer {@link #isPrime(long)} with a
+ * single bit lookup and {@link #countPrimes(long, long)} with two index
+ * lookups plus a popcount of at most two blocks.
+ * <p>
+ * The file is a header followed by fixed-size block records:
+ * <pre>
+ *   header (64 bytes, little endian)
+ *     int   magic         0x424D5250 ("PRMB")
+ *     int   version       1
+ *     int   blockBits     odd numbers per block (4096)
+ *     int   reserved      0
+ *     long  limit         numbers [0, limit) are covered
+ *     long  blockCount    records which follow
+ *     (zero padding)
+ *   block record i (8 + blockBits / 8 bytes)
+ *     long  primesBefore  odd primes below the block's first number
+ *     long[blockBits/64]  one bit per odd number, set = prime; bit j of
+ *                         record i is the number 2 * (i * blockBits + j) + 1
+ * </pre>
+ * Only odd numbers are stored (2 is the one even prime), so a block covers
+ * 2 * blockBits numbers and the limit is always a multiple of that. The
+ * running count in each record makes counting O(1) however big the file is.
+ * <p>
+ * {@link #extendTo(long)} appends records for a bigger limit (sieving just
+ * the new range with a {@link PrimeSieve}) and only then updates the header,
+ * so a crash half way through leaves the file as it was. Readers of an
+ * instance are never blocked; each call works on the mapping current when
+ * it started. Instances are thread safe.
+ */
+public final class PrimeBitmapStore implements Closeable {
+    private static final int MAGIC = 0x424D5250;
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 64;
+    private static final int BLOCK_BITS = 4096;
+    private static final int BLOCK_WORDS = BLOCK_BITS / 64;
+    private static final int RECORD_BYTES = 8 + BLOCK_BITS / 8;
+    // numbers covered by one block
+    private static final long BLOCK_SPAN = 2L * BLOCK_BITS;
+    // blocks per segment handed to the sieve (32KB of bits, like PrimeSieve's)
+    private static final int BLOCKS_PER_SEGMENT = 64;
+    // MappedByteBuffer is int indexed: map whole records, about 1GB at a time
+    private static final int RECORDS_PER_REGION = (1 << 30) / RECORD_BYTES;
+
+    private final File file;
+    private final RandomAccessFile raf;
+    private final FileChannel channel;
+    private final PrimeSieve sieve;
+    // replaced (never changed) by extendTo()
+    private volatile Mapping mapping;
+
+    private PrimeBitmapStore(File file, PrimeSieve sieve) throws IOException {
+        this.file = file;
+        this.sieve = sieve;
+        raf = new RandomAccessFile(file, "rw");
+        channel = raf.getChannel();
+        try {
+            if (channel.size() == 0) {
+                writeHeader(0, 0);
+            }
+            mapping = readMapping();
+        } catch ( IOException | RuntimeException x ) {
+            raf.close();
+            throw x;
+        }
+    }
+
+    /**
+     * Opens file, creating an empty store (limit 0) if it doesn't exist, and
+     * sieves with sieve when it is extended.
+     * @throws IOException if the file can't be read or written, or isn't a
+     * prime bitmap this version understands.
+     */
+    public static PrimeBitmapStore open(File file, PrimeSieve sieve) throws IOException {
+        if (file == null) {
+            throw new IllegalArgumentException("file must not be null");
+        }
+        if (sieve == null) {
+            throw new IllegalArgumentException("sieve must not be null");
+        }
+        return new PrimeBitmapStore(file, sieve);
+    }
+
+    /** Same as open(file, PrimeTools.getSieve()). */
+    public static PrimeBitmapStore open(File file) throws IOException {
+        return open(file, PrimeTools.getSieve());
+    }
+
+    /**
+     * Opens file (creating it if needed) and makes sure it covers at least
+     * [0, minLimit).
+     */
+    public static PrimeBitmapStore open(File file, long minLimit) throws IOException {
+        PrimeBitmapStore store = open(file);
+        try {
+            store.extendTo(minLimit);
+        } catch ( IOException | RuntimeException x ) {
+            store.close();
+            throw x;
+        }
+        return store;
+    }
+
+    public File getFile() {
+        return file;
+    }
+
+    /** Numbers [0, getLimit()) are covered. */
+    public long getLimit() {
+        return mapping.limit;
+    }
+
+    /**
+     * Makes the store cover at least [0, minLimit) (rounded up to a whole
+     * block), sieving and appending only the part which isn't covered yet.
+     * Does nothing if it already does.
+     */
+    public synchronized void extendTo(long minLimit) throws IOException {
+        Mapping current = mapping;
+        if (minLimit <= current.limit) {
+            return;
+        }
+        if (minLimit > PrimeSieve.MAX_LIMIT - BLOCK_SPAN) {
+            throw new IllegalArgumentException(
+                "minLimit must be below " + (PrimeSieve.MAX_LIMIT - BLOCK_SPAN) +
+                ", got " + minLimit);
+        }
+
+        long newBlockCount = (minLimit + BLOCK_SPAN - 1) / BLOCK_SPAN;
+        long primesBefore = current.blockCount == 0
+            ? 0
+            : current.primesBefore(current.blockCount - 1) +
+              current.primesInBlock(current.blockCount - 1);
+
+        int segmentCount = Math.max(1, 2 * sieve.getPool().getParallelism());
+        long[][] segments = new long[segmentCount][BLOCKS_PER_SEGMENT * BLOCK_WORDS];
+        ByteBuffer records = ByteBuffer
+            .allocate(segmentCount * BLOCKS_PER_SEGMENT * RECORD_BYTES)
+            .order(ByteOrder.LITTLE_ENDIAN);
+
+        long block = current.blockCount;
+        while (block < newBlockCount) {
+            long batchBlocks = Math.min(
+                (long) segmentCount * BLOCKS_PER_SEGMENT, newBlockCount - block);
+            sieve.sieveOdd(2 * block * BLOCK_BITS + 1, batchBlocks * BLOCK_BITS, segments);
+
+            records.clear();
+            for ( int i = 0; i < batchBlocks; i++ ) {
+                long[] segment = segments[i / BLOCKS_PER_SEGMENT];
+                int firstWord = (i % BLOCKS_PER_SEGMENT) * BLOCK_WORDS;
+                records.putLong(primesBefore);
+                for ( int w = 0; w < BLOCK_WORDS; w++ ) {
+                    // the sieve marks composites; store primes
+                    long primeBits = ~segment[firstWord + w];
+                    if (block + i == 0 && w == 0) {
+                        primeBits &= ~1L; // 1 is not prime
+                    }
+                    records.putLong(primeBits);
+                    primesBefore += Long.bitCount(primeBits);
+                }
+            }
+            records.flip();
+            long position = HEADER_BYTES + block * RECORD_BYTES;
+            while (records.hasRemaining()) {
+                position += channel.write(records, position);
+            }
+            block += batchBlocks;
+        }
+
+        // the data must be on disk before the header says it's there
+        channel.force(false);
+        writeHeader(newBlockCount * BLOCK_SPAN, newBlockCount);
+        channel.force(false);
+        mapping = readMapping();
+    }
+
+    /**
+     * Returns true if n is prime.
+     * @throws IllegalArgumentException if n is not in [0, getLimit()).
+     */
+    public boolean isPrime(long n) {
+        Mapping current = mapping;
+        if (n < 0 || n >= current.limit) {
+            throw new IllegalArgumentException(
+                "n must be in [0, " + current.limit + "), got " + n);
+        }
+        if ((n & 1) == 0) {
+            return n == 2;
+        }
+        long bit = n >>> 1;
+        long word = current.word(bit / BLOCK_BITS, (int) (bit % BLOCK_BITS) >>> 6);
+        return (word & (1L << bit)) != 0;
+    }
+
+    /**
+     * Counts the primes in [lo, hi).
+     * @throws IllegalArgumentException if lo or hi is outside [0, getLimit()].
+     */
+    public long countPrimes(long lo, long hi) {
+        Mapping current = mapping;
+        if (lo < 0 || hi > current.limit) {
+            throw new IllegalArgumentException("[" + lo + ", " + hi +
+                ") must be within [0, " + current.limit + ")");
+        }
+        if (hi <= lo) {
+            return 0;
+        }
+        return current.primesBelow(hi) - current.primesBelow(lo);
+    }
+
+    @Override
+    public void close() throws IOException {
+        raf.close();
+    }
+
+    private void writeHeader(long limit, long blockCount) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        header.putInt(MAGIC);
+        header.putInt(VERSION);
+        header.putInt(BLOCK_BITS);
+        header.putInt(0);
+        header.putLong(limit);
+        header.putLong(blockCount);
+        header.clear(); // the whole 64 bytes, padding included
+        long position = 0;
+        while (header.hasRemaining()) {
+            position += channel.write(header, position);
+        }
+    }
+
+    private Mapping readMapping() throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        long position = 0;
+        while (header.hasRemaining()) {
+            int count = channel.read(header, position);
+            if (count < 0) {
+                throw new IOException(file + ": not a prime bitmap (too short)");
+            }
+            position += count;
+        }
+        header.flip();
+        if (header.getInt() != MAGIC) {
+            throw new IOException(file + ": not a prime bitmap (bad magic number)");
+        }
+        int version = header.getInt();
+        if (version != VERSION) {
+            throw new IOException(file + ": unsupported prime bitmap version " +
+                version + " (this code reads version " + VERSION + ")");
+        }
+        int blockBits = header.getInt();
+        if (blockBits != BLOCK_BITS) {
+            throw new IOException(file + ": unsupported block size " + blockBits);
+        }
+        header.getInt();
+        long limit = header.getLong();
+        long blockCount = header.getLong();
+        if (limit != blockCount * BLOCK_SPAN ||
+                channel.size() < HEADER_BYTES + blockCount * RECORD_BYTES) {
+            throw new IOException(file + ": corrupt prime bitmap header");
+        }
+
+        int regionCount = (int) ((blockCount + RECORDS_PER_REGION - 1) / RECORDS_PER_REGION);
+        MappedByteBuffer[] regions = new MappedByteBuffer[regionCount];
+        for ( int i = 0; i < regionCount; i++ ) {
+            long firstRecord = (long) i * RECORDS_PER_REGION;
+            long recordCount = Math.min(RECORDS_PER_REGION, blockCount - firstRecord);
+            regions[i] = channel.map(MapMode.READ_ONLY,
+                HEADER_BYTES + firstRecord * RECORD_BYTES, recordCount * RECORD_BYTES);
+            regions[i].order(ByteOrder.LITTLE_ENDIAN);
+        }
+        return new Mapping(limit, blockCount, regions);
+    }
+
+    /**
+     * The file as mapped at one moment. Only absolute reads are used, so it
+     * can be shared by any number of threads.
+     */
+    private static final class Mapping {
+        public final long limit;
+        public final long blockCount;
+        private final MappedByteBuffer[] regions;
+
+        public Mapping(long limit, long blockCount, MappedByteBuffer[] regions) {
+            this.limit = limit;
+            this.blockCount = blockCount;
+            this.regions = regions;
+        }
+
+        private MappedByteBuffer region(long block) {
+            return regions[(int) (block / RECORDS_PER_REGION)];
+        }
+
+        private static int offset(long block) {
+            return (int) (block % RECORDS_PER_REGION) * RECORD_BYTES;
+        }
+
+        public long primesBefore(long block) {
+            return region(block).getLong(offset(block));
+        }
+
+        public long word(long block, int wordIndex) {
+            return region(block).getLong(offset(block) + 8 + 8 * wordIndex);
+        }
+
+        public long primesInBlock(long block) {
+            return primesInBlock(block, BLOCK_BITS);
+        }
+
+        /** Primes among the first bitCount odd numbers of block. */
+        public long primesInBlock(long block, int bitCount) {
+            long count = 0;
+            int fullWords = bitCount >>> 6;
+            for ( int w = 0; w < fullWords; w++ ) {
+                count += Long.bitCount(word(block, w));
+            }
+            int rest = bitCount & 63;
+            if (rest != 0) {
+                count += Long.bitCount(word(block, fullWords) & ((1L << rest) - 1));
+            }
+            return count;
+        }
+
+        /** Primes in [0, x), for x in [0, limit]. */
+        public long primesBelow(long x) {
+            if (x <= 2) {
+                return 0;
+            }
+            // 2, then the odd numbers 1, 3, ..., below x: bits [0, x / 2)
+            long bitEnd = x >>> 1;
+            long block = bitEnd / BLOCK_BITS;
+            int bitInBlock = (int) (bitEnd % BLOCK_BITS);
+            if (block == blockCount) {
+                // x == limit: everything
+                block--;
+                bitInBlock = BLOCK_BITS;
+            }
+            return 1 + primesBefore(block) + primesInBlock(block, bitInBlock);
+        }
+    } // type Mapping
+}
@@ -0,0 +1,28 @@
+package com.abc.pp.prime;
+
+import java.io.*;
+
+/**
+ * Opens (or creates) the {@link PrimeBitmapStore} file args[0] (default
+ * primes.bin), extends it to args[1] (default 10^9) and counts the primes
+ * below the limit. The first run sieves and writes the file; later runs just
+ * map it, so compare the times of two runs.
+ */
+public class PrimeBitmapStoreDemo {
+    public static void main(String[] args) throws IOException {
+        File file = new File(args.length > 0 ? args[0] : "primes.bin");
+        long limit = args.length > 1 ? Long.parseLong(args[1]) : 1000000000L;
+
+        long nsStart = System.nanoTime();
+        try (PrimeBitmapStore store = PrimeBitmapStore.open(file, limit)) {
+            long nsOpened = System.nanoTime();
+            System.out.printf("Opened %s (limit %,d, %,d bytes) in %.5f seconds%n",
+                file, store.getLimit(), file.length(), (nsOpened - nsStart) / 1e9);
+
+            long primeCount = store.countPrimes(0, limit);
+            long nsCounted = System.nanoTime();
+            System.out.printf("Found %,d prime numbers below %,d in %.6f seconds%n",
+                primeCount, limit, (nsCounted - nsOpened) / 1e9);
+        }
+    }
+}
@@ -1,19 +1,39 @@
 package com.abc.pp.prime;
 
+import java.io.*;
+import java.util.concurrent.*;
+import java.util.function.*;
+
+/**
+ * Finds the primes between start and limit (args[0] and args[1], default 2
+ * and 100) with a {@link ParallelPrimeScanner} on the common pool. The
+ * primes are printed in order through one buffered writer (printing each one
+ * with System.out.println() costs far more than testing it); pass -q as the
+ * last argument to only count them.
+ */
 public class PrimeCheckDemo {
     public static void main(String[] args) {
         long nsStart = System.nanoTime();
 
-        long start = 2;
-        long limit = 100;
+        boolean quiet = args.length > 0 && args[args.length - 1].equals("-q");
+        int numberCount = quiet ? args.length - 1 : args.length;
+        long start = numberCount > 0 ? Long.parseLong(args[0]) : 2;
+        long limit = numberCount > 1 ? Long.parseLong(args[1]) : 100;
         System.out.printf("Checking for prime numbers between %,d and %,d%n", start, limit);
-        long primeCount = 0;
-        for ( long candidate = start; candidate <= limit; candidate++ ) {
-            if (PrimeTools.isPrime(candidate)) {
-                primeCount++;
-                System.out.println(candidate);
+
+        final PrintWriter out = new PrintWriter(
+            new BufferedWriter(new OutputStreamWriter(System.out), 1 << 16), false);
+        LongConsumer printer = quiet ? null : new LongConsumer() {
+            @Override
+            public void accept(long prime) {
+                out.println(prime);
             }
-        }
+        };
+
+        ParallelPrimeScanner scanner =
+            new ParallelPrimeScanner(ForkJoinPool.commonPool());
+        long primeCount = scanner.scan(start, limit, printer);
+        out.flush();
 
         long nsElapsed = System.nanoTime() - nsStart;
         System.out.printf("Found %,d prime numbers between %,d and %,d in %.5f seconds%n",
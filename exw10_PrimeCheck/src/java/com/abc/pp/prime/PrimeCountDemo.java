@@ -0,0 +1,31 @@
+package com.abc.pp.prime;
+
+import java.util.concurrent.*;
+
+/**
+ * Counts the primes below a limit (default 10^9, or args[0]) with the
+ * parallel segmented sieve, once on a single thread and once on the common
+ * ForkJoinPool, and prints how long each took.
+ */
+public class PrimeCountDemo {
+    public static void main(String[] args) {
+        long limit = args.length > 0 ? Long.parseLong(args[0]) : 1000000000L;
+
+        ForkJoinPool singleThreadPool = new ForkJoinPool(1);
+        try {
+            count("1 thread", new PrimeSieve(singleThreadPool, 32 * 1024, 0), limit);
+        } finally {
+            singleThreadPool.shutdown();
+        }
+        count(ForkJoinPool.commonPool().getParallelism() + " thread(s)",
+            PrimeTools.getSieve(), limit);
+    }
+
+    private static void count(String label, PrimeSieve sieve, long limit) {
+        long nsStart = System.nanoTime();
+        long primeCount = sieve.countPrimes(0, limit);
+        long nsElapsed = System.nanoTime() - nsStart;
+        System.out.printf("%-12s found %,d prime numbers below %,d in %.5f seconds%n",
+            label, primeCount, limit, nsElapsed / 1e9);
+    }
+}
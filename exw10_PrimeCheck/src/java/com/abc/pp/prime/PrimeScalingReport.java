@@ -0,0 +1,48 @@
+package com.abc.pp.prime;
+
+import java.util.concurrent.*;
+
+/**
+ * Runs the same {@link ParallelPrimeScanner} count (start and limit from
+ * args[0] and args[1], default 2 and 10^8) on pools of 1, 2, ..., N threads
+ * (N from args[2], default the number of CPUs) and prints the time, the
+ * speedup over 1 thread and the parallel efficiency (speedup / threads).
+ * Each pool gets one untimed warmup run over the first tenth of the range.
+ */
+public class PrimeScalingReport {
+    public static void main(String[] args) {
+        long start = args.length > 0 ? Long.parseLong(args[0]) : 2;
+        long limit = args.length > 1 ? Long.parseLong(args[1]) : 100000000L;
+        int maxThreadCount = args.length > 2
+            ? Integer.parseInt(args[2])
+            : Runtime.getRuntime().availableProcessors();
+
+        System.out.printf("Counting primes between %,d and %,d on 1..%d thread(s), %d CPU(s)%n",
+            start, limit, maxThreadCount, Runtime.getRuntime().availableProcessors());
+        System.out.printf("%7s  %12s  %12s  %8s  %10s%n",
+            "threads", "primes", "seconds", "speedup", "efficiency");
+
+        double secondsForOneThread = 0.0;
+        for ( int threadCount = 1; threadCount <= maxThreadCount; threadCount++ ) {
+            ForkJoinPool pool = new ForkJoinPool(threadCount);
+            try {
+                ParallelPrimeScanner scanner = new ParallelPrimeScanner(pool);
+                scanner.countPrimes(start, start + (limit - start) / 10);
+
+                long nsStart = System.nanoTime();
+                long primeCount = scanner.countPrimes(start, limit);
+                double seconds = (System.nanoTime() - nsStart) / 1e9;
+
+                if (threadCount == 1) {
+                    secondsForOneThread = seconds;
+                }
+                double speedup = secondsForOneThread / seconds;
+                System.out.printf("%7d  %,12d  %12.5f  %8.2f  %9.0f%%%n",
+                    threadCount, primeCount, seconds, speedup,
+                    100.0 * speedup / threadCount);
+            } finally {
+                pool.shutdown();
+            }
+        }
+    }
+}
@@ -0,0 +1,467 @@
+package com.abc.pp.prime;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.function.*;
+
+/**
+ * A segmented Sieve of Eratosthenes which sieves the segments in parallel on
+ * a {@link ForkJoinPool}.
+ * <p>
+ * Only odd numbers are stored (2 is handled separately), one bit each in a
+ * long[] bitmap: a set bit means composite. A segment holds segmentBytes
+ * worth of bits (32KB by default, so it fits in a core's L1/L2 cache while
+ * every base prime strikes out its multiples in it). Each segment is sieved
+ * with the odd primes up to the square root of the top of the range, which
+ * are found once with a plain sieve and kept for later calls.
+ * <p>
+ * Ranges are half-open: [lo, hi) includes lo and excludes hi. hi can be at
+ * most {@link #MAX_LIMIT}.
+ * <p>
+ * {@link #isPrime(long)} answers from a precomputed bitmap for n below the
+ * table limit (built the first time it is needed), and by trial division by
+ * the base primes up to sqrt(n) above that.
+ * <p>
+ * Instances are thread safe.
+ */
+public class PrimeSieve {
+    /**
+     * The largest hi accepted (2^50). Its square root is 2^25, so there are
+     * never more than about 2 million base primes to keep.
+     */
+    public static final long MAX_LIMIT = 1L << 50;
+
+    private static final int DEFAULT_SEGMENT_BYTES = 32 * 1024;
+    private static final long DEFAULT_TABLE_LIMIT = 1L << 24;
+    // a task sieves this many segments itself instead of splitting further
+    private static final int SEGMENTS_PER_TASK = 4;
+
+    private final ForkJoinPool pool;
+    // odd numbers per segment, a multiple of 64
+    private final int segmentBits;
+    private final long tableLimit;
+
+    // replaced (never changed) when a larger limit is needed
+    private volatile BasePrimes basePrimes;
+    // odd-only bitmap of [0, tableLimit), set = composite; null until needed
+    private volatile long[] table;
+
+    /**
+     * @param pool the pool the segments are sieved on.
+     * @param segmentBytes size of a segment's bitmap; rounded down to a
+     * multiple of 8 (8 bytes up to 64MB).
+     * @param tableLimit isPrime(n) looks n up in a bitmap if n is below this
+     * (at most 2^31, which takes 128MB).
+     */
+    public PrimeSieve(ForkJoinPool pool, int segmentBytes, long tableLimit) {
+        if (pool == null) {
+            throw new IllegalArgumentException("pool must not be null");
+        }
+        if (segmentBytes < 8 || segmentBytes > 1 << 26) {
+            throw new IllegalArgumentException(
+                "segmentBytes must be in 8..2^26, got " + segmentBytes);
+        }
+        if (tableLimit < 0 || tableLimit > 1L << 31) {
+            throw new IllegalArgumentException(
+                "tableLimit must be in 0..2^31, got " + tableLimit);
+        }
+        this.pool = pool;
+        this.segmentBits = (segmentBytes / 8) * 64;
+        this.tableLimit = tableLimit;
+        basePrimes = BasePrimes.upTo(0);
+    }
+
+    /**
+     * Uses the common pool, 32KB segments, and a lookup table for numbers
+     * below 2^24 (1MB).
+     */
+    public PrimeSieve() {
+        this(ForkJoinPool.commonPool(), DEFAULT_SEGMENT_BYTES, DEFAULT_TABLE_LIMIT);
+    }
+
+    public ForkJoinPool getPool() {
+        return pool;
+    }
+
+    public long getTableLimit() {
+        return tableLimit;
+    }
+
+    /**
+     * Returns true if n is prime.
+     * @throws IllegalArgumentException if n is not below {@link #MAX_LIMIT}.
+     */
+    public boolean isPrime(long n) {
+        if (n < 2) {
+            return false;
+        }
+        if (n < 4) {
+            return true;
+        }
+        if ((n & 1) == 0) {
+            return false;
+        }
+        if (n < tableLimit) {
+            long[] bits = getTable();
+            long index = n >>> 1;
+            return (bits[(int) (index >>> 6)] & (1L << index)) == 0;
+        }
+        checkLimit(n);
+
+        for ( int p : getBasePrimes(sqrtFloor(n)) ) {
+            if ((long) p * p > n) {
+                break;
+            }
+            if (n % p == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Counts the primes in [lo, hi).
+     */
+    public long countPrimes(long lo, long hi) {
+        checkRange(lo, hi);
+        long count = lo <= 2 && hi > 2 ? 1 : 0;
+
+        Range range = new Range(lo, hi);
+        if (range.segmentCount == 0) {
+            return count;
+        }
+        return count + pool.invoke(
+            new CountTask(range, getBasePrimes(sqrtFloor(hi - 1)), 0, range.segmentCount));
+    }
+
+    /**
+     * Passes every prime in [lo, hi) to action, in increasing order, on the
+     * calling thread. The segments are sieved in parallel a few at a time
+     * (about two per thread in the pool) and handed over in order as they
+     * are done.
+     */
+    public void primesInRange(long lo, long hi, LongConsumer action) {
+        checkRange(lo, hi);
+        if (action == null) {
+            throw new IllegalArgumentException("action must not be null");
+        }
+        if (lo <= 2 && hi > 2) {
+            action.accept(2);
+        }
+
+        Range range = new Range(lo, hi);
+        if (range.segmentCount == 0) {
+            return;
+        }
+        int[] primes = getBasePrimes(sqrtFloor(hi - 1));
+        int windowSize = (int) Math.min(range.segmentCount,
+            Math.max(1, 2 * pool.getParallelism()));
+        long[][] window = new long[windowSize][segmentBits / 64];
+
+        for ( long first = 0; first < range.segmentCount; first += windowSize ) {
+            int count = (int) Math.min(windowSize, range.segmentCount - first);
+            pool.invoke(new WindowTask(range, primes, first, count, window));
+            for ( int i = 0; i < count; i++ ) {
+                long segment = first + i;
+                forEachClearBit(window[i], range.bitCount(segment),
+                    range.oddStart(segment), action);
+            }
+        }
+    }
+
+    /**
+     * Sieves the bitCount odd numbers starting at the odd number oddStart
+     * into segments, in parallel: segment i gets the next
+     * segments[i].length * 64 of them (the last one used may be partly
+     * filled). Afterwards a set bit means composite; the number 1 is left
+     * clear. Used by {@link PrimeBitmapStore} to build its bitmap.
+     */
+    void sieveOdd(final long oddStart, final long bitCount, final long[][] segments) {
+        checkRange(0, oddStart + 2 * bitCount);
+        final int[] primes = getBasePrimes(sqrtFloor(oddStart + 2 * bitCount));
+        pool.invoke(new RecursiveAction() {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected void compute() {
+                List<RecursiveAction> tasks = new ArrayList<>(segments.length);
+                long bitOffset = 0;
+                for ( final long[] bits : segments ) {
+                    final long segmentStart = oddStart + 2 * bitOffset;
+                    final int segmentBitCount =
+                        (int) Math.min(bits.length * 64L, bitCount - bitOffset);
+                    if (segmentBitCount <= 0) {
+                        break;
+                    }
+                    tasks.add(new RecursiveAction() {
+                        private static final long serialVersionUID = 1L;
+
+                        @Override
+                        protected void compute() {
+                            Arrays.fill(bits, 0L);
+                            sieveSegment(bits, segmentStart, segmentBitCount, primes);
+                        }
+                    });
+                    bitOffset += bits.length * 64L;
+                }
+                invokeAll(tasks);
+            }
+        });
+    }
+
+    private static void checkLimit(long n) {
+        if (n >= MAX_LIMIT) {
+            throw new IllegalArgumentException(
+                "must be below " + MAX_LIMIT + ", got " + n);
+        }
+    }
+
+    private static void checkRange(long lo, long hi) {
+        if (lo < 0) {
+            throw new IllegalArgumentException("lo must not be negative, got " + lo);
+        }
+        if (hi > MAX_LIMIT) {
+            throw new IllegalArgumentException(
+                "hi must be at most " + MAX_LIMIT + ", got " + hi);
+        }
+    }
+
+    /** Largest r with r * r <= n (n >= 0). */
+    static long sqrtFloor(long n) {
+        long r = (long) Math.sqrt((double) n);
+        while (r * r > n) {
+            r--;
+        }
+        while ((r + 1) * (r + 1) <= n) {
+            r++;
+        }
+        return r;
+    }
+
+    /** The odd primes up to at least limit, in increasing order. */
+    private int[] getBasePrimes(long limit) {
+        BasePrimes current = basePrimes;
+        if (current.limit >= limit) {
+            return current.primes;
+        }
+        synchronized ( this ) {
+            current = basePrimes;
+            if (current.limit < limit) {
+                // grow generously, later calls tend to go higher
+                current = BasePrimes.upTo(Math.max(limit, 2 * current.limit));
+                basePrimes = current;
+            }
+            return current.primes;
+        }
+    }
+
+    private long[] getTable() {
+        long[] bits = table;
+        if (bits != null) {
+            return bits;
+        }
+        synchronized ( this ) {
+            if (table == null) {
+                int bitCount = (int) ((tableLimit + 1) >>> 1);
+                bits = new long[(bitCount + 63) >>> 6];
+                // bit i is the number 2i + 1, so bit 0 (the number 1) is
+                // not prime
+                sieveSegment(bits, 1, bitCount, getBasePrimes(sqrtFloor(tableLimit)));
+                bits[0] |= 1L;
+                table = bits;
+            }
+            return table;
+        }
+    }
+
+    /**
+     * Sets the bit of every odd composite in the bitCount odd numbers
+     * starting at oddStart (bit i is oddStart + 2i). bits must be clear.
+     */
+    private static void sieveSegment(long[] bits, long oddStart, int bitCount, int[] primes) {
+        long end = oddStart + 2L * bitCount;
+        for ( int p : primes ) {
+            long start = (long) p * p;
+            if (start >= end) {
+                break;
+            }
+            if (start < oddStart) {
+                // first odd multiple of p at or above oddStart
+                start = (oddStart + p - 1) / p * p;
+                if ((start & 1) == 0) {
+                    start += p;
+                }
+            }
+            // odd multiples are 2p apart, which is p bits
+            for ( int i = (int) ((start - oddStart) >>> 1); i < bitCount; i += p ) {
+                bits[i >>> 6] |= 1L << i;
+            }
+        }
+    }
+
+    private static long countClearBits(long[] bits, int bitCount) {
+        int fullWords = bitCount >>> 6;
+        long count = 0;
+        for ( int i = 0; i < fullWords; i++ ) {
+            count += 64 - Long.bitCount(bits[i]);
+        }
+        int rest = bitCount & 63;
+        if (rest != 0) {
+            count += rest - Long.bitCount(bits[fullWords] & ((1L << rest) - 1));
+        }
+        return count;
+    }
+
+    private static void forEachClearBit(long[] bits,
+                                        int bitCount,
+                                        long oddStart,
+                                        LongConsumer action) {
+
+        int wordCount = (bitCount + 63) >>> 6;
+        for ( int w = 0; w < wordCount; w++ ) {
+            long clear = ~bits[w];
+            if (w == wordCount - 1 && (bitCount & 63) != 0) {
+                clear &= (1L << (bitCount & 63)) - 1;
+            }
+            while (clear != 0) {
+                int bit = Long.numberOfTrailingZeros(clear);
+                action.accept(oddStart + 2L * ((w << 6) + bit));
+                clear &= clear - 1;
+            }
+        }
+    }
+
+    /**
+     * The odd numbers of [lo, hi) from 3 up (2 is handled by the callers)
+     * cut into segments of segmentBits numbers; the last one may be shorter.
+     */
+    private final class Range {
+        public final long firstOdd;
+        public final long oddCount;
+        public final long segmentCount;
+
+        public Range(long lo, long hi) {
+            firstOdd = Math.max(3, lo | 1);
+            oddCount = hi > firstOdd ? (hi - firstOdd + 1) >>> 1 : 0;
+            segmentCount = (oddCount + segmentBits - 1) / segmentBits;
+        }
+
+        public long oddStart(long segment) {
+            return firstOdd + 2 * segment * segmentBits;
+        }
+
+        public int bitCount(long segment) {
+            return (int) Math.min(segmentBits, oddCount - segment * segmentBits);
+        }
+    } // type Range
+
+    /** Counts the primes in segments [fromSegment, toSegment) of range. */
+    private final class CountTask extends RecursiveTask<Long> {
+        private static final long serialVersionUID = 1L;
+
+        private final Range range;
+        private final int[] primes;
+        private final long fromSegment;
+        private final long toSegment;
+
+        public CountTask(Range range, int[] primes, long fromSegment, long toSegment) {
+            this.range = range;
+            this.primes = primes;
+            this.fromSegment = fromSegment;
+            this.toSegment = toSegment;
+        }
+
+        @Override
+        protected Long compute() {
+            if (toSegment - fromSegment <= SEGMENTS_PER_TASK) {
+                long[] bits = new long[segmentBits / 64];
+                long count = 0;
+                for ( long segment = fromSegment; segment < toSegment; segment++ ) {
+                    Arrays.fill(bits, 0L);
+                    int bitCount = range.bitCount(segment);
+                    sieveSegment(bits, range.oddStart(segment), bitCount, primes);
+                    count += countClearBits(bits, bitCount);
+                }
+                return count;
+            }
+
+            long middle = (fromSegment + toSegment) >>> 1;
+            CountTask left = new CountTask(range, primes, fromSegment, middle);
+            left.fork();
+            long rightCount = new CountTask(range, primes, middle, toSegment).compute();
+            return left.join() + rightCount;
+        }
+    } // type CountTask
+
+    /**
+     * Sieves count segments of range, starting at firstSegment, into
+     * window[0..count) - one task per segment.
+     */
+    private final class WindowTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final Range range;
+        private final int[] primes;
+        private final long firstSegment;
+        private final int count;
+        private final long[][] window;
+
+        public WindowTask(Range range, int[] primes, long firstSegment, int count, long[][] window) {
+            this.range = range;
+            this.primes = primes;
+            this.firstSegment = firstSegment;
+            this.count = count;
+            this.window = window;
+        }
+
+        @Override
+        protected void compute() {
+            List<RecursiveAction> tasks = new ArrayList<>(count);
+            for ( int i = 0; i < count; i++ ) {
+                final long[] bits = window[i];
+                final long segment = firstSegment + i;
+                tasks.add(new RecursiveAction() {
+                    private static final long serialVersionUID = 1L;
+
+                    @Override
+                    protected void compute() {
+                        Arrays.fill(bits, 0L);
+                        sieveSegment(bits, range.oddStart(segment),
+                            range.bitCount(segment), primes);
+                    }
+                });
+            }
+            invokeAll(tasks);
+        }
+    } // type WindowTask
+
+    /** The odd primes up to limit, found with a plain (unsegmented) sieve. */
+    private static final class BasePrimes {
+        public final long limit;
+        public final int[] primes;
+
+        private BasePrimes(long limit, int[] primes) {
+            this.limit = limit;
+            this.primes = primes;
+        }
+
+        public static BasePrimes upTo(long limit) {
+            // composite[i] is for the odd number 2i + 1
+            int n = (int) limit;
+            BitSet composite = new BitSet((n >>> 1) + 1);
+            int[] primes = new int[16];
+            int count = 0;
+            for ( int i = 1; 2 * i + 1 <= n; i = composite.nextClearBit(i + 1) ) {
+                int p = 2 * i + 1;
+                if (count == primes.length) {
+                    primes = Arrays.copyOf(primes, 2 * count);
+                }
+                primes[count++] = p;
+                for ( long j = ((long) p * p) >>> 1; j <= n >>> 1; j += p ) {
+                    composite.set((int) j);
+                }
+            }
+            return new BasePrimes(limit, Arrays.copyOf(primes, count));
+        }
+    } // type BasePrimes
+}
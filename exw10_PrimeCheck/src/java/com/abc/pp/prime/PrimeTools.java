@@ -1,16 +1,244 @@
 package com.abc.pp.prime;
 
+import java.util.function.*;
+
 public class PrimeTools {
+    // odd primes used to weed out most composites before Miller-Rabin
+    private static final int[] SMALL_PRIMES = new int[] {
+        3, 5, 7, 11, 13, 17, 19, 23, 29, 31, 37, 41, 43, 47, 53, 59, 61, 67,
+        71, 73, 79, 83, 89, 97
+    };
+    // no factor among SMALL_PRIMES and below this means prime (101 * 101)
+    private static final long SMALL_PRIMES_SUFFICE_BELOW = 101L * 101L;
+
+    // bases which make Miller-Rabin exact for every n below 2^32 ...
+    private static final long[] BASES_32 = new long[] { 2, 7, 61 };
+    // ... and for every n below 2^64 (Jim Sinclair's set)
+    private static final long[] BASES_64 = new long[] {
+        2, 325, 9375, 28178, 450775, 9780504, 1795265022
+    };
+
     // no instances
     private PrimeTools() {
     }
 
+    /**
+     * Returns true if n is prime; exact for every long (negative numbers,
+     * 0 and 1 are not prime).
+     * <p>
+     * Numbers below the sieve's table limit are looked up in its bitmap.
+     * Anything else is first trial divided by the primes below 100 (which
+     * settles almost all composites, and every n below 101^2) and then
+     * checked with a deterministic Miller-Rabin test: with the fixed set of
+     * witness bases used, no composite below 2^64 passes. That takes a few
+     * hundred multiplications at most, instead of the up to 2^31.5 divisions
+     * of {@link #isPrimeByTrialDivision(long)}.
+     */
     public static boolean isPrime(long n) {
-        for ( int divisor = 2; divisor < n; divisor++ ) {
+        if (n < getSieve().getTableLimit()) {
+            return getSieve().isPrime(n);
+        }
+        if ((n & 1) == 0) {
+            return false;
+        }
+        for ( int p : SMALL_PRIMES ) {
+            if (n % p == 0) {
+                return n == p;
+            }
+        }
+        if (n < SMALL_PRIMES_SUFFICE_BELOW) {
+            return true;
+        }
+        return n < (1L << 32) ? isStrongProbablePrime32(n) : isStrongProbablePrime64(n);
+    }
+
+    /**
+     * Returns true if n is prime, by trying every odd divisor up to sqrt(n).
+     * Simple, but too slow for big primes (about 1.5 billion divisions for
+     * a prime near 2^63); {@link #isPrime(long)} is the fast one.
+     */
+    public static boolean isPrimeByTrialDivision(long n) {
+        if (n < 2) {
+            return false;
+        }
+        if ((n & 1) == 0) {
+            return n == 2;
+        }
+        long sqrtN = PrimeSieve.sqrtFloor(n);
+        for ( long divisor = 3; divisor <= sqrtN; divisor += 2 ) {
             if (n % divisor == 0) {
                 return false;
             }
         }
         return true;
     }
+
+    /**
+     * Counts the primes in [lo, hi) with the parallel segmented sieve.
+     * @see PrimeSieve#countPrimes(long, long)
+     */
+    public static long countPrimes(long lo, long hi) {
+        return getSieve().countPrimes(lo, hi);
+    }
+
+    /**
+     * Passes every prime in [lo, hi) to action, in increasing order.
+     * @see PrimeSieve#primesInRange(long, long, LongConsumer)
+     */
+    public static void primesInRange(long lo, long hi, LongConsumer action) {
+        getSieve().primesInRange(lo, hi, action);
+    }
+
+    /** The shared sieve (on the common ForkJoinPool). */
+    public static PrimeSieve getSieve() {
+        return SieveHolder.SIEVE;
+    }
+
+    /**
+     * Miller-Rabin for odd n below 2^32 (and above the largest base). Every
+     * product of two residues fits in 64 unsigned bits, so plain
+     * multiplication and an unsigned remainder are enough.
+     */
+    private static boolean isStrongProbablePrime32(long n) {
+        long nMinusOne = n - 1;
+        int shift = Long.numberOfTrailingZeros(nMinusOne);
+        long oddPart = nMinusOne >>> shift;
+
+        nextBase:
+        for ( long base : BASES_32 ) {
+            long x = 1;
+            long power = base;
+            for ( long e = oddPart; e != 0; e >>>= 1 ) {
+                if ((e & 1) != 0) {
+                    x = Long.remainderUnsigned(x * power, n);
+                }
+                power = Long.remainderUnsigned(power * power, n);
+            }
+            if (x == 1 || x == nMinusOne) {
+                continue;
+            }
+            for ( int i = 1; i < shift; i++ ) {
+                x = Long.remainderUnsigned(x * x, n);
+                if (x == nMinusOne) {
+                    continue nextBase;
+                }
+            }
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Miller-Rabin for odd n of 2^32 and up, in Montgomery form so no 128-bit
+     * division is ever needed (see {@link Montgomery}).
+     */
+    private static boolean isStrongProbablePrime64(long n) {
+        Montgomery mont = new Montgomery(n);
+        long nMinusOne = n - 1;
+        int shift = Long.numberOfTrailingZeros(nMinusOne);
+        long oddPart = nMinusOne >>> shift;
+
+        nextBase:
+        for ( long base : BASES_64 ) {
+            long a = base % n;
+            if (a == 0) {
+                continue;
+            }
+            long x = mont.pow(mont.toMontgomery(a), oddPart);
+            if (x == mont.one || x == mont.minusOne) {
+                continue;
+            }
+            for ( int i = 1; i < shift; i++ ) {
+                x = mont.multiply(x, x);
+                if (x == mont.minusOne) {
+                    continue nextBase;
+                }
+            }
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Arithmetic modulo an odd n (below 2^63) in Montgomery form: x is kept
+     * as x * 2^64 mod n. A product is then reduced by multiplying and
+     * shifting (REDC) instead of dividing a 128-bit number by n, which Java
+     * can't do directly. The high halves of the 128-bit products come from
+     * {@link Math#multiplyHigh(long, long)}, so nothing overflows.
+     */
+    private static final class Montgomery {
+        public final long n;
+        // -1/n mod 2^64
+        private final long negInverse;
+        // 2^128 mod n, to convert into Montgomery form
+        private final long r2;
+        // 1 and n - 1 in Montgomery form
+        public final long one;
+        public final long minusOne;
+
+        public Montgomery(long n) {
+            this.n = n;
+
+            // Newton's iteration: each step doubles the number of correct
+            // low bits, and n is its own inverse mod 8 (3 bits) to start
+            long inverse = n;
+            for ( int i = 0; i < 5; i++ ) {
+                inverse *= 2 - n * inverse;
+            }
+            negInverse = -inverse;
+
+            // 2^64 mod n, then doubled 64 more times: 2^128 mod n
+            long r = Long.remainderUnsigned(-1L, n) + 1;
+            if (r == n) {
+                r = 0;
+            }
+            one = r;
+            minusOne = n - r;
+            for ( int i = 0; i < 64; i++ ) {
+                r <<= 1;
+                if (Long.compareUnsigned(r, n) >= 0) {
+                    r -= n;
+                }
+            }
+            r2 = r;
+        }
+
+        public long toMontgomery(long a) {
+            return multiply(a, r2);
+        }
+
+        /** a * b / 2^64 mod n, for a and b in [0, n). */
+        public long multiply(long a, long b) {
+            // a, b < 2^63, so the signed high half is the unsigned one
+            return reduce(Math.multiplyHigh(a, b), a * b);
+        }
+
+        public long pow(long base, long exponent) {
+            long result = one;
+            for ( long e = exponent; e != 0; e >>>= 1 ) {
+                if ((e & 1) != 0) {
+                    result = multiply(result, base);
+                }
+                base = multiply(base, base);
+            }
+            return result;
+        }
+
+        /** (high * 2^64 + low) / 2^64 mod n, for high * 2^64 + low < n * 2^64. */
+        private long reduce(long high, long low) {
+            // pick u so low + u * n is divisible by 2^64, then divide
+            long u = low * negInverse;
+            // unsigned high half of u * n (n is positive, u may not be)
+            long uTimesNHigh = Math.multiplyHigh(u, n) + ((u >> 63) & n);
+            // the low halves add up to exactly 0 or 2^64
+            long carry = low != 0 ? 1 : 0;
+            long t = high + uTimesNHigh + carry;
+            return Long.compareUnsigned(t, n) >= 0 ? t - n : t;
+        }
+    } // type Montgomery
+
+    // created the first time getSieve() is called
+    private static class SieveHolder {
+        public static final PrimeSieve SIEVE = new PrimeSieve();
+    } // type SieveHolder
 }
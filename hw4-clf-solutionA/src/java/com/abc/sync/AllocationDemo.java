@@ -0,0 +1,173 @@
+package com.abc.sync;
+
+import java.lang.management.*;
+import java.util.function.*;
+
+import com.abc.sync.LongFifo.RemoveResult;
+
+/**
+ * Compares how many bytes are allocated per removed value by
+ * {@link LongFifo#remove()} (which creates a {@link RemoveResult} for every
+ * value) versus the allocation-free {@link LongFifo#poll(long)},
+ * {@link LongFifo#pollInto(long[])} and {@link LongFifo#drain(LongConsumer, int)}
+ * - the same number JMH reports as <tt>gc.alloc.rate.norm</tt>.
+ * <p>
+ * The bytes are counted with the HotSpot-specific
+ * <tt>com.sun.management.ThreadMXBean.getThreadAllocatedBytes()</tt>. Note
+ * that once the JIT inlines remove(), escape analysis can sometimes remove
+ * the RemoveResult allocation on its own; run with
+ * <tt>-XX:-DoEscapeAnalysis</tt> to see the worst case.
+ * <p>
+ * Optional args: valueCount batchSize
+ */
+public class AllocationDemo {
+    private static final int ROUND_COUNT = 5;
+
+    private static abstract class RemovePath {
+        private final String name;
+
+        protected RemovePath(String name) {
+            this.name = name;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        /** Removes exactly count values (they are known to be there). */
+        public abstract long removeValues(LongFifo fifo, int count);
+    } // type RemovePath
+
+    private static final RemovePath REMOVE_RESULT = new RemovePath("remove() / RemoveResult") {
+        @Override
+        public long removeValues(LongFifo fifo, int count) {
+            long sum = 0;
+            for ( int i = 0; i < count; i++ ) {
+                RemoveResult result = fifo.remove();
+                if (result.isValid()) {
+                    sum += result.getValue();
+                }
+            }
+            return sum;
+        }
+    };
+
+    private static final RemovePath POLL = new RemovePath("poll(-1)") {
+        @Override
+        public long removeValues(LongFifo fifo, int count) {
+            long sum = 0;
+            for ( int i = 0; i < count; i++ ) {
+                sum += fifo.poll(-1L);
+            }
+            return sum;
+        }
+    };
+
+    private static RemovePath createPollIntoPath(int batchSize) {
+        final long[] buffer = new long[batchSize];
+        return new RemovePath("pollInto(long[])") {
+            @Override
+            public long removeValues(LongFifo fifo, int count) {
+                long sum = 0;
+                int removedCount = 0;
+                while (removedCount < count) {
+                    int n = fifo.pollInto(buffer);
+                    for ( int i = 0; i < n; i++ ) {
+                        sum += buffer[i];
+                    }
+                    removedCount += n;
+                }
+                return sum;
+            }
+        };
+    }
+
+    private static RemovePath createDrainPath() {
+        final long[] sum = new long[1];
+        final LongConsumer sink = new LongConsumer() {
+            @Override
+            public void accept(long value) {
+                sum[0] += value;
+            }
+        };
+        return new RemovePath("drain(LongConsumer, max)") {
+            @Override
+            public long removeValues(LongFifo fifo, int count) {
+                sum[0] = 0;
+                int removedCount = 0;
+                while (removedCount < count) {
+                    removedCount += fifo.drain(sink, count - removedCount);
+                }
+                return sum[0];
+            }
+        };
+    }
+
+    private static long runRound(LongFifo fifo,
+                                 RemovePath removePath,
+                                 int valueCount,
+                                 int batchSize) {
+        long checksum = 0;
+        for ( int done = 0; done < valueCount; done += batchSize ) {
+            for ( int i = 0; i < batchSize; i++ ) {
+                fifo.add(done + i);
+            }
+            checksum += removePath.removeValues(fifo, batchSize);
+        }
+        return checksum;
+    }
+
+    private static void measure(LongFifo fifo,
+                                RemovePath removePath,
+                                int valueCount,
+                                int batchSize,
+                                com.sun.management.ThreadMXBean threadBean) {
+
+        long threadId = Thread.currentThread().getId();
+        long checksum = 0;
+        // the early rounds are warmup for the JIT - report the last one
+        long bytesAllocated = 0;
+        for ( int round = 0; round < ROUND_COUNT; round++ ) {
+            long startBytes = threadBean.getThreadAllocatedBytes(threadId);
+            checksum += runRound(fifo, removePath, valueCount, batchSize);
+            bytesAllocated = threadBean.getThreadAllocatedBytes(threadId) - startBytes;
+        }
+        System.out.printf("%-22s %-26s %8.2f bytes/value  (checksum %d)%n",
+            fifo.getClass().getSimpleName(), removePath.getName(),
+            (double) bytesAllocated / valueCount, checksum);
+    }
+
+    private static int intArg(String[] args, int index, int defaultValue) {
+        return args.length > index ? Integer.parseInt(args[index]) : defaultValue;
+    }
+
+    public static void main(String[] args) {
+        int valueCount = intArg(args, 0, 2000000);
+        int batchSize = intArg(args, 1, 64);
+        valueCount -= valueCount % batchSize;
+
+        ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (!(bean instanceof com.sun.management.ThreadMXBean)) {
+            System.out.println("per-thread allocation counts are not available on this JVM");
+            return;
+        }
+        com.sun.management.ThreadMXBean threadBean =
+            (com.sun.management.ThreadMXBean) bean;
+
+        RemovePath[] removePaths = new RemovePath[] {
+            REMOVE_RESULT, POLL, createPollIntoPath(batchSize), createDrainPath()
+        };
+        LongFifo[] fifos = new LongFifo[] {
+            new CircularArrayLongFifo(batchSize),
+            new MpmcRingLongFifo(batchSize)
+        };
+
+        System.out.printf("%,d values per round, batches of %d%n",
+            valueCount, batchSize);
+        for ( LongFifo fifo : fifos ) {
+            for ( RemovePath removePath : removePaths ) {
+                measure(fifo, removePath, valueCount, batchSize, threadBean);
+            }
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package com.abc.sync;
 
+import java.util.function.*;
 
 /**
  * Implementation of {@link LongFifo} which uses a circular array internally.
@@ -113,6 +114,47 @@ public class CircularArrayLongFifo implements LongFifo {
         }
     }
 
+    @Override
+    public long poll(long valueIfEmpty) {
+        synchronized ( lockObject ) {
+            if (count == 0) {
+                return valueIfEmpty;
+            }
+            long item = slots[head];
+            head = (head + 1) % slots.length;
+            count--;
+            return item;
+        }
+    }
+
+    @Override
+    public int pollInto(long[] dst) {
+        synchronized ( lockObject ) {
+            int removeCount = Math.min(count, dst.length);
+            int firstLength = Math.min(removeCount, slots.length - head);
+            System.arraycopy(slots, head, dst, 0, firstLength);
+            System.arraycopy(slots, 0, dst, firstLength, removeCount - firstLength);
+            head = (head + removeCount) % slots.length;
+            count -= removeCount;
+            return removeCount;
+        }
+    }
+
+    @Override
+    public int drain(LongConsumer sink, int max) {
+        synchronized ( lockObject ) {
+            int removeCount = 0;
+            while (removeCount < max && count > 0) {
+                long item = slots[head];
+                head = (head + 1) % slots.length;
+                count--;
+                removeCount++;
+                sink.accept(item);
+            }
+            return removeCount;
+        }
+    }
+
     // this method is correct as written - do not change
     @Override
     public Object getLockObject() {
@@ -1,5 +1,7 @@
 package com.abc.sync;
 
+import java.util.function.*;
+
 public interface LongFifo {
     /** Returns the number if items currently in the FIFO. */
     int getCount();
@@ -33,6 +35,31 @@ public interface LongFifo {
      */
     RemoveResult remove();
 
+    /**
+     * Removes and returns the next value if there is one, without allocating.
+     * If currently empty, valueIfEmpty is returned instead (non-blocking).
+     * Only use this when valueIfEmpty can never be a real value in this FIFO
+     * (for example, -1 for a FIFO of sequence numbers); otherwise use
+     * {@link #pollInto(long[])} or {@link #remove()}.
+     */
+    long poll(long valueIfEmpty);
+
+    /**
+     * Removes as many values as are available right now (but no more than
+     * dst.length) into dst starting at index 0, without allocating.
+     * Returns the number of values removed; 0 if empty (non-blocking).
+     */
+    int pollInto(long[] dst);
+
+    /**
+     * Removes as many values as are available right now (but no more than
+     * max), passing each one in order to sink, without allocating.
+     * Returns the number of values removed; 0 if empty (non-blocking).
+     * Implementations may call sink while holding a lock, so sink should be
+     * quick. If sink throws, the values already passed to it stay removed.
+     */
+    int drain(LongConsumer sink, int max);
+
     /**
      * Returns a reference to use for synchronized blocks which need to
      * call multiple methods without other threads being able to get in.
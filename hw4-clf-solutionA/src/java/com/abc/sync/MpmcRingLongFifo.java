@@ -0,0 +1,342 @@
+package com.abc.sync;
+
+import java.util.concurrent.atomic.*;
+import java.util.function.*;
+
+/**
+ * Lock-free implementation of {@link LongFifo} for any number of producer
+ * and consumer threads (Multiple Producer, Multiple Consumer).
+ * <p>
+ * Look at the documentation in LongFifo to see how the methods are supposed to
+ * work.
+ * <p>
+ * The values are stored in a plain <tt>long[]</tt> (no boxing). tail is the
+ * sequence of the next add and head is the sequence of the next remove; both
+ * only ever increase and the slot for a sequence is
+ * <tt>sequence % capacity</tt>. Every slot also carries a stamp which says
+ * what the slot is waiting for (this is Dmitry Vyukov's bounded MPMC queue):
+ * <ul>
+ * <li>stamp == 2s: empty and ready for the add with sequence s</li>
+ * <li>stamp == 2s + 1: holds the value added with sequence s, ready for the
+ * remove with sequence s</li>
+ * </ul>
+ * A producer claims sequences by CAS'ing tail forward, stores the values and
+ * then publishes each one by setting its stamp to 2s + 1. A consumer claims
+ * sequences by CAS'ing head forward, reads the values and hands each slot
+ * back by setting its stamp to 2(s + capacity). Producers only contend with
+ * producers (on tail) and consumers only with consumers (on head).
+ * <p>
+ * {@link #addBatch(long[], int, int)} and {@link #removeBatch(long[], int, int)}
+ * claim a whole run of sequences with a single CAS, so a batch of N costs
+ * one contended atomic operation instead of N.
+ * <p>
+ * Because adds and removes are claimed and then completed in two steps,
+ * {@link #getCount()}, {@link #isEmpty()} and {@link #isFull()} are
+ * snapshots which count claimed-but-not-yet-completed operations.
+ * <p>
+ * This FIFO never synchronizes on {@link #getLockObject()}. It is returned
+ * only to satisfy the interface; holding it does NOT keep other threads out.
+ */
+public class MpmcRingLongFifo implements LongFifo {
+    private final long[] slots;
+    private final AtomicLongArray stamps;
+    // capacity - 1 if capacity is a power of 2, otherwise -1
+    private final int mask;
+    private final PaddedAtomicLong head;
+    private final PaddedAtomicLong tail;
+    private final Object lockObject;
+
+    public MpmcRingLongFifo(int fixedCapacity, Object proposedLockObject) {
+        if (fixedCapacity < 1) {
+            throw new IllegalArgumentException(
+                "fixedCapacity must be at least 1");
+        }
+
+        lockObject =
+            proposedLockObject != null ? proposedLockObject : new Object();
+
+        slots = new long[fixedCapacity];
+        stamps = new AtomicLongArray(fixedCapacity);
+        for ( int i = 0; i < fixedCapacity; i++ ) {
+            stamps.set(i, emptyStamp(i));
+        }
+        mask = Integer.bitCount(fixedCapacity) == 1 ? fixedCapacity - 1 : -1;
+        head = new PaddedAtomicLong();
+        tail = new PaddedAtomicLong();
+    }
+
+    public MpmcRingLongFifo(int fixedCapacity) {
+        this(fixedCapacity, null);
+    }
+
+    private int indexOf(long sequence) {
+        if (mask >= 0) {
+            return (int) (sequence & mask);
+        }
+        return (int) (sequence % slots.length);
+    }
+
+    // stamp of a slot which is ready for the add with this sequence
+    private static long emptyStamp(long sequence) {
+        return sequence * 2;
+    }
+
+    // stamp of a slot which holds the value added with this sequence
+    private static long fullStamp(long sequence) {
+        return sequence * 2 + 1;
+    }
+
+    @Override
+    public int getCount() {
+        // read head first: tail can only move away from it
+        long currentHead = head.get();
+        long currentTail = tail.get();
+        long count = currentTail - currentHead;
+        if (count < 0) {
+            return 0;
+        }
+        return (int) Math.min(count, slots.length);
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return getCount() == 0;
+    }
+
+    @Override
+    public boolean isFull() {
+        return getCount() == slots.length;
+    }
+
+    @Override
+    public void clear() {
+        long[] scratch = new long[Math.min(slots.length, 1024)];
+        while (removeBatch(scratch, 0, scratch.length) > 0) {
+            // keep going until empty
+        }
+    }
+
+    @Override
+    public int getCapacity() {
+        return slots.length;
+    }
+
+    @Override
+    public boolean add(long value) {
+        long sequence = tail.get();
+        while (true) {
+            int index = indexOf(sequence);
+            long diff = stamps.get(index) - emptyStamp(sequence);
+            if (diff == 0) {
+                if (tail.compareAndSet(sequence, sequence + 1)) {
+                    slots[index] = value;
+                    stamps.lazySet(index, fullStamp(sequence));
+                    return true;
+                }
+                // another producer got it, try the next one
+                sequence = tail.get();
+            } else if (diff < 0) {
+                return false; // full - slot not yet handed back by a consumer
+            } else {
+                // we're behind, another producer already claimed this one
+                sequence = tail.get();
+            }
+        }
+    }
+
+    /**
+     * Claims the next value for removal if one has been published.
+     * Returns its sequence (pass it to {@link #takeClaimed(long)}), or -1 if
+     * empty.
+     */
+    private long claimForRemove() {
+        long sequence = head.get();
+        while (true) {
+            long diff = stamps.get(indexOf(sequence)) - fullStamp(sequence);
+            if (diff == 0) {
+                if (head.compareAndSet(sequence, sequence + 1)) {
+                    return sequence;
+                }
+                // another consumer got it, try the next one
+                sequence = head.get();
+            } else if (diff < 0) {
+                return -1; // empty - not yet published by a producer
+            } else {
+                // we're behind, another consumer already claimed this one
+                sequence = head.get();
+            }
+        }
+    }
+
+    /**
+     * Reads the value claimed by {@link #claimForRemove()} and hands its slot
+     * back to the producers.
+     */
+    private long takeClaimed(long sequence) {
+        int index = indexOf(sequence);
+        long value = slots[index];
+        stamps.lazySet(index, emptyStamp(sequence + slots.length));
+        return value;
+    }
+
+    @Override
+    public RemoveResult remove() {
+        long sequence = claimForRemove();
+        if (sequence < 0) {
+            return RemoveResult.INVALID;
+        }
+        return RemoveResult.createValid(takeClaimed(sequence));
+    }
+
+    @Override
+    public long poll(long valueIfEmpty) {
+        long sequence = claimForRemove();
+        if (sequence < 0) {
+            return valueIfEmpty;
+        }
+        return takeClaimed(sequence);
+    }
+
+    @Override
+    public int pollInto(long[] dst) {
+        return removeBatch(dst, 0, dst.length);
+    }
+
+    /**
+     * Claims and passes along one value at a time (never holds claimed
+     * values while sink runs), so a sink which throws can't strand any.
+     */
+    @Override
+    public int drain(LongConsumer sink, int max) {
+        int removeCount = 0;
+        while (removeCount < max) {
+            long sequence = claimForRemove();
+            if (sequence < 0) {
+                break;
+            }
+            removeCount++;
+            sink.accept(takeClaimed(sequence));
+        }
+        return removeCount;
+    }
+
+    /**
+     * Adds as many of the len values in src (starting at off) as there is
+     * room for right now, claiming all of their slots with one CAS. Never
+     * waits.
+     * @return the number of values added (from the front of the range); 0 if
+     * full.
+     */
+    public int addBatch(long[] src, int off, int len) {
+        checkRange(src, off, len);
+
+        long sequence = tail.get();
+        while (len > 0) {
+            // count the run of slots, starting at sequence, which are ready
+            int readyCount = 0;
+            while (readyCount < len &&
+                   stamps.get(indexOf(sequence + readyCount)) ==
+                       emptyStamp(sequence + readyCount)) {
+
+                readyCount++;
+            }
+
+            if (readyCount == 0) {
+                long stamp = stamps.get(indexOf(sequence));
+                if (stamp < emptyStamp(sequence)) {
+                    return 0; // full - slot not yet handed back by a consumer
+                }
+                // we're behind, another producer already claimed this one
+                sequence = tail.get();
+                continue;
+            }
+
+            if (tail.compareAndSet(sequence, sequence + readyCount)) {
+                for ( int i = 0; i < readyCount; i++ ) {
+                    int index = indexOf(sequence + i);
+                    slots[index] = src[off + i];
+                    stamps.lazySet(index, fullStamp(sequence + i));
+                }
+                return readyCount;
+            }
+            // another producer got in first, start over from the new tail
+            sequence = tail.get();
+        }
+        return 0;
+    }
+
+    /**
+     * Removes as many values as are available right now (but no more than
+     * len) into dst starting at off, claiming all of their slots with one
+     * CAS. Never waits.
+     * @return the number of values removed; 0 if empty.
+     */
+    public int removeBatch(long[] dst, int off, int len) {
+        checkRange(dst, off, len);
+
+        long sequence = head.get();
+        while (len > 0) {
+            // count the run of slots, starting at sequence, which are published
+            int readyCount = 0;
+            while (readyCount < len &&
+                   stamps.get(indexOf(sequence + readyCount)) ==
+                       fullStamp(sequence + readyCount)) {
+
+                readyCount++;
+            }
+
+            if (readyCount == 0) {
+                long stamp = stamps.get(indexOf(sequence));
+                if (stamp < fullStamp(sequence)) {
+                    return 0; // empty - not yet published by a producer
+                }
+                // we're behind, another consumer already claimed this one
+                sequence = head.get();
+                continue;
+            }
+
+            if (head.compareAndSet(sequence, sequence + readyCount)) {
+                for ( int i = 0; i < readyCount; i++ ) {
+                    int index = indexOf(sequence + i);
+                    dst[off + i] = slots[index];
+                    stamps.lazySet(index, emptyStamp(sequence + i + slots.length));
+                }
+                return readyCount;
+            }
+            // another consumer got in first, start over from the new head
+            sequence = head.get();
+        }
+        return 0;
+    }
+
+    /**
+     * Same as {@link #removeBatch(long[], int, int)} filling dst from index 0.
+     */
+    public int removeBatch(long[] dst) {
+        return removeBatch(dst, 0, dst.length);
+    }
+
+    private static void checkRange(long[] array, int off, int len) {
+        if (off < 0 || len < 0 || off > array.length - len) {
+            throw new IndexOutOfBoundsException("off=" + off + ", len=" + len +
+                ", array.length=" + array.length);
+        }
+    }
+
+    @Override
+    public Object getLockObject() {
+        return lockObject;
+    }
+
+    /**
+     * An AtomicLong padded out to its own cache line so head and tail (and
+     * whatever the JVM puts next to them) don't falsely share one.
+     */
+    private static class PaddedAtomicLong extends AtomicLong {
+        private static final long serialVersionUID = 1L;
+
+        // never read - only here to take up space after the value
+        @SuppressWarnings("unused")
+        private long p1, p2, p3, p4, p5, p6, p7;
+    } // type PaddedAtomicLong
+}
@@ -0,0 +1,101 @@
+package com.abc.sync;
+
+import java.util.concurrent.atomic.*;
+
+/**
+ * Pushes longs through a {@link MpmcRingLongFifo} with several producer and
+ * consumer threads, using addBatch() / removeBatch(), and reports the
+ * throughput. Also checks that every value came out exactly once (by sum).
+ * <p>
+ * Neither side ever blocks: a producer which finds the FIFO full (or a
+ * consumer which finds it empty) just yields and tries again, so give each
+ * thread its own core for meaningful numbers.
+ * <p>
+ * Optional args: producerCount consumerCount capacity batchSize
+ * valuesPerProducer
+ */
+public class MpmcRingThroughputDemo {
+    private static int intArg(String[] args, int index, int defaultValue) {
+        return args.length > index ? Integer.parseInt(args[index]) : defaultValue;
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        final int producerCount = intArg(args, 0, 4);
+        final int consumerCount = intArg(args, 1, 4);
+        final int capacity = intArg(args, 2, 65536);
+        final int batchSize = intArg(args, 3, 256);
+        final int valuesPerProducer = intArg(args, 4, 50000000);
+
+        final MpmcRingLongFifo fifo = new MpmcRingLongFifo(capacity);
+        final long totalValueCount = (long) producerCount * valuesPerProducer;
+        final AtomicLong removedCount = new AtomicLong(0);
+        final AtomicLong removedSum = new AtomicLong(0);
+
+        Thread[] threads = new Thread[producerCount + consumerCount];
+        for ( int i = 0; i < producerCount; i++ ) {
+            threads[i] = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    long[] batch = new long[batchSize];
+                    long nextValue = 1;
+                    while (nextValue <= valuesPerProducer) {
+                        int len = (int) Math.min(batchSize,
+                            valuesPerProducer - nextValue + 1);
+                        for ( int j = 0; j < len; j++ ) {
+                            batch[j] = nextValue + j;
+                        }
+                        int off = 0;
+                        while (off < len) {
+                            int addedCount = fifo.addBatch(batch, off, len - off);
+                            if (addedCount == 0) {
+                                Thread.yield(); // full
+                            }
+                            off += addedCount;
+                        }
+                        nextValue += len;
+                    }
+                }
+            }, "producer-" + i);
+        }
+        for ( int i = 0; i < consumerCount; i++ ) {
+            threads[producerCount + i] = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    long[] batch = new long[batchSize];
+                    long sum = 0;
+                    while (removedCount.get() < totalValueCount) {
+                        int count = fifo.removeBatch(batch);
+                        if (count == 0) {
+                            Thread.yield(); // empty
+                            continue;
+                        }
+                        for ( int j = 0; j < count; j++ ) {
+                            sum += batch[j];
+                        }
+                        removedCount.addAndGet(count);
+                    }
+                    removedSum.addAndGet(sum);
+                }
+            }, "consumer-" + i);
+        }
+
+        long nsStart = System.nanoTime();
+        for ( Thread thread : threads ) {
+            thread.start();
+        }
+        for ( Thread thread : threads ) {
+            thread.join();
+        }
+        long nsElapsed = System.nanoTime() - nsStart;
+
+        long expectedSum = (long) producerCount *
+            ((long) valuesPerProducer * (valuesPerProducer + 1) / 2);
+        System.out.printf("%d producer(s), %d consumer(s), capacity=%d, batchSize=%d%n",
+            producerCount, consumerCount, capacity, batchSize);
+        System.out.printf("%,d longs in %.3f s = %.1f million longs/sec%n",
+            totalValueCount, nsElapsed / 1e9, totalValueCount * 1e3 / nsElapsed);
+        System.out.println(removedSum.get() == expectedSum
+            ? "sum check passed"
+            : "SUM CHECK FAILED: expected=" + expectedSum + ", actual=" + removedSum.get());
+    }
+}
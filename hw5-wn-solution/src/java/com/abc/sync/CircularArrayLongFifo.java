@@ -1,5 +1,6 @@
 package com.abc.sync;
 
+import java.util.concurrent.*;
 
 /**
  * Implementation of {@link LongFifo} which uses a circular array internally.
@@ -85,8 +86,15 @@ public class CircularArrayLongFifo implements LongFifo {
 
     @Override
     public boolean add(long value, long msTimeout) throws InterruptedException {
+        return add(value, msTimeout, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public boolean add(long value, long timeout, TimeUnit unit)
+            throws InterruptedException {
+
         synchronized ( lockObject ) {
-            boolean notFull = waitWhileFull(msTimeout);
+            boolean notFull = waitWhileFull(timeout, unit);
             if (notFull) {
                 slots[tail] = value;
                 tail = (tail + 1) % slots.length;
@@ -107,7 +115,7 @@ public class CircularArrayLongFifo implements LongFifo {
     @Override
     public long remove() throws InterruptedException {
         synchronized ( lockObject ) {
-            waitWhileEmpty(0);
+            waitWhileEmpty(0, TimeUnit.MILLISECONDS);
             long item = slots[head];
             head = (head + 1) % slots.length;
             count--;
@@ -118,24 +126,31 @@ public class CircularArrayLongFifo implements LongFifo {
 
     @Override
     public boolean waitUntilEmpty(long msTimeout) throws InterruptedException {
+        return waitUntilEmpty(msTimeout, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public boolean waitUntilEmpty(long timeout, TimeUnit unit)
+            throws InterruptedException {
+
         synchronized ( lockObject ) {
             if (isEmpty()) return true;
 
-            if (msTimeout == 0) {
+            if (timeout == 0) {
                 do {
                     lockObject.wait();
                 } while (!isEmpty());
                 return true;
             }
 
-            long endTime = System.currentTimeMillis() + msTimeout;
-            long msRemaining = msTimeout;
-            while (msRemaining > 0) {
-                lockObject.wait(msRemaining);
+            long nsEndTime = System.nanoTime() + unit.toNanos(timeout);
+            long nsRemaining = unit.toNanos(timeout);
+            while (nsRemaining > 0) {
+                TimeUnit.NANOSECONDS.timedWait(lockObject, nsRemaining);
                 if (isEmpty()) {
                     return true; // success
                 }
-                msRemaining = endTime - System.currentTimeMillis();
+                nsRemaining = nsEndTime - System.nanoTime();
             }
             return false; // timed out
         }
@@ -147,50 +162,54 @@ public class CircularArrayLongFifo implements LongFifo {
     }
 
     // returns true if no longer empty, false if we timeout
-    private boolean waitWhileEmpty(long msTimeout) throws InterruptedException {
+    private boolean waitWhileEmpty(long timeout, TimeUnit unit)
+            throws InterruptedException {
+
         synchronized ( lockObject ) {
             if (!isEmpty()) return true;
 
-            if (msTimeout == 0) {
+            if (timeout == 0) {
                 do {
                     lockObject.wait();
                 } while (isEmpty());
                 return true;
             }
 
-            long endTime = System.currentTimeMillis() + msTimeout;
-            long msRemaining = msTimeout;
-            while (msRemaining > 0) {
-                lockObject.wait(msRemaining);
+            long nsEndTime = System.nanoTime() + unit.toNanos(timeout);
+            long nsRemaining = unit.toNanos(timeout);
+            while (nsRemaining > 0) {
+                TimeUnit.NANOSECONDS.timedWait(lockObject, nsRemaining);
                 if (!isEmpty()) {
                     return true; // success
                 }
-                msRemaining = endTime - System.currentTimeMillis();
+                nsRemaining = nsEndTime - System.nanoTime();
             }
             return false; // timed out
         }
     }
 
     // returns true if no longer full, false if we timeout
-    private boolean waitWhileFull(long msTimeout) throws InterruptedException {
+    private boolean waitWhileFull(long timeout, TimeUnit unit)
+            throws InterruptedException {
+
         synchronized ( lockObject ) {
             if (!isFull()) return true;
 
-            if (msTimeout == 0) {
+            if (timeout == 0) {
                 do {
                     lockObject.wait();
                 } while (isFull());
                 return true;
             }
 
-            long endTime = System.currentTimeMillis() + msTimeout;
-            long msRemaining = msTimeout;
-            while (msRemaining > 0) {
-                lockObject.wait(msRemaining);
+            long nsEndTime = System.nanoTime() + unit.toNanos(timeout);
+            long nsRemaining = unit.toNanos(timeout);
+            while (nsRemaining > 0) {
+                TimeUnit.NANOSECONDS.timedWait(lockObject, nsRemaining);
                 if (!isFull()) {
                     return true; // success
                 }
-                msRemaining = endTime - System.currentTimeMillis();
+                nsRemaining = nsEndTime - System.nanoTime();
             }
             return false; // timed out
         }
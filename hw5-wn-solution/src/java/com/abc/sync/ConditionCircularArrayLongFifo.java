@@ -0,0 +1,222 @@
+package com.abc.sync;
+
+import java.util.concurrent.*;
+import java.util.concurrent.locks.*;
+
+/**
+ * Implementation of {@link LongFifo} which uses a circular array internally
+ * (just like {@link CircularArrayLongFifo}), but guards it with a
+ * {@link ReentrantLock} and separate {@link Condition}'s instead of a monitor
+ * and <tt>notifyAll()</tt>.
+ * <p>
+ * Look at the documentation in LongFifo to see how the methods are supposed to
+ * work.
+ * <p>
+ * Each kind of waiter only gets signaled when its predicate could have
+ * changed:
+ * <ul>
+ * <li>notEmpty - threads in remove(). An add signals ONE of them.</li>
+ * <li>notFull - threads in add(). A remove signals ONE of them.</li>
+ * <li>becameEmpty - threads in waitUntilEmpty(). Signaled (all) only when the
+ * count drops to 0.</li>
+ * </ul>
+ * {@link #getLockObject()} returns the lockObject passed to the constructor
+ * (or the internal lock if none was passed), but this FIFO never synchronizes
+ * on it. Code which needs several calls to happen atomically must hold
+ * {@link #getLock()} instead. If the proposed lockObject is itself a
+ * ReentrantLock, it is used as the internal lock.
+ */
+public class ConditionCircularArrayLongFifo implements LongFifo {
+    private final long[] slots;
+    private int head;
+    private int tail;
+    private int count;
+    private final Object lockObject;
+
+    private final ReentrantLock lock;
+    private final Condition notEmpty;
+    private final Condition notFull;
+    private final Condition becameEmpty;
+
+    public ConditionCircularArrayLongFifo(int fixedCapacity,
+                                          Object proposedLockObject) {
+
+        lock = proposedLockObject instanceof ReentrantLock
+            ? (ReentrantLock) proposedLockObject
+            : new ReentrantLock();
+        lockObject = proposedLockObject != null ? proposedLockObject : lock;
+
+        slots = new long[fixedCapacity];
+        head = 0;
+        tail = 0;
+        count = 0;
+
+        notEmpty = lock.newCondition();
+        notFull = lock.newCondition();
+        becameEmpty = lock.newCondition();
+    }
+
+    public ConditionCircularArrayLongFifo(int fixedCapacity) {
+        this(fixedCapacity, null);
+    }
+
+    /**
+     * The lock guarding this FIFO. Hold it to make several calls appear
+     * atomic to other threads.
+     */
+    public ReentrantLock getLock() {
+        return lock;
+    }
+
+    @Override
+    public int getCount() {
+        lock.lock();
+        try {
+            return count;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public boolean isEmpty() {
+        lock.lock();
+        try {
+            return count == 0;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public boolean isFull() {
+        lock.lock();
+        try {
+            return count == slots.length;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void clear() {
+        lock.lock();
+        try {
+            boolean wasEmpty = count == 0;
+            head = 0;
+            tail = 0;
+            count = 0;
+            if (!wasEmpty) {
+                notFull.signalAll();
+                becameEmpty.signalAll();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public int getCapacity() {
+        return slots.length;
+    }
+
+    @Override
+    public boolean add(long value, long msTimeout) throws InterruptedException {
+        return add(value, msTimeout, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public boolean add(long value, long timeout, TimeUnit unit)
+            throws InterruptedException {
+
+        lock.lockInterruptibly();
+        try {
+            if (timeout == 0) {
+                while (count == slots.length) {
+                    notFull.await();
+                }
+            } else {
+                long nsRemaining = unit.toNanos(timeout);
+                while (count == slots.length) {
+                    if (nsRemaining <= 0) {
+                        return false; // timed out
+                    }
+                    nsRemaining = notFull.awaitNanos(nsRemaining);
+                }
+            }
+            slots[tail] = value;
+            tail = (tail + 1) % slots.length;
+            count++;
+            notEmpty.signal();
+            return true; // success
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void add(long value) throws InterruptedException {
+        add(value, 0);
+    }
+
+    @Override
+    public long remove() throws InterruptedException {
+        lock.lockInterruptibly();
+        try {
+            while (count == 0) {
+                notEmpty.await();
+            }
+            long item = slots[head];
+            head = (head + 1) % slots.length;
+            count--;
+            notFull.signal();
+            if (count == 0) {
+                becameEmpty.signalAll();
+            }
+            return item;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public boolean waitUntilEmpty(long msTimeout) throws InterruptedException {
+        return waitUntilEmpty(msTimeout, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public boolean waitUntilEmpty(long timeout, TimeUnit unit)
+            throws InterruptedException {
+
+        lock.lockInterruptibly();
+        try {
+            if (timeout == 0) {
+                while (count > 0) {
+                    becameEmpty.await();
+                }
+                return true;
+            }
+
+            long nsRemaining = unit.toNanos(timeout);
+            while (count > 0) {
+                if (nsRemaining <= 0) {
+                    return false; // timed out
+                }
+                nsRemaining = becameEmpty.awaitNanos(nsRemaining);
+            }
+            return true; // success
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void waitUntilEmpty() throws InterruptedException {
+        waitUntilEmpty(0);
+    }
+
+    @Override
+    public Object getLockObject() {
+        return lockObject;
+    }
+}
@@ -1,5 +1,7 @@
 package com.abc.sync;
 
+import java.util.concurrent.*;
+
 public interface LongFifo {
     /** Returns the number if items currently in the FIFO. */
     int getCount();
@@ -31,6 +33,14 @@ public interface LongFifo {
      */
     boolean add(long value, long msTimeout) throws InterruptedException;
 
+    /**
+     * Same as {@link #add(long, long)}, but with the timeout in the specified
+     * unit. The deadline is measured with System.nanoTime(). A timeout of 0
+     * means never time out.
+     */
+    boolean add(long value, long timeout, TimeUnit unit)
+            throws InterruptedException;
+
     /**
      * Removes and returns the next item. Possilby wait until not empty.
      */
@@ -39,6 +49,14 @@ public interface LongFifo {
     public void waitUntilEmpty() throws InterruptedException;
     public boolean waitUntilEmpty(long msTimeout) throws InterruptedException;
 
+    /**
+     * Same as {@link #waitUntilEmpty(long)}, but with the timeout in the
+     * specified unit. The deadline is measured with System.nanoTime().
+     * A timeout of 0 means never time out.
+     */
+    public boolean waitUntilEmpty(long timeout, TimeUnit unit)
+            throws InterruptedException;
+
     /**
      * Returns a reference to use for synchronized blocks which need to
      * call multiple methods without other threads being able to get in.
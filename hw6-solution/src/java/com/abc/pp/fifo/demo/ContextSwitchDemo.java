@@ -0,0 +1,154 @@
+package com.abc.pp.fifo.demo;
+
+import java.io.*;
+import java.nio.file.*;
+import java.util.concurrent.atomic.*;
+
+import com.abc.pp.fifo.*;
+import com.abc.pp.fifo.impl.*;
+
+/**
+ * Compares how many context switches the monitor + notifyAll() FIFO causes
+ * versus the ReentrantLock + separate conditions FIFO when many consumers
+ * are blocked on a mostly empty FIFO.
+ * <p>
+ * Each worker thread reads its own voluntary and involuntary context switch
+ * counts from <tt>/proc/thread-self/status</tt> (Linux only) when it starts
+ * and again when it finishes, and the deltas are totaled.
+ * <p>
+ * Optional args: producerCount consumerCount capacity totalItemCount
+ */
+public class ContextSwitchDemo {
+    private static final String STOP = "STOP";
+
+    private static PPBoundedFifo<String> createFifo(String name, int capacity) {
+        if ("monitor".equals(name)) {
+            return new CircularArrayPPBoundedFifo<>(capacity, String.class);
+        }
+        return new ConditionCircularArrayPPBoundedFifo<>(capacity, String.class);
+    }
+
+    private static void runTrial(String name,
+                                 int producerCount,
+                                 int consumerCount,
+                                 int capacity,
+                                 int totalItemCount) throws InterruptedException {
+
+        final PPBoundedFifo<String> fifo = createFifo(name, capacity);
+        final AtomicLong contextSwitches = new AtomicLong(0);
+        final int itemsPerProducer = totalItemCount / producerCount;
+
+        Thread[] producers = new Thread[producerCount];
+        for ( int i = 0; i < producers.length; i++ ) {
+            producers[i] = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    long startCount = readThreadContextSwitches();
+                    try {
+                        for ( int j = 0; j < itemsPerProducer; j++ ) {
+                            fifo.add("item");
+                        }
+                    } catch ( InterruptedException x ) {
+                        // ignore and die
+                    } finally {
+                        contextSwitches.addAndGet(readThreadContextSwitches() - startCount);
+                    }
+                }
+            }, "producer-" + i);
+        }
+
+        Thread[] consumers = new Thread[consumerCount];
+        for ( int i = 0; i < consumers.length; i++ ) {
+            consumers[i] = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    long startCount = readThreadContextSwitches();
+                    try {
+                        while (!STOP.equals(fifo.remove())) {
+                            // keep going
+                        }
+                    } catch ( InterruptedException x ) {
+                        // ignore and die
+                    } finally {
+                        contextSwitches.addAndGet(readThreadContextSwitches() - startCount);
+                    }
+                }
+            }, "consumer-" + i);
+        }
+
+        long nsStart = System.nanoTime();
+        for ( Thread consumer : consumers ) {
+            consumer.start();
+        }
+        for ( Thread producer : producers ) {
+            producer.start();
+        }
+        for ( Thread producer : producers ) {
+            producer.join();
+        }
+        for ( int i = 0; i < consumers.length; i++ ) {
+            fifo.add(STOP);
+        }
+        for ( Thread consumer : consumers ) {
+            consumer.join();
+        }
+        long nsElapsed = System.nanoTime() - nsStart;
+
+        long opCount = 2L * itemsPerProducer * producerCount; // adds + removes
+        System.out.printf("%-10s %,12d ops in %8.3f s  %,12d context switches  %,12.0f per million ops%n",
+            name, opCount, nsElapsed / 1e9, contextSwitches.get(),
+            contextSwitches.get() * 1e6 / opCount);
+    }
+
+    /**
+     * Returns the number of voluntary + involuntary context switches for the
+     * calling thread so far, or 0 if that isn't available on this platform.
+     */
+    private static long readThreadContextSwitches() {
+        Path statusPath = Paths.get("/proc/thread-self/status");
+        if (!Files.isReadable(statusPath)) {
+            return 0;
+        }
+
+        long total = 0;
+        try {
+            for ( String line : Files.readAllLines(statusPath) ) {
+                if (line.startsWith("voluntary_ctxt_switches:") ||
+                    line.startsWith("nonvoluntary_ctxt_switches:")) {
+
+                    total += Long.parseLong(line.substring(line.indexOf(':') + 1).trim());
+                }
+            }
+        } catch ( IOException x ) {
+            return 0;
+        }
+        return total;
+    }
+
+    private static int intArg(String[] args, int index, int defaultValue) {
+        return args.length > index ? Integer.parseInt(args[index]) : defaultValue;
+    }
+
+    public static void main(String[] args) {
+        int producerCount = intArg(args, 0, 1);
+        int consumerCount = intArg(args, 1, 32);
+        int capacity = intArg(args, 2, 16);
+        int totalItemCount = intArg(args, 3, 200000);
+
+        System.out.printf("%d producer(s), %d consumer(s), capacity=%d, %,d items%n",
+            producerCount, consumerCount, capacity, totalItemCount);
+        if (!Files.isReadable(Paths.get("/proc/thread-self/status"))) {
+            System.out.println("(per-thread context switch counts are not available on this platform)");
+        }
+
+        try {
+            // run each twice - the first pass warms up the JIT
+            for ( int pass = 0; pass < 2; pass++ ) {
+                runTrial("monitor", producerCount, consumerCount, capacity, totalItemCount);
+                runTrial("condition", producerCount, consumerCount, capacity, totalItemCount);
+            }
+        } catch ( InterruptedException x ) {
+            x.printStackTrace();
+        }
+    }
+}
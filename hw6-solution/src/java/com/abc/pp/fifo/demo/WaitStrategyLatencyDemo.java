@@ -0,0 +1,112 @@
+package com.abc.pp.fifo.demo;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+import com.abc.pp.fifo.*;
+import com.abc.pp.fifo.impl.*;
+
+/**
+ * Measures the handoff latency (from just before add() until remove()
+ * returns the item in the other thread) of {@link CircularArrayPPBoundedFifo}
+ * with each {@link WaitStrategy}, and prints the p50, p99, p99.9 and max.
+ * <p>
+ * One producer adds a timestamp, then pauses a little so that the consumer
+ * is usually waiting on an empty FIFO when the next item arrives - which is
+ * exactly the case the wait strategy is for. The spinning strategies need a
+ * core per spinning thread; on a machine with fewer cores than that the
+ * numbers mostly measure the OS scheduler.
+ * <p>
+ * Optional args: sampleCount warmupCount usPauseBetweenItems
+ */
+public class WaitStrategyLatencyDemo {
+    private static final Long STOP = Long.valueOf(-1L);
+
+    private static void runTrial(WaitStrategy waitStrategy,
+                                 final int warmupCount,
+                                 final int sampleCount,
+                                 final long nsPause) throws InterruptedException {
+
+        final PPBoundedFifo<Long> fifo = new CircularArrayPPBoundedFifo<>(
+            1024, Long.class, null, waitStrategy);
+        final long[] nsLatencies = new long[sampleCount];
+
+        Thread consumer = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    int receivedCount = 0;
+                    while (true) {
+                        Long nsAddTime = fifo.remove();
+                        long nsNow = System.nanoTime();
+                        if (STOP.equals(nsAddTime)) {
+                            return;
+                        }
+                        int sampleIndex = receivedCount - warmupCount;
+                        if (sampleIndex >= 0) {
+                            nsLatencies[sampleIndex] = nsNow - nsAddTime;
+                        }
+                        receivedCount++;
+                    }
+                } catch ( InterruptedException x ) {
+                    // ignore and die
+                }
+            }
+        }, "consumer");
+        consumer.start();
+
+        for ( int i = 0; i < warmupCount + sampleCount; i++ ) {
+            fifo.add(Long.valueOf(System.nanoTime()));
+            long nsResumeTime = System.nanoTime() + nsPause;
+            while (System.nanoTime() < nsResumeTime) {
+                Thread.onSpinWait();
+            }
+        }
+        fifo.add(STOP);
+        consumer.join();
+
+        Arrays.sort(nsLatencies);
+        System.out.printf("%-24s p50=%8.1fus  p99=%8.1fus  p99.9=%8.1fus  max=%9.1fus%n",
+            waitStrategy,
+            percentile(nsLatencies, 50.0) / 1000.0,
+            percentile(nsLatencies, 99.0) / 1000.0,
+            percentile(nsLatencies, 99.9) / 1000.0,
+            nsLatencies[nsLatencies.length - 1] / 1000.0);
+    }
+
+    // sortedValues must already be sorted in ascending order
+    private static long percentile(long[] sortedValues, double percent) {
+        int index = (int) Math.ceil(percent / 100.0 * sortedValues.length) - 1;
+        return sortedValues[Math.max(0, Math.min(index, sortedValues.length - 1))];
+    }
+
+    private static int intArg(String[] args, int index, int defaultValue) {
+        return args.length > index ? Integer.parseInt(args[index]) : defaultValue;
+    }
+
+    public static void main(String[] args) {
+        int sampleCount = intArg(args, 0, 100000);
+        int warmupCount = intArg(args, 1, 20000);
+        int usPause = intArg(args, 2, 10);
+
+        System.out.printf("%,d samples (after %,d warmup), %dus between items, %d CPU(s)%n",
+            sampleCount, warmupCount, usPause,
+            Runtime.getRuntime().availableProcessors());
+
+        WaitStrategy[] waitStrategies = new WaitStrategy[] {
+            WaitStrategy.blocking(),
+            WaitStrategy.spinThenPark(50, TimeUnit.MICROSECONDS),
+            WaitStrategy.spinThenYield(1000),
+            WaitStrategy.busySpin()
+        };
+
+        try {
+            for ( WaitStrategy waitStrategy : waitStrategies ) {
+                runTrial(waitStrategy, warmupCount, sampleCount,
+                    TimeUnit.MICROSECONDS.toNanos(usPause));
+            }
+        } catch ( InterruptedException x ) {
+            x.printStackTrace();
+        }
+    }
+}
@@ -2,6 +2,8 @@ package com.abc.pp.fifo.impl;
 
 import java.lang.reflect.*;
 import java.util.*;
+import java.util.concurrent.*;
+import java.util.function.*;
 
 import com.abc.pp.fifo.*;
 
@@ -21,6 +23,16 @@ import com.abc.pp.fifo.*;
  * <p>
  * See <a href="https://en.wikipedia.org/wiki/Circular_buffer">Circular Buffer
  * on Wikipedia</a> for more information.
+ * <p>
+ * The {@link WaitStrategy} passed to the constructor decides what
+ * {@link #add(Object)}, {@link #remove()} and {@link #removeAtLeastOne()}
+ * do while full (or empty): they spin outside of the lock (checking a
+ * volatile copy of count, publishedCount) for as long as the strategy says
+ * to, then block on the lockObject as usual. A caller which already holds
+ * the lockObject never spins, as nobody else could get in to change the
+ * count. The default, {@link WaitStrategy#blocking()}, blocks right away and
+ * never touches publishedCount, so it costs nothing extra. All of the other
+ * methods which wait always block.
  */
 public class CircularArrayPPBoundedFifo<T> implements PPBoundedFifo<T> {
     private final Class<T> itemType;
@@ -29,10 +41,17 @@ public class CircularArrayPPBoundedFifo<T> implements PPBoundedFifo<T> {
     private int tail;
     private int count;
     private final Object lockObject;
+    private final WaitStrategy waitStrategy;
+    // only spinning strategies need (and pay for) this copy of count
+    private final boolean spinning;
+    private volatile int publishedCount;
+    private final Expression fullExpression;
+    private final Expression emptyExpression;
 
     public CircularArrayPPBoundedFifo(int fixedCapacity,
                                       Class<T> itemType,
-                                      Object proposedLockObject) {
+                                      Object proposedLockObject,
+                                      WaitStrategy waitStrategy) {
 
         lockObject =
             proposedLockObject != null ? proposedLockObject : new Object();
@@ -52,7 +71,31 @@ public class CircularArrayPPBoundedFifo<T> implements PPBoundedFifo<T> {
         tail = 0;
         count = 0;
 
-        // TODO - add more to constructor if you need to....but don't change code above this line
+        if (waitStrategy == null) {
+            throw new IllegalArgumentException("waitStrategy must not be null");
+        }
+        this.waitStrategy = waitStrategy;
+        spinning = waitStrategy != WaitStrategy.blocking();
+
+        fullExpression = new Expression() {
+            @Override
+            public boolean isTrue() {
+                return publishedCount == slots.length;
+            }
+        };
+        emptyExpression = new Expression() {
+            @Override
+            public boolean isTrue() {
+                return publishedCount == 0;
+            }
+        };
+    }
+
+    public CircularArrayPPBoundedFifo(int fixedCapacity,
+                                      Class<T> itemType,
+                                      Object proposedLockObject) {
+
+        this(fixedCapacity, itemType, proposedLockObject, WaitStrategy.blocking());
     }
 
     // this constructor is correct as written - do not change
@@ -66,6 +109,54 @@ public class CircularArrayPPBoundedFifo<T> implements PPBoundedFifo<T> {
         return array;
     }
 
+    /**
+     * The strategy used while waiting in add(), remove() and
+     * removeAtLeastOne().
+     */
+    public WaitStrategy getWaitStrategy() {
+        return waitStrategy;
+    }
+
+    /**
+     * Without holding the lock, idles according to the wait strategy while
+     * the expression is true.
+     * Returns true if the expression was seen to be false, or false if the
+     * caller should block on the lockObject: the wait strategy gave up, or
+     * spun {@link WaitStrategy#MAX_IDLE_ATTEMPTS} times, or the caller holds
+     * the lockObject (so nobody else can change the count while it spins).
+     */
+    private boolean spinWhile(Expression expression) throws InterruptedException {
+        if (!spinning || Thread.holdsLock(lockObject)) {
+            return false;
+        }
+
+        long nsWaitStart = 0;
+        for ( int attempt = 0; expression.isTrue(); attempt++ ) {
+            if (attempt == 0) {
+                nsWaitStart = System.nanoTime();
+            }
+            if (attempt >= WaitStrategy.MAX_IDLE_ATTEMPTS ||
+                    !waitStrategy.idle(attempt, nsWaitStart)) {
+
+                return false;
+            }
+            if (Thread.interrupted()) {
+                throw new InterruptedException();
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Copies count to publishedCount for the spinning waiters. Caller must
+     * hold the lock and call this after every change to count.
+     */
+    private void publishCount() {
+        if (spinning) {
+            publishedCount = count;
+        }
+    }
+
     // this method is correct as written - do not change
     @Override
     public int getCount() {
@@ -95,6 +186,7 @@ public class CircularArrayPPBoundedFifo<T> implements PPBoundedFifo<T> {
             head = 0;
             tail = 0;
             Arrays.fill(slots, null);
+            publishCount();
             lockObject.notifyAll();
         }
     }
@@ -107,26 +199,42 @@ public class CircularArrayPPBoundedFifo<T> implements PPBoundedFifo<T> {
 
     @Override
     public void add(T item) throws InterruptedException {
-        synchronized ( lockObject ) {
-            waitWhileFull();
-            slots[tail] = item;
-            tail = (tail + 1) % slots.length;
-            count++;
-            lockObject.notifyAll();
+        while (true) {
+            boolean sawNotFull = spinWhile(fullExpression);
+            synchronized ( lockObject ) {
+                if (sawNotFull && count == slots.length) {
+                    continue; // another thread filled it first, spin again
+                }
+
+                waitWhileFull();
+                slots[tail] = item;
+                tail = (tail + 1) % slots.length;
+                count++;
+                publishCount();
+                lockObject.notifyAll();
+                return;
+            }
         }
     }
 
     @Override
     public T remove() throws InterruptedException {
-        synchronized ( lockObject ) {
-            waitWhileEmpty();
+        while (true) {
+            boolean sawNotEmpty = spinWhile(emptyExpression);
+            synchronized ( lockObject ) {
+                if (sawNotEmpty && count == 0) {
+                    continue; // another thread emptied it first, spin again
+                }
 
-            T item = slots[head];
-            slots[head] = null;
-            head = (head + 1) % slots.length;
-            count--;
-            lockObject.notifyAll();
-            return item;
+                waitWhileEmpty();
+                T item = slots[head];
+                slots[head] = null;
+                head = (head + 1) % slots.length;
+                count--;
+                publishCount();
+                lockObject.notifyAll();
+                return item;
+            }
         }
     }
 
@@ -142,46 +250,143 @@ public class CircularArrayPPBoundedFifo<T> implements PPBoundedFifo<T> {
         return itemType;
     }
 
+    /**
+     * Copies length items from items (starting at offset) into the slots at
+     * tail. Caller must hold the lock and have checked there is room.
+     * At most two arraycopy's: up to the end of slots, then from index 0.
+     */
+    private void copyIn(T[] items, int offset, int length) {
+        int firstLength = Math.min(length, slots.length - tail);
+        System.arraycopy(items, offset, slots, tail, firstLength);
+        System.arraycopy(items, offset + firstLength, slots, 0, length - firstLength);
+        tail = (tail + length) % slots.length;
+        count += length;
+        publishCount();
+    }
+
+    /**
+     * Copies length items from the slots at head into dest (starting at
+     * offset) and nulls out the slots. Caller must hold the lock and have
+     * checked there are that many items.
+     * At most two arraycopy's: up to the end of slots, then from index 0.
+     */
+    private void copyOut(T[] dest, int offset, int length) {
+        int firstLength = Math.min(length, slots.length - head);
+        System.arraycopy(slots, head, dest, offset, firstLength);
+        Arrays.fill(slots, head, head + firstLength, null);
+        System.arraycopy(slots, 0, dest, offset + firstLength, length - firstLength);
+        Arrays.fill(slots, 0, length - firstLength, null);
+        head = (head + length) % slots.length;
+        count -= length;
+        publishCount();
+    }
+
     @Override
     public void addAll(T[] items) throws InterruptedException {
         synchronized ( lockObject ) {
-            for ( T item : items ) {
-                add(item);
+            int offset = 0;
+            while (offset < items.length) {
+                waitWhileFull();
+                // copy in as many as currently fit, then signal once
+                int length = Math.min(items.length - offset, slots.length - count);
+                copyIn(items, offset, length);
+                offset += length;
+                lockObject.notifyAll();
             }
         }
     }
 
     @Override
     public T[] removeAtLeastOne() throws InterruptedException {
-        synchronized ( lockObject ) {
-            waitWhileEmpty();
-            return removeAll();
+        while (true) {
+            boolean sawNotEmpty = spinWhile(emptyExpression);
+            synchronized ( lockObject ) {
+                if (sawNotEmpty && count == 0) {
+                    continue; // another thread emptied it first, spin again
+                }
+
+                waitWhileEmpty();
+                return removeAll();
+            }
         }
     }
 
     @Override
     public T[] removeAll() {
         synchronized ( lockObject ) {
+            T[] items = createTypeArray(count);
+            if (items.length > 0) {
+                copyOut(items, 0, items.length);
+                lockObject.notifyAll();
+            }
+            return items;
+        }
+    }
+
+    /**
+     * Immediately removes up to max items into dest (starting at index 0)
+     * without waiting and without allocating. If currently empty, nothing is
+     * removed and 0 is returned (non-blocking).
+     * @param dest where to put the removed items - never more than
+     * dest.length items are removed.
+     * @param max the maximum number of items to remove. 0 or negative
+     * removes nothing (just like {@link #drain(Consumer, int)}).
+     * @return the number of items removed and stored into dest.
+     */
+    public int drainTo(T[] dest, int max) {
+        synchronized ( lockObject ) {
+            int length = Math.max(0, Math.min(count, Math.min(max, dest.length)));
+            if (length > 0) {
+                copyOut(dest, 0, length);
+                lockObject.notifyAll();
+            }
+            return length;
+        }
+    }
+
+    @Override
+    public int removeInto(T[] buffer) {
+        return drainTo(buffer, buffer.length);
+    }
+
+    @Override
+    public int drain(Consumer<? super T> sink, int max) {
+        synchronized ( lockObject ) {
+            int removeCount = 0;
             try {
-                T[] items = createTypeArray(count);
-                for ( int i = 0; i < items.length; i++ ) {
-                    items[i] = remove();
+                while (removeCount < max && count > 0) {
+                    T item = slots[head];
+                    slots[head] = null;
+                    head = (head + 1) % slots.length;
+                    count--;
+                    removeCount++;
+                    sink.accept(item);
+                }
+                return removeCount;
+            } finally {
+                if (removeCount > 0) {
+                    publishCount();
+                    lockObject.notifyAll();
                 }
-                return items;
-            } catch ( InterruptedException x ) {
-                throw new RuntimeException("this should 'never' happen", x);
             }
         }
     }
 
     @Override
     public boolean waitUntilEmpty(long msTimeout) throws InterruptedException {
+        return waitUntilEmpty(msTimeout, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public boolean waitUntilEmpty(long timeout, TimeUnit unit)
+            throws InterruptedException {
+
         synchronized ( lockObject ) {
             if (isEmpty()) {
                 return true;
             }
 
-            if (msTimeout == 0) {
+            if (timeout == 0) {
                 // wait without timing out
                 do {
                     lockObject.wait();
@@ -189,14 +394,14 @@ public class CircularArrayPPBoundedFifo<T> implements PPBoundedFifo<T> {
                 return true;
             }
 
-            long msEndTime = System.currentTimeMillis() + msTimeout;
-            long msRemaining = msTimeout;
-            while (msRemaining > 0) {
-                lockObject.wait(msRemaining);
+            long nsEndTime = System.nanoTime() + unit.toNanos(timeout);
+            long nsRemaining = unit.toNanos(timeout);
+            while (nsRemaining > 0) {
+                TimeUnit.NANOSECONDS.timedWait(lockObject, nsRemaining);
                 if (isEmpty()) {
                     return true;
                 }
-                msRemaining = msEndTime - System.currentTimeMillis();
+                nsRemaining = nsEndTime - System.nanoTime();
             }
             return false; // timed out
         }
@@ -210,12 +415,19 @@ public class CircularArrayPPBoundedFifo<T> implements PPBoundedFifo<T> {
 
     @Override
     public boolean waitWhileEmpty(long msTimeout) throws InterruptedException {
+        return waitWhileEmpty(msTimeout, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public boolean waitWhileEmpty(long timeout, TimeUnit unit)
+            throws InterruptedException {
+
         synchronized ( lockObject ) {
             if (!isEmpty()) {
                 return true;
             }
 
-            if (msTimeout == 0) {
+            if (timeout == 0) {
                 // wait without timing out
                 do {
                     lockObject.wait();
@@ -223,14 +435,14 @@ public class CircularArrayPPBoundedFifo<T> implements PPBoundedFifo<T> {
                 return true;
             }
 
-            long msEndTime = System.currentTimeMillis() + msTimeout;
-            long msRemaining = msTimeout;
-            while (msRemaining > 0) {
-                lockObject.wait(msRemaining);
+            long nsEndTime = System.nanoTime() + unit.toNanos(timeout);
+            long nsRemaining = unit.toNanos(timeout);
+            while (nsRemaining > 0) {
+                TimeUnit.NANOSECONDS.timedWait(lockObject, nsRemaining);
                 if (!isEmpty()) {
                     return true;
                 }
-                msRemaining = msEndTime - System.currentTimeMillis();
+                nsRemaining = nsEndTime - System.nanoTime();
             }
             return false; // timed out
         }
@@ -243,12 +455,19 @@ public class CircularArrayPPBoundedFifo<T> implements PPBoundedFifo<T> {
 
     @Override
     public boolean waitUntilFull(long msTimeout) throws InterruptedException {
+        return waitUntilFull(msTimeout, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public boolean waitUntilFull(long timeout, TimeUnit unit)
+            throws InterruptedException {
+
         synchronized ( lockObject ) {
             if (isFull()) {
                 return true;
             }
 
-            if (msTimeout == 0) {
+            if (timeout == 0) {
                 // wait without timing out
                 do {
                     lockObject.wait();
@@ -256,14 +475,14 @@ public class CircularArrayPPBoundedFifo<T> implements PPBoundedFifo<T> {
                 return true;
             }
 
-            long msEndTime = System.currentTimeMillis() + msTimeout;
-            long msRemaining = msTimeout;
-            while (msRemaining > 0) {
-                lockObject.wait(msRemaining);
+            long nsEndTime = System.nanoTime() + unit.toNanos(timeout);
+            long nsRemaining = unit.toNanos(timeout);
+            while (nsRemaining > 0) {
+                TimeUnit.NANOSECONDS.timedWait(lockObject, nsRemaining);
                 if (isFull()) {
                     return true;
                 }
-                msRemaining = msEndTime - System.currentTimeMillis();
+                nsRemaining = nsEndTime - System.nanoTime();
             }
             return false; // timed out
         }
@@ -276,12 +495,19 @@ public class CircularArrayPPBoundedFifo<T> implements PPBoundedFifo<T> {
 
     @Override
     public boolean waitWhileFull(long msTimeout) throws InterruptedException {
+        return waitWhileFull(msTimeout, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public boolean waitWhileFull(long timeout, TimeUnit unit)
+            throws InterruptedException {
+
         synchronized ( lockObject ) {
             if (!isFull()) {
                 return true;
             }
 
-            if (msTimeout == 0) {
+            if (timeout == 0) {
                 // wait without timing out
                 do {
                     lockObject.wait();
@@ -289,14 +515,14 @@ public class CircularArrayPPBoundedFifo<T> implements PPBoundedFifo<T> {
                 return true;
             }
 
-            long msEndTime = System.currentTimeMillis() + msTimeout;
-            long msRemaining = msTimeout;
-            while (msRemaining > 0) {
-                lockObject.wait(msRemaining);
+            long nsEndTime = System.nanoTime() + unit.toNanos(timeout);
+            long nsRemaining = unit.toNanos(timeout);
+            while (nsRemaining > 0) {
+                TimeUnit.NANOSECONDS.timedWait(lockObject, nsRemaining);
                 if (!isFull()) {
                     return true;
                 }
-                msRemaining = msEndTime - System.currentTimeMillis();
+                nsRemaining = nsEndTime - System.nanoTime();
             }
             return false; // timed out
         }
@@ -306,4 +532,8 @@ public class CircularArrayPPBoundedFifo<T> implements PPBoundedFifo<T> {
     public void waitWhileFull() throws InterruptedException {
         waitWhileFull(0);
     }
+
+    private static interface Expression {
+        boolean isTrue();
+    } // type Expression
 }
@@ -0,0 +1,450 @@
+package com.abc.pp.fifo.impl;
+
+import java.lang.reflect.*;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.locks.*;
+import java.util.function.*;
+
+import com.abc.pp.fifo.*;
+
+/**
+ * Implementation of {@link PPBoundedFifo} which uses a circular array
+ * internally (just like {@link CircularArrayPPBoundedFifo}), but guards it
+ * with a {@link ReentrantLock} and separate {@link Condition}'s instead of a
+ * monitor and <tt>notifyAll()</tt>.
+ * <p>
+ * Look at the documentation in PPBoundedFifo to see how the methods are
+ * supposed to work.
+ * <p>
+ * With <tt>lockObject.notifyAll()</tt> every add and every remove wakes up
+ * every waiting thread - with 32 consumers blocked on an empty FIFO, one add
+ * wakes all 32 and 31 of them go right back to sleep. Here each kind of
+ * waiter has its own condition and is only signaled when its predicate could
+ * have changed:
+ * <ul>
+ * <li>notEmpty - threads in remove() and waitWhileEmpty(). An add signals
+ * ONE of them.</li>
+ * <li>notFull - threads in add() and waitWhileFull(). A remove signals ONE of
+ * them.</li>
+ * <li>becameEmpty - threads in waitUntilEmpty(). Signaled (all) only when the
+ * count drops to 0.</li>
+ * <li>becameFull - threads in waitUntilFull(). Signaled (all) only when the
+ * count reaches capacity.</li>
+ * </ul>
+ * A thread in waitWhileEmpty() (or waitWhileFull()) doesn't change the state,
+ * so if it is the one that got the single signal it passes the signal along
+ * before returning - otherwise a blocked remover (or adder) could miss it.
+ * <p>
+ * {@link #getLockObject()} returns the lockObject passed to the constructor
+ * (or the internal lock if none was passed), but this FIFO never synchronizes
+ * on it. Code which needs several calls to happen atomically must hold
+ * {@link #getLock()} instead. If the proposed lockObject is itself a
+ * ReentrantLock, it is used as the internal lock.
+ */
+public class ConditionCircularArrayPPBoundedFifo<T> implements PPBoundedFifo<T> {
+    private final Class<T> itemType;
+    private final T[] slots;
+    private int head;
+    private int tail;
+    private int count;
+    private final Object lockObject;
+
+    private final ReentrantLock lock;
+    private final Condition notEmpty;
+    private final Condition notFull;
+    private final Condition becameEmpty;
+    private final Condition becameFull;
+
+    public ConditionCircularArrayPPBoundedFifo(int fixedCapacity,
+                                               Class<T> itemType,
+                                               Object proposedLockObject) {
+
+        lock = proposedLockObject instanceof ReentrantLock
+            ? (ReentrantLock) proposedLockObject
+            : new ReentrantLock();
+        lockObject = proposedLockObject != null ? proposedLockObject : lock;
+
+        if ( fixedCapacity < 1 ) {
+            throw new IllegalArgumentException(
+                "fixedCapacity must be at least 1");
+        }
+
+        if (itemType == null) {
+            throw new IllegalArgumentException("itemType must not be null");
+        }
+        this.itemType = itemType;
+
+        slots = createTypeArray(fixedCapacity);
+        head = 0;
+        tail = 0;
+        count = 0;
+
+        notEmpty = lock.newCondition();
+        notFull = lock.newCondition();
+        becameEmpty = lock.newCondition();
+        becameFull = lock.newCondition();
+    }
+
+    public ConditionCircularArrayPPBoundedFifo(int fixedCapacity, Class<T> itemType) {
+        this(fixedCapacity, itemType, null);
+    }
+
+    @SuppressWarnings("unchecked")
+    private T[] createTypeArray(int size) {
+        T[] array = (T[]) Array.newInstance(itemType, size);
+        return array;
+    }
+
+    /**
+     * The lock guarding this FIFO. Hold it to make several calls appear
+     * atomic to other threads.
+     */
+    public ReentrantLock getLock() {
+        return lock;
+    }
+
+    @Override
+    public int getCount() {
+        lock.lock();
+        try {
+            return count;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public boolean isEmpty() {
+        lock.lock();
+        try {
+            return count == 0;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public boolean isFull() {
+        lock.lock();
+        try {
+            return count == slots.length;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void clear() {
+        lock.lock();
+        try {
+            boolean wasEmpty = count == 0;
+            count = 0;
+            head = 0;
+            tail = 0;
+            Arrays.fill(slots, null);
+            if (!wasEmpty) {
+                notFull.signalAll();
+                becameEmpty.signalAll();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public int getCapacity() {
+        return slots.length;
+    }
+
+    @Override
+    public void add(T item) throws InterruptedException {
+        lock.lockInterruptibly();
+        try {
+            while (count == slots.length) {
+                notFull.await();
+            }
+            slots[tail] = item;
+            tail = (tail + 1) % slots.length;
+            count++;
+            notEmpty.signal();
+            if (count == slots.length) {
+                becameFull.signalAll();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public T remove() throws InterruptedException {
+        lock.lockInterruptibly();
+        try {
+            while (count == 0) {
+                notEmpty.await();
+            }
+            T item = slots[head];
+            slots[head] = null;
+            head = (head + 1) % slots.length;
+            count--;
+            notFull.signal();
+            if (count == 0) {
+                becameEmpty.signalAll();
+            }
+            return item;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public Object getLockObject() {
+        return lockObject;
+    }
+
+    @Override
+    public Class<T> getItemType() {
+        return itemType;
+    }
+
+    @Override
+    public void addAll(T[] items) throws InterruptedException {
+        lock.lockInterruptibly();
+        try {
+            for ( T item : items ) {
+                add(item);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public T[] removeAtLeastOne() throws InterruptedException {
+        lock.lockInterruptibly();
+        try {
+            while (count == 0) {
+                notEmpty.await();
+            }
+            return removeAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public T[] removeAll() {
+        lock.lock();
+        try {
+            T[] items = createTypeArray(count);
+            for ( int i = 0; i < items.length; i++ ) {
+                items[i] = slots[head];
+                slots[head] = null;
+                head = (head + 1) % slots.length;
+            }
+            count = 0;
+            if (items.length > 0) {
+                notFull.signalAll();
+                becameEmpty.signalAll();
+            }
+            return items;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public int removeInto(T[] buffer) {
+        lock.lock();
+        try {
+            int removeCount = Math.min(count, buffer.length);
+            for ( int i = 0; i < removeCount; i++ ) {
+                buffer[i] = slots[head];
+                slots[head] = null;
+                head = (head + 1) % slots.length;
+            }
+            count -= removeCount;
+            if (removeCount > 0) {
+                notFull.signalAll();
+                if (count == 0) {
+                    becameEmpty.signalAll();
+                }
+            }
+            return removeCount;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public int drain(Consumer<? super T> sink, int max) {
+        lock.lock();
+        try {
+            int removeCount = 0;
+            try {
+                while (removeCount < max && count > 0) {
+                    T item = slots[head];
+                    slots[head] = null;
+                    head = (head + 1) % slots.length;
+                    count--;
+                    removeCount++;
+                    sink.accept(item);
+                }
+                return removeCount;
+            } finally {
+                if (removeCount > 0) {
+                    notFull.signalAll();
+                    if (count == 0) {
+                        becameEmpty.signalAll();
+                    }
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Waits on the specified condition until the expression is true.
+     * Returns true if the expression became true, false if timed out.
+     * A timeout of 0 means never time out.
+     */
+    private boolean waitUntilTrue(Condition condition,
+                                  Expression expression,
+                                  long timeout,
+                                  TimeUnit unit) throws InterruptedException {
+
+        lock.lockInterruptibly();
+        try {
+            if (timeout == 0) {
+                while (!expression.isTrue()) {
+                    condition.await();
+                }
+                return true;
+            }
+
+            long nsRemaining = unit.toNanos(timeout);
+            while (!expression.isTrue()) {
+                if (nsRemaining <= 0) {
+                    return false; // timed out
+                }
+                nsRemaining = condition.awaitNanos(nsRemaining);
+            }
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public boolean waitUntilEmpty(long msTimeout) throws InterruptedException {
+        return waitUntilEmpty(msTimeout, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public boolean waitUntilEmpty(long timeout, TimeUnit unit)
+            throws InterruptedException {
+
+        return waitUntilTrue(becameEmpty, new Expression() {
+            @Override
+            public boolean isTrue() {
+                return count == 0;
+            }
+        }, timeout, unit);
+    }
+
+    @Override
+    public void waitUntilEmpty() throws InterruptedException {
+        waitUntilEmpty(0);
+    }
+
+    @Override
+    public boolean waitWhileEmpty(long msTimeout) throws InterruptedException {
+        return waitWhileEmpty(msTimeout, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public boolean waitWhileEmpty(long timeout, TimeUnit unit)
+            throws InterruptedException {
+
+        lock.lockInterruptibly();
+        try {
+            boolean notEmptyNow = waitUntilTrue(notEmpty, new Expression() {
+                @Override
+                public boolean isTrue() {
+                    return count > 0;
+                }
+            }, timeout, unit);
+            if (notEmptyNow) {
+                // we didn't take anything, pass the signal on to a remover
+                notEmpty.signal();
+            }
+            return notEmptyNow;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void waitWhileEmpty() throws InterruptedException {
+        waitWhileEmpty(0);
+    }
+
+    @Override
+    public boolean waitUntilFull(long msTimeout) throws InterruptedException {
+        return waitUntilFull(msTimeout, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public boolean waitUntilFull(long timeout, TimeUnit unit)
+            throws InterruptedException {
+
+        return waitUntilTrue(becameFull, new Expression() {
+            @Override
+            public boolean isTrue() {
+                return count == slots.length;
+            }
+        }, timeout, unit);
+    }
+
+    @Override
+    public void waitUntilFull() throws InterruptedException {
+        waitUntilFull(0);
+    }
+
+    @Override
+    public boolean waitWhileFull(long msTimeout) throws InterruptedException {
+        return waitWhileFull(msTimeout, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public boolean waitWhileFull(long timeout, TimeUnit unit)
+            throws InterruptedException {
+
+        lock.lockInterruptibly();
+        try {
+            boolean notFullNow = waitUntilTrue(notFull, new Expression() {
+                @Override
+                public boolean isTrue() {
+                    return count < slots.length;
+                }
+            }, timeout, unit);
+            if (notFullNow) {
+                // we didn't add anything, pass the signal on to an adder
+                notFull.signal();
+            }
+            return notFullNow;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void waitWhileFull() throws InterruptedException {
+        waitWhileFull(0);
+    }
+
+    private static interface Expression {
+        boolean isTrue();
+    } // type Expression
+}
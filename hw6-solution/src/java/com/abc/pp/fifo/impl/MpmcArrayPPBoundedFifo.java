@@ -0,0 +1,440 @@
+package com.abc.pp.fifo.impl;
+
+import java.lang.invoke.*;
+import java.lang.reflect.*;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
+import java.util.function.*;
+
+import com.abc.pp.fifo.*;
+
+/**
+ * Lock-free implementation of {@link PPBoundedFifo} for any number of
+ * producer and consumer threads (Multiple Producer, Multiple Consumer).
+ * <p>
+ * Look at the documentation in PPBoundedFifo to see how the methods are
+ * supposed to work.
+ * <p>
+ * This is Dmitry Vyukov's bounded MPMC queue. tail is the sequence of the
+ * next add and head is the sequence of the next remove; both only ever
+ * increase and the slot for a sequence is <tt>sequence % capacity</tt>.
+ * Every slot also carries its own sequence stamp which says what the slot
+ * is waiting for:
+ * <ul>
+ * <li>stamp == 2s: empty and ready for the add with sequence s</li>
+ * <li>stamp == 2s + 1: holds the item added with sequence s, ready for the
+ * remove with sequence s</li>
+ * </ul>
+ * A producer claims sequence s by CAS'ing tail from s to s + 1, stores the
+ * item and then publishes it by setting the stamp to 2s + 1. A consumer
+ * claims sequence s by CAS'ing head, takes the item and hands the slot back
+ * to the producers by setting the stamp to 2(s + capacity). (The original
+ * uses s and s + 1 as the stamps, but then with a capacity of 1 "holds item
+ * s" and "ready for add s + 1" are the same value; doubling keeps the two
+ * apart for every capacity.) Producers only contend with producers (on tail)
+ * and consumers only with consumers (on head); there is no lock shared
+ * between the two sides.
+ * <p>
+ * A thread is only parked (see {@link ParkingWaiters}) when the FIFO is
+ * actually full or actually empty. There is no <tt>notifyAll()</tt>: the
+ * other side only pays to unpark when someone is really parked, and since one
+ * remove only makes room for one add (and vice versa), only one blocked adder
+ * (or remover) is unparked per operation. (If that wakeup goes to a thread
+ * which is already on its way out, ParkingWaiters passes it on.) Every
+ * stamp publish is followed by a full fence (StoreLoad), so the check for
+ * parked threads which comes after it can never miss a waiter which missed
+ * the new stamp.
+ * <p>
+ * Because adds and removes are claimed and then completed in two steps,
+ * {@link #getCount()}, {@link #isEmpty()} and {@link #isFull()} are
+ * snapshots which count claimed-but-not-yet-completed operations.
+ * <p>
+ * This FIFO never synchronizes on {@link #getLockObject()}. It is returned
+ * only to satisfy the interface; holding it does NOT keep other threads out.
+ */
+public class MpmcArrayPPBoundedFifo<T> implements PPBoundedFifo<T> {
+    private static final Object EMPTY = new Object();
+
+    private final Class<T> itemType;
+    private final T[] slots;
+    private final AtomicLongArray stamps;
+    private final Object lockObject;
+
+    private final PaddedSequence head;
+    private final PaddedSequence tail;
+
+    // threads blocked inside add() / remove() - woken one at a time
+    private final ParkingWaiters blockedAdders;
+    private final ParkingWaiters blockedRemovers;
+    // threads in the wait methods for something an add can change
+    private final ParkingWaiters waitingForAdd;
+    // threads in the wait methods for something a remove can change
+    private final ParkingWaiters waitingForRemove;
+
+    private final ParkingWaiters.Expression emptyExpression;
+    private final ParkingWaiters.Expression notEmptyExpression;
+    private final ParkingWaiters.Expression fullExpression;
+    private final ParkingWaiters.Expression notFullExpression;
+
+    public MpmcArrayPPBoundedFifo(int fixedCapacity,
+                                  Class<T> itemType,
+                                  Object proposedLockObject) {
+
+        lockObject =
+            proposedLockObject != null ? proposedLockObject : new Object();
+
+        if ( fixedCapacity < 1 ) {
+            throw new IllegalArgumentException(
+                "fixedCapacity must be at least 1");
+        }
+
+        if (itemType == null) {
+            throw new IllegalArgumentException("itemType must not be null");
+        }
+        this.itemType = itemType;
+
+        slots = createTypeArray(fixedCapacity);
+        stamps = new AtomicLongArray(fixedCapacity);
+        for ( int i = 0; i < fixedCapacity; i++ ) {
+            stamps.set(i, emptyStamp(i));
+        }
+        head = new PaddedSequence(0);
+        tail = new PaddedSequence(0);
+
+        blockedAdders = new ParkingWaiters();
+        blockedRemovers = new ParkingWaiters();
+        waitingForAdd = new ParkingWaiters();
+        waitingForRemove = new ParkingWaiters();
+
+        emptyExpression = new ParkingWaiters.Expression() {
+            @Override
+            public boolean isTrue() {
+                return isEmpty();
+            }
+        };
+        notEmptyExpression = new ParkingWaiters.Expression() {
+            @Override
+            public boolean isTrue() {
+                return isNextRemoveReady();
+            }
+        };
+        fullExpression = new ParkingWaiters.Expression() {
+            @Override
+            public boolean isTrue() {
+                return isFull();
+            }
+        };
+        notFullExpression = new ParkingWaiters.Expression() {
+            @Override
+            public boolean isTrue() {
+                return isNextAddReady();
+            }
+        };
+    }
+
+    public MpmcArrayPPBoundedFifo(int fixedCapacity, Class<T> itemType) {
+        this(fixedCapacity, itemType, null);
+    }
+
+    @SuppressWarnings("unchecked")
+    private T[] createTypeArray(int size) {
+        T[] array = (T[]) Array.newInstance(itemType, size);
+        return array;
+    }
+
+    private int indexOf(long sequence) {
+        return (int) (sequence % slots.length);
+    }
+
+    // stamp of a slot which is ready for the add with this sequence
+    private static long emptyStamp(long sequence) {
+        return sequence * 2;
+    }
+
+    // stamp of a slot which holds the item added with this sequence
+    private static long fullStamp(long sequence) {
+        return sequence * 2 + 1;
+    }
+
+    // true if the slot for the next add has been handed back by its consumer
+    private boolean isNextAddReady() {
+        long sequence = tail.get();
+        return stamps.get(indexOf(sequence)) >= emptyStamp(sequence);
+    }
+
+    // true if the item for the next remove has been published by its producer
+    private boolean isNextRemoveReady() {
+        long sequence = head.get();
+        return stamps.get(indexOf(sequence)) >= fullStamp(sequence);
+    }
+
+    /**
+     * Adds the item if there is room right now.
+     * Returns true if added, false if full.
+     */
+    private boolean tryAdd(T item) {
+        long sequence = tail.get();
+        while (true) {
+            int index = indexOf(sequence);
+            long stamp = stamps.get(index);
+            long diff = stamp - emptyStamp(sequence);
+            if (diff == 0) {
+                if (tail.compareAndSet(sequence, sequence + 1)) {
+                    slots[index] = item;
+                    stamps.lazySet(index, fullStamp(sequence));
+                    // StoreLoad: the stamp must be visible before add()
+                    // reads whether anyone is parked, see ParkingWaiters
+                    VarHandle.fullFence();
+                    return true;
+                }
+                // another producer got it, try the next one
+                sequence = tail.get();
+            } else if (diff < 0) {
+                return false; // full - slot not yet handed back by a consumer
+            } else {
+                // we're behind, another producer already claimed this one
+                sequence = tail.get();
+            }
+        }
+    }
+
+    /**
+     * Removes and returns the next item if there is one right now.
+     * Returns {@link #EMPTY} if there isn't.
+     */
+    private Object tryRemove() {
+        long sequence = head.get();
+        while (true) {
+            int index = indexOf(sequence);
+            long stamp = stamps.get(index);
+            long diff = stamp - fullStamp(sequence);
+            if (diff == 0) {
+                if (head.compareAndSet(sequence, sequence + 1)) {
+                    T item = slots[index];
+                    slots[index] = null;
+                    stamps.lazySet(index, emptyStamp(sequence + slots.length));
+                    // StoreLoad: as in tryAdd()
+                    VarHandle.fullFence();
+                    return item;
+                }
+                // another consumer got it, try the next one
+                sequence = head.get();
+            } else if (diff < 0) {
+                return EMPTY; // empty - item not yet published by a producer
+            } else {
+                // we're behind, another consumer already claimed this one
+                sequence = head.get();
+            }
+        }
+    }
+
+    @Override
+    public int getCount() {
+        // read head first: tail can only move away from it
+        long currentHead = head.get();
+        long currentTail = tail.get();
+        long count = currentTail - currentHead;
+        if (count < 0) {
+            return 0;
+        }
+        return (int) Math.min(count, slots.length);
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return getCount() == 0;
+    }
+
+    @Override
+    public boolean isFull() {
+        return getCount() == slots.length;
+    }
+
+    @Override
+    public void clear() {
+        boolean removedAny = false;
+        while (tryRemove() != EMPTY) {
+            removedAny = true;
+        }
+        if (removedAny) {
+            blockedAdders.unparkAllIfAny();
+            waitingForRemove.unparkAllIfAny();
+        }
+    }
+
+    @Override
+    public int getCapacity() {
+        return slots.length;
+    }
+
+    @Override
+    public void add(T item) throws InterruptedException {
+        while (!tryAdd(item)) {
+            blockedAdders.waitUntilTrue(notFullExpression);
+        }
+        blockedRemovers.unparkOneIfAny();
+        waitingForAdd.unparkAllIfAny();
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public T remove() throws InterruptedException {
+        while (true) {
+            Object item = tryRemove();
+            if (item != EMPTY) {
+                blockedAdders.unparkOneIfAny();
+                waitingForRemove.unparkAllIfAny();
+                return (T) item;
+            }
+            blockedRemovers.waitUntilTrue(notEmptyExpression);
+        }
+    }
+
+    @Override
+    public Object getLockObject() {
+        return lockObject;
+    }
+
+    @Override
+    public Class<T> getItemType() {
+        return itemType;
+    }
+
+    @Override
+    public void addAll(T[] items) throws InterruptedException {
+        for ( T item : items ) {
+            add(item);
+        }
+    }
+
+    @Override
+    public T[] removeAtLeastOne() throws InterruptedException {
+        while (true) {
+            waitWhileEmpty(0);
+            T[] items = removeAll();
+            if (items.length > 0) {
+                return items;
+            }
+            // another consumer beat us to it, go back to waiting
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public T[] removeAll() {
+        List<T> removedItems = new ArrayList<>(getCount());
+        Object item;
+        while ((item = tryRemove()) != EMPTY) {
+            removedItems.add((T) item);
+        }
+        if (!removedItems.isEmpty()) {
+            blockedAdders.unparkAllIfAny();
+            waitingForRemove.unparkAllIfAny();
+        }
+        return removedItems.toArray(createTypeArray(removedItems.size()));
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public int removeInto(T[] buffer) {
+        int removeCount = 0;
+        Object item;
+        while (removeCount < buffer.length && (item = tryRemove()) != EMPTY) {
+            buffer[removeCount] = (T) item;
+            removeCount++;
+        }
+        if (removeCount > 0) {
+            blockedAdders.unparkAllIfAny();
+            waitingForRemove.unparkAllIfAny();
+        }
+        return removeCount;
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public int drain(Consumer<? super T> sink, int max) {
+        int removeCount = 0;
+        try {
+            Object item;
+            while (removeCount < max && (item = tryRemove()) != EMPTY) {
+                removeCount++;
+                sink.accept((T) item);
+            }
+            return removeCount;
+        } finally {
+            if (removeCount > 0) {
+                blockedAdders.unparkAllIfAny();
+                waitingForRemove.unparkAllIfAny();
+            }
+        }
+    }
+
+    @Override
+    public boolean waitUntilEmpty(long msTimeout) throws InterruptedException {
+        return waitUntilEmpty(msTimeout, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public boolean waitUntilEmpty(long timeout, TimeUnit unit)
+            throws InterruptedException {
+
+        return waitingForRemove.waitUntilTrue(emptyExpression, timeout, unit);
+    }
+
+    @Override
+    public void waitUntilEmpty() throws InterruptedException {
+        waitUntilEmpty(0);
+    }
+
+    @Override
+    public boolean waitWhileEmpty(long msTimeout) throws InterruptedException {
+        return waitWhileEmpty(msTimeout, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public boolean waitWhileEmpty(long timeout, TimeUnit unit)
+            throws InterruptedException {
+
+        return waitingForAdd.waitUntilTrue(notEmptyExpression, timeout, unit);
+    }
+
+    @Override
+    public void waitWhileEmpty() throws InterruptedException {
+        waitWhileEmpty(0);
+    }
+
+    @Override
+    public boolean waitUntilFull(long msTimeout) throws InterruptedException {
+        return waitUntilFull(msTimeout, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public boolean waitUntilFull(long timeout, TimeUnit unit)
+            throws InterruptedException {
+
+        return waitingForAdd.waitUntilTrue(fullExpression, timeout, unit);
+    }
+
+    @Override
+    public void waitUntilFull() throws InterruptedException {
+        waitUntilFull(0);
+    }
+
+    @Override
+    public boolean waitWhileFull(long msTimeout) throws InterruptedException {
+        return waitWhileFull(msTimeout, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public boolean waitWhileFull(long timeout, TimeUnit unit)
+            throws InterruptedException {
+
+        return waitingForRemove.waitUntilTrue(notFullExpression, timeout, unit);
+    }
+
+    @Override
+    public void waitWhileFull() throws InterruptedException {
+        waitWhileFull(0);
+    }
+}
@@ -0,0 +1,81 @@
+package com.abc.pp.fifo.impl;
+
+import java.lang.invoke.*;
+
+/**
+ * A sequence counter padded out to (at least) its own cache line so that a
+ * producer hammering on one sequence doesn't keep invalidating the line
+ * holding the consumer's sequence (false sharing).
+ * <p>
+ * The padding has to be on BOTH sides of the value: whatever the JVM puts
+ * just before this object (its header, or the tail of the previous object)
+ * could otherwise share the value's line. Fields of a superclass are laid
+ * out before those of a subclass, so the leading pad lives in
+ * {@link PaddedSequenceLeadingPad}, the value in {@link PaddedSequenceValue},
+ * and the trailing pad here.
+ * (That's also why this no longer extends AtomicLong: there would be no way
+ * to get a pad in front of AtomicLong's value.)
+ * <p>
+ * The {@link #cache} field rides along on the same line and is meant to be
+ * read and written ONLY by the thread that owns this sequence. It typically
+ * holds that thread's last-seen copy of the opposite sequence so the owner
+ * only has to touch the other side's cache line when the cached copy says
+ * it's out of room (or out of items).
+ */
+/* deliberate package scope */
+class PaddedSequence extends PaddedSequenceValue {
+    private static final VarHandle VALUE;
+    static {
+        try {
+            VALUE = MethodHandles.lookup().findVarHandle(
+                PaddedSequenceValue.class, "value", long.class);
+        } catch ( ReflectiveOperationException x ) {
+            throw new ExceptionInInitializerError(x);
+        }
+    }
+
+    // padding - never read, only here to push neighbors off this cache line
+    long p1, p2, p3, p4, p5, p6, p7;
+
+    public PaddedSequence(long initialValue) {
+        value = initialValue;
+    }
+
+    /** Volatile read. */
+    public long get() {
+        return value;
+    }
+
+    /** Volatile write. */
+    public void set(long newValue) {
+        value = newValue;
+    }
+
+    /** Release write (like AtomicLong.lazySet()). */
+    public void lazySet(long newValue) {
+        VALUE.setRelease(this, newValue);
+    }
+
+    public boolean compareAndSet(long expectedValue, long newValue) {
+        return VALUE.compareAndSet(this, expectedValue, newValue);
+    }
+
+    @Override
+    public String toString() {
+        return Long.toString(get());
+    }
+}
+
+/* deliberate package scope */
+abstract class PaddedSequenceLeadingPad {
+    // padding - never read, only here to push neighbors off this cache line
+    long p01, p02, p03, p04, p05, p06, p07;
+}
+
+/* deliberate package scope */
+abstract class PaddedSequenceValue extends PaddedSequenceLeadingPad {
+    volatile long value;
+
+    /** Owner-only scratch value; never read by any other thread. */
+    long cache;
+}
@@ -0,0 +1,188 @@
+package com.abc.pp.fifo.impl;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
+import java.util.concurrent.locks.*;
+
+/**
+ * A set of threads parked (via {@link LockSupport}) until some
+ * {@link Expression} becomes true. This is the lock-free FIFOs' stand-in for
+ * <tt>lockObject.wait()</tt> / <tt>lockObject.notifyAll()</tt>.
+ * <p>
+ * The signalling side calls {@link #unparkAllIfAny()} after every state
+ * change. When nobody is parked (the common case for a FIFO that is neither
+ * empty nor full) that costs a single volatile read.
+ * <p>
+ * A waiter registers (a volatile increment, so a full fence) and only then
+ * re-checks its expression. The signalling side may publish its state change
+ * with a lazy (release) store, but it MUST put a full fence (StoreLoad, e.g.
+ * <tt>VarHandle.fullFence()</tt>) between that store and calling
+ * unparkAllIfAny() / unparkOneIfAny(). Then either the waiter sees the new
+ * state or the signaller sees the waiter, never neither, and a waiter can
+ * park with no time limit: it is only woken by a signal, an interrupt or
+ * its own timeout.
+ * <p>
+ * {@link #unparkOneIfAny()} hands its signal to exactly one registered
+ * waiter: the waiter's node is taken off the queue, so repeated signals
+ * reach different threads. A waiter which gets a signal but then finds its
+ * expression still false goes to the back of the queue, and one which gives
+ * up (timeout or interrupt) with an unused signal passes it on.
+ */
+/* deliberate package scope */
+class ParkingWaiters {
+    private final Queue<ParkedThread> parkedThreads;
+    private final AtomicInteger parkedCount;
+
+    public ParkingWaiters() {
+        parkedThreads = new ConcurrentLinkedQueue<>();
+        parkedCount = new AtomicInteger(0);
+    }
+
+    /** Returns true if there is at least one thread currently registered. */
+    public boolean hasParkedThreads() {
+        return parkedCount.get() > 0;
+    }
+
+    /**
+     * Unparks every registered thread (they each re-check their own
+     * expression). Does nothing but a volatile read if no one is parked.
+     * The state change must be fenced before this call, see above.
+     */
+    public void unparkAllIfAny() {
+        if (parkedCount.get() > 0) {
+            for (ParkedThread parkedThread : parkedThreads) {
+                LockSupport.unpark(parkedThread.thread);
+            }
+        }
+    }
+
+    /**
+     * Unparks the longest-parked registered thread (if any). Use this instead
+     * of {@link #unparkAllIfAny()} when the state change can only satisfy
+     * one waiter anyway (for example, one remove makes room for one add).
+     */
+    public void unparkOneIfAny() {
+        if (parkedCount.get() > 0) {
+            ParkedThread parkedThread;
+            while ((parkedThread = parkedThreads.poll()) != null) {
+                if (parkedThread.signal()) {
+                    LockSupport.unpark(parkedThread.thread);
+                    return;
+                }
+                // that waiter already gave up, try the next one
+            }
+        }
+    }
+
+    /**
+     * Waits until the specified expression is true (no timeout).
+     * @param expression checked before parking and after every wakeup.
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public void waitUntilTrue(Expression expression)
+            throws InterruptedException {
+
+        waitUntilTrue(expression, 0, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Waits until the specified expression is true.
+     * @param expression checked before parking and after every wakeup.
+     * @param timeout maximum time to wait, measured with
+     * <tt>System.nanoTime()</tt>. A value of 0 means the waiting should never
+     * time out.
+     * @param unit the unit of timeout.
+     * @return true if the expression became true, false if timed out
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public boolean waitUntilTrue(Expression expression,
+                                 long timeout,
+                                 TimeUnit unit) throws InterruptedException {
+
+        if (expression.isTrue()) {
+            return true;
+        }
+
+        Thread me = Thread.currentThread();
+        ParkedThread parkedThread = new ParkedThread(me);
+        boolean success = false;
+        parkedCount.incrementAndGet();
+        parkedThreads.add(parkedThread);
+        try {
+            long nsEndTime = System.nanoTime() + unit.toNanos(timeout);
+            while (true) {
+                if (expression.isTrue()) {
+                    success = true;
+                    return true;
+                }
+                if (Thread.interrupted()) {
+                    throw new InterruptedException();
+                }
+                if (parkedThread.isSignalled()) {
+                    // the signal didn't help us, get back in line for the next
+                    parkedThread = new ParkedThread(me);
+                    parkedThreads.add(parkedThread);
+                    continue;
+                }
+
+                if (timeout == 0) {
+                    LockSupport.park(this);
+                } else {
+                    long nsRemaining = nsEndTime - System.nanoTime();
+                    if (nsRemaining <= 0) {
+                        return false; // timed out
+                    }
+                    LockSupport.parkNanos(this, nsRemaining);
+                }
+            }
+        } finally {
+            boolean cancelled = parkedThread.cancel();
+            parkedThreads.remove(parkedThread);
+            parkedCount.decrementAndGet();
+            if (!cancelled && !success) {
+                // we were signalled but are leaving without using it
+                unparkOneIfAny();
+            }
+        }
+    }
+
+    /**
+     * One registration of a waiting thread. It's either signalled (by
+     * {@link #unparkOneIfAny()}) or cancelled (by the waiter leaving), but
+     * never both.
+     */
+    private static class ParkedThread {
+        private static final int WAITING = 0;
+        private static final int SIGNALLED = 1;
+        private static final int CANCELLED = 2;
+
+        public final Thread thread;
+        private final AtomicInteger state;
+
+        public ParkedThread(Thread thread) {
+            this.thread = thread;
+            state = new AtomicInteger(WAITING);
+        }
+
+        public boolean signal() {
+            return state.compareAndSet(WAITING, SIGNALLED);
+        }
+
+        public boolean cancel() {
+            return state.compareAndSet(WAITING, CANCELLED);
+        }
+
+        public boolean isSignalled() {
+            return state.get() == SIGNALLED;
+        }
+    } // type ParkedThread
+
+    /**
+     * Something to wait for. Evaluated without any lock held, so it must
+     * only read state which is safe to read concurrently.
+     */
+    public static interface Expression {
+        boolean isTrue();
+    } // type Expression
+}
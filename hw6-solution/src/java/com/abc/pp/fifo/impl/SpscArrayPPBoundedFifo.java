@@ -0,0 +1,367 @@
+package com.abc.pp.fifo.impl;
+
+import java.lang.invoke.*;
+import java.lang.reflect.*;
+import java.util.concurrent.*;
+import java.util.function.*;
+
+import com.abc.pp.fifo.*;
+
+/**
+ * Lock-free implementation of {@link PPBoundedFifo} for exactly ONE producer
+ * thread and ONE consumer thread (Single Producer, Single Consumer).
+ * <p>
+ * Look at the documentation in PPBoundedFifo to see how the methods are
+ * supposed to work.
+ * <p>
+ * Instead of a count plus head and tail indexes guarded by a lock, there
+ * are two ever-increasing sequence numbers: tail is the sequence of the next
+ * item to add and is only ever written by the producer, head is the sequence
+ * of the next item to remove and is only ever written by the consumer. The
+ * count is simply tail - head, and the slot for a sequence is
+ * <tt>sequence % capacity</tt>. Each side:
+ * <ul>
+ * <li>keeps its sequence on its own cache line (see {@link PaddedSequence}),</li>
+ * <li>keeps a private cached copy of the other side's sequence and only
+ * re-reads the real one when the cached copy says full (or empty),</li>
+ * <li>publishes with a lazy (release) store and no lock.</li>
+ * </ul>
+ * A thread is only parked when the FIFO is actually full (producer) or
+ * actually empty (consumer), and the other side only pays to unpark it when
+ * someone is really parked. Between publishing and checking for parked
+ * threads there is one full fence (StoreLoad), so that check can't see a
+ * stale "nobody is parked" while the waiter sees a stale sequence.
+ * <p>
+ * Rules for use:
+ * <ul>
+ * <li>{@link #add(Object)} and {@link #addAll(Object[])} may only be called by
+ * one thread at a time (the producer).</li>
+ * <li>{@link #remove()}, {@link #removeAtLeastOne()}, {@link #removeAll()},
+ * {@link #removeInto(Object[])}, {@link #drain(Consumer, int)} and
+ * {@link #clear()} may only be called by one thread at a time (the
+ * consumer).</li>
+ * <li>The producer or consumer role can move to a different thread as long
+ * as there is a happens-before edge between the old and the new thread
+ * (for example, starting the new thread or handing off through a lock).</li>
+ * <li>All the query and wait methods can be called by any thread.</li>
+ * </ul>
+ * This FIFO never synchronizes on {@link #getLockObject()}. It is returned
+ * only to satisfy the interface; holding it does NOT keep other threads out.
+ */
+public class SpscArrayPPBoundedFifo<T> implements PPBoundedFifo<T> {
+    private final Class<T> itemType;
+    private final T[] slots;
+    private final Object lockObject;
+
+    // cache holds the consumer's last-seen copy of tail
+    private final PaddedSequence head;
+    // cache holds the producer's last-seen copy of head
+    private final PaddedSequence tail;
+
+    // waiting for something an add can change: not empty, full
+    private final ParkingWaiters waitingForAdd;
+    // waiting for something a remove can change: not full, empty
+    private final ParkingWaiters waitingForRemove;
+
+    private final ParkingWaiters.Expression emptyExpression;
+    private final ParkingWaiters.Expression notEmptyExpression;
+    private final ParkingWaiters.Expression fullExpression;
+    private final ParkingWaiters.Expression notFullExpression;
+
+    public SpscArrayPPBoundedFifo(int fixedCapacity,
+                                  Class<T> itemType,
+                                  Object proposedLockObject) {
+
+        lockObject =
+            proposedLockObject != null ? proposedLockObject : new Object();
+
+        if ( fixedCapacity < 1 ) {
+            throw new IllegalArgumentException(
+                "fixedCapacity must be at least 1");
+        }
+
+        if (itemType == null) {
+            throw new IllegalArgumentException("itemType must not be null");
+        }
+        this.itemType = itemType;
+
+        slots = createTypeArray(fixedCapacity);
+        head = new PaddedSequence(0);
+        tail = new PaddedSequence(0);
+
+        waitingForAdd = new ParkingWaiters();
+        waitingForRemove = new ParkingWaiters();
+
+        emptyExpression = new ParkingWaiters.Expression() {
+            @Override
+            public boolean isTrue() {
+                return isEmpty();
+            }
+        };
+        notEmptyExpression = new ParkingWaiters.Expression() {
+            @Override
+            public boolean isTrue() {
+                return !isEmpty();
+            }
+        };
+        fullExpression = new ParkingWaiters.Expression() {
+            @Override
+            public boolean isTrue() {
+                return isFull();
+            }
+        };
+        notFullExpression = new ParkingWaiters.Expression() {
+            @Override
+            public boolean isTrue() {
+                return !isFull();
+            }
+        };
+    }
+
+    public SpscArrayPPBoundedFifo(int fixedCapacity, Class<T> itemType) {
+        this(fixedCapacity, itemType, null);
+    }
+
+    @SuppressWarnings("unchecked")
+    private T[] createTypeArray(int size) {
+        T[] array = (T[]) Array.newInstance(itemType, size);
+        return array;
+    }
+
+    private int indexOf(long sequence) {
+        return (int) (sequence % slots.length);
+    }
+
+    @Override
+    public int getCount() {
+        // read tail first: head can only catch up to it, never pass it
+        long currentTail = tail.get();
+        long currentHead = head.get();
+        long count = currentTail - currentHead;
+        if (count < 0) {
+            return 0; // consumer raced past the tail we read
+        }
+        return (int) Math.min(count, slots.length);
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return tail.get() == head.get();
+    }
+
+    @Override
+    public boolean isFull() {
+        return tail.get() - head.get() >= slots.length;
+    }
+
+    /**
+     * Consumer-side operation: removes everything the producer has published
+     * so far.
+     */
+    @Override
+    public void clear() {
+        long currentHead = head.get();
+        long currentTail = tail.get();
+        for (long seq = currentHead; seq < currentTail; seq++) {
+            slots[indexOf(seq)] = null;
+        }
+        head.cache = currentTail;
+        head.lazySet(currentTail);
+        VarHandle.fullFence(); // StoreLoad, see ParkingWaiters
+        waitingForRemove.unparkAllIfAny();
+    }
+
+    @Override
+    public int getCapacity() {
+        return slots.length;
+    }
+
+    @Override
+    public void add(T item) throws InterruptedException {
+        long currentTail = tail.get();
+        long wrapPoint = currentTail - slots.length;
+        if (tail.cache <= wrapPoint) {
+            tail.cache = head.get();
+            if (tail.cache <= wrapPoint) {
+                waitingForRemove.waitUntilTrue(notFullExpression);
+                tail.cache = head.get();
+            }
+        }
+
+        slots[indexOf(currentTail)] = item;
+        tail.lazySet(currentTail + 1);
+        VarHandle.fullFence(); // StoreLoad, see ParkingWaiters
+        waitingForAdd.unparkAllIfAny();
+    }
+
+    @Override
+    public T remove() throws InterruptedException {
+        long currentHead = head.get();
+        if (currentHead >= head.cache) {
+            head.cache = tail.get();
+            if (currentHead >= head.cache) {
+                waitingForAdd.waitUntilTrue(notEmptyExpression);
+                head.cache = tail.get();
+            }
+        }
+
+        int index = indexOf(currentHead);
+        T item = slots[index];
+        slots[index] = null;
+        head.lazySet(currentHead + 1);
+        VarHandle.fullFence(); // StoreLoad, see ParkingWaiters
+        waitingForRemove.unparkAllIfAny();
+        return item;
+    }
+
+    @Override
+    public Object getLockObject() {
+        return lockObject;
+    }
+
+    @Override
+    public Class<T> getItemType() {
+        return itemType;
+    }
+
+    @Override
+    public void addAll(T[] items) throws InterruptedException {
+        for ( T item : items ) {
+            add(item);
+        }
+    }
+
+    @Override
+    public T[] removeAtLeastOne() throws InterruptedException {
+        waitWhileEmpty(0);
+        return removeAll();
+    }
+
+    @Override
+    public T[] removeAll() {
+        long currentHead = head.get();
+        long currentTail = tail.get();
+        T[] items = createTypeArray((int) (currentTail - currentHead));
+        for ( int i = 0; i < items.length; i++ ) {
+            int index = indexOf(currentHead + i);
+            items[i] = slots[index];
+            slots[index] = null;
+        }
+        head.cache = currentTail;
+        head.lazySet(currentTail);
+        VarHandle.fullFence(); // StoreLoad, see ParkingWaiters
+        waitingForRemove.unparkAllIfAny();
+        return items;
+    }
+
+    @Override
+    public int removeInto(T[] buffer) {
+        long currentHead = head.get();
+        long currentTail = tail.get();
+        int removeCount = (int) Math.min(currentTail - currentHead, buffer.length);
+        for ( int i = 0; i < removeCount; i++ ) {
+            int index = indexOf(currentHead + i);
+            buffer[i] = slots[index];
+            slots[index] = null;
+        }
+        head.cache = currentTail;
+        if (removeCount > 0) {
+            head.lazySet(currentHead + removeCount);
+            VarHandle.fullFence(); // StoreLoad, see ParkingWaiters
+            waitingForRemove.unparkAllIfAny();
+        }
+        return removeCount;
+    }
+
+    /**
+     * Hands back each slot (publishes head) before passing its item to sink,
+     * so the producer can refill the ring while the drain is still going and
+     * a sink which throws never sees an item again.
+     */
+    @Override
+    public int drain(Consumer<? super T> sink, int max) {
+        long currentHead = head.get();
+        long currentTail = tail.get();
+        head.cache = currentTail;
+        int removeCount = 0;
+        while (removeCount < max && currentHead + removeCount < currentTail) {
+            int index = indexOf(currentHead + removeCount);
+            T item = slots[index];
+            slots[index] = null;
+            removeCount++;
+            head.lazySet(currentHead + removeCount);
+            VarHandle.fullFence(); // StoreLoad, see ParkingWaiters
+            waitingForRemove.unparkAllIfAny();
+            sink.accept(item);
+        }
+        return removeCount;
+    }
+
+    @Override
+    public boolean waitUntilEmpty(long msTimeout) throws InterruptedException {
+        return waitUntilEmpty(msTimeout, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public boolean waitUntilEmpty(long timeout, TimeUnit unit)
+            throws InterruptedException {
+
+        return waitingForRemove.waitUntilTrue(emptyExpression, timeout, unit);
+    }
+
+    @Override
+    public void waitUntilEmpty() throws InterruptedException {
+        waitUntilEmpty(0);
+    }
+
+    @Override
+    public boolean waitWhileEmpty(long msTimeout) throws InterruptedException {
+        return waitWhileEmpty(msTimeout, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public boolean waitWhileEmpty(long timeout, TimeUnit unit)
+            throws InterruptedException {
+
+        return waitingForAdd.waitUntilTrue(notEmptyExpression, timeout, unit);
+    }
+
+    @Override
+    public void waitWhileEmpty() throws InterruptedException {
+        waitWhileEmpty(0);
+    }
+
+    @Override
+    public boolean waitUntilFull(long msTimeout) throws InterruptedException {
+        return waitUntilFull(msTimeout, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public boolean waitUntilFull(long timeout, TimeUnit unit)
+            throws InterruptedException {
+
+        return waitingForAdd.waitUntilTrue(fullExpression, timeout, unit);
+    }
+
+    @Override
+    public void waitUntilFull() throws InterruptedException {
+        waitUntilFull(0);
+    }
+
+    @Override
+    public boolean waitWhileFull(long msTimeout) throws InterruptedException {
+        return waitWhileFull(msTimeout, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public boolean waitWhileFull(long timeout, TimeUnit unit)
+            throws InterruptedException {
+
+        return waitingForRemove.waitUntilTrue(notFullExpression, timeout, unit);
+    }
+
+    @Override
+    public void waitWhileFull() throws InterruptedException {
+        waitWhileFull(0);
+    }
+}
@@ -0,0 +1,165 @@
+package com.abc.pp.fifo.impl;
+
+import java.util.concurrent.*;
+
+/**
+ * Decides what a thread does while it waits for a FIFO to stop being full
+ * (or empty) before it falls back to blocking on the FIFO's lockObject.
+ * <p>
+ * Blocking with <tt>lockObject.wait()</tt> is cheap on CPU, but a blocked
+ * thread has to be woken up by the OS, which adds tens of microseconds to
+ * the handoff. Spinning keeps the waiting thread on a CPU so it sees the
+ * change almost right away, at the cost of burning that CPU while it waits.
+ * Only use the spinning strategies when every spinning thread can have a
+ * core to itself.
+ * <p>
+ * {@link #idle(int, long)} is called without any lock held, once for each
+ * time the waiting thread finds it still can't proceed. Every strategy
+ * blocks after at most {@link #MAX_IDLE_ATTEMPTS} attempts, so a waiter
+ * which is never going to be satisfied soon ends up blocked rather than
+ * burning a CPU. A thread which already holds the lockObject never spins
+ * (the thread which would change the FIFO couldn't get in). The available
+ * strategies are:
+ * <ul>
+ * <li>{@link #blocking()} - never spins; block on the lockObject right away
+ * (the original behavior).</li>
+ * <li>{@link #busySpin()} - spins with {@link Thread#onSpinWait()}, then
+ * blocks after {@link #MAX_IDLE_ATTEMPTS}.</li>
+ * <li>{@link #spinThenYield(int)} - spins for a number of attempts, then
+ * calls {@link Thread#yield()} between attempts, then blocks after
+ * {@link #MAX_IDLE_ATTEMPTS}.</li>
+ * <li>{@link #spinThenPark(long, TimeUnit)} - spins for up to a time budget,
+ * then blocks on the lockObject.</li>
+ * </ul>
+ */
+public abstract class WaitStrategy {
+    /**
+     * The most times {@link #idle(int, long)} is called for one wait before
+     * the waiting thread blocks on the lockObject, whatever the strategy.
+     */
+    public static final int MAX_IDLE_ATTEMPTS = 1 << 16;
+
+    private static final WaitStrategy BLOCKING = new Blocking();
+    private static final WaitStrategy BUSY_SPIN = new BusySpin();
+
+    protected WaitStrategy() {
+    }
+
+    /**
+     * Called each time the waiting thread finds it still can't proceed.
+     * @param attempt 0 the first time for this wait, then 1, 2, ...
+     * @param nsWaitStart <tt>System.nanoTime()</tt> when this wait started.
+     * @return true to check again (after spinning, yielding, ...), false to
+     * stop spinning and block on the lockObject.
+     */
+    public abstract boolean idle(int attempt, long nsWaitStart);
+
+    /** Never spins: blocks on the lockObject right away. */
+    public static WaitStrategy blocking() {
+        return BLOCKING;
+    }
+
+    /**
+     * Spins with {@link Thread#onSpinWait()}, blocking only after
+     * {@link #MAX_IDLE_ATTEMPTS}.
+     */
+    public static WaitStrategy busySpin() {
+        return BUSY_SPIN;
+    }
+
+    /**
+     * Spins with {@link Thread#onSpinWait()} for spinCount attempts, then
+     * calls {@link Thread#yield()} between attempts, blocking only after
+     * {@link #MAX_IDLE_ATTEMPTS} in total.
+     */
+    public static WaitStrategy spinThenYield(int spinCount) {
+        return new SpinThenYield(spinCount);
+    }
+
+    /**
+     * Spins with {@link Thread#onSpinWait()} for up to spinBudget, then
+     * blocks on the lockObject (just like {@link #blocking()}).
+     */
+    public static WaitStrategy spinThenPark(long spinBudget, TimeUnit unit) {
+        return new SpinThenPark(unit.toNanos(spinBudget));
+    }
+
+    private static class Blocking extends WaitStrategy {
+        @Override
+        public boolean idle(int attempt, long nsWaitStart) {
+            return false;
+        }
+
+        @Override
+        public String toString() {
+            return "blocking";
+        }
+    } // type Blocking
+
+    private static class BusySpin extends WaitStrategy {
+        @Override
+        public boolean idle(int attempt, long nsWaitStart) {
+            Thread.onSpinWait();
+            return true;
+        }
+
+        @Override
+        public String toString() {
+            return "busy-spin";
+        }
+    } // type BusySpin
+
+    private static class SpinThenYield extends WaitStrategy {
+        private final int spinCount;
+
+        public SpinThenYield(int spinCount) {
+            if (spinCount < 0) {
+                throw new IllegalArgumentException(
+                    "spinCount must not be negative");
+            }
+            this.spinCount = spinCount;
+        }
+
+        @Override
+        public boolean idle(int attempt, long nsWaitStart) {
+            if (attempt < spinCount) {
+                Thread.onSpinWait();
+            } else {
+                Thread.yield();
+            }
+            return true;
+        }
+
+        @Override
+        public String toString() {
+            return "spin-then-yield(" + spinCount + ")";
+        }
+    } // type SpinThenYield
+
+    private static class SpinThenPark extends WaitStrategy {
+        private final long nsSpinBudget;
+
+        public SpinThenPark(long nsSpinBudget) {
+            if (nsSpinBudget < 0) {
+                throw new IllegalArgumentException(
+                    "spinBudget must not be negative");
+            }
+            this.nsSpinBudget = nsSpinBudget;
+        }
+
+        @Override
+        public boolean idle(int attempt, long nsWaitStart) {
+            if (System.nanoTime() - nsWaitStart >= nsSpinBudget) {
+                return false;
+            }
+            Thread.onSpinWait();
+            return true;
+        }
+
+        @Override
+        public String toString() {
+            return "spin-then-park(" +
+                TimeUnit.NANOSECONDS.toMicros(nsSpinBudget) + "us)";
+        }
+    } // type SpinThenPark
+}
@@ -1,26 +1,24 @@
 package com.abc.pp.fifo.tests;
 
-import com.abc.pp.fifo.*;
-import com.abc.pp.fifo.impl.*;
-import com.abc.pp.fifo.tests.gui.*;
+import com.programix.testing.*;
 
 public class TestCircularArrayBoundedFifo {
     public static void main(String[] args) {
-        GuiTestPPBoundedFifo.runTests(
-            "Testing of CircularArrayPPBoundedFifo",
-            new PPBoundedFifoFactory() {
-                @Override
-                public <T> PPBoundedFifo<T> create(Class<T> itemType, int capacity) {
-                    return new CircularArrayPPBoundedFifo<T>(capacity, itemType);
-                }
+        ParallelTestingPane.createFramedInstance(new ParallelTestingPane.Control() {
+            @Override
+            public String getTitle() {
+                return "Testing of CircularArrayPPBoundedFifo";
+            }
 
-                @Override
-                public <T> PPBoundedFifo<T> create(Class<T> itemType,
-                                                   int capacity,
-                                                   Object lockObject) {
+            @Override
+            public TestChunk[] createNewTestChunks(TestThreadFactory threadFactory) {
+                return TestSuiteCircularArrayPPBoundedFifo.createAllTestChunks(threadFactory);
+            }
 
-                    return new CircularArrayPPBoundedFifo<T>(capacity, itemType, lockObject);
-                }
-            });
+            @Override
+            public boolean shouldShowPoints() {
+                return false;
+            }
+        });
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,134 @@
+package com.abc.pp.fifo.tests;
+
+import java.util.*;
+
+import com.abc.pp.fifo.*;
+import com.abc.pp.fifo.impl.*;
+
+/* deliberate package access */
+class TestCircularArrayPPBoundedFifoDrainTo extends TestPPBoundedFifoBase {
+    private static final String UNTOUCHED = "UNTOUCHED";
+
+    public TestCircularArrayPPBoundedFifoDrainTo(PPBoundedFifoFactory factory) {
+        super("CircularArrayPPBoundedFifo.drainTo(T[], int)", factory);
+    }
+
+    @Override
+    protected void performTests() {
+        testOnEmpty();
+        testMaxZeroOrLess();
+        testPartlyFilled();
+        testMaxSmallerThanCount();
+        testDestShorterThanCount();
+        testWrappedAround();
+    }
+
+    private CircularArrayPPBoundedFifo<String> createCircularArray(int capacity) {
+        outln("Creating a new CircularArrayPPBoundedFifo<String> instance with capacity=" +
+            capacity + " ...");
+        return new CircularArrayPPBoundedFifo<>(capacity, String.class);
+    }
+
+    private void testOnEmpty() {
+        outln(" - drainTo() on empty -");
+        CircularArrayPPBoundedFifo<String> fifo = createCircularArray(10);
+        String[] dest = createDest(5);
+        outln("drainTo(dest[5], 5)", fifo.drainTo(dest, 5), 0);
+        testHelper.check("dest (untouched)", dest, createDest(5));
+    }
+
+    private void testMaxZeroOrLess() {
+        outln(" - drainTo() with max of 0 and less -");
+        CircularArrayPPBoundedFifo<String> fifo = createCircularArray(10);
+        String[] fruits = getFruits(3);
+        add(fifo, fruits);
+
+        String[] dest = createDest(5);
+        outln("drainTo(dest[5], 0)", fifo.drainTo(dest, 0), 0);
+        outln("drainTo(dest[5], -1)", fifo.drainTo(dest, -1), 0);
+        outln("drainTo(dest[5], Integer.MIN_VALUE)", fifo.drainTo(dest, Integer.MIN_VALUE), 0);
+        testHelper.check("dest (untouched)", dest, createDest(5));
+        outln("getCount()", fifo.getCount(), 3);
+        checkRemoveAll(fifo, fruits);
+    }
+
+    private void testPartlyFilled() {
+        outln(" - drainTo() on a partly filled fifo, max and dest bigger than count -");
+        CircularArrayPPBoundedFifo<String> fifo = createCircularArray(10);
+        String[] fruits = getFruits(3);
+        add(fifo, fruits);
+
+        String[] dest = createDest(6);
+        outln("drainTo(dest[6], 6)", fifo.drainTo(dest, 6), 3);
+        testHelper.check("dest[0..2]", Arrays.copyOf(dest, 3), fruits);
+        testHelper.check("dest[3..5] (untouched)",
+            Arrays.copyOfRange(dest, 3, 6), createDest(3));
+        outln("isEmpty()", fifo.isEmpty(), true);
+    }
+
+    private void testMaxSmallerThanCount() {
+        outln(" - drainTo() with max smaller than count -");
+        CircularArrayPPBoundedFifo<String> fifo = createCircularArray(10);
+        String[] fruits = getFruits(6);
+        add(fifo, fruits);
+
+        String[] dest = createDest(10);
+        outln("drainTo(dest[10], 4)", fifo.drainTo(dest, 4), 4);
+        testHelper.check("dest[0..3]", Arrays.copyOf(dest, 4), Arrays.copyOf(fruits, 4));
+        testHelper.check("dest[4..9] (untouched)",
+            Arrays.copyOfRange(dest, 4, 10), createDest(6));
+        outln("getCount()", fifo.getCount(), 2);
+        checkRemoveAll(fifo, Arrays.copyOfRange(fruits, 4, 6));
+    }
+
+    private void testDestShorterThanCount() {
+        outln(" - drainTo() with dest shorter than count (and than max) -");
+        CircularArrayPPBoundedFifo<String> fifo = createCircularArray(10);
+        String[] fruits = getFruits(6);
+        add(fifo, fruits);
+
+        String[] dest = createDest(2);
+        outln("drainTo(dest[2], 100)", fifo.drainTo(dest, 100), 2);
+        testHelper.check("dest", dest, Arrays.copyOf(fruits, 2));
+        outln("getCount()", fifo.getCount(), 4);
+        checkRemoveAll(fifo, Arrays.copyOfRange(fruits, 2, 6));
+    }
+
+    private void testWrappedAround() {
+        outln(" - drainTo() when the items wrap around the end of the array -");
+        CircularArrayPPBoundedFifo<String> fifo = createCircularArray(5);
+        add(fifo, "JUNK A", "JUNK B", "JUNK C", "keep D");
+        String[] junk = createDest(3);
+        outln("drainTo(junk[3], 3)", fifo.drainTo(junk, 3), 3);
+        testHelper.check("junk", junk, new String[] { "JUNK A", "JUNK B", "JUNK C" });
+
+        String[] fruits = getFruits(4);
+        add(fifo, fruits);
+        outln("isFull()", fifo.isFull(), true);
+
+        String[] expected = new String[5];
+        expected[0] = "keep D";
+        System.arraycopy(fruits, 0, expected, 1, fruits.length);
+
+        outln("draining part way, stopping past the end of the array...");
+        String[] dest = createDest(3);
+        outln("drainTo(dest[3], 3)", fifo.drainTo(dest, 3), 3);
+        testHelper.check("dest", dest, Arrays.copyOf(expected, 3));
+
+        outln("draining the rest, from the start of the array...");
+        dest = createDest(5);
+        outln("drainTo(dest[5], 5)", fifo.drainTo(dest, 5), 2);
+        testHelper.check("dest[0..1]", Arrays.copyOf(dest, 2), Arrays.copyOfRange(expected, 3, 5));
+        outln("isEmpty()", fifo.isEmpty(), true);
+
+        outln("fifo still works after that...");
+        add(fifo, "apple");
+        checkRemoveAll(fifo, "apple");
+    }
+
+    private static String[] createDest(int length) {
+        String[] dest = new String[length];
+        Arrays.fill(dest, UNTOUCHED);
+        return dest;
+    }
+}
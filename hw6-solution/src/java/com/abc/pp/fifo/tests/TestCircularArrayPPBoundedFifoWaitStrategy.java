@@ -0,0 +1,151 @@
+package com.abc.pp.fifo.tests;
+
+import java.util.concurrent.*;
+
+import com.abc.pp.fifo.*;
+import com.abc.pp.fifo.impl.*;
+import com.programix.testing.*;
+
+/**
+ * Runs a CircularArrayPPBoundedFifo built with one particular
+ * {@link WaitStrategy} through the waits the strategy changes (add and
+ * remove while full or empty) and the ones it must not change (the timed
+ * waits, and any wait by a thread holding the lockObject).
+ */
+/* deliberate package access */
+class TestCircularArrayPPBoundedFifoWaitStrategy extends TestPPBoundedFifoBase {
+    private static final int TRANSFER_COUNT = 2000;
+
+    private final WaitStrategy waitStrategy;
+
+    public TestCircularArrayPPBoundedFifoWaitStrategy(PPBoundedFifoFactory factory,
+                                                      TestThreadFactory threadFactory,
+                                                      WaitStrategy waitStrategy) {
+
+        super("CircularArrayPPBoundedFifo with WaitStrategy " + waitStrategy,
+            factory, threadFactory);
+        this.waitStrategy = waitStrategy;
+    }
+
+    @Override
+    protected void performTests() {
+        try {
+            testTransferKeepsOrder();
+            testTimedWaitsTimeOut();
+            testHoldingLockObject();
+        } catch ( InterruptedException x ) {
+            // this should not happen, but it's a failure if it does
+            failureExceptionWithStackTrace(x);
+        }
+    }
+
+    private CircularArrayPPBoundedFifo<String> createCircularArray(int capacity,
+                                                                   Object lockObject) {
+
+        outln("Creating a new CircularArrayPPBoundedFifo<String> instance with capacity=" +
+            capacity + " and WaitStrategy " + waitStrategy + " ...");
+        return new CircularArrayPPBoundedFifo<>(capacity, String.class, lockObject, waitStrategy);
+    }
+
+    private void testTransferKeepsOrder() throws InterruptedException {
+        outln(" - " + TRANSFER_COUNT + " items from a producer thread through capacity=4 -");
+        final CircularArrayPPBoundedFifo<String> fifo = createCircularArray(4, null);
+        outln("getWaitStrategy() is the one passed in", fifo.getWaitStrategy() == waitStrategy);
+
+        final CountDownLatch producerDone = new CountDownLatch(1);
+        threadFactory.createThreadFor(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    for ( int i = 0; i < TRANSFER_COUNT; i++ ) {
+                        fifo.add("item-" + i);
+                    }
+                } catch ( InterruptedException x ) {
+                    // ignore and die
+                } finally {
+                    producerDone.countDown();
+                }
+            }
+        }, "Producer");
+
+        int outOfOrderCount = 0;
+        String firstOutOfOrder = null;
+        for ( int i = 0; i < TRANSFER_COUNT; i++ ) {
+            String item = fifo.remove();
+            if (!("item-" + i).equals(item)) {
+                if (outOfOrderCount == 0) {
+                    firstOutOfOrder = "expected 'item-" + i + "', got '" + item + "'";
+                }
+                outOfOrderCount++;
+            }
+        }
+
+        if (outOfOrderCount == 0) {
+            outln("all " + TRANSFER_COUNT + " items removed in the order added", true);
+        } else {
+            outln(outOfOrderCount + " items removed out of order, first: " +
+                firstOutOfOrder, false);
+        }
+        outln("producer finished", producerDone.await(10, TimeUnit.SECONDS));
+        outln("isEmpty()", fifo.isEmpty(), true);
+    }
+
+    private void testTimedWaitsTimeOut() throws InterruptedException {
+        outln(" - timed waits still time out -");
+        CircularArrayPPBoundedFifo<String> fifo = createCircularArray(2, null);
+
+        long nsStart = System.nanoTime();
+        boolean result = fifo.waitWhileEmpty(100, TimeUnit.MILLISECONDS);
+        checkElapsed("waitWhileEmpty(100, MILLISECONDS)", result, nsStart, 100);
+
+        add(fifo, getFruits(2));
+        nsStart = System.nanoTime();
+        result = fifo.waitWhileFull(100);
+        checkElapsed("waitWhileFull(100)", result, nsStart, 100);
+
+        nsStart = System.nanoTime();
+        result = fifo.waitUntilEmpty(50_000, TimeUnit.MICROSECONDS);
+        checkElapsed("waitUntilEmpty(50000, MICROSECONDS)", result, nsStart, 50);
+    }
+
+    private void testHoldingLockObject() throws InterruptedException {
+        outln(" - waiting while holding the lockObject -");
+        Object lockObject = new Object();
+        final CircularArrayPPBoundedFifo<String> fifo = createCircularArray(2, lockObject);
+
+        synchronized ( lockObject ) {
+            outln("holding lockObject while calling the timed waits...");
+            long nsStart = System.nanoTime();
+            boolean result = fifo.waitWhileEmpty(100, TimeUnit.MILLISECONDS);
+            checkElapsed("waitWhileEmpty(100, MILLISECONDS)", result, nsStart, 100);
+
+            outln("holding lockObject while calling remove() on empty, " +
+                "another thread adds 200 ms later...");
+            threadFactory.createThreadFor(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        Thread.sleep(200);
+                        fifo.add("apple");
+                    } catch ( InterruptedException x ) {
+                        // ignore and die
+                    }
+                }
+            }, "DelayedAdder");
+
+            nsStart = System.nanoTime();
+            outln("remove()", fifo.remove(), "apple");
+            long msElapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - nsStart);
+            outln("remove() let the other thread in to add (took " + msElapsed + " ms)",
+                msElapsed < 10_000);
+        }
+    }
+
+    private void checkElapsed(String call, boolean result, long nsStart, long msTimeout) {
+        long nsElapsed = System.nanoTime() - nsStart;
+        outln(call, result, false);
+        outln(String.format("%s returned after %.3f ms, expected at least %d ms",
+            call, nsElapsed / 1e6, msTimeout),
+            nsElapsed >= TimeUnit.MILLISECONDS.toNanos(msTimeout));
+    }
+}
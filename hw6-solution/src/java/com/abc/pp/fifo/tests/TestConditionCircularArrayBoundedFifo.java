@@ -0,0 +1,26 @@
+package com.abc.pp.fifo.tests;
+
+import com.abc.pp.fifo.*;
+import com.abc.pp.fifo.impl.*;
+import com.abc.pp.fifo.tests.gui.*;
+
+public class TestConditionCircularArrayBoundedFifo {
+    public static void main(String[] args) {
+        GuiTestPPBoundedFifo.runTests(
+            "Testing of ConditionCircularArrayPPBoundedFifo",
+            new PPBoundedFifoFactory() {
+                @Override
+                public <T> PPBoundedFifo<T> create(Class<T> itemType, int capacity) {
+                    return new ConditionCircularArrayPPBoundedFifo<T>(capacity, itemType);
+                }
+
+                @Override
+                public <T> PPBoundedFifo<T> create(Class<T> itemType,
+                                                   int capacity,
+                                                   Object lockObject) {
+
+                    return new ConditionCircularArrayPPBoundedFifo<T>(capacity, itemType, lockObject);
+                }
+            });
+    }
+}
\ No newline at end of file
@@ -0,0 +1,26 @@
+package com.abc.pp.fifo.tests;
+
+import com.abc.pp.fifo.*;
+import com.abc.pp.fifo.impl.*;
+import com.abc.pp.fifo.tests.gui.*;
+
+public class TestMpmcArrayBoundedFifo {
+    public static void main(String[] args) {
+        GuiTestPPBoundedFifo.runTests(
+            "Testing of MpmcArrayPPBoundedFifo",
+            new PPBoundedFifoFactory() {
+                @Override
+                public <T> PPBoundedFifo<T> create(Class<T> itemType, int capacity) {
+                    return new MpmcArrayPPBoundedFifo<T>(capacity, itemType);
+                }
+
+                @Override
+                public <T> PPBoundedFifo<T> create(Class<T> itemType,
+                                                   int capacity,
+                                                   Object lockObject) {
+
+                    return new MpmcArrayPPBoundedFifo<T>(capacity, itemType, lockObject);
+                }
+            });
+    }
+}
\ No newline at end of file
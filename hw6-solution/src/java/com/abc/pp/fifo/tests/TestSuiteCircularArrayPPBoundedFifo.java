@@ -0,0 +1,57 @@
+package com.abc.pp.fifo.tests;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+import com.abc.pp.fifo.*;
+import com.abc.pp.fifo.impl.*;
+import com.programix.testing.*;
+
+/**
+ * The standard {@link TestSuitePPBoundedFifo} tests plus the ones for what
+ * only {@link CircularArrayPPBoundedFifo} has: drainTo() and the
+ * {@link WaitStrategy} choices.
+ */
+public class TestSuiteCircularArrayPPBoundedFifo {
+    public static final PPBoundedFifoFactory FACTORY = new PPBoundedFifoFactory() {
+        @Override
+        public <T> PPBoundedFifo<T> create(Class<T> itemType, int capacity) {
+            return new CircularArrayPPBoundedFifo<T>(capacity, itemType);
+        }
+
+        @Override
+        public <T> PPBoundedFifo<T> create(Class<T> itemType,
+                                           int capacity,
+                                           Object lockObject) {
+
+            return new CircularArrayPPBoundedFifo<T>(capacity, itemType, lockObject);
+        }
+    };
+
+    // no instances
+    private TestSuiteCircularArrayPPBoundedFifo() {
+    }
+
+    public static BaseTest[] createAllTests(TestThreadFactory threadFactory) {
+        List<BaseTest> tests = new ArrayList<>();
+        tests.addAll(Arrays.asList(
+            TestSuitePPBoundedFifo.createAllTests(FACTORY, threadFactory)));
+        tests.add(new TestCircularArrayPPBoundedFifoDrainTo(FACTORY));
+
+        WaitStrategy[] waitStrategies = new WaitStrategy[] {
+            WaitStrategy.blocking(),
+            WaitStrategy.busySpin(),
+            WaitStrategy.spinThenYield(100),
+            WaitStrategy.spinThenPark(50, TimeUnit.MICROSECONDS),
+        };
+        for ( WaitStrategy waitStrategy : waitStrategies ) {
+            tests.add(new TestCircularArrayPPBoundedFifoWaitStrategy(
+                FACTORY, threadFactory, waitStrategy));
+        }
+        return tests.toArray(new BaseTest[0]);
+    }
+
+    public static TestChunk[] createAllTestChunks(TestThreadFactory threadFactory) {
+        return StandardTestChunk.createAll(createAllTests(threadFactory));
+    }
+}
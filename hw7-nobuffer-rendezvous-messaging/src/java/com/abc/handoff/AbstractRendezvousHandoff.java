@@ -0,0 +1,163 @@
+package com.abc.handoff;
+
+import java.util.concurrent.*;
+
+import com.programix.thread.*;
+
+/**
+ * The rendezvous engine shared by {@link RendezvousHandoff},
+ * {@link RendezvousLongHandoff} and {@link RendezvousIntHandoff}. It keeps
+ * track of who is waiting and how much of the current offer has been
+ * received, while each subclass keeps the items themselves in an array of
+ * its own type (so the primitive ones never box).
+ * <p>
+ * A pass goes: {@link #beginPass()}, store the items, {@link #awaitTaken(int,
+ * long, TimeUnit)}, and always {@link #endPass()} (then forget the items). A
+ * receive goes: {@link #beginReceive()}, {@link #awaitOffer(long, TimeUnit)},
+ * copy the items out, {@link #markTaken(int)}, and always
+ * {@link #endReceive()}. All of these must be called while holding
+ * {@link #getLockObject()}.
+ */
+abstract class AbstractRendezvousHandoff {
+    private final Object lockObject;
+    private boolean shutdown;
+    private boolean passerWaiting;
+    private boolean receiverWaiting;
+    // items in the current offer and how many of them have been received
+    private int offerCount;
+    private int takenCount;
+
+    private final Expression allTakenExpression;
+    private final Expression offerAvailableExpression;
+
+    protected AbstractRendezvousHandoff(Object proposedLockObject) {
+        lockObject =
+            proposedLockObject != null ? proposedLockObject : this;
+
+        allTakenExpression = new Expression() {
+            @Override
+            public boolean isTrue() {
+                return takenCount == offerCount;
+            }
+        };
+        offerAvailableExpression = new Expression() {
+            @Override
+            public boolean isTrue() {
+                return takenCount < offerCount;
+            }
+        };
+    }
+
+    public Object getLockObject() {
+        return lockObject;
+    }
+
+    public void shutdown() {
+        synchronized ( lockObject ) {
+            shutdown = true;
+            lockObject.notifyAll();
+        }
+    }
+
+    protected void checkForShutdown() throws ShutdownException {
+        if (shutdown) {
+            throw new ShutdownException();
+        }
+    }
+
+    protected void beginPass() throws ShutdownException, IllegalStateException {
+        checkForShutdown();
+        if (passerWaiting) {
+            throw new IllegalStateException(
+                "another thread is already waiting to pass");
+        }
+        passerWaiting = true;
+    }
+
+    /**
+     * Offers itemCount items (already stored by the subclass) and waits
+     * until they have all been received.
+     */
+    protected void awaitTaken(int itemCount, long timeout, TimeUnit unit)
+            throws InterruptedException, TimedOutException, ShutdownException {
+
+        offerCount = itemCount;
+        takenCount = 0;
+        lockObject.notifyAll();
+        waitUntilTrue(allTakenExpression, timeout, unit);
+    }
+
+    protected void endPass() {
+        offerCount = 0;
+        takenCount = 0;
+        passerWaiting = false;
+        lockObject.notifyAll();
+    }
+
+    protected void beginReceive() throws ShutdownException, IllegalStateException {
+        checkForShutdown();
+        if (receiverWaiting) {
+            throw new IllegalStateException(
+                "another thread is already waiting to receive");
+        }
+        receiverWaiting = true;
+    }
+
+    /**
+     * Waits until a passer is offering items.
+     * @return the index (in the passer's items) of the first item which has
+     * not been received yet. {@link #getAvailableCount()} items are
+     * available from there.
+     */
+    protected int awaitOffer(long timeout, TimeUnit unit)
+            throws InterruptedException, TimedOutException, ShutdownException {
+
+        waitUntilTrue(offerAvailableExpression, timeout, unit);
+        return takenCount;
+    }
+
+    protected int getAvailableCount() {
+        return offerCount - takenCount;
+    }
+
+    protected void markTaken(int count) {
+        takenCount += count;
+        if (takenCount == offerCount) {
+            lockObject.notifyAll();
+        }
+    }
+
+    protected void endReceive() {
+        receiverWaiting = false;
+    }
+
+    /**
+     * Waits until expression is true. A timeout of 0 (or less) means never
+     * time out. Shutdown only wins if expression isn't already true.
+     */
+    private void waitUntilTrue(Expression expression, long timeout, TimeUnit unit)
+            throws InterruptedException, TimedOutException, ShutdownException {
+
+        if (timeout <= 0) {
+            while (!expression.isTrue()) {
+                checkForShutdown();
+                lockObject.wait();
+            }
+            return;
+        }
+
+        long nsEndTime = System.nanoTime() + unit.toNanos(timeout);
+        while (!expression.isTrue()) {
+            checkForShutdown();
+            long nsRemaining = nsEndTime - System.nanoTime();
+            if (nsRemaining <= 0L) {
+                throw new TimedOutException();
+            }
+            TimeUnit.NANOSECONDS.timedWait(lockObject, nsRemaining);
+        }
+    }
+
+    private static interface Expression {
+        boolean isTrue();
+    } // type Expression
+}
@@ -0,0 +1,227 @@
+package com.abc.handoff;
+
+import java.util.concurrent.*;
+import java.util.concurrent.locks.*;
+
+import com.abc.pp.stringhandoff.*;
+import com.programix.thread.*;
+
+/**
+ * A {@link StringHandoff} with exactly the same rules as
+ * {@link StringHandoffImpl} (one passer and one receiver at a time, a second
+ * one gets an IllegalStateException), but guarded by a {@link ReentrantLock}
+ * and {@link Condition}'s instead of a monitor and wait()/notifyAll().
+ * <p>
+ * A virtual thread blocked in Object.wait() inside a synchronized block
+ * pins its carrier thread until it is notified, so thousands of virtual
+ * threads waiting in StringHandoffImpl can use up every carrier. A thread
+ * waiting on a Condition is parked instead, and its carrier is free to run
+ * other virtual threads in the meantime.
+ * <p>
+ * The passer and the receiver each wait on their own condition and are only
+ * signaled by the other side:
+ * <ul>
+ * <li>offerAvailable - the receiver, waiting for a passer to offer a
+ * String.</li>
+ * <li>offerTaken - the passer, waiting for the receiver to take it.</li>
+ * </ul>
+ * {@link #getLockObject()} returns the lockObject passed to the constructor
+ * (or the internal lock if none was passed), but this handoff never
+ * synchronizes on it. If the proposed lockObject is itself a ReentrantLock,
+ * it is used as the internal lock.
+ */
+public class ConditionStringHandoff implements StringHandoff {
+    private final Object lockObject;
+    private final ReentrantLock lock;
+    private final Condition offerAvailable;
+    private final Condition offerTaken;
+
+    private boolean shutdown;
+    private boolean passerWaiting;
+    private boolean receiverWaiting;
+    // the String being passed right now, null once received (or no passer)
+    private String offeredMsg;
+
+    private final Expression offerAvailableExpression;
+    private final Expression offerTakenExpression;
+
+    public ConditionStringHandoff(Object proposedLockObject) {
+        lock = proposedLockObject instanceof ReentrantLock
+            ? (ReentrantLock) proposedLockObject
+            : new ReentrantLock();
+        lockObject = proposedLockObject != null ? proposedLockObject : lock;
+
+        offerAvailable = lock.newCondition();
+        offerTaken = lock.newCondition();
+
+        offerAvailableExpression = new Expression() {
+            @Override
+            public boolean isTrue() {
+                return offeredMsg != null;
+            }
+        };
+        offerTakenExpression = new Expression() {
+            @Override
+            public boolean isTrue() {
+                return offeredMsg == null;
+            }
+        };
+    }
+
+    public ConditionStringHandoff() {
+        this(null);
+    }
+
+    /**
+     * The lock guarding this handoff.
+     */
+    public ReentrantLock getLock() {
+        return lock;
+    }
+
+    @Override
+    public void pass(String msg, long msTimeout)
+            throws InterruptedException, TimedOutException, ShutdownException, IllegalStateException {
+
+        pass(msg, msTimeout, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Same as {@link #pass(String, long)}, but with the timeout in the
+     * specified unit. A timeout of 0 (or less) means never time out.
+     */
+    public void pass(String msg, long timeout, TimeUnit unit)
+            throws InterruptedException, TimedOutException, ShutdownException, IllegalStateException {
+
+        if (msg == null) {
+            throw new IllegalArgumentException("msg must not be null");
+        }
+
+        lock.lockInterruptibly();
+        try {
+            checkForShutdown();
+            if (passerWaiting) {
+                throw new IllegalStateException(
+                    "another thread is already waiting to pass");
+            }
+            passerWaiting = true;
+            try {
+                offeredMsg = msg;
+                offerAvailable.signal();
+                waitUntilTrue(offerTaken, offerTakenExpression, timeout, unit);
+            } finally {
+                // nobody took it if we gave up: withdraw the offer
+                offeredMsg = null;
+                passerWaiting = false;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void pass(String msg)
+            throws InterruptedException, ShutdownException, IllegalStateException {
+
+        pass(msg, 0L, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public String receive(long msTimeout)
+            throws InterruptedException, TimedOutException, ShutdownException, IllegalStateException {
+
+        return receive(msTimeout, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Same as {@link #receive(long)}, but with the timeout in the specified
+     * unit. A timeout of 0 (or less) means never time out.
+     */
+    public String receive(long timeout, TimeUnit unit)
+            throws InterruptedException, TimedOutException, ShutdownException, IllegalStateException {
+
+        lock.lockInterruptibly();
+        try {
+            checkForShutdown();
+            if (receiverWaiting) {
+                throw new IllegalStateException(
+                    "another thread is already waiting to receive");
+            }
+            receiverWaiting = true;
+            try {
+                waitUntilTrue(offerAvailable, offerAvailableExpression, timeout, unit);
+                String msg = offeredMsg;
+                offeredMsg = null;
+                offerTaken.signal();
+                return msg;
+            } finally {
+                receiverWaiting = false;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public String receive()
+            throws InterruptedException, ShutdownException, IllegalStateException {
+
+        return receive(0L, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void shutdown() {
+        lock.lock();
+        try {
+            shutdown = true;
+            offerAvailable.signalAll();
+            offerTaken.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public Object getLockObject() {
+        return lockObject;
+    }
+
+    private void checkForShutdown() throws ShutdownException {
+        if (shutdown) {
+            throw new ShutdownException();
+        }
+    }
+
+    /**
+     * Waits on condition until expression is true. A timeout of 0 (or less)
+     * means never time out. Shutdown only wins if expression isn't already
+     * true. Caller must hold the lock.
+     */
+    private void waitUntilTrue(Condition condition,
+                               Expression expression,
+                               long timeout,
+                               TimeUnit unit)
+            throws InterruptedException, TimedOutException, ShutdownException {
+
+        if (timeout <= 0) {
+            while (!expression.isTrue()) {
+                checkForShutdown();
+                condition.await();
+            }
+            return;
+        }
+
+        long nsRemaining = unit.toNanos(timeout);
+        while (!expression.isTrue()) {
+            checkForShutdown();
+            if (nsRemaining <= 0L) {
+                throw new TimedOutException();
+            }
+            nsRemaining = condition.awaitNanos(nsRemaining);
+        }
+    }
+
+    private static interface Expression {
+        boolean isTrue();
+    } // type Expression
+}
@@ -0,0 +1,248 @@
+package com.abc.handoff;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.locks.*;
+
+import com.abc.pp.stringhandoff.*;
+import com.programix.thread.*;
+
+/**
+ * A {@link StringHandoff} for any number of passers and receivers (N passers,
+ * M receivers). Unlike {@link StringHandoffImpl}, a second thread calling
+ * pass() (or receive()) while another is already waiting does NOT get an
+ * IllegalStateException - it just gets in line.
+ * <p>
+ * Waiting threads are kept in two FIFO queues (a "dual queue", like the fair
+ * mode of {@link SynchronousQueue}): at any moment at most one of the queues
+ * is non-empty, because an arriving passer is matched with the receiver at
+ * the front of the receiver queue if there is one (and vice versa), and only
+ * gets in line itself when nobody is waiting on the other side. Passers and
+ * receivers are therefore paired in the order they arrived.
+ * <p>
+ * The thread which makes the match hands the String over directly and wakes
+ * up just the one waiter it was matched with (with
+ * {@link LockSupport#unpark(Thread)}), so a handoff costs a single wakeup -
+ * there is no notifyAll() which wakes every waiting thread just so all but
+ * one of them can go back to waiting. The lock is only held to update the
+ * queues; waiting threads park without holding it.
+ * <p>
+ * As with StringHandoffImpl, pass() doesn't return until a receiver has
+ * taken the String, timeouts of 0 (or less) mean never time out, a timed out
+ * call throws {@link TimedOutException}, and once {@link #shutdown()} has
+ * been called every call (and every thread still waiting) throws
+ * {@link ShutdownException}. A waiter which has already been matched
+ * completes normally even if it is interrupted, times out or is shut down at
+ * the same moment - the String was handed over, so it isn't lost.
+ */
+public class DualQueueStringHandoff implements StringHandoff {
+    private final Object lockObject;
+    private final Deque<Waiter> waitingPassers;
+    private final Deque<Waiter> waitingReceivers;
+    // passers plus receivers in line; only written while holding lockObject
+    private volatile int waiterCount;
+    private boolean shutdown;
+
+    public DualQueueStringHandoff(Object proposedLockObject) {
+        lockObject =
+            proposedLockObject != null ? proposedLockObject : new Object();
+        waitingPassers = new ArrayDeque<>();
+        waitingReceivers = new ArrayDeque<>();
+    }
+
+    public DualQueueStringHandoff() {
+        this(null);
+    }
+
+    @Override
+    public void pass(String msg, long msTimeout)
+            throws InterruptedException, TimedOutException, ShutdownException, IllegalStateException {
+
+        pass(msg, msTimeout, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Same as {@link #pass(String, long)}, but with the timeout in the
+     * specified unit. A timeout of 0 (or less) means never time out.
+     */
+    public void pass(String msg, long timeout, TimeUnit unit)
+            throws InterruptedException, TimedOutException, ShutdownException, IllegalStateException {
+
+        if (msg == null) {
+            throw new IllegalArgumentException("msg must not be null");
+        }
+
+        Waiter waiter;
+        synchronized ( lockObject ) {
+            checkForShutdown();
+            Waiter receiver = waitingReceivers.pollFirst();
+            if (receiver != null) {
+                waiterCount--;
+                receiver.msg = msg;
+                receiver.match();
+                return;
+            }
+            waiter = new Waiter(msg);
+            waitingPassers.addLast(waiter);
+            waiterCount++;
+        }
+        awaitMatch(waiter, waitingPassers, timeout, unit);
+    }
+
+    @Override
+    public void pass(String msg)
+            throws InterruptedException, ShutdownException, IllegalStateException {
+
+        pass(msg, 0L, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public String receive(long msTimeout)
+            throws InterruptedException, TimedOutException, ShutdownException, IllegalStateException {
+
+        return receive(msTimeout, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Same as {@link #receive(long)}, but with the timeout in the specified
+     * unit. A timeout of 0 (or less) means never time out.
+     */
+    public String receive(long timeout, TimeUnit unit)
+            throws InterruptedException, TimedOutException, ShutdownException, IllegalStateException {
+
+        Waiter waiter;
+        synchronized ( lockObject ) {
+            checkForShutdown();
+            Waiter passer = waitingPassers.pollFirst();
+            if (passer != null) {
+                waiterCount--;
+                passer.match();
+                return passer.msg;
+            }
+            waiter = new Waiter(null);
+            waitingReceivers.addLast(waiter);
+            waiterCount++;
+        }
+        awaitMatch(waiter, waitingReceivers, timeout, unit);
+        return waiter.msg;
+    }
+
+    @Override
+    public String receive()
+            throws InterruptedException, ShutdownException, IllegalStateException {
+
+        return receive(0L, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void shutdown() {
+        synchronized ( lockObject ) {
+            if (shutdown) {
+                return;
+            }
+            shutdown = true;
+            // each one will see shutdown, leave its queue and throw
+            for ( Waiter waiter : waitingPassers ) {
+                LockSupport.unpark(waiter.thread);
+            }
+            for ( Waiter waiter : waitingReceivers ) {
+                LockSupport.unpark(waiter.thread);
+            }
+        }
+    }
+
+    @Override
+    public Object getLockObject() {
+        return lockObject;
+    }
+
+    /**
+     * Returns true if any passer or receiver is waiting in line right now.
+     * Doesn't take the lock, so the answer may already be stale.
+     */
+    boolean hasWaiters() {
+        return waiterCount > 0;
+    }
+
+    // caller must hold lockObject
+    private void leave(Deque<Waiter> queue, Waiter waiter) {
+        if (queue.remove(waiter)) {
+            waiterCount--;
+        }
+    }
+
+    private void checkForShutdown() throws ShutdownException {
+        if (shutdown) {
+            throw new ShutdownException();
+        }
+    }
+
+    /**
+     * Parks until waiter is matched. If it gives up first (interrupted,
+     * timed out or shut down) it takes itself out of queue and throws.
+     */
+    private void awaitMatch(Waiter waiter,
+                            Deque<Waiter> queue,
+                            long timeout,
+                            TimeUnit unit)
+            throws InterruptedException, TimedOutException, ShutdownException {
+
+        boolean timed = timeout > 0;
+        long nsEndTime = timed ? System.nanoTime() + unit.toNanos(timeout) : 0L;
+        while (true) {
+            boolean interrupted = Thread.interrupted();
+            synchronized ( lockObject ) {
+                if (waiter.matched) {
+                    if (interrupted) {
+                        // too late to back out - keep the status for later
+                        Thread.currentThread().interrupt();
+                    }
+                    return;
+                }
+                if (interrupted) {
+                    leave(queue, waiter);
+                    throw new InterruptedException();
+                }
+                if (shutdown) {
+                    leave(queue, waiter);
+                    throw new ShutdownException();
+                }
+                if (timed && nsEndTime - System.nanoTime() <= 0L) {
+                    leave(queue, waiter);
+                    throw new TimedOutException();
+                }
+            }
+
+            if (timed) {
+                LockSupport.parkNanos(this, nsEndTime - System.nanoTime());
+            } else {
+                LockSupport.park(this);
+            }
+        }
+    }
+
+    /**
+     * One thread waiting in pass() or receive(). All of the fields except
+     * thread are only touched while holding lockObject.
+     */
+    private static class Waiter {
+        public final Thread thread;
+        // for a passer: the String to pass; for a receiver: what it was passed
+        public String msg;
+        public boolean matched;
+
+        public Waiter(String msg) {
+            this.thread = Thread.currentThread();
+            this.msg = msg;
+        }
+
+        /**
+         * Called by the thread which made the match (holding lockObject)
+         * to complete the handoff and wake this one waiter.
+         */
+        public void match() {
+            matched = true;
+            LockSupport.unpark(thread);
+        }
+    } // type Waiter
+}
@@ -0,0 +1,362 @@
+package com.abc.handoff;
+
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
+
+import com.abc.pp.stringhandoff.*;
+import com.programix.thread.*;
+
+/**
+ * A {@link StringHandoff} for any number of passers and receivers which,
+ * under contention, pairs them up without taking any lock.
+ * <p>
+ * The fast path is an elimination arena (the idea behind
+ * {@link Exchanger}): an array of slots, each of which holds at most one
+ * waiting passer or receiver. Only the first few slots are in use at any
+ * time; that active range starts out as just slot 0, so the first passer
+ * and receiver to come along always meet. An arriving thread looks at a
+ * slot in the active range picked by a hash of its thread id. If that slot
+ * holds a waiter from the other side, the arriving thread takes it out with
+ * a CAS and hands the waiter its match. If the slot is empty, it puts its
+ * own node there and spins, waiting for a partner. A lost CAS, or a slot
+ * already holding a waiter from the same side, means the active slots are
+ * crowded: the range grows by one and the thread moves to another slot in
+ * it. A thread which waits out its share of spins in any slot other than
+ * slot 0 saw too little traffic there: it shrinks the range by one and moves
+ * back to slot 0. So under light load everyone meets in slot 0, and under
+ * heavy load different pairs of threads meet in different slots and the
+ * throughput can grow with the number of pairs instead of every handoff
+ * bouncing one monitor between cores.
+ * <p>
+ * A waiter withdraws its node with a CAS on its slot. A partner always
+ * takes a node out of its slot before handing over the match, so once the
+ * withdrawing CAS succeeds nobody can match the node, and once it fails the
+ * match is certain to arrive (the handoff has happened, so it is waited for
+ * even if the waiter was interrupted, timed out or shut down meanwhile).
+ * <p>
+ * A thread only spins for a bounded number of attempts in total (none at
+ * all on a single CPU, where spinning can't help, unless a spin limit is
+ * given explicitly), and yields the CPU every {@link #SPINS_PER_YIELD} of
+ * them so a partner which isn't running gets a chance to. After that it
+ * withdraws its node from the arena and blocks in a
+ * {@link DualQueueStringHandoff}, which is guaranteed to pair it up (first
+ * come, first served). Arriving threads go straight to that queue while
+ * anyone is blocked in it, so a blocked thread isn't starved by later
+ * arrivals that meet in the arena.
+ * <p>
+ * Timeouts, {@link TimedOutException} and {@link ShutdownException} work
+ * exactly as in {@link StringHandoffImpl}. A timeout covers the whole call
+ * (spinning plus blocking). A timeout of 0 (or less) means never time out.
+ */
+public class EliminationStringHandoff implements StringHandoff {
+    private static final int CPU_COUNT =
+        Runtime.getRuntime().availableProcessors();
+    private static final int DEFAULT_SPIN_LIMIT = CPU_COUNT < 2 ? 0 : 1 << 10;
+    private static final int MAX_ARENA_SIZE = 64;
+
+    /**
+     * Spinning threads call {@link Thread#yield()} once every this many
+     * spins.
+     */
+    public static final int SPINS_PER_YIELD = 64;
+
+    // the match of a passer's node once a receiver has taken its String
+    private static final Object TAKEN = new Object();
+
+    private final AtomicReferenceArray<Node> arena;
+    // slots [0, activeSlotCount) are in use, 1 <= activeSlotCount <= arena.length()
+    private final AtomicInteger activeSlotCount;
+    private final int spinLimit;
+    // most spins a thread waits in any slot but slot 0 before moving back
+    private final int spinsPerOuterSlot;
+    private final DualQueueStringHandoff blockingHandoff;
+    private volatile boolean shutdown;
+
+    /**
+     * @param arenaSize most slots the arena grows to under contention (at
+     * most 64); it starts out using just one.
+     * @param spinLimit how many times in total a thread checks the arena
+     * before it blocks; 0 means always block right away.
+     */
+    public EliminationStringHandoff(int arenaSize, int spinLimit) {
+        if (arenaSize < 1) {
+            throw new IllegalArgumentException("arenaSize must be at least 1");
+        }
+        if (spinLimit < 0) {
+            throw new IllegalArgumentException("spinLimit must not be negative");
+        }
+
+        arena = new AtomicReferenceArray<>(Math.min(arenaSize, MAX_ARENA_SIZE));
+        activeSlotCount = new AtomicInteger(1);
+        this.spinLimit = spinLimit;
+        spinsPerOuterSlot = Math.max(1, spinLimit / 8);
+        blockingHandoff = new DualQueueStringHandoff();
+    }
+
+    /**
+     * Uses an arena which can grow to one slot per two CPUs (one per pair
+     * of threads which can run at the same time), and spins only if there
+     * is more than one CPU.
+     */
+    public EliminationStringHandoff() {
+        this(Math.max(1, CPU_COUNT / 2), DEFAULT_SPIN_LIMIT);
+    }
+
+    @Override
+    public void pass(String msg, long msTimeout)
+            throws InterruptedException, TimedOutException, ShutdownException, IllegalStateException {
+
+        pass(msg, msTimeout, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Same as {@link #pass(String, long)}, but with the timeout in the
+     * specified unit. A timeout of 0 (or less) means never time out.
+     */
+    public void pass(String msg, long timeout, TimeUnit unit)
+            throws InterruptedException, TimedOutException, ShutdownException, IllegalStateException {
+
+        if (msg == null) {
+            throw new IllegalArgumentException("msg must not be null");
+        }
+        long nsEndTime = timeout > 0 ? System.nanoTime() + unit.toNanos(timeout) : 0L;
+        if (exchange(new Node(msg), nsEndTime) != null) {
+            return;
+        }
+        blockingHandoff.pass(msg, nsRemaining(nsEndTime), TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public void pass(String msg)
+            throws InterruptedException, ShutdownException, IllegalStateException {
+
+        pass(msg, 0L, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public String receive(long msTimeout)
+            throws InterruptedException, TimedOutException, ShutdownException, IllegalStateException {
+
+        return receive(msTimeout, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Same as {@link #receive(long)}, but with the timeout in the specified
+     * unit. A timeout of 0 (or less) means never time out.
+     */
+    public String receive(long timeout, TimeUnit unit)
+            throws InterruptedException, TimedOutException, ShutdownException, IllegalStateException {
+
+        long nsEndTime = timeout > 0 ? System.nanoTime() + unit.toNanos(timeout) : 0L;
+        Object msg = exchange(new Node(null), nsEndTime);
+        if (msg != null) {
+            return (String) msg;
+        }
+        return blockingHandoff.receive(nsRemaining(nsEndTime), TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public String receive()
+            throws InterruptedException, ShutdownException, IllegalStateException {
+
+        return receive(0L, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void shutdown() {
+        // threads in the arena see the flag on their next spin
+        shutdown = true;
+        blockingHandoff.shutdown();
+    }
+
+    /**
+     * Returns the lock of the blocking queue behind the arena. Holding it does
+     * not keep threads from meeting in the arena.
+     */
+    @Override
+    public Object getLockObject() {
+        return blockingHandoff.getLockObject();
+    }
+
+    /**
+     * Time left until nsEndTime (0 means no deadline, and so is returned as
+     * 0 for "wait forever").
+     * @throws TimedOutException if the deadline has already passed.
+     */
+    private static long nsRemaining(long nsEndTime) throws TimedOutException {
+        if (nsEndTime == 0L) {
+            return 0L;
+        }
+        long nsRemaining = nsEndTime - System.nanoTime();
+        if (nsRemaining <= 0L) {
+            throw new TimedOutException();
+        }
+        return nsRemaining;
+    }
+
+    private static int hashForCurrentThread() {
+        // spread the thread ids out (Fibonacci hashing) so neighbors differ
+        long id = Thread.currentThread().getId();
+        return (int) ((id * 0x9E3779B97F4A7C15L) >>> 33);
+    }
+
+    /**
+     * Tries to complete the handoff in the arena, spinning at most spinLimit
+     * times.
+     * @return for a passer, TAKEN; for a receiver, the String it received;
+     * null if no partner was found (the caller should block).
+     */
+    private Object exchange(Node node, long nsEndTime)
+            throws InterruptedException, ShutdownException, TimedOutException {
+
+        checkForGivingUp(nsEndTime);
+        if (spinLimit == 0 || blockingHandoff.hasWaiters()) {
+            return null;
+        }
+
+        int index = hashForCurrentThread() % activeSlotCount.get();
+        int spinCount = 0;
+        while (spinCount < spinLimit) {
+            int slotCount = activeSlotCount.get();
+            if (index >= slotCount) {
+                index = 0; // the range shrank out from under us
+            }
+
+            Node other = arena.get(index);
+            if (other == null) {
+                if (arena.compareAndSet(index, null, node)) {
+                    int spinBudget = spinLimit - spinCount;
+                    if (index > 0) {
+                        spinBudget = Math.min(spinBudget, spinsPerOuterSlot);
+                    }
+                    Object match = waitInSlot(node, index, spinBudget, nsEndTime);
+                    if (match != null) {
+                        return match;
+                    }
+                    spinCount += spinBudget;
+                    if (index == 0) {
+                        return null; // out of spins: go block
+                    }
+                    // too quiet out here: fewer slots will do
+                    activeSlotCount.compareAndSet(slotCount, slotCount - 1);
+                    index = 0;
+                    continue;
+                }
+                index = moveToAnotherSlot(slotCount);
+            } else if (other.isPasser() != node.isPasser()) {
+                if (arena.compareAndSet(index, other, null)) {
+                    // it's out of the arena, so it can no longer withdraw
+                    other.match = node.isPasser() ? node.msg : TAKEN;
+                    return node.isPasser() ? TAKEN : other.msg;
+                }
+                index = moveToAnotherSlot(slotCount);
+            } else {
+                // collided with our own side
+                index = moveToAnotherSlot(slotCount);
+            }
+            spinCount++;
+            spinWait(spinCount);
+            checkForGivingUp(nsEndTime);
+        }
+        return null;
+    }
+
+    /**
+     * Called on contention in the active range of slotCount slots: grows the
+     * range by one (if it can) and picks a random slot in it.
+     */
+    private int moveToAnotherSlot(int slotCount) {
+        if (slotCount < arena.length() &&
+                activeSlotCount.compareAndSet(slotCount, slotCount + 1)) {
+
+            slotCount++;
+        }
+        return ThreadLocalRandom.current().nextInt(slotCount);
+    }
+
+    /**
+     * Spins with node in the arena (at index) until a partner matches it or
+     * spinBudget spins are used up, then withdraws it.
+     * @return the match, or null if node was withdrawn without one.
+     */
+    private Object waitInSlot(Node node, int index, int spinBudget, long nsEndTime)
+            throws InterruptedException, ShutdownException, TimedOutException {
+
+        int spinCount = 0;
+        while (true) {
+            Object match = node.match;
+            if (match != null) {
+                return match;
+            }
+
+            boolean givingUp = spinCount >= spinBudget || shutdown ||
+                Thread.currentThread().isInterrupted() ||
+                (nsEndTime != 0L && nsEndTime - System.nanoTime() <= 0L);
+
+            if (givingUp) {
+                if (arena.compareAndSet(index, node, null)) {
+                    // throws if it was shutdown, interrupt or timeout
+                    checkForGivingUp(nsEndTime);
+                    return null;
+                }
+                // a partner took us out at the last moment: done after all
+                return awaitMatch(node);
+            }
+            spinCount++;
+            spinWait(spinCount);
+        }
+    }
+
+    /**
+     * Waits for the partner which has already taken node out of the arena
+     * to hand over the match (it is on its way, so this is short).
+     */
+    private static Object awaitMatch(Node node) {
+        Object match;
+        for ( int spinCount = 1; (match = node.match) == null; spinCount++ ) {
+            spinWait(spinCount);
+        }
+        return match;
+    }
+
+    private static void spinWait(int spinCount) {
+        if (spinCount % SPINS_PER_YIELD == 0) {
+            Thread.yield();
+        } else {
+            Thread.onSpinWait();
+        }
+    }
+
+    private void checkForGivingUp(long nsEndTime)
+            throws InterruptedException, ShutdownException, TimedOutException {
+
+        if (shutdown) {
+            throw new ShutdownException();
+        }
+        if (Thread.interrupted()) {
+            throw new InterruptedException();
+        }
+        if (nsEndTime != 0L && nsEndTime - System.nanoTime() <= 0L) {
+            throw new TimedOutException();
+        }
+    }
+
+    /**
+     * One passer (msg != null) or receiver (msg == null) offered in the
+     * arena. match goes from null to either the String passed (for a
+     * receiver) or TAKEN (for a passer), set only by the partner which took
+     * the node out of the arena.
+     */
+    private static class Node {
+        public final String msg;
+        public volatile Object match;
+
+        public Node(String msg) {
+            this.msg = msg;
+        }
+
+        public boolean isPasser() {
+            return msg != null;
+        }
+    } // type Node
+}
@@ -0,0 +1,77 @@
+package com.abc.handoff;
+
+import java.util.concurrent.*;
+
+import com.programix.thread.*;
+
+/**
+ * Handoff is used to pass items of type T from one thread to another, with
+ * the same rendezvous rules as {@link com.abc.pp.stringhandoff.StringHandoff}:
+ * the passer and the receiver meet inside an instance for the handoff, so
+ * pass() blocks until a receiver has taken the item and receive() blocks
+ * until a passer arrives. Nothing is buffered.
+ * <p>
+ * There can only be one thread waiting to pass and one thread waiting to
+ * receive at any given time; a second one gets an IllegalStateException.
+ * <p>
+ * {@link #passAll(Object[])} hands a whole batch over in one rendezvous: a
+ * receiver calling {@link #receiveAll()} gets every item in the batch at
+ * once. A receiver calling {@link #receive()} gets the next item of the
+ * batch instead (and later calls get the items after it); either way the
+ * passer doesn't return until every item in the batch has been received.
+ * <p>
+ * Methods that take a timeout throw a TimedOutException if the timeout
+ * passes without the handoff completing. A timeout of 0 (or less) means
+ * never time out. If a batch times out part way through, the items already
+ * received stay received. Once {@link #shutdown()} has been called, every
+ * call (and every thread still waiting) throws a ShutdownException.
+ * TimedOutException, ShutdownException and IllegalStateException are all
+ * RuntimeExceptions.
+ * <p>
+ * {@link LongHandoff} and {@link IntHandoff} are the same thing for
+ * primitives, without any boxing.
+ */
+public interface Handoff<T> {
+    void pass(T item, long msTimeout)
+        throws InterruptedException, TimedOutException, ShutdownException, IllegalStateException;
+
+    void pass(T item, long timeout, TimeUnit unit)
+        throws InterruptedException, TimedOutException, ShutdownException, IllegalStateException;
+
+    void pass(T item)
+        throws InterruptedException, ShutdownException, IllegalStateException;
+
+    /**
+     * Passes every item in batch in one rendezvous and returns once they
+     * have all been received. An empty batch returns right away.
+     * @throws IllegalArgumentException if batch is null.
+     */
+    void passAll(T[] batch, long timeout, TimeUnit unit)
+        throws InterruptedException, TimedOutException, ShutdownException, IllegalStateException;
+
+    void passAll(T[] batch)
+        throws InterruptedException, ShutdownException, IllegalStateException;
+
+    T receive(long msTimeout)
+        throws InterruptedException, TimedOutException, ShutdownException, IllegalStateException;
+
+    T receive(long timeout, TimeUnit unit)
+        throws InterruptedException, TimedOutException, ShutdownException, IllegalStateException;
+
+    T receive()
+        throws InterruptedException, ShutdownException, IllegalStateException;
+
+    /**
+     * Receives all of the items the passer has not yet handed over (the
+     * whole batch for passAll(), a single item for pass()).
+     */
+    T[] receiveAll(long timeout, TimeUnit unit)
+        throws InterruptedException, TimedOutException, ShutdownException, IllegalStateException;
+
+    T[] receiveAll()
+        throws InterruptedException, ShutdownException, IllegalStateException;
+
+    void shutdown();
+
+    Object getLockObject();
+}
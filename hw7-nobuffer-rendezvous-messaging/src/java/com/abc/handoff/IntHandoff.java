@@ -0,0 +1,45 @@
+package com.abc.handoff;
+
+import java.util.concurrent.*;
+
+import com.programix.thread.*;
+
+/**
+ * A {@link Handoff} of int values which never boxes them. See Handoff for
+ * how the methods are supposed to work.
+ */
+public interface IntHandoff {
+    void pass(int value, long msTimeout)
+        throws InterruptedException, TimedOutException, ShutdownException, IllegalStateException;
+
+    void pass(int value, long timeout, TimeUnit unit)
+        throws InterruptedException, TimedOutException, ShutdownException, IllegalStateException;
+
+    void pass(int value)
+        throws InterruptedException, ShutdownException, IllegalStateException;
+
+    void passAll(int[] batch, long timeout, TimeUnit unit)
+        throws InterruptedException, TimedOutException, ShutdownException, IllegalStateException;
+
+    void passAll(int[] batch)
+        throws InterruptedException, ShutdownException, IllegalStateException;
+
+    int receive(long msTimeout)
+        throws InterruptedException, TimedOutException, ShutdownException, IllegalStateException;
+
+    int receive(long timeout, TimeUnit unit)
+        throws InterruptedException, TimedOutException, ShutdownException, IllegalStateException;
+
+    int receive()
+        throws InterruptedException, ShutdownException, IllegalStateException;
+
+    int[] receiveAll(long timeout, TimeUnit unit)
+        throws InterruptedException, TimedOutException, ShutdownException, IllegalStateException;
+
+    int[] receiveAll()
+        throws InterruptedException, ShutdownException, IllegalStateException;
+
+    void shutdown();
+
+    Object getLockObject();
+}
@@ -0,0 +1,45 @@
+package com.abc.handoff;
+
+import java.util.concurrent.*;
+
+import com.programix.thread.*;
+
+/**
+ * A {@link Handoff} of long values which never boxes them. See Handoff for
+ * how the methods are supposed to work.
+ */
+public interface LongHandoff {
+    void pass(long value, long msTimeout)
+        throws InterruptedException, TimedOutException, ShutdownException, IllegalStateException;
+
+    void pass(long value, long timeout, TimeUnit unit)
+        throws InterruptedException, TimedOutException, ShutdownException, IllegalStateException;
+
+    void pass(long value)
+        throws InterruptedException, ShutdownException, IllegalStateException;
+
+    void passAll(long[] batch, long timeout, TimeUnit unit)
+        throws InterruptedException, TimedOutException, ShutdownException, IllegalStateException;
+
+    void passAll(long[] batch)
+        throws InterruptedException, ShutdownException, IllegalStateException;
+
+    long receive(long msTimeout)
+        throws InterruptedException, TimedOutException, ShutdownException, IllegalStateException;
+
+    long receive(long timeout, TimeUnit unit)
+        throws InterruptedException, TimedOutException, ShutdownException, IllegalStateException;
+
+    long receive()
+        throws InterruptedException, ShutdownException, IllegalStateException;
+
+    long[] receiveAll(long timeout, TimeUnit unit)
+        throws InterruptedException, TimedOutException, ShutdownException, IllegalStateException;
+
+    long[] receiveAll()
+        throws InterruptedException, ShutdownException, IllegalStateException;
+
+    void shutdown();
+
+    Object getLockObject();
+}
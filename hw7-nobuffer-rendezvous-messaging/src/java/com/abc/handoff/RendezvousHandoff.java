@@ -0,0 +1,170 @@
+package com.abc.handoff;
+
+import java.lang.reflect.*;
+import java.util.concurrent.*;
+
+import com.programix.thread.*;
+
+/**
+ * The {@link Handoff} implementation: a passer and a receiver meet inside
+ * the instance (see Handoff for the rules). The passer's items are never
+ * copied into the handoff - the receiver copies them straight out of the
+ * passer's array (or single-item slot) while the passer waits.
+ */
+public class RendezvousHandoff<T> extends AbstractRendezvousHandoff
+        implements Handoff<T> {
+
+    private final Class<T> itemType;
+    // reused for every single-item pass, so pass(item) doesn't allocate
+    private final T[] singleItemSlot;
+    // the items being passed right now (null when nobody is passing)
+    private T[] offeredItems;
+
+    /**
+     * @param itemType the type of the arrays returned by receiveAll().
+     * @param proposedLockObject the object to synchronize on; if null,
+     * the handoff itself is used.
+     */
+    public RendezvousHandoff(Class<T> itemType, Object proposedLockObject) {
+        super(proposedLockObject);
+        if (itemType == null) {
+            throw new IllegalArgumentException("itemType must not be null");
+        }
+        this.itemType = itemType;
+        singleItemSlot = createArray(1);
+    }
+
+    public RendezvousHandoff(Class<T> itemType) {
+        this(itemType, null);
+    }
+
+    @SuppressWarnings("unchecked")
+    private T[] createArray(int length) {
+        return (T[]) Array.newInstance(itemType, length);
+    }
+
+    public Class<T> getItemType() {
+        return itemType;
+    }
+
+    @Override
+    public void pass(T item, long msTimeout)
+            throws InterruptedException, TimedOutException, ShutdownException, IllegalStateException {
+
+        pass(item, msTimeout, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void pass(T item, long timeout, TimeUnit unit)
+            throws InterruptedException, TimedOutException, ShutdownException, IllegalStateException {
+
+        synchronized ( getLockObject() ) {
+            beginPass();
+            singleItemSlot[0] = item;
+            offer(singleItemSlot, 1, timeout, unit);
+        }
+    }
+
+    @Override
+    public void pass(T item)
+            throws InterruptedException, ShutdownException, IllegalStateException {
+
+        pass(item, 0L, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void passAll(T[] batch, long timeout, TimeUnit unit)
+            throws InterruptedException, TimedOutException, ShutdownException, IllegalStateException {
+
+        if (batch == null) {
+            throw new IllegalArgumentException("batch must not be null");
+        }
+
+        synchronized ( getLockObject() ) {
+            beginPass();
+            if (batch.length == 0) {
+                endPass();
+                return;
+            }
+            offer(batch, batch.length, timeout, unit);
+        }
+    }
+
+    @Override
+    public void passAll(T[] batch)
+            throws InterruptedException, ShutdownException, IllegalStateException {
+
+        passAll(batch, 0L, TimeUnit.MILLISECONDS);
+    }
+
+    // caller must hold the lock and have called beginPass()
+    private void offer(T[] items, int count, long timeout, TimeUnit unit)
+            throws InterruptedException, TimedOutException, ShutdownException {
+
+        try {
+            offeredItems = items;
+            awaitTaken(count, timeout, unit);
+        } finally {
+            offeredItems = null;
+            singleItemSlot[0] = null;
+            endPass();
+        }
+    }
+
+    @Override
+    public T receive(long msTimeout)
+            throws InterruptedException, TimedOutException, ShutdownException, IllegalStateException {
+
+        return receive(msTimeout, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public T receive(long timeout, TimeUnit unit)
+            throws InterruptedException, TimedOutException, ShutdownException, IllegalStateException {
+
+        synchronized ( getLockObject() ) {
+            beginReceive();
+            try {
+                int index = awaitOffer(timeout, unit);
+                T item = offeredItems[index];
+                markTaken(1);
+                return item;
+            } finally {
+                endReceive();
+            }
+        }
+    }
+
+    @Override
+    public T receive()
+            throws InterruptedException, ShutdownException, IllegalStateException {
+
+        return receive(0L, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public T[] receiveAll(long timeout, TimeUnit unit)
+            throws InterruptedException, TimedOutException, ShutdownException, IllegalStateException {
+
+        synchronized ( getLockObject() ) {
+            beginReceive();
+            try {
+                int index = awaitOffer(timeout, unit);
+                int count = getAvailableCount();
+                T[] items = createArray(count);
+                System.arraycopy(offeredItems, index, items, 0, count);
+                markTaken(count);
+                return items;
+            } finally {
+                endReceive();
+            }
+        }
+    }
+
+    @Override
+    public T[] receiveAll()
+            throws InterruptedException, ShutdownException, IllegalStateException {
+
+        return receiveAll(0L, TimeUnit.MILLISECONDS);
+    }
+}
@@ -0,0 +1,152 @@
+package com.abc.handoff;
+
+import java.util.concurrent.*;
+
+import com.programix.thread.*;
+
+/**
+ * The {@link IntHandoff} implementation, just like {@link RendezvousHandoff}
+ * but with int values kept in int[]s so nothing is ever boxed. A single
+ * value pass doesn't allocate anything.
+ */
+public class RendezvousIntHandoff extends AbstractRendezvousHandoff
+        implements IntHandoff {
+
+    // reused for every single-value pass, so pass(value) doesn't allocate
+    private final int[] singleValueSlot;
+    // the values being passed right now (null when nobody is passing)
+    private int[] offeredValues;
+
+    /**
+     * @param proposedLockObject the object to synchronize on; if null,
+     * the handoff itself is used.
+     */
+    public RendezvousIntHandoff(Object proposedLockObject) {
+        super(proposedLockObject);
+        singleValueSlot = new int[1];
+    }
+
+    public RendezvousIntHandoff() {
+        this(null);
+    }
+
+    @Override
+    public void pass(int value, long msTimeout)
+            throws InterruptedException, TimedOutException, ShutdownException, IllegalStateException {
+
+        pass(value, msTimeout, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void pass(int value, long timeout, TimeUnit unit)
+            throws InterruptedException, TimedOutException, ShutdownException, IllegalStateException {
+
+        synchronized ( getLockObject() ) {
+            beginPass();
+            singleValueSlot[0] = value;
+            offer(singleValueSlot, 1, timeout, unit);
+        }
+    }
+
+    @Override
+    public void pass(int value)
+            throws InterruptedException, ShutdownException, IllegalStateException {
+
+        pass(value, 0L, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void passAll(int[] batch, long timeout, TimeUnit unit)
+            throws InterruptedException, TimedOutException, ShutdownException, IllegalStateException {
+
+        if (batch == null) {
+            throw new IllegalArgumentException("batch must not be null");
+        }
+
+        synchronized ( getLockObject() ) {
+            beginPass();
+            if (batch.length == 0) {
+                endPass();
+                return;
+            }
+            offer(batch, batch.length, timeout, unit);
+        }
+    }
+
+    @Override
+    public void passAll(int[] batch)
+            throws InterruptedException, ShutdownException, IllegalStateException {
+
+        passAll(batch, 0L, TimeUnit.MILLISECONDS);
+    }
+
+    // caller must hold the lock and have called beginPass()
+    private void offer(int[] values, int count, long timeout, TimeUnit unit)
+            throws InterruptedException, TimedOutException, ShutdownException {
+
+        try {
+            offeredValues = values;
+            awaitTaken(count, timeout, unit);
+        } finally {
+            offeredValues = null;
+            endPass();
+        }
+    }
+
+    @Override
+    public int receive(long msTimeout)
+            throws InterruptedException, TimedOutException, ShutdownException, IllegalStateException {
+
+        return receive(msTimeout, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public int receive(long timeout, TimeUnit unit)
+            throws InterruptedException, TimedOutException, ShutdownException, IllegalStateException {
+
+        synchronized ( getLockObject() ) {
+            beginReceive();
+            try {
+                int index = awaitOffer(timeout, unit);
+                int value = offeredValues[index];
+                markTaken(1);
+                return value;
+            } finally {
+                endReceive();
+            }
+        }
+    }
+
+    @Override
+    public int receive()
+            throws InterruptedException, ShutdownException, IllegalStateException {
+
+        return receive(0L, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public int[] receiveAll(long timeout, TimeUnit unit)
+            throws InterruptedException, TimedOutException, ShutdownException, IllegalStateException {
+
+        synchronized ( getLockObject() ) {
+            beginReceive();
+            try {
+                int index = awaitOffer(timeout, unit);
+                int count = getAvailableCount();
+                int[] values = new int[count];
+                System.arraycopy(offeredValues, index, values, 0, count);
+                markTaken(count);
+                return values;
+            } finally {
+                endReceive();
+            }
+        }
+    }
+
+    @Override
+    public int[] receiveAll()
+            throws InterruptedException, ShutdownException, IllegalStateException {
+
+        return receiveAll(0L, TimeUnit.MILLISECONDS);
+    }
+}
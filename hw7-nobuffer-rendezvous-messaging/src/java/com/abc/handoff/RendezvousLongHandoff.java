@@ -0,0 +1,152 @@
+package com.abc.handoff;
+
+import java.util.concurrent.*;
+
+import com.programix.thread.*;
+
+/**
+ * The {@link LongHandoff} implementation, just like {@link RendezvousHandoff}
+ * but with long values kept in long[]s so nothing is ever boxed. A single
+ * value pass doesn't allocate anything.
+ */
+public class RendezvousLongHandoff extends AbstractRendezvousHandoff
+        implements LongHandoff {
+
+    // reused for every single-value pass, so pass(value) doesn't allocate
+    private final long[] singleValueSlot;
+    // the values being passed right now (null when nobody is passing)
+    private long[] offeredValues;
+
+    /**
+     * @param proposedLockObject the object to synchronize on; if null,
+     * the handoff itself is used.
+     */
+    public RendezvousLongHandoff(Object proposedLockObject) {
+        super(proposedLockObject);
+        singleValueSlot = new long[1];
+    }
+
+    public RendezvousLongHandoff() {
+        this(null);
+    }
+
+    @Override
+    public void pass(long value, long msTimeout)
+            throws InterruptedException, TimedOutException, ShutdownException, IllegalStateException {
+
+        pass(value, msTimeout, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void pass(long value, long timeout, TimeUnit unit)
+            throws InterruptedException, TimedOutException, ShutdownException, IllegalStateException {
+
+        synchronized ( getLockObject() ) {
+            beginPass();
+            singleValueSlot[0] = value;
+            offer(singleValueSlot, 1, timeout, unit);
+        }
+    }
+
+    @Override
+    public void pass(long value)
+            throws InterruptedException, ShutdownException, IllegalStateException {
+
+        pass(value, 0L, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void passAll(long[] batch, long timeout, TimeUnit unit)
+            throws InterruptedException, TimedOutException, ShutdownException, IllegalStateException {
+
+        if (batch == null) {
+            throw new IllegalArgumentException("batch must not be null");
+        }
+
+        synchronized ( getLockObject() ) {
+            beginPass();
+            if (batch.length == 0) {
+                endPass();
+                return;
+            }
+            offer(batch, batch.length, timeout, unit);
+        }
+    }
+
+    @Override
+    public void passAll(long[] batch)
+            throws InterruptedException, ShutdownException, IllegalStateException {
+
+        passAll(batch, 0L, TimeUnit.MILLISECONDS);
+    }
+
+    // caller must hold the lock and have called beginPass()
+    private void offer(long[] values, int count, long timeout, TimeUnit unit)
+            throws InterruptedException, TimedOutException, ShutdownException {
+
+        try {
+            offeredValues = values;
+            awaitTaken(count, timeout, unit);
+        } finally {
+            offeredValues = null;
+            endPass();
+        }
+    }
+
+    @Override
+    public long receive(long msTimeout)
+            throws InterruptedException, TimedOutException, ShutdownException, IllegalStateException {
+
+        return receive(msTimeout, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public long receive(long timeout, TimeUnit unit)
+            throws InterruptedException, TimedOutException, ShutdownException, IllegalStateException {
+
+        synchronized ( getLockObject() ) {
+            beginReceive();
+            try {
+                int index = awaitOffer(timeout, unit);
+                long value = offeredValues[index];
+                markTaken(1);
+                return value;
+            } finally {
+                endReceive();
+            }
+        }
+    }
+
+    @Override
+    public long receive()
+            throws InterruptedException, ShutdownException, IllegalStateException {
+
+        return receive(0L, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public long[] receiveAll(long timeout, TimeUnit unit)
+            throws InterruptedException, TimedOutException, ShutdownException, IllegalStateException {
+
+        synchronized ( getLockObject() ) {
+            beginReceive();
+            try {
+                int index = awaitOffer(timeout, unit);
+                int count = getAvailableCount();
+                long[] values = new long[count];
+                System.arraycopy(offeredValues, index, values, 0, count);
+                markTaken(count);
+                return values;
+            } finally {
+                endReceive();
+            }
+        }
+    }
+
+    @Override
+    public long[] receiveAll()
+            throws InterruptedException, ShutdownException, IllegalStateException {
+
+        return receiveAll(0L, TimeUnit.MILLISECONDS);
+    }
+}
@@ -1,5 +1,7 @@
 package com.abc.handoff;
 
+import java.util.concurrent.*;
+
 import com.abc.pp.stringhandoff.*;
 import com.programix.thread.*;
 
@@ -19,8 +21,10 @@ import com.programix.thread.*;
  * IllegalStateException is thrown. IllegalStateException is a RuntimeException.
  * <p>
  * Methods that take a timeout parameter will throw a TimedOutException if
- * the specified number of milliseconds passes without the handoff occurring.
- * TimedOutException is a RuntimeException.
+ * the specified number of milliseconds (or the specified amount of time in
+ * the given TimeUnit) passes without the handoff occurring. Deadlines are
+ * measured with System.nanoTime(), so they are not affected by changes to the
+ * wall clock. TimedOutException is a RuntimeException.
  * <p>
  * The methods that declare that they may throw a ShutdownException will do
  * so after shutdown() has been called. If a thread is waiting inside a method
@@ -29,146 +33,66 @@ import com.programix.thread.*;
  * throw a ShutdownException, and any thread has already called shutdown(), then
  * the call will immediately throw the ShutdownException.
  * ShutdownException is a RuntimeException.
+ * <p>
+ * This is a thin adapter: the rendezvous itself is done by a
+ * {@link RendezvousHandoff} of Strings which synchronizes on this instance.
  */
 public class StringHandoffImpl implements StringHandoff {
+    private final RendezvousHandoff<String> handoff;
 
-    private String message;
-    private boolean shutdown;
-    private boolean waiting;
-
-
-    public StringHandoffImpl() {}
-
-
-    private String getMessage() {
-        String temp = this.message;
-        clearMessage();
-        return temp;
-    }
-
-    private void clearMessage(){
-        this.message = null;
-        getLockObject().notifyAll();
-    }
-
-    private void setMessage(String msg) {
-        if (this.message == null) {
-            this.message = msg;
-            getLockObject().notifyAll();
-        } else {
-            throw new IllegalStateException();
-        }
-    }
-
-    private void setWaiting() {
-        if (this.waiting) {
-            throw new IllegalStateException();
-        } else {
-            this.waiting = true;
-        }
-    }
-
-    private void clearWaiting(){
-        this.waiting = false;
-    }
-
-    private void checkForShutdown(){
-        if (shutdown) {
-            throw new ShutdownException();
-        }
+    public StringHandoffImpl() {
+        handoff = new RendezvousHandoff<>(String.class, this);
     }
 
     @Override
-    public synchronized void pass(String msg, long msTimeout)
+    public void pass(String msg, long msTimeout)
             throws InterruptedException, TimedOutException, ShutdownException, IllegalStateException {
+        handoff.pass(msg, msTimeout);
+    }
 
-        checkForShutdown();
-        setMessage(msg);
-
-        try {
-
-            if (msTimeout <= 0) {
-                while (message != null) {
-                    checkForShutdown();
-                    getLockObject().wait();
-                }
-                return;
-            }
-
-            long endTime = System.currentTimeMillis() + msTimeout;
-            long msRemaining = msTimeout;
-
-            while (msRemaining > 0) {
-                checkForShutdown();
-                if (message == null) {
-                    return;
-                }
-                getLockObject().wait(msRemaining);
-                msRemaining = endTime - System.currentTimeMillis();
-            }
-            throw new TimedOutException();
-        } finally {
-            clearMessage();
-        }
+    /**
+     * Same as {@link #pass(String, long)}, but with the timeout in the
+     * specified unit. A timeout of 0 (or less) means never time out.
+     */
+    public void pass(String msg, long timeout, TimeUnit unit)
+            throws InterruptedException, TimedOutException, ShutdownException, IllegalStateException {
+        handoff.pass(msg, timeout, unit);
     }
 
     @Override
-    public synchronized void pass(String msg)
+    public void pass(String msg)
             throws InterruptedException, ShutdownException, IllegalStateException {
-        pass(msg, 0);
+        handoff.pass(msg);
     }
 
-
     @Override
-    public synchronized String receive(long msTimeout)
+    public String receive(long msTimeout)
             throws InterruptedException, TimedOutException, ShutdownException, IllegalStateException {
+        return handoff.receive(msTimeout);
+    }
 
-        checkForShutdown();
-        setWaiting();
-
-        try {
-
-            if (msTimeout <= 0) {
-                while (message == null) {
-                    getLockObject().wait();
-                    checkForShutdown();
-                }
-                return getMessage();
-            }
-
-            long endTime = System.currentTimeMillis() + msTimeout;
-            long msRemaining = msTimeout;
-            while (msRemaining > 0) {
-                if (message != null) {
-                    return getMessage();
-                }
-                getLockObject().wait(msRemaining);
-                msRemaining = endTime - System.currentTimeMillis();
-                checkForShutdown();
-            }
-            throw new TimedOutException();
-        }
-        finally {
-            clearWaiting();
-        }
+    /**
+     * Same as {@link #receive(long)}, but with the timeout in the specified
+     * unit. A timeout of 0 (or less) means never time out.
+     */
+    public String receive(long timeout, TimeUnit unit)
+            throws InterruptedException, TimedOutException, ShutdownException, IllegalStateException {
+        return handoff.receive(timeout, unit);
     }
 
     @Override
-    public synchronized String receive()
+    public String receive()
             throws InterruptedException, ShutdownException, IllegalStateException {
-        return receive(0);
+        return handoff.receive();
     }
 
     @Override
-    public synchronized void shutdown() {
-        this.shutdown = true;
-        clearMessage();
-        clearWaiting();
-        notifyAll();
+    public void shutdown() {
+        handoff.shutdown();
     }
 
     @Override
     public Object getLockObject() {
-        return this;
+        return handoff.getLockObject();
     }
 }
\ No newline at end of file
@@ -0,0 +1,87 @@
+package com.abc.handoff.test;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+import com.programix.testing.*;
+
+/**
+ * Common plumbing for the {@link com.abc.handoff.Handoff} family tests: the
+ * test's own thread does the receiving (always with a timeout, so a lost
+ * item fails the test instead of hanging it) while a passer runs on a
+ * thread from the {@link TestThreadFactory}.
+ */
+abstract class AbstractHandoffTest extends BaseTest {
+    /** Time limit for any single pass or receive in these tests. */
+    protected static final long MS_TIMEOUT = 2000L;
+
+    private final TestThreadFactory threadFactory;
+    private final Queue<String> problems = new ConcurrentLinkedQueue<>();
+
+    protected AbstractHandoffTest(String displayName,
+                                  TestThreadFactory threadFactory) {
+        super(displayName);
+        this.threadFactory = threadFactory;
+    }
+
+    /** Something a passer does; whatever it throws is reported. */
+    protected interface PasserTask {
+        void run() throws Exception;
+    } // type PasserTask
+
+    @Override
+    protected final void performTests() {
+        try {
+            testAll();
+        } catch ( Exception x ) {
+            failureExceptionWithStackTrace(x);
+        }
+    }
+
+    protected abstract void testAll() throws Exception;
+
+    /**
+     * Runs task on a new thread.
+     * @return a latch which is released when the task is done.
+     */
+    protected CountDownLatch startPasser(final String name,
+                                         final PasserTask task) {
+
+        final CountDownLatch doneLatch = new CountDownLatch(1);
+        threadFactory.createThreadFor(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    task.run();
+                } catch ( Exception x ) {
+                    problems.add(name + ": " + x);
+                } finally {
+                    doneLatch.countDown();
+                }
+            }
+        }, name);
+        return doneLatch;
+    }
+
+    /**
+     * Waits for a passer started by {@link #startPasser(String, PasserTask)}
+     * and reports (and forgets) anything any passer has thrown so far.
+     */
+    protected void checkPasser(CountDownLatch doneLatch)
+            throws InterruptedException {
+
+        outln("passer finished",
+            doneLatch.await(MS_TIMEOUT, TimeUnit.MILLISECONDS), true);
+
+        int problemCount = 0;
+        for ( String problem = problems.poll(); problem != null; problem = problems.poll() ) {
+            outlnErrorText(problem);
+            problemCount++;
+        }
+        outln("passers which threw", problemCount, 0);
+    }
+
+    protected static long elapsedMillis(long startNanos) {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+    }
+}
@@ -0,0 +1,20 @@
+package com.abc.handoff.test;
+
+import com.abc.handoff.*;
+import com.abc.pp.stringhandoff.*;
+import com.abc.pp.stringhandoff.tests.*;
+import com.abc.pp.stringhandoff.tests.gui.*;
+
+public class TestConditionStringHandoff {
+    public static void main(String[] args) {
+        GuiTestPPStringHandoff.runTests(
+            "Testing of ConditionStringHandoff",
+            false,
+            new StringHandoffFactory() {
+                @Override
+                public StringHandoff create() {
+                    return new ConditionStringHandoff();
+                }
+            });
+    }
+}
\ No newline at end of file
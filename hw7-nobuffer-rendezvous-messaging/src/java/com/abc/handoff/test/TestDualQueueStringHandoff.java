@@ -0,0 +1,22 @@
+package com.abc.handoff.test;
+
+import com.abc.handoff.*;
+import com.abc.pp.stringhandoff.*;
+import com.abc.pp.stringhandoff.tests.*;
+
+/**
+ * Runs the multi-party StringHandoff tests (see
+ * {@link TestSuiteMultiPartyStringHandoff}) against DualQueueStringHandoff.
+ */
+public class TestDualQueueStringHandoff {
+    public static void main(String[] args) {
+        TestSuiteMultiPartyStringHandoff.runTests(
+            "Testing of DualQueueStringHandoff",
+            new StringHandoffFactory() {
+                @Override
+                public StringHandoff create() {
+                    return new DualQueueStringHandoff();
+                }
+            });
+    }
+}
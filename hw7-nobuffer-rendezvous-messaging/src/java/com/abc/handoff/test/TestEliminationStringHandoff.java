@@ -0,0 +1,58 @@
+package com.abc.handoff.test;
+
+import java.util.*;
+
+import com.abc.handoff.*;
+import com.abc.pp.stringhandoff.*;
+import com.abc.pp.stringhandoff.tests.*;
+import com.programix.testing.*;
+
+/**
+ * Runs the multi-party StringHandoff tests (see
+ * {@link TestSuiteMultiPartyStringHandoff}) against EliminationStringHandoff,
+ * plus {@link TestStringHandoffThroughput} to check that going through the
+ * arena is no slower than going straight to a DualQueueStringHandoff.
+ * <p>
+ * The default constructor doesn't spin at all on a single CPU, which would
+ * leave the arena untested there. So this uses an explicit arena and spin
+ * limit: threads meet in the arena when they can, and the ones which spin
+ * out fall back to the DualQueueStringHandoff, so both paths get exercised
+ * on any machine.
+ */
+public class TestEliminationStringHandoff {
+    private static final int ARENA_SIZE = 4;
+    private static final int SPIN_LIMIT = 4096;
+    private static final double MAX_SLOWDOWN = 2.0;
+
+    public static void main(String[] args) {
+        final StringHandoffFactory factory = new StringHandoffFactory() {
+            @Override
+            public StringHandoff create() {
+                return new EliminationStringHandoff(ARENA_SIZE, SPIN_LIMIT);
+            }
+        };
+
+        ParallelTestingPane.createFramedInstance(new ParallelTestingPane.Control() {
+            @Override
+            public String getTitle() {
+                return "Testing of EliminationStringHandoff";
+            }
+
+            @Override
+            public TestChunk[] createNewTestChunks(TestThreadFactory threadFactory) {
+                List<BaseTest> tests = new ArrayList<>(Arrays.asList(
+                    TestSuiteMultiPartyStringHandoff.createAllTests(factory, threadFactory)));
+                tests.add(new TestStringHandoffThroughput(factory, threadFactory,
+                    2, 2, 10000, MAX_SLOWDOWN, TestSuiteMultiPartyStringHandoff.MS_TIME_LIMIT));
+                tests.add(new TestStringHandoffThroughput(factory, threadFactory,
+                    16, 16, 10000, MAX_SLOWDOWN, TestSuiteMultiPartyStringHandoff.MS_TIME_LIMIT));
+                return StandardTestChunk.createAll(tests.toArray(new BaseTest[0]));
+            }
+
+            @Override
+            public boolean shouldShowPoints() {
+                return false;
+            }
+        });
+    }
+}
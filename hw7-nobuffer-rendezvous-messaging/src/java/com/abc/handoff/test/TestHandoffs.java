@@ -0,0 +1,44 @@
+package com.abc.handoff.test;
+
+import com.programix.testing.*;
+
+/**
+ * Runs the tests for the {@link com.abc.handoff.Handoff} family: the generic
+ * {@link com.abc.handoff.RendezvousHandoff} and its long and int versions.
+ */
+public class TestHandoffs {
+    // no instances
+    private TestHandoffs() {
+    }
+
+    public static BaseTest[] createAllTests(TestThreadFactory threadFactory) {
+        return new BaseTest[] {
+            new TestRendezvousHandoff(threadFactory),
+            new TestRendezvousLongHandoff(threadFactory),
+            new TestRendezvousIntHandoff(threadFactory)
+        };
+    }
+
+    public static TestChunk[] createAllTestChunks(TestThreadFactory threadFactory) {
+        return StandardTestChunk.createAll(createAllTests(threadFactory));
+    }
+
+    public static void main(String[] args) {
+        ParallelTestingPane.createFramedInstance(new ParallelTestingPane.Control() {
+            @Override
+            public String getTitle() {
+                return "Testing of Handoff, LongHandoff and IntHandoff";
+            }
+
+            @Override
+            public TestChunk[] createNewTestChunks(TestThreadFactory threadFactory) {
+                return createAllTestChunks(threadFactory);
+            }
+
+            @Override
+            public boolean shouldShowPoints() {
+                return false;
+            }
+        });
+    }
+}
@@ -0,0 +1,155 @@
+package com.abc.handoff.test;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
+
+import com.abc.pp.stringhandoff.*;
+import com.abc.pp.stringhandoff.tests.*;
+import com.programix.testing.*;
+
+/**
+ * N passers and M receivers share one {@link StringHandoff} at the same
+ * time. Every passer passes its own distinct Strings, and the receivers
+ * together call receive() exactly as many times as there are Strings. The
+ * test checks that every String is received exactly once (none lost, none
+ * duplicated, nothing made up) and that all of the threads finish within
+ * a time limit. If they don't, the handoff is shut down so that no thread
+ * is left waiting.
+ * <p>
+ * This is only meaningful for handoffs which allow more than one passer
+ * (and receiver) at a time; the standard StringHandoffImpl throws
+ * IllegalStateException instead.
+ */
+public class TestMultiPartyStringHandoff extends BaseTest {
+    private final StringHandoffFactory factory;
+    private final TestThreadFactory threadFactory;
+    private final int passerCount;
+    private final int receiverCount;
+    private final int stringsPerPasser;
+    private final long msTimeLimit;
+
+    public TestMultiPartyStringHandoff(StringHandoffFactory factory,
+                                       TestThreadFactory threadFactory,
+                                       int passerCount,
+                                       int receiverCount,
+                                       int stringsPerPasser,
+                                       long msTimeLimit) {
+
+        super(String.format("%d passers, %d receivers, %,d Strings - each " +
+            "received exactly once", passerCount, receiverCount,
+            passerCount * stringsPerPasser));
+
+        if (passerCount < 1 || receiverCount < 1 || stringsPerPasser < 1) {
+            throw new IllegalArgumentException(
+                "passerCount, receiverCount and stringsPerPasser must all " +
+                "be at least 1");
+        }
+        this.factory = factory;
+        this.threadFactory = threadFactory;
+        this.passerCount = passerCount;
+        this.receiverCount = receiverCount;
+        this.stringsPerPasser = stringsPerPasser;
+        this.msTimeLimit = msTimeLimit;
+    }
+
+    @Override
+    protected void performTests() {
+        try {
+            testOne();
+        } catch ( Exception x ) {
+            failureExceptionWithStackTrace(x);
+        }
+    }
+
+    private static String createString(int passerIndex, int stringIndex) {
+        return "p" + passerIndex + "-" + stringIndex;
+    }
+
+    private void testOne() throws InterruptedException {
+        final StringHandoff handoff = factory.create();
+        final int totalCount = passerCount * stringsPerPasser;
+        final AtomicInteger receiveTickets = new AtomicInteger(0);
+        final Queue<String> receivedStrings = new ConcurrentLinkedQueue<>();
+        final Queue<String> problems = new ConcurrentLinkedQueue<>();
+        final CountDownLatch doneLatch =
+            new CountDownLatch(passerCount + receiverCount);
+
+        outln(String.format("starting %d passers and %d receivers, " +
+            "%,d ms time limit...", passerCount, receiverCount, msTimeLimit));
+
+        for ( int i = 0; i < passerCount; i++ ) {
+            final int passerIndex = i;
+            threadFactory.createThreadFor(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        for ( int j = 0; j < stringsPerPasser; j++ ) {
+                            handoff.pass(createString(passerIndex, j));
+                        }
+                    } catch ( Exception x ) {
+                        problems.add("passer " + passerIndex + ": " + x);
+                    } finally {
+                        doneLatch.countDown();
+                    }
+                }
+            }, "passer-" + i);
+        }
+
+        for ( int i = 0; i < receiverCount; i++ ) {
+            final int receiverIndex = i;
+            threadFactory.createThreadFor(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        // one ticket per receive(), so no receiver waits forever
+                        while (receiveTickets.getAndIncrement() < totalCount) {
+                            receivedStrings.add(handoff.receive());
+                        }
+                    } catch ( Exception x ) {
+                        problems.add("receiver " + receiverIndex + ": " + x);
+                    } finally {
+                        doneLatch.countDown();
+                    }
+                }
+            }, "receiver-" + i);
+        }
+
+        boolean finished = doneLatch.await(msTimeLimit, TimeUnit.MILLISECONDS);
+        if (!finished) {
+            handoff.shutdown();
+            doneLatch.await(2000, TimeUnit.MILLISECONDS);
+        }
+        outln("all passers and receivers finished within the time limit",
+            finished, true);
+
+        for ( String problem : problems ) {
+            outlnErrorText(problem);
+        }
+        outln("passers and receivers which threw", problems.size(), 0);
+
+        Map<String, Integer> receiveCounts = new HashMap<>();
+        for ( String s : receivedStrings ) {
+            Integer count = receiveCounts.get(s);
+            receiveCounts.put(s, count == null ? 1 : count + 1);
+        }
+
+        int missingCount = 0;
+        int duplicatedCount = 0;
+        for ( int i = 0; i < passerCount; i++ ) {
+            for ( int j = 0; j < stringsPerPasser; j++ ) {
+                Integer count = receiveCounts.remove(createString(i, j));
+                if (count == null) {
+                    missingCount++;
+                } else if (count > 1) {
+                    duplicatedCount++;
+                }
+            }
+        }
+        outln("Strings received", receivedStrings.size(), totalCount);
+        outln("Strings never received", missingCount, 0);
+        outln("Strings received more than once", duplicatedCount, 0);
+        outln("Strings received which were never passed",
+            receiveCounts.size(), 0);
+    }
+}
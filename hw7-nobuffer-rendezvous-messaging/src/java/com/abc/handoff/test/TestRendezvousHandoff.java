@@ -0,0 +1,109 @@
+package com.abc.handoff.test;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+import com.abc.handoff.*;
+import com.programix.testing.*;
+
+/**
+ * Tests the generic {@link RendezvousHandoff}: single items, a batch
+ * received with receiveAll() and one at a time with receive(), and the
+ * null and empty batch cases of passAll().
+ */
+public class TestRendezvousHandoff extends AbstractHandoffTest {
+    public TestRendezvousHandoff(TestThreadFactory threadFactory) {
+        super("RendezvousHandoff<String> - pass, passAll, receive, " +
+            "receiveAll, null and empty batches", threadFactory);
+    }
+
+    @Override
+    protected void testAll() throws Exception {
+        final Handoff<String> handoff = new RendezvousHandoff<>(String.class);
+
+        outln("-- pass() then receive() --");
+        CountDownLatch passer = startPasser("passer-single", new PasserTask() {
+            @Override
+            public void run() throws Exception {
+                handoff.pass("apple", MS_TIMEOUT);
+                handoff.pass("banana", MS_TIMEOUT);
+            }
+        });
+        outln("receive()", handoff.receive(MS_TIMEOUT), "apple");
+        outln("receive()", handoff.receive(MS_TIMEOUT), "banana");
+        checkPasser(passer);
+
+        outln("-- passAll() then receiveAll() --");
+        final String[] batch = { "cherry", "date", "elderberry" };
+        passer = startPasser("passer-batch", new PasserTask() {
+            @Override
+            public void run() throws Exception {
+                handoff.passAll(batch, MS_TIMEOUT, TimeUnit.MILLISECONDS);
+            }
+        });
+        String[] received = handoff.receiveAll(MS_TIMEOUT, TimeUnit.MILLISECONDS);
+        outln("receiveAll()", received, batch);
+        outln("receiveAll() array type", received.getClass(), String[].class);
+        checkPasser(passer);
+
+        outln("-- passAll() then receive() one at a time --");
+        passer = startPasser("passer-batch", new PasserTask() {
+            @Override
+            public void run() throws Exception {
+                handoff.passAll(batch, MS_TIMEOUT, TimeUnit.MILLISECONDS);
+            }
+        });
+        List<String> receivedOneAtATime = new ArrayList<>();
+        for ( int i = 0; i < batch.length; i++ ) {
+            receivedOneAtATime.add(handoff.receive(MS_TIMEOUT));
+        }
+        outln("receive() x " + batch.length,
+            receivedOneAtATime.toArray(new String[0]), batch);
+        checkPasser(passer);
+
+        outln("-- pass() then receiveAll() --");
+        passer = startPasser("passer-single", new PasserTask() {
+            @Override
+            public void run() throws Exception {
+                handoff.pass("fig", MS_TIMEOUT);
+            }
+        });
+        outln("receiveAll()", handoff.receiveAll(MS_TIMEOUT, TimeUnit.MILLISECONDS),
+            new String[] { "fig" });
+        checkPasser(passer);
+
+        outln("-- passAll(null) --");
+        try {
+            handoff.passAll(null, MS_TIMEOUT, TimeUnit.MILLISECONDS);
+            outln("passAll(null) should have thrown IllegalArgumentException", false);
+        } catch ( IllegalArgumentException x ) {
+            outln("passAll(null) threw IllegalArgumentException", true);
+        }
+        checkLaterPass(handoff, "grape");
+
+        outln("-- passAll() with an empty batch --");
+        long startNanos = System.nanoTime();
+        handoff.passAll(new String[0], MS_TIMEOUT, TimeUnit.MILLISECONDS);
+        outln("empty passAll() returned right away (without a receiver)",
+            elapsedMillis(startNanos) < MS_TIMEOUT / 2, true);
+        checkLaterPass(handoff, "honeydew");
+    }
+
+    // a pass after a rejected or empty batch must not be blocked by it
+    private void checkLaterPass(final Handoff<String> handoff, final String item)
+            throws InterruptedException {
+
+        CountDownLatch passer = startPasser("passer-after", new PasserTask() {
+            @Override
+            public void run() throws Exception {
+                handoff.pass(item, MS_TIMEOUT);
+            }
+        });
+        try {
+            outln("later pass() still received", handoff.receive(MS_TIMEOUT), item);
+        } catch ( Exception x ) {
+            outln("later receive() threw " + x, false);
+        }
+        checkPasser(passer);
+    }
+}
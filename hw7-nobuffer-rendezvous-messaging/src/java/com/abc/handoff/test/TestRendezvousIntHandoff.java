@@ -0,0 +1,95 @@
+package com.abc.handoff.test;
+
+import java.util.concurrent.*;
+
+import com.abc.handoff.*;
+import com.programix.testing.*;
+
+/**
+ * Tests {@link RendezvousIntHandoff}: single values, a batch received with
+ * receiveAll() and one at a time with receive(), and the null and empty
+ * batch cases of passAll().
+ */
+public class TestRendezvousIntHandoff extends AbstractHandoffTest {
+    public TestRendezvousIntHandoff(TestThreadFactory threadFactory) {
+        super("RendezvousIntHandoff - pass, passAll, receive, receiveAll, " +
+            "null and empty batches", threadFactory);
+    }
+
+    @Override
+    protected void testAll() throws Exception {
+        final IntHandoff handoff = new RendezvousIntHandoff();
+
+        outln("-- pass() then receive() --");
+        CountDownLatch passer = startPasser("passer-single", new PasserTask() {
+            @Override
+            public void run() throws Exception {
+                handoff.pass(Integer.MIN_VALUE, MS_TIMEOUT);
+                handoff.pass(Integer.MAX_VALUE, MS_TIMEOUT);
+            }
+        });
+        outln("receive()", handoff.receive(MS_TIMEOUT), Integer.MIN_VALUE);
+        outln("receive()", handoff.receive(MS_TIMEOUT), Integer.MAX_VALUE);
+        checkPasser(passer);
+
+        outln("-- passAll() then receiveAll() --");
+        final int[] batch = { 1, 2, 3, 5, 8, 13 };
+        passer = startPasser("passer-batch", new PasserTask() {
+            @Override
+            public void run() throws Exception {
+                handoff.passAll(batch, MS_TIMEOUT, TimeUnit.MILLISECONDS);
+            }
+        });
+        outln("receiveAll()",
+            handoff.receiveAll(MS_TIMEOUT, TimeUnit.MILLISECONDS), batch);
+        checkPasser(passer);
+
+        outln("-- passAll() then receive() one at a time --");
+        passer = startPasser("passer-batch", new PasserTask() {
+            @Override
+            public void run() throws Exception {
+                handoff.passAll(batch, MS_TIMEOUT, TimeUnit.MILLISECONDS);
+            }
+        });
+        int[] receivedOneAtATime = new int[batch.length];
+        for ( int i = 0; i < batch.length; i++ ) {
+            receivedOneAtATime[i] = handoff.receive(MS_TIMEOUT);
+        }
+        outln("receive() x " + batch.length, receivedOneAtATime, batch);
+        checkPasser(passer);
+
+        outln("-- passAll(null) --");
+        try {
+            handoff.passAll(null, MS_TIMEOUT, TimeUnit.MILLISECONDS);
+            outln("passAll(null) should have thrown IllegalArgumentException", false);
+        } catch ( IllegalArgumentException x ) {
+            outln("passAll(null) threw IllegalArgumentException", true);
+        }
+        checkLaterPass(handoff, 42);
+
+        outln("-- passAll() with an empty batch --");
+        long startNanos = System.nanoTime();
+        handoff.passAll(new int[0], MS_TIMEOUT, TimeUnit.MILLISECONDS);
+        outln("empty passAll() returned right away (without a receiver)",
+            elapsedMillis(startNanos) < MS_TIMEOUT / 2, true);
+        checkLaterPass(handoff, -42);
+    }
+
+    // a pass after a rejected or empty batch must not be blocked by it
+    private void checkLaterPass(final IntHandoff handoff, final int value)
+            throws InterruptedException {
+
+        CountDownLatch passer = startPasser("passer-after", new PasserTask() {
+            @Override
+            public void run() throws Exception {
+                handoff.pass(value, MS_TIMEOUT);
+            }
+        });
+        try {
+            outln("later pass() still received", handoff.receive(MS_TIMEOUT), value);
+        } catch ( Exception x ) {
+            outln("later receive() threw " + x, false);
+        }
+        checkPasser(passer);
+    }
+}
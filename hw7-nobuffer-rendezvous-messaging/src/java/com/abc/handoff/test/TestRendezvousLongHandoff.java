@@ -0,0 +1,98 @@
+package com.abc.handoff.test;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+import com.abc.handoff.*;
+import com.programix.testing.*;
+
+/**
+ * Tests {@link RendezvousLongHandoff}: single values, a batch received with
+ * receiveAll() and one at a time with receive(), and the null and empty
+ * batch cases of passAll().
+ */
+public class TestRendezvousLongHandoff extends AbstractHandoffTest {
+    public TestRendezvousLongHandoff(TestThreadFactory threadFactory) {
+        super("RendezvousLongHandoff - pass, passAll, receive, receiveAll, " +
+            "null and empty batches", threadFactory);
+    }
+
+    @Override
+    protected void testAll() throws Exception {
+        final LongHandoff handoff = new RendezvousLongHandoff();
+
+        outln("-- pass() then receive() --");
+        CountDownLatch passer = startPasser("passer-single", new PasserTask() {
+            @Override
+            public void run() throws Exception {
+                handoff.pass(Long.MIN_VALUE, MS_TIMEOUT);
+                handoff.pass(Long.MAX_VALUE, MS_TIMEOUT);
+            }
+        });
+        outln("receive()", handoff.receive(MS_TIMEOUT), Long.MIN_VALUE);
+        outln("receive()", handoff.receive(MS_TIMEOUT), Long.MAX_VALUE);
+        checkPasser(passer);
+
+        outln("-- passAll() then receiveAll() --");
+        final long[] batch = { 10L, 20L, 30L, 1L << 40 };
+        passer = startPasser("passer-batch", new PasserTask() {
+            @Override
+            public void run() throws Exception {
+                handoff.passAll(batch, MS_TIMEOUT, TimeUnit.MILLISECONDS);
+            }
+        });
+        outln("receiveAll()", Arrays.toString(
+            handoff.receiveAll(MS_TIMEOUT, TimeUnit.MILLISECONDS)),
+            Arrays.toString(batch));
+        checkPasser(passer);
+
+        outln("-- passAll() then receive() one at a time --");
+        passer = startPasser("passer-batch", new PasserTask() {
+            @Override
+            public void run() throws Exception {
+                handoff.passAll(batch, MS_TIMEOUT, TimeUnit.MILLISECONDS);
+            }
+        });
+        long[] receivedOneAtATime = new long[batch.length];
+        for ( int i = 0; i < batch.length; i++ ) {
+            receivedOneAtATime[i] = handoff.receive(MS_TIMEOUT);
+        }
+        outln("receive() x " + batch.length,
+            Arrays.toString(receivedOneAtATime), Arrays.toString(batch));
+        checkPasser(passer);
+
+        outln("-- passAll(null) --");
+        try {
+            handoff.passAll(null, MS_TIMEOUT, TimeUnit.MILLISECONDS);
+            outln("passAll(null) should have thrown IllegalArgumentException", false);
+        } catch ( IllegalArgumentException x ) {
+            outln("passAll(null) threw IllegalArgumentException", true);
+        }
+        checkLaterPass(handoff, 42L);
+
+        outln("-- passAll() with an empty batch --");
+        long startNanos = System.nanoTime();
+        handoff.passAll(new long[0], MS_TIMEOUT, TimeUnit.MILLISECONDS);
+        outln("empty passAll() returned right away (without a receiver)",
+            elapsedMillis(startNanos) < MS_TIMEOUT / 2, true);
+        checkLaterPass(handoff, -42L);
+    }
+
+    // a pass after a rejected or empty batch must not be blocked by it
+    private void checkLaterPass(final LongHandoff handoff, final long value)
+            throws InterruptedException {
+
+        CountDownLatch passer = startPasser("passer-after", new PasserTask() {
+            @Override
+            public void run() throws Exception {
+                handoff.pass(value, MS_TIMEOUT);
+            }
+        });
+        try {
+            outln("later pass() still received", handoff.receive(MS_TIMEOUT), value);
+        } catch ( Exception x ) {
+            outln("later receive() threw " + x, false);
+        }
+        checkPasser(passer);
+    }
+}
@@ -0,0 +1,179 @@
+package com.abc.handoff.test;
+
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
+
+import com.abc.handoff.*;
+import com.abc.pp.stringhandoff.*;
+import com.abc.pp.stringhandoff.tests.*;
+import com.programix.testing.*;
+
+/**
+ * N passers and M receivers move the same number of Strings through a
+ * {@link DualQueueStringHandoff} and then through the handoff under test,
+ * and the test checks that the one under test takes no more than
+ * maxSlowdown times as long. It's a check that the faster path a handoff
+ * adds (spinning, an arena, ...) isn't actually a slower one; correctness
+ * is left to {@link TestMultiPartyStringHandoff}.
+ * <p>
+ * Each handoff gets one untimed warm-up round first, and then the best of
+ * {@link #TIMED_ROUND_COUNT} timed rounds counts, so a stray pause on a busy
+ * machine doesn't decide the result.
+ */
+public class TestStringHandoffThroughput extends BaseTest {
+    public static final int TIMED_ROUND_COUNT = 3;
+
+    private final StringHandoffFactory factory;
+    private final TestThreadFactory threadFactory;
+    private final int passerCount;
+    private final int receiverCount;
+    private final int stringsPerPasser;
+    private final double maxSlowdown;
+    private final long msTimeLimit;
+
+    public TestStringHandoffThroughput(StringHandoffFactory factory,
+                                       TestThreadFactory threadFactory,
+                                       int passerCount,
+                                       int receiverCount,
+                                       int stringsPerPasser,
+                                       double maxSlowdown,
+                                       long msTimeLimit) {
+
+        super(String.format("%d passers, %d receivers, %,d Strings - " +
+            "at most %.1fx the time DualQueueStringHandoff takes",
+            passerCount, receiverCount, passerCount * stringsPerPasser,
+            maxSlowdown));
+
+        if (passerCount < 1 || receiverCount < 1 || stringsPerPasser < 1) {
+            throw new IllegalArgumentException(
+                "passerCount, receiverCount and stringsPerPasser must all " +
+                "be at least 1");
+        }
+        this.factory = factory;
+        this.threadFactory = threadFactory;
+        this.passerCount = passerCount;
+        this.receiverCount = receiverCount;
+        this.stringsPerPasser = stringsPerPasser;
+        this.maxSlowdown = maxSlowdown;
+        this.msTimeLimit = msTimeLimit;
+    }
+
+    @Override
+    protected void performTests() {
+        try {
+            StringHandoffFactory dualQueueFactory = new StringHandoffFactory() {
+                @Override
+                public StringHandoff create() {
+                    return new DualQueueStringHandoff();
+                }
+            };
+
+            long nsDualQueue = timeBestRound("DualQueueStringHandoff", dualQueueFactory);
+            long nsTested = timeBestRound("handoff under test", factory);
+            if (nsDualQueue < 0L || nsTested < 0L) {
+                outln("a round did not finish within the time limit", false);
+                return;
+            }
+
+            double slowdown = (double) nsTested / nsDualQueue;
+            outln(String.format("handoff under test took %.2fx the time of " +
+                "DualQueueStringHandoff (at most %.1fx allowed)",
+                slowdown, maxSlowdown), slowdown <= maxSlowdown);
+        } catch ( Exception x ) {
+            failureExceptionWithStackTrace(x);
+        }
+    }
+
+    /**
+     * @return the nanoseconds taken by the fastest timed round, or -1 if any
+     * round didn't finish within the time limit.
+     */
+    private long timeBestRound(String name, StringHandoffFactory roundFactory)
+            throws InterruptedException {
+
+        outln(name + ": warm-up round...");
+        if (runRound(roundFactory.create()) < 0L) {
+            return -1L;
+        }
+
+        long nsBest = Long.MAX_VALUE;
+        for ( int i = 0; i < TIMED_ROUND_COUNT; i++ ) {
+            long nsElapsed = runRound(roundFactory.create());
+            if (nsElapsed < 0L) {
+                return -1L;
+            }
+            outln(String.format("%s: round %d took %.1f ms (%,.0f Strings/s)",
+                name, i + 1, nsElapsed / 1e6,
+                passerCount * stringsPerPasser * 1e9 / nsElapsed));
+            nsBest = Math.min(nsBest, nsElapsed);
+        }
+        return nsBest;
+    }
+
+    /**
+     * Passes every String through handoff once.
+     * @return the nanoseconds it took, or -1 if the passers and receivers
+     * didn't all finish within the time limit (or one of them threw).
+     */
+    private long runRound(final StringHandoff handoff) throws InterruptedException {
+        final int totalCount = passerCount * stringsPerPasser;
+        final AtomicInteger receiveTickets = new AtomicInteger(0);
+        final AtomicInteger problemCount = new AtomicInteger(0);
+        final CountDownLatch startLatch = new CountDownLatch(1);
+        final CountDownLatch doneLatch =
+            new CountDownLatch(passerCount + receiverCount);
+
+        for ( int i = 0; i < passerCount; i++ ) {
+            final String msg = "p" + i;
+            threadFactory.createThreadFor(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        startLatch.await();
+                        for ( int j = 0; j < stringsPerPasser; j++ ) {
+                            handoff.pass(msg);
+                        }
+                    } catch ( Exception x ) {
+                        problemCount.incrementAndGet();
+                    } finally {
+                        doneLatch.countDown();
+                    }
+                }
+            }, "passer-" + i);
+        }
+
+        for ( int i = 0; i < receiverCount; i++ ) {
+            threadFactory.createThreadFor(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        startLatch.await();
+                        // one ticket per receive(), so no receiver waits forever
+                        while (receiveTickets.getAndIncrement() < totalCount) {
+                            handoff.receive();
+                        }
+                    } catch ( Exception x ) {
+                        problemCount.incrementAndGet();
+                    } finally {
+                        doneLatch.countDown();
+                    }
+                }
+            }, "receiver-" + i);
+        }
+
+        long nsStart = System.nanoTime();
+        startLatch.countDown();
+        boolean finished = doneLatch.await(msTimeLimit, TimeUnit.MILLISECONDS);
+        long nsElapsed = System.nanoTime() - nsStart;
+        if (!finished) {
+            handoff.shutdown();
+            doneLatch.await(2000, TimeUnit.MILLISECONDS);
+            return -1L;
+        }
+        if (problemCount.get() > 0) {
+            outlnErrorText(problemCount.get() + " passers and receivers threw");
+            return -1L;
+        }
+        return nsElapsed;
+    }
+}
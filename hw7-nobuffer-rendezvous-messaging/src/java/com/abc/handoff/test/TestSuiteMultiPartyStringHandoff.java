@@ -0,0 +1,79 @@
+package com.abc.handoff.test;
+
+import java.util.*;
+
+import com.abc.pp.stringhandoff.tests.*;
+import com.programix.testing.*;
+
+/**
+ * The tests for a {@link com.abc.pp.stringhandoff.StringHandoff} which
+ * allows any number of passers and receivers at the same time: the standard
+ * suite, minus the "two passers" and "two receivers" tests (they expect an
+ * IllegalStateException, and here the second thread just waits in line),
+ * plus {@link TestMultiPartyStringHandoff} for a few shapes of N passers and
+ * M receivers.
+ */
+public class TestSuiteMultiPartyStringHandoff {
+    /** Time limit for each of the multi-party tests. */
+    public static final long MS_TIME_LIMIT = 60000L;
+
+    private static final String[] SINGLE_PAIR_ONLY_TEST_NAMES = {
+        "TestPPStringHandoffTwoPassers",
+        "TestPPStringHandoffTwoReceivers"
+    };
+
+    // no instances
+    private TestSuiteMultiPartyStringHandoff() {
+    }
+
+    public static BaseTest[] createAllTests(StringHandoffFactory factory,
+                                            TestThreadFactory threadFactory) {
+
+        List<BaseTest> tests = new ArrayList<>();
+        for ( BaseTest test : TestSuitePPStringHandoff.createAllTests(factory, threadFactory) ) {
+            if (!Arrays.asList(SINGLE_PAIR_ONLY_TEST_NAMES).contains(
+                    test.getClass().getSimpleName())) {
+
+                tests.add(test);
+            }
+        }
+
+        tests.add(new TestMultiPartyStringHandoff(
+            factory, threadFactory, 2, 2, 1000, MS_TIME_LIMIT));
+        tests.add(new TestMultiPartyStringHandoff(
+            factory, threadFactory, 8, 2, 1000, MS_TIME_LIMIT));
+        tests.add(new TestMultiPartyStringHandoff(
+            factory, threadFactory, 2, 8, 1000, MS_TIME_LIMIT));
+        tests.add(new TestMultiPartyStringHandoff(
+            factory, threadFactory, 16, 16, 10000, MS_TIME_LIMIT));
+
+        return tests.toArray(new BaseTest[0]);
+    }
+
+    public static TestChunk[] createAllTestChunks(StringHandoffFactory factory,
+                                                  TestThreadFactory threadFactory) {
+
+        return StandardTestChunk.createAll(createAllTests(factory, threadFactory));
+    }
+
+    public static void runTests(final String title,
+                                final StringHandoffFactory factory) {
+
+        ParallelTestingPane.createFramedInstance(new ParallelTestingPane.Control() {
+            @Override
+            public String getTitle() {
+                return title;
+            }
+
+            @Override
+            public TestChunk[] createNewTestChunks(TestThreadFactory threadFactory) {
+                return createAllTestChunks(factory, threadFactory);
+            }
+
+            @Override
+            public boolean shouldShowPoints() {
+                return false;
+            }
+        });
+    }
+}
@@ -0,0 +1,167 @@
+#!/bin/sh
+# Compiles and runs the benchmark groups, each in its own JVM with its own
+# classpath (hw4-clf-solutionA and hw5-wn-solution both define
+# com.abc.sync.LongFifo, so they can't share one).
+#
+# usage: ./run-benchmarks.sh [group...] [-- options]
+#   groups: fifo ds longfifo-hw4 longfifo-hw5 handoff prime listener (default: all)
+#   stress groups: fifo-stress handoff-stress pond-stress (only when named)
+#   pipeline: the prime pipeline over every PPBoundedFifo (only when named)
+#   timer: PeriodicScheduler jitter against thread-per-timer (only when named)
+#   options are passed to every group, for example:
+#   ./run-benchmarks.sh fifo -- -wi 2 -i 3 -r 500 -t 1,4 Mpmc
+#   ./run-benchmarks.sh pond-stress -- -p 10000 -n 20
+#   ./run-benchmarks.sh pipeline -- -w 1,4 -b 1,100 -c 16
+#   ./run-benchmarks.sh timer -- -n 1,1000,10000 -p 5
+#
+# JSON results go to results/<group>.json (not for the stress groups,
+# pipeline or timer).
+
+set -e
+
+cd "$(dirname "$0")"
+ROOT=..
+BUILD=build/classes
+RESULTS=results
+JAVAC="${JAVAC:-javac} -Xlint:all -encoding UTF-8"
+JAVA="${JAVA:-java}"
+
+PROGRAMIX=$ROOT/parallel-common/lib/ProgramixGenericLib/ProgramixGenericLib.jar
+HW7_LIB=$ROOT/hw7-nobuffer-rendezvous-messaging/lib
+
+SELECTED=""
+while [ $# -gt 0 ] && [ "$1" != "--" ]; do
+    SELECTED="$SELECTED $1"
+    shift
+done
+[ "$1" = "--" ] && shift
+[ -z "$SELECTED" ] && SELECTED="fifo ds longfifo-hw4 longfifo-hw5 handoff prime listener"
+
+# compile <output dir> <classpath> <source dir>...
+compile() {
+    out=$1
+    cp=$2
+    shift 2
+    rm -rf "$out"
+    mkdir -p "$out"
+    find "$@" -name '*.java' > "$out.sources"
+    $JAVAC -cp "$cp" -d "$out" @"$out.sources"
+    rm "$out.sources"
+}
+
+# parallel-common is shared by more than one group, only compile it once
+compile_common() {
+    if [ -z "$COMMON_DONE" ]; then
+        compile $BUILD/common "$PROGRAMIX" $ROOT/parallel-common/src/java
+        COMMON_DONE=yes
+    fi
+}
+
+echo "compiling benchmark core..."
+compile $BUILD/bench . src/java
+
+for group in $SELECTED; do
+    # a stress group compiles like its base group but runs a different main
+    base=${group%-stress}
+    main=""
+    stress=""
+    json=yes
+    case $base in
+        fifo)
+            compile_common
+            compile $BUILD/fifo "$BUILD/bench:$BUILD/common:$PROGRAMIX" \
+                $ROOT/hw6-solution/src/java src/fifo
+            cp="$BUILD/fifo:$BUILD/bench:$BUILD/common:$PROGRAMIX"
+            main=com.abc.bench.fifo.FifoBenchmarks
+            stress=com.abc.bench.fifo.FifoStressTests
+            ;;
+        ds)
+            compile_common
+            compile $BUILD/ds "$BUILD/bench:$BUILD/common:$PROGRAMIX" src/ds
+            cp="$BUILD/ds:$BUILD/bench:$BUILD/common:$PROGRAMIX"
+            main=com.abc.bench.ds.CollectionBenchmarks
+            ;;
+        longfifo-hw4)
+            compile $BUILD/longfifo-hw4 "$BUILD/bench" \
+                $ROOT/hw4-clf-solutionA/src/java src/longfifo-hw4
+            cp="$BUILD/longfifo-hw4:$BUILD/bench"
+            main=com.abc.bench.sync.NonBlockingLongFifoBenchmarks
+            ;;
+        longfifo-hw5)
+            compile $BUILD/longfifo-hw5 "$BUILD/bench" \
+                $ROOT/hw5-wn-solution/src/java src/longfifo-hw5
+            cp="$BUILD/longfifo-hw5:$BUILD/bench"
+            main=com.abc.bench.sync.BlockingLongFifoBenchmarks
+            ;;
+        handoff)
+            hw7cp="$HW7_LIB/Parallel-Common-PROJ.jar:$HW7_LIB/ProgramixGenericLib.jar"
+            compile $BUILD/handoff "$BUILD/bench:$hw7cp" \
+                $ROOT/hw7-nobuffer-rendezvous-messaging/src/java src/handoff
+            cp="$BUILD/handoff:$BUILD/bench:$hw7cp"
+            main=com.abc.bench.handoff.StringHandoffBenchmarks
+            stress=com.abc.bench.handoff.HandoffStressTests
+            ;;
+        prime)
+            compile $BUILD/prime "$BUILD/bench" \
+                $ROOT/exw10_PrimeCheck/src/java src/prime
+            cp="$BUILD/prime:$BUILD/bench"
+            main=com.abc.bench.prime.PrimeBenchmarks
+            ;;
+        listener)
+            compile_common
+            compile $BUILD/listener "$BUILD/bench:$BUILD/common:$PROGRAMIX" src/listener
+            cp="$BUILD/listener:$BUILD/bench:$BUILD/common:$PROGRAMIX"
+            main=com.abc.bench.listener.ListenerBenchmarks
+            ;;
+        pond)
+            compile $BUILD/pond "$BUILD/bench" \
+                $ROOT/exw10_PetsAndFood/s10_PetsAndFood_EfficientWaiting/src/java src/pond
+            cp="$BUILD/pond:$BUILD/bench"
+            stress=com.abc.bench.pond.PondStressTests
+            ;;
+        pipeline)
+            compile_common
+            compile $BUILD/pipeline "$BUILD/common:$PROGRAMIX" \
+                $ROOT/hw6-solution/src/java $ROOT/exw10_PrimeCheck/src/java \
+                src/pipeline
+            cp="$BUILD/pipeline:$BUILD/common:$PROGRAMIX"
+            main=com.abc.bench.pipeline.PrimePipelineBenchmarks
+            json=""
+            ;;
+        timer)
+            compile_common
+            compile $BUILD/timer "$BUILD/common:$PROGRAMIX" src/timer
+            cp="$BUILD/timer:$BUILD/common:$PROGRAMIX"
+            main=com.abc.bench.timer.TimerJitterBenchmarks
+            json=""
+            ;;
+        *)
+            echo "unknown group: $group" >&2
+            exit 2
+            ;;
+    esac
+
+    if [ "$group" != "$base" ]; then
+        main=$stress
+    fi
+    if [ -z "$main" ]; then
+        echo "unknown group: $group" >&2
+        exit 2
+    fi
+
+    echo "running $group..."
+    # keep going if one group fails, but report it in the exit status
+    if [ "$main" = "$stress" ] || [ -z "$json" ]; then
+        $JAVA -Djava.awt.headless=true -cp "$cp" $main "$@" ||
+            FAILED="$FAILED $group"
+    else
+        mkdir -p $RESULTS
+        $JAVA -Djava.awt.headless=true -cp "$cp" $main -rf $RESULTS/$group.json "$@" ||
+            FAILED="$FAILED $group"
+    fi
+done
+
+if [ -n "$FAILED" ]; then
+    echo "failed:$FAILED" >&2
+    exit 1
+fi
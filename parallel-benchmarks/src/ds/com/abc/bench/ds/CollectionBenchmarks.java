@@ -0,0 +1,365 @@
+package com.abc.bench.ds;
+
+import java.util.*;
+
+import com.abc.bench.*;
+import com.abc.ds.iterator.*;
+import com.abc.ds.iterator.integer.*;
+import com.abc.ds.linkedlist.*;
+import com.abc.ds.list.*;
+import com.abc.ds.list.integer.*;
+import com.abc.ds.sack.*;
+
+/**
+ * Single-threaded throughput of the parallel-common collections
+ * ({@link ArrayDSSack}, {@link ArrayDSList}, {@link ArrayIntDSList} and
+ * {@link DoublyDSLinkedList}) at several sizes. The operations are:
+ * <ul>
+ * <li>fill - create an empty collection and add size items to it</li>
+ * <li>iterate - walk a full collection with its iterator</li>
+ * <li>containsMissing - contains() for an item which isn't there (a full
+ * scan); not on the linked list, which has no contains()</li>
+ * <li>peekAtIndex - look up the item at a (moving) index; not on the sack,
+ * which has no indexes, nor on ArrayDSList, where it isn't implemented
+ * yet</li>
+ * </ul>
+ * Each call is one operation, so for example fill with size=1000 is
+ * reported in fills (of 1000 items) per second.
+ */
+public class CollectionBenchmarks implements BenchmarkGroup {
+    private static final int[] SIZES = new int[] { 10, 1000, 100000 };
+
+    private enum Operation { FILL, ITERATE, CONTAINS_MISSING, PEEK_AT_INDEX }
+
+    /** Wraps one collection type behind the operations being measured. */
+    private static abstract class Fixture {
+        protected final int size;
+
+        protected Fixture(int size) {
+            this.size = size;
+        }
+
+        public abstract boolean supports(Operation operation);
+
+        /** Creates a new collection, fills it and returns its count. */
+        public abstract long fill();
+
+        /** Fills the collection the other operations run against. */
+        public abstract void prepare();
+
+        public abstract long iterate();
+
+        public abstract long containsMissing();
+
+        public abstract long peekAtIndex(int index);
+    } // type Fixture
+
+    private static abstract class FixtureFactory {
+        private final String name;
+
+        protected FixtureFactory(String name) {
+            this.name = name;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public abstract Fixture create(int size);
+    } // type FixtureFactory
+
+    private static Integer[] createItems(int size) {
+        Integer[] items = new Integer[size];
+        for ( int i = 0; i < size; i++ ) {
+            items[i] = Integer.valueOf(i);
+        }
+        return items;
+    }
+
+    private static final Integer MISSING_ITEM = Integer.valueOf(-1);
+
+    private static final FixtureFactory[] FACTORIES = new FixtureFactory[] {
+        new FixtureFactory("ArrayDSSack") {
+            @Override
+            public Fixture create(int size) {
+                return new Fixture(size) {
+                    private final Integer[] items = createItems(size);
+                    private ArrayDSSack<Integer> sack;
+
+                    @Override
+                    public boolean supports(Operation operation) {
+                        return operation != Operation.PEEK_AT_INDEX;
+                    }
+
+                    @Override
+                    public long fill() {
+                        ArrayDSSack<Integer> newSack = new ArrayDSSack<>(Integer.class);
+                        for ( Integer item : items ) {
+                            newSack.add(item);
+                        }
+                        return newSack.count();
+                    }
+
+                    @Override
+                    public void prepare() {
+                        sack = new ArrayDSSack<>(Integer.class);
+                        sack.addAll(items);
+                    }
+
+                    @Override
+                    public long iterate() {
+                        return sumOf(sack.createIterator());
+                    }
+
+                    @Override
+                    public long containsMissing() {
+                        return sack.contains(MISSING_ITEM) ? 1 : 0;
+                    }
+
+                    @Override
+                    public long peekAtIndex(int index) {
+                        throw new UnsupportedOperationException();
+                    }
+                };
+            }
+        },
+        new FixtureFactory("ArrayDSList") {
+            @Override
+            public Fixture create(int size) {
+                return new Fixture(size) {
+                    private final Integer[] items = createItems(size);
+                    private ArrayDSList<Integer> list;
+
+                    @Override
+                    public boolean supports(Operation operation) {
+                        // ArrayDSList.peekAtIndex() is still a stub
+                        return operation != Operation.PEEK_AT_INDEX;
+                    }
+
+                    @Override
+                    public long fill() {
+                        ArrayDSList<Integer> newList = new ArrayDSList<>(Integer.class);
+                        for ( Integer item : items ) {
+                            newList.add(item);
+                        }
+                        return newList.count();
+                    }
+
+                    @Override
+                    public void prepare() {
+                        list = new ArrayDSList<>(Integer.class);
+                        list.addAll(items);
+                    }
+
+                    @Override
+                    public long iterate() {
+                        return sumOf(list.createIterator());
+                    }
+
+                    @Override
+                    public long containsMissing() {
+                        return list.contains(MISSING_ITEM) ? 1 : 0;
+                    }
+
+                    @Override
+                    public long peekAtIndex(int index) {
+                        throw new UnsupportedOperationException();
+                    }
+                };
+            }
+        },
+        new FixtureFactory("ArrayIntDSList") {
+            @Override
+            public Fixture create(int size) {
+                return new Fixture(size) {
+                    private ArrayIntDSList list;
+
+                    @Override
+                    public boolean supports(Operation operation) {
+                        return true;
+                    }
+
+                    @Override
+                    public long fill() {
+                        ArrayIntDSList newList = new ArrayIntDSList();
+                        for ( int i = 0; i < size; i++ ) {
+                            newList.add(i);
+                        }
+                        return newList.count();
+                    }
+
+                    @Override
+                    public void prepare() {
+                        list = new ArrayIntDSList();
+                        for ( int i = 0; i < size; i++ ) {
+                            list.add(i);
+                        }
+                    }
+
+                    @Override
+                    public long iterate() {
+                        long sum = 0;
+                        IntDSIterator iter = list.createIterator();
+                        while (iter.hasNext()) {
+                            sum += iter.next();
+                        }
+                        return sum;
+                    }
+
+                    @Override
+                    public long containsMissing() {
+                        return list.contains(-1) ? 1 : 0;
+                    }
+
+                    @Override
+                    public long peekAtIndex(int index) {
+                        return list.peekAtIndex(index);
+                    }
+                };
+            }
+        },
+        new FixtureFactory("DoublyDSLinkedList") {
+            @Override
+            public Fixture create(int size) {
+                return new Fixture(size) {
+                    private final Integer[] items = createItems(size);
+                    private DoublyDSLinkedList<Integer> list;
+
+                    @Override
+                    public boolean supports(Operation operation) {
+                        return operation != Operation.CONTAINS_MISSING;
+                    }
+
+                    @Override
+                    public long fill() {
+                        DoublyDSLinkedList<Integer> newList =
+                            new DoublyDSLinkedList<>(Integer.class);
+                        for ( Integer item : items ) {
+                            newList.insertLast(item);
+                        }
+                        return newList.count();
+                    }
+
+                    @Override
+                    public void prepare() {
+                        list = new DoublyDSLinkedList<>(Integer.class);
+                        for ( Integer item : items ) {
+                            list.insertLast(item);
+                        }
+                    }
+
+                    @Override
+                    public long iterate() {
+                        return sumOf(list.createIterator());
+                    }
+
+                    @Override
+                    public long containsMissing() {
+                        throw new UnsupportedOperationException();
+                    }
+
+                    @Override
+                    public long peekAtIndex(int index) {
+                        return list.peekAtIndex(index).getPayload().intValue();
+                    }
+                };
+            }
+        }
+    };
+
+    private static long sumOf(DSIterator<Integer> iter) {
+        long sum = 0;
+        while (iter.hasNext()) {
+            sum += iter.next().intValue();
+        }
+        return sum;
+    }
+
+    private static class CollectionBenchmark extends SingleThreadBenchmark {
+        private final FixtureFactory factory;
+        private final Operation operation;
+        private final int size;
+        private Fixture fixture;
+        private int nextIndex;
+
+        public CollectionBenchmark(FixtureFactory factory,
+                                   Operation operation,
+                                   int size) {
+
+            super("ds." + factory.getName() + "." + toCamelCase(operation),
+                params("size", size));
+            this.factory = factory;
+            this.operation = operation;
+            this.size = size;
+        }
+
+        @Override
+        public void setUp() {
+            fixture = factory.create(size);
+            if (operation != Operation.FILL) {
+                fixture.prepare();
+            }
+            nextIndex = 0;
+        }
+
+        @Override
+        public void tearDown() {
+            fixture = null;
+        }
+
+        @Override
+        protected long runOperation() {
+            switch ( operation ) {
+                case FILL:
+                    return fixture.fill();
+                case ITERATE:
+                    return fixture.iterate();
+                case CONTAINS_MISSING:
+                    return fixture.containsMissing();
+                case PEEK_AT_INDEX:
+                    // stride through the indexes so it's not always the same one
+                    nextIndex += 7919;
+                    if (nextIndex >= size) {
+                        nextIndex %= size;
+                    }
+                    return fixture.peekAtIndex(nextIndex);
+                default:
+                    throw new IllegalStateException("unknown operation " + operation);
+            }
+        }
+    } // type CollectionBenchmark
+
+    private static String toCamelCase(Operation operation) {
+        StringBuilder sb = new StringBuilder();
+        boolean upperNext = false;
+        for ( char ch : operation.name().toCharArray() ) {
+            if (ch == '_') {
+                upperNext = true;
+            } else {
+                sb.append(upperNext ? ch : Character.toLowerCase(ch));
+                upperNext = false;
+            }
+        }
+        return sb.toString();
+    }
+
+    @Override
+    public List<Benchmark> createBenchmarks(BenchmarkOptions options) {
+        List<Benchmark> benchmarks = new ArrayList<>();
+        for ( FixtureFactory factory : FACTORIES ) {
+            Fixture probe = factory.create(0);
+            for ( Operation operation : Operation.values() ) {
+                for ( int size : SIZES ) {
+                    if (probe.supports(operation)) {
+                        benchmarks.add(new CollectionBenchmark(factory, operation, size));
+                    }
+                }
+            }
+        }
+        return benchmarks;
+    }
+
+    public static void main(String[] args) {
+        BenchmarkRunner.run(args, new CollectionBenchmarks());
+    }
+}
@@ -0,0 +1,157 @@
+package com.abc.bench.fifo;
+
+import java.util.*;
+
+import com.abc.bench.*;
+import com.abc.pp.fifo.*;
+import com.abc.pp.fifo.impl.*;
+
+/**
+ * Throughput of every {@link PPBoundedFifo} implementation in hw6-solution,
+ * with N producers and N consumers for each N in the thread counts (the
+ * single-producer / single-consumer FIFO only runs with 1 and 1).
+ * <p>
+ * Each one is run two ways: one item per add() / remove() (batch=1), and
+ * {@link PPBoundedFifo#addAll(Object[])} with
+ * {@link PPBoundedFifo#removeInto(Object[])} moving up to 64 items per
+ * call (batch=64). The score is items removed per second.
+ */
+public class FifoBenchmarks implements BenchmarkGroup {
+    private static final int CAPACITY = 1024;
+    private static final int[] BATCH_SIZES = new int[] { 1, 64 };
+
+    // every item is the same (cached) Integer so nothing is allocated per item
+    private static final Integer ITEM = Integer.valueOf(1);
+
+    private static abstract class FifoFactory {
+        private final String name;
+        private final boolean singleProducerSingleConsumer;
+
+        protected FifoFactory(String name, boolean singleProducerSingleConsumer) {
+            this.name = name;
+            this.singleProducerSingleConsumer = singleProducerSingleConsumer;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public boolean isSingleProducerSingleConsumer() {
+            return singleProducerSingleConsumer;
+        }
+
+        public abstract PPBoundedFifo<Integer> create(int capacity);
+    } // type FifoFactory
+
+    private static final FifoFactory[] FACTORIES = new FifoFactory[] {
+        new FifoFactory("CircularArrayPPBoundedFifo", false) {
+            @Override
+            public PPBoundedFifo<Integer> create(int capacity) {
+                return new CircularArrayPPBoundedFifo<>(capacity, Integer.class);
+            }
+        },
+        new FifoFactory("ConditionCircularArrayPPBoundedFifo", false) {
+            @Override
+            public PPBoundedFifo<Integer> create(int capacity) {
+                return new ConditionCircularArrayPPBoundedFifo<>(capacity, Integer.class);
+            }
+        },
+        new FifoFactory("MpmcArrayPPBoundedFifo", false) {
+            @Override
+            public PPBoundedFifo<Integer> create(int capacity) {
+                return new MpmcArrayPPBoundedFifo<>(capacity, Integer.class);
+            }
+        },
+        new FifoFactory("SpscArrayPPBoundedFifo", true) {
+            @Override
+            public PPBoundedFifo<Integer> create(int capacity) {
+                return new SpscArrayPPBoundedFifo<>(capacity, Integer.class);
+            }
+        }
+    };
+
+    private static class FifoBenchmark extends ProducerConsumerBenchmark {
+        private final FifoFactory factory;
+        private final int batchSize;
+        private PPBoundedFifo<Integer> fifo;
+
+        public FifoBenchmark(FifoFactory factory, int threadCount, int batchSize) {
+            super("fifo." + factory.getName(), threadCount, threadCount,
+                params("batch", batchSize, "capacity", CAPACITY));
+            this.factory = factory;
+            this.batchSize = batchSize;
+        }
+
+        @Override
+        public void setUp() {
+            fifo = factory.create(CAPACITY);
+        }
+
+        @Override
+        public void tearDown() {
+            fifo = null;
+        }
+
+        @Override
+        protected void produce(int producerIndex,
+                               StopSignal stop,
+                               OperationCounter counter) throws InterruptedException {
+
+            if (batchSize == 1) {
+                while (!stop.isStopped()) {
+                    fifo.add(ITEM);
+                }
+            } else {
+                Integer[] batch = new Integer[batchSize];
+                Arrays.fill(batch, ITEM);
+                while (!stop.isStopped()) {
+                    fifo.addAll(batch);
+                }
+            }
+        }
+
+        @Override
+        protected void consume(int consumerIndex,
+                               StopSignal stop,
+                               OperationCounter counter) throws InterruptedException {
+
+            if (batchSize == 1) {
+                while (!stop.isStopped()) {
+                    fifo.remove();
+                    counter.increment();
+                }
+            } else {
+                Integer[] buffer = new Integer[batchSize];
+                while (!stop.isStopped()) {
+                    int count = fifo.removeInto(buffer);
+                    if (count == 0) {
+                        // removeInto() never waits - block for the next one
+                        fifo.remove();
+                        count = 1;
+                    }
+                    counter.add(count);
+                }
+            }
+        }
+    } // type FifoBenchmark
+
+    @Override
+    public List<Benchmark> createBenchmarks(BenchmarkOptions options) {
+        List<Benchmark> benchmarks = new ArrayList<>();
+        for ( FifoFactory factory : FACTORIES ) {
+            for ( int batchSize : BATCH_SIZES ) {
+                for ( int threadCount : options.getThreadCounts() ) {
+                    if (factory.isSingleProducerSingleConsumer() && threadCount != 1) {
+                        continue;
+                    }
+                    benchmarks.add(new FifoBenchmark(factory, threadCount, batchSize));
+                }
+            }
+        }
+        return benchmarks;
+    }
+
+    public static void main(String[] args) {
+        BenchmarkRunner.run(args, new FifoBenchmarks());
+    }
+}
@@ -0,0 +1,79 @@
+package com.abc.bench.fifo;
+
+import java.util.*;
+
+import com.abc.bench.*;
+import com.abc.pp.fifo.*;
+import com.abc.pp.fifo.impl.*;
+
+/**
+ * Runs {@link PairStressTest} pairs (100,000 of them on virtual threads by
+ * default) through the monitor-based {@link CircularArrayPPBoundedFifo} and
+ * its {@link java.util.concurrent.locks.ReentrantLock} twin
+ * {@link ConditionCircularArrayPPBoundedFifo}. All of the pairs share one
+ * FIFO: each producer adds operationCount items and each consumer removes
+ * operationCount items (not necessarily its own producer's).
+ */
+public class FifoStressTests {
+    private static final int CAPACITY = 1024;
+    private static final Integer ITEM = Integer.valueOf(1);
+
+    private static abstract class FifoStressTest extends PairStressTest {
+        private PPBoundedFifo<Integer> fifo;
+
+        protected FifoStressTest(String name) {
+            super("fifo." + name);
+        }
+
+        protected abstract PPBoundedFifo<Integer> create(int capacity);
+
+        @Override
+        protected void setUp(int pairCount) {
+            fifo = create(CAPACITY);
+        }
+
+        @Override
+        protected void produce(int pairIndex, int operationCount)
+                throws InterruptedException {
+
+            for ( int i = 0; i < operationCount; i++ ) {
+                fifo.add(ITEM);
+            }
+        }
+
+        @Override
+        protected void consume(int pairIndex, int operationCount)
+                throws InterruptedException {
+
+            for ( int i = 0; i < operationCount; i++ ) {
+                fifo.remove();
+            }
+        }
+
+        @Override
+        protected void tearDown() {
+            fifo = null;
+        }
+    } // type FifoStressTest
+
+    public static List<PairStressTest> createTests() {
+        List<PairStressTest> tests = new ArrayList<>();
+        tests.add(new FifoStressTest("CircularArrayPPBoundedFifo") {
+            @Override
+            protected PPBoundedFifo<Integer> create(int capacity) {
+                return new CircularArrayPPBoundedFifo<>(capacity, Integer.class);
+            }
+        });
+        tests.add(new FifoStressTest("ConditionCircularArrayPPBoundedFifo") {
+            @Override
+            protected PPBoundedFifo<Integer> create(int capacity) {
+                return new ConditionCircularArrayPPBoundedFifo<>(capacity, Integer.class);
+            }
+        });
+        return tests;
+    }
+
+    public static void main(String[] args) {
+        StressRunner.run(args, createTests());
+    }
+}
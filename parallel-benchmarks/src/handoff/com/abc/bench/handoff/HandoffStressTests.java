@@ -0,0 +1,102 @@
+package com.abc.bench.handoff;
+
+import java.util.*;
+
+import com.abc.bench.*;
+import com.abc.handoff.*;
+import com.abc.pp.stringhandoff.*;
+
+/**
+ * Runs {@link PairStressTest} pairs (100,000 of them on virtual threads by
+ * default) through the {@link StringHandoff} implementations in hw7. Each
+ * producer passes operationCount Strings and each consumer receives
+ * operationCount.
+ * <p>
+ * {@link StringHandoffImpl} (monitor based) and {@link ConditionStringHandoff}
+ * ({@link java.util.concurrent.locks.ReentrantLock} based) only allow one
+ * passer and one receiver, so every pair gets its own handoff.
+ * {@link DualQueueStringHandoff} takes any number, so all of the pairs share
+ * one (its waiters park with LockSupport, the lock is only held briefly).
+ */
+public class HandoffStressTests {
+    private static final String MESSAGE = "ping";
+
+    private static abstract class HandoffStressTest extends PairStressTest {
+        private final boolean shared;
+        private StringHandoff[] handoffs;
+
+        protected HandoffStressTest(String name, boolean shared) {
+            super("handoff." + name);
+            this.shared = shared;
+        }
+
+        protected abstract StringHandoff create();
+
+        @Override
+        protected void setUp(int pairCount) {
+            handoffs = new StringHandoff[shared ? 1 : pairCount];
+            for ( int i = 0; i < handoffs.length; i++ ) {
+                handoffs[i] = create();
+            }
+        }
+
+        private StringHandoff handoffFor(int pairIndex) {
+            return handoffs[shared ? 0 : pairIndex];
+        }
+
+        @Override
+        protected void produce(int pairIndex, int operationCount)
+                throws InterruptedException {
+
+            StringHandoff handoff = handoffFor(pairIndex);
+            for ( int i = 0; i < operationCount; i++ ) {
+                handoff.pass(MESSAGE);
+            }
+        }
+
+        @Override
+        protected void consume(int pairIndex, int operationCount)
+                throws InterruptedException {
+
+            StringHandoff handoff = handoffFor(pairIndex);
+            for ( int i = 0; i < operationCount; i++ ) {
+                handoff.receive();
+            }
+        }
+
+        @Override
+        protected void tearDown() {
+            for ( StringHandoff handoff : handoffs ) {
+                handoff.shutdown();
+            }
+            handoffs = null;
+        }
+    } // type HandoffStressTest
+
+    public static List<PairStressTest> createTests() {
+        List<PairStressTest> tests = new ArrayList<>();
+        tests.add(new HandoffStressTest("StringHandoffImpl", false) {
+            @Override
+            protected StringHandoff create() {
+                return new StringHandoffImpl();
+            }
+        });
+        tests.add(new HandoffStressTest("ConditionStringHandoff", false) {
+            @Override
+            protected StringHandoff create() {
+                return new ConditionStringHandoff();
+            }
+        });
+        tests.add(new HandoffStressTest("DualQueueStringHandoff", true) {
+            @Override
+            protected StringHandoff create() {
+                return new DualQueueStringHandoff();
+            }
+        });
+        return tests;
+    }
+
+    public static void main(String[] args) {
+        StressRunner.run(args, createTests());
+    }
+}
@@ -0,0 +1,193 @@
+package com.abc.bench.handoff;
+
+import java.util.*;
+
+import com.abc.bench.*;
+import com.abc.handoff.*;
+import com.abc.pp.stringhandoff.*;
+
+/**
+ * Rendezvous throughput of the {@link StringHandoff} implementations in
+ * hw7-nobuffer-rendezvous-messaging. The score is handoffs (pass() meeting
+ * receive()) per second.
+ * <p>
+ * The multi-party implementations run with N passers and N receivers for
+ * each N in the thread counts. {@link StringHandoffImpl} and
+ * {@link ConditionStringHandoff} only allow one waiting passer and one
+ * waiting receiver (a second one gets an IllegalStateException), so they
+ * always run with exactly 1 passer and 1 receiver, whatever the thread
+ * counts are.
+ * <p>
+ * {@link RendezvousLongHandoff} is run too (1 passer and 1 receiver), once
+ * with pass() / receive() of single values and once with passAll() /
+ * receiveAll() of 64 values per rendezvous; its score is values per second.
+ */
+public class StringHandoffBenchmarks implements BenchmarkGroup {
+    private static final String MESSAGE = "ping";
+
+    private static abstract class HandoffFactory {
+        private final String name;
+        private final boolean multiParty;
+
+        protected HandoffFactory(String name, boolean multiParty) {
+            this.name = name;
+            this.multiParty = multiParty;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public boolean isMultiParty() {
+            return multiParty;
+        }
+
+        public abstract StringHandoff create();
+    } // type HandoffFactory
+
+    private static final HandoffFactory[] FACTORIES = new HandoffFactory[] {
+        new HandoffFactory("StringHandoffImpl", false) {
+            @Override
+            public StringHandoff create() {
+                return new StringHandoffImpl();
+            }
+        },
+        new HandoffFactory("ConditionStringHandoff", false) {
+            @Override
+            public StringHandoff create() {
+                return new ConditionStringHandoff();
+            }
+        },
+        new HandoffFactory("DualQueueStringHandoff", true) {
+            @Override
+            public StringHandoff create() {
+                return new DualQueueStringHandoff();
+            }
+        },
+        new HandoffFactory("EliminationStringHandoff", true) {
+            @Override
+            public StringHandoff create() {
+                return new EliminationStringHandoff();
+            }
+        }
+    };
+
+    private static class HandoffBenchmark extends ProducerConsumerBenchmark {
+        private final HandoffFactory factory;
+        private StringHandoff handoff;
+
+        public HandoffBenchmark(HandoffFactory factory, int threadCount) {
+            super("handoff." + factory.getName(), threadCount, threadCount);
+            this.factory = factory;
+        }
+
+        @Override
+        public void setUp() {
+            handoff = factory.create();
+        }
+
+        @Override
+        public void tearDown() {
+            handoff.shutdown();
+            handoff = null;
+        }
+
+        @Override
+        protected void produce(int producerIndex,
+                               StopSignal stop,
+                               OperationCounter counter) throws InterruptedException {
+
+            while (!stop.isStopped()) {
+                handoff.pass(MESSAGE);
+            }
+        }
+
+        @Override
+        protected void consume(int consumerIndex,
+                               StopSignal stop,
+                               OperationCounter counter) throws InterruptedException {
+
+            while (!stop.isStopped()) {
+                handoff.receive();
+                counter.increment();
+            }
+        }
+    } // type HandoffBenchmark
+
+    private static class LongHandoffBenchmark extends ProducerConsumerBenchmark {
+        private final int batchSize;
+        private LongHandoff handoff;
+
+        public LongHandoffBenchmark(int batchSize) {
+            super("handoff.RendezvousLongHandoff", 1, 1, params("batch", batchSize));
+            this.batchSize = batchSize;
+        }
+
+        @Override
+        public void setUp() {
+            handoff = new RendezvousLongHandoff();
+        }
+
+        @Override
+        public void tearDown() {
+            handoff.shutdown();
+            handoff = null;
+        }
+
+        @Override
+        protected void produce(int producerIndex,
+                               StopSignal stop,
+                               OperationCounter counter) throws InterruptedException {
+
+            if (batchSize == 1) {
+                long value = 0;
+                while (!stop.isStopped()) {
+                    handoff.pass(value++);
+                }
+            } else {
+                long[] batch = new long[batchSize];
+                while (!stop.isStopped()) {
+                    handoff.passAll(batch);
+                }
+            }
+        }
+
+        @Override
+        protected void consume(int consumerIndex,
+                               StopSignal stop,
+                               OperationCounter counter) throws InterruptedException {
+
+            if (batchSize == 1) {
+                while (!stop.isStopped()) {
+                    handoff.receive();
+                    counter.increment();
+                }
+            } else {
+                while (!stop.isStopped()) {
+                    counter.add(handoff.receiveAll().length);
+                }
+            }
+        }
+    } // type LongHandoffBenchmark
+
+    @Override
+    public List<Benchmark> createBenchmarks(BenchmarkOptions options) {
+        List<Benchmark> benchmarks = new ArrayList<>();
+        for ( HandoffFactory factory : FACTORIES ) {
+            if (!factory.isMultiParty()) {
+                benchmarks.add(new HandoffBenchmark(factory, 1));
+                continue;
+            }
+            for ( int threadCount : options.getThreadCounts() ) {
+                benchmarks.add(new HandoffBenchmark(factory, threadCount));
+            }
+        }
+        benchmarks.add(new LongHandoffBenchmark(1));
+        benchmarks.add(new LongHandoffBenchmark(64));
+        return benchmarks;
+    }
+
+    public static void main(String[] args) {
+        BenchmarkRunner.run(args, new StringHandoffBenchmarks());
+    }
+}
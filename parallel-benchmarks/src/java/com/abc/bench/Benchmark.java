@@ -0,0 +1,80 @@
+package com.abc.bench;
+
+import java.util.*;
+
+/**
+ * One benchmark: a named piece of work (plus its parameters, like the thread
+ * count or collection size) which {@link BenchmarkRunner} runs for a number
+ * of timed warmup and measurement iterations.
+ * <p>
+ * Every iteration gets a fresh {@link #setUp()} / {@link #tearDown()} pair so
+ * no state (a half-full FIFO, a grown array) leaks from one iteration into
+ * the next.
+ */
+public abstract class Benchmark {
+    private final String name;
+    private final Map<String, String> params;
+
+    /**
+     * @param name dotted name, for example "fifo.CircularArrayPPBoundedFifo".
+     * @param params name/value pairs in display order (copied).
+     */
+    protected Benchmark(String name, Map<String, String> params) {
+        if (name == null) {
+            throw new IllegalArgumentException("name must not be null");
+        }
+        this.name = name;
+        this.params = Collections.unmodifiableMap(
+            new LinkedHashMap<String, String>(params));
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public Map<String, String> getParams() {
+        return params;
+    }
+
+    /** Number of threads doing the work (reported in the results). */
+    public int getThreadCount() {
+        return 1;
+    }
+
+    /** Called before every iteration. */
+    public void setUp() throws Exception {
+    }
+
+    /**
+     * Does the work for approximately nsDuration and reports how many
+     * operations were completed in how much time.
+     */
+    public abstract Measurement runIteration(long nsDuration) throws Exception;
+
+    /** Called after every iteration (even if it failed). */
+    public void tearDown() throws Exception {
+    }
+
+    /** Returns the name followed by the params, for display. */
+    public String getDisplayName() {
+        StringBuilder sb = new StringBuilder(name);
+        for ( Map.Entry<String, String> entry : params.entrySet() ) {
+            sb.append(' ').append(entry.getKey()).append('=').append(entry.getValue());
+        }
+        return sb.toString();
+    }
+
+    /** Convenience for building a params map: key1, value1, key2, value2... */
+    public static Map<String, String> params(Object... keysAndValues) {
+        if (keysAndValues.length % 2 != 0) {
+            throw new IllegalArgumentException(
+                "keysAndValues must have an even length");
+        }
+        Map<String, String> map = new LinkedHashMap<>();
+        for ( int i = 0; i < keysAndValues.length; i += 2 ) {
+            map.put(String.valueOf(keysAndValues[i]),
+                String.valueOf(keysAndValues[i + 1]));
+        }
+        return map;
+    }
+}
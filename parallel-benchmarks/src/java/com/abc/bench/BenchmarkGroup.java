@@ -0,0 +1,16 @@
+package com.abc.bench;
+
+import java.util.*;
+
+/**
+ * Creates the benchmarks of one group (for example all of the PPBoundedFifo
+ * implementations). Each group has its own main() which hands itself to
+ * {@link BenchmarkRunner#run(String[], BenchmarkGroup)}.
+ */
+public interface BenchmarkGroup {
+    /**
+     * Returns the benchmarks to run, typically one per implementation per
+     * thread count in {@link BenchmarkOptions#getThreadCounts()}.
+     */
+    List<Benchmark> createBenchmarks(BenchmarkOptions options);
+}
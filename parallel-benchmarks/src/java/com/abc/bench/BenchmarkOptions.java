@@ -0,0 +1,151 @@
+package com.abc.bench;
+
+import java.io.*;
+import java.util.*;
+import java.util.regex.*;
+
+/**
+ * The command line options understood by every benchmark group. The names
+ * follow JMH's so the same muscle memory works:
+ * <pre>
+ *   -wi N        warmup iterations (default 3)
+ *   -i N         measurement iterations (default 5)
+ *   -r MS        time per iteration in milliseconds (default 1000)
+ *   -t 1,2,4     thread counts for the multi-threaded benchmarks
+ *                (default 1,2,4,8,16)
+ *   -rf FILE     also write the results as JSON to FILE
+ *   REGEX        only run benchmarks whose display name contains a match
+ * </pre>
+ * Instances are immutable.
+ */
+public final class BenchmarkOptions {
+    private final int warmupIterationCount;
+    private final int measurementIterationCount;
+    private final long msIterationTime;
+    private final int[] threadCounts;
+    private final File resultFile;
+    private final Pattern filter;
+
+    private BenchmarkOptions(int warmupIterationCount,
+                             int measurementIterationCount,
+                             long msIterationTime,
+                             int[] threadCounts,
+                             File resultFile,
+                             Pattern filter) {
+
+        this.warmupIterationCount = warmupIterationCount;
+        this.measurementIterationCount = measurementIterationCount;
+        this.msIterationTime = msIterationTime;
+        this.threadCounts = threadCounts;
+        this.resultFile = resultFile;
+        this.filter = filter;
+    }
+
+    /**
+     * Parses the command line.
+     * @throws IllegalArgumentException if anything is not understood.
+     */
+    public static BenchmarkOptions parse(String[] args) {
+        int warmupIterationCount = 3;
+        int measurementIterationCount = 5;
+        long msIterationTime = 1000;
+        int[] threadCounts = new int[] { 1, 2, 4, 8, 16 };
+        File resultFile = null;
+        Pattern filter = null;
+
+        for ( int i = 0; i < args.length; i++ ) {
+            String arg = args[i];
+            if (arg.equals("-wi")) {
+                warmupIterationCount = parseInt(arg, valueOf(args, ++i), 0);
+            } else if (arg.equals("-i")) {
+                measurementIterationCount = parseInt(arg, valueOf(args, ++i), 1);
+            } else if (arg.equals("-r")) {
+                msIterationTime = parseInt(arg, valueOf(args, ++i), 1);
+            } else if (arg.equals("-t")) {
+                threadCounts = parseIntList(arg, valueOf(args, ++i));
+            } else if (arg.equals("-rf")) {
+                resultFile = new File(valueOf(args, ++i));
+            } else if (arg.startsWith("-")) {
+                throw new IllegalArgumentException("unknown option: " + arg);
+            } else if (filter != null) {
+                throw new IllegalArgumentException(
+                    "only one filter is allowed, got: " + arg);
+            } else {
+                try {
+                    filter = Pattern.compile(arg);
+                } catch ( PatternSyntaxException x ) {
+                    throw new IllegalArgumentException(
+                        "bad filter: " + x.getMessage(), x);
+                }
+            }
+        }
+
+        return new BenchmarkOptions(warmupIterationCount,
+            measurementIterationCount, msIterationTime, threadCounts,
+            resultFile, filter);
+    }
+
+    private static String valueOf(String[] args, int index) {
+        if (index >= args.length) {
+            throw new IllegalArgumentException(
+                "missing value after " + args[index - 1]);
+        }
+        return args[index];
+    }
+
+    private static int parseInt(String option, String text, int minValue) {
+        int value;
+        try {
+            value = Integer.parseInt(text.trim());
+        } catch ( NumberFormatException x ) {
+            throw new IllegalArgumentException(
+                option + " needs a number, got: " + text);
+        }
+        if (value < minValue) {
+            throw new IllegalArgumentException(
+                option + " must be at least " + minValue + ", got: " + value);
+        }
+        return value;
+    }
+
+    private static int[] parseIntList(String option, String text) {
+        String[] parts = text.split(",");
+        int[] values = new int[parts.length];
+        for ( int i = 0; i < parts.length; i++ ) {
+            values[i] = parseInt(option, parts[i], 1);
+        }
+        return values;
+    }
+
+    public int getWarmupIterationCount() {
+        return warmupIterationCount;
+    }
+
+    public int getMeasurementIterationCount() {
+        return measurementIterationCount;
+    }
+
+    public long getMsIterationTime() {
+        return msIterationTime;
+    }
+
+    /** Returns a copy. */
+    public int[] getThreadCounts() {
+        return threadCounts.clone();
+    }
+
+    /** Returns null if no JSON output was asked for. */
+    public File getResultFile() {
+        return resultFile;
+    }
+
+    /** True if there is no filter or the filter matches the display name. */
+    public boolean isSelected(Benchmark benchmark) {
+        return filter == null ||
+            filter.matcher(benchmark.getDisplayName()).find();
+    }
+
+    public static String getUsage() {
+        return "options: [-wi N] [-i N] [-r MS] [-t 1,2,4,8,16] [-rf FILE] [REGEX]";
+    }
+}
@@ -0,0 +1,105 @@
+package com.abc.bench;
+
+import java.util.*;
+
+/**
+ * The measurement iterations of one {@link Benchmark} and the statistics
+ * over them, all in operations per second. Instances are immutable.
+ * <p>
+ * The error is the half-width of a 99.9% confidence interval for the mean
+ * (like JMH reports), using Student's t distribution for small iteration
+ * counts.
+ */
+public final class BenchmarkResult {
+    // two-sided 99.9% critical values of Student's t, by degrees of freedom
+    private static final double[] T_999 = new double[] {
+        Double.NaN, 636.619, 31.599, 12.924, 8.610, 6.869, 5.959, 5.408,
+        5.041, 4.781, 4.587, 4.437, 4.318, 4.221, 4.140, 4.073, 4.015,
+        3.965, 3.922, 3.883, 3.850, 3.819, 3.792, 3.768, 3.745, 3.725,
+        3.707, 3.690, 3.674, 3.659, 3.646
+    };
+    private static final double Z_999 = 3.291;
+
+    private final Benchmark benchmark;
+    private final double[] opsPerSecond;
+    private final double mean;
+    private final double standardDeviation;
+    private final double error;
+
+    public BenchmarkResult(Benchmark benchmark, double[] opsPerSecond) {
+        if (opsPerSecond.length == 0) {
+            throw new IllegalArgumentException("need at least one iteration");
+        }
+        this.benchmark = benchmark;
+        this.opsPerSecond = opsPerSecond.clone();
+
+        double sum = 0.0;
+        for ( double value : opsPerSecond ) {
+            sum += value;
+        }
+        mean = sum / opsPerSecond.length;
+
+        int n = opsPerSecond.length;
+        if (n < 2) {
+            standardDeviation = Double.NaN;
+            error = Double.NaN;
+        } else {
+            double sumOfSquares = 0.0;
+            for ( double value : opsPerSecond ) {
+                sumOfSquares += (value - mean) * (value - mean);
+            }
+            standardDeviation = Math.sqrt(sumOfSquares / (n - 1));
+            int degreesOfFreedom = n - 1;
+            double t = degreesOfFreedom < T_999.length
+                ? T_999[degreesOfFreedom]
+                : Z_999;
+            error = t * standardDeviation / Math.sqrt(n);
+        }
+    }
+
+    public Benchmark getBenchmark() {
+        return benchmark;
+    }
+
+    /** Returns a copy of the per-iteration scores. */
+    public double[] getOpsPerSecond() {
+        return opsPerSecond.clone();
+    }
+
+    public double getMean() {
+        return mean;
+    }
+
+    /** NaN if there was only one iteration. */
+    public double getStandardDeviation() {
+        return standardDeviation;
+    }
+
+    /** NaN if there was only one iteration. */
+    public double getError() {
+        return error;
+    }
+
+    public double getMin() {
+        double min = opsPerSecond[0];
+        for ( double value : opsPerSecond ) {
+            min = Math.min(min, value);
+        }
+        return min;
+    }
+
+    public double getMax() {
+        double max = opsPerSecond[0];
+        for ( double value : opsPerSecond ) {
+            max = Math.max(max, value);
+        }
+        return max;
+    }
+
+    @Override
+    public String toString() {
+        return String.format(Locale.ROOT, "%s: %.3f +/- %.3f ops/s %s",
+            benchmark.getDisplayName(), mean, error,
+            Arrays.toString(opsPerSecond));
+    }
+}
@@ -0,0 +1,150 @@
+package com.abc.bench;
+
+import java.io.*;
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * Runs benchmarks JMH style: each one gets some untimed warmup iterations
+ * (so the JIT has compiled the hot paths) followed by the measurement
+ * iterations, every iteration running for the same fixed time. The scores
+ * are printed as they come in and a summary table is printed at the end;
+ * optionally the results are also written as JSON by
+ * {@link JsonResultWriter}.
+ * <p>
+ * Everything runs in this one JVM (JMH would fork a fresh one per
+ * benchmark), so run the groups in separate JVMs and keep the
+ * implementations being compared in the same group.
+ */
+public class BenchmarkRunner {
+    private final BenchmarkOptions options;
+    private final PrintStream out;
+
+    public BenchmarkRunner(BenchmarkOptions options, PrintStream out) {
+        this.options = options;
+        this.out = out;
+    }
+
+    /**
+     * Runs all of the selected benchmarks. A benchmark which throws is
+     * reported and skipped (the others still run).
+     * @return the results of the benchmarks which completed.
+     */
+    public List<BenchmarkResult> runAll(List<Benchmark> benchmarks) {
+        List<BenchmarkResult> results = new ArrayList<>();
+        for ( Benchmark benchmark : benchmarks ) {
+            if (!options.isSelected(benchmark)) {
+                continue;
+            }
+            try {
+                results.add(run(benchmark));
+            } catch ( Exception x ) {
+                out.println("# FAILED: " + benchmark.getDisplayName());
+                x.printStackTrace(out);
+            }
+        }
+        return results;
+    }
+
+    public BenchmarkResult run(Benchmark benchmark) throws Exception {
+        long nsIterationTime =
+            TimeUnit.MILLISECONDS.toNanos(options.getMsIterationTime());
+
+        out.println("# Benchmark: " + benchmark.getDisplayName());
+        out.println("# Threads: " + benchmark.getThreadCount());
+        for ( int i = 0; i < options.getWarmupIterationCount(); i++ ) {
+            double score = runIteration(benchmark, nsIterationTime);
+            out.printf(Locale.ROOT, "# Warmup Iteration %3d: %,.3f ops/s%n",
+                i + 1, score);
+        }
+
+        double[] scores = new double[options.getMeasurementIterationCount()];
+        for ( int i = 0; i < scores.length; i++ ) {
+            scores[i] = runIteration(benchmark, nsIterationTime);
+            out.printf(Locale.ROOT, "Iteration %3d: %,.3f ops/s%n",
+                i + 1, scores[i]);
+        }
+
+        BenchmarkResult result = new BenchmarkResult(benchmark, scores);
+        out.printf(Locale.ROOT, "Result: %,.3f +/- %,.3f ops/s (min=%,.3f, max=%,.3f, stdev=%,.3f), %,.3f ns/op%n%n",
+            result.getMean(), result.getError(), result.getMin(),
+            result.getMax(), result.getStandardDeviation(), 1e9 / result.getMean());
+        return result;
+    }
+
+    private static double runIteration(Benchmark benchmark,
+                                       long nsIterationTime) throws Exception {
+        benchmark.setUp();
+        try {
+            return benchmark.runIteration(nsIterationTime).getOperationsPerSecond();
+        } finally {
+            benchmark.tearDown();
+        }
+    }
+
+    public void printSummary(List<BenchmarkResult> results) {
+        int nameWidth = "Benchmark".length();
+        for ( BenchmarkResult result : results ) {
+            nameWidth = Math.max(nameWidth,
+                result.getBenchmark().getDisplayName().length());
+        }
+        String format = "%-" + nameWidth + "s  %7s  %20s  %18s%n";
+        out.printf(Locale.ROOT, format, "Benchmark", "Threads", "Score", "Error");
+        for ( BenchmarkResult result : results ) {
+            out.printf(Locale.ROOT, format,
+                result.getBenchmark().getDisplayName(),
+                result.getBenchmark().getThreadCount(),
+                String.format(Locale.ROOT, "%,.3f", result.getMean()),
+                String.format(Locale.ROOT, "+/- %,.3f", result.getError()));
+        }
+        out.println("(scores in ops/s, error is the 99.9% confidence interval half-width)");
+    }
+
+    /**
+     * Everything a group's main() needs: parses args, runs the group's
+     * benchmarks, prints the summary, writes the JSON (if asked for) and
+     * exits with status 1 if anything failed.
+     */
+    public static void run(String[] args, BenchmarkGroup group) {
+        BenchmarkOptions options;
+        try {
+            options = BenchmarkOptions.parse(args);
+        } catch ( IllegalArgumentException x ) {
+            System.err.println(x.getMessage());
+            System.err.println(BenchmarkOptions.getUsage());
+            System.exit(2);
+            return;
+        }
+
+        System.out.printf("# JVM: %s %s, %d CPU(s)%n",
+            System.getProperty("java.vm.name"),
+            System.getProperty("java.version"),
+            Runtime.getRuntime().availableProcessors());
+        System.out.printf("# Warmup: %d x %d ms, Measurement: %d x %d ms%n%n",
+            options.getWarmupIterationCount(), options.getMsIterationTime(),
+            options.getMeasurementIterationCount(), options.getMsIterationTime());
+
+        BenchmarkRunner runner = new BenchmarkRunner(options, System.out);
+        List<Benchmark> benchmarks = group.createBenchmarks(options);
+        List<BenchmarkResult> results = runner.runAll(benchmarks);
+        runner.printSummary(results);
+
+        int selectedCount = 0;
+        for ( Benchmark benchmark : benchmarks ) {
+            if (options.isSelected(benchmark)) {
+                selectedCount++;
+            }
+        }
+
+        if (options.getResultFile() != null) {
+            try {
+                new JsonResultWriter(options).write(results, options.getResultFile());
+                System.out.println("# results written to " + options.getResultFile());
+            } catch ( IOException x ) {
+                x.printStackTrace();
+                System.exit(1);
+            }
+        }
+        System.exit(results.size() == selectedCount ? 0 : 1);
+    }
+}
@@ -0,0 +1,115 @@
+package com.abc.bench;
+
+import java.lang.management.*;
+import java.util.*;
+
+/**
+ * Watches the carrier threads of the virtual thread scheduler while a
+ * {@link PairStressTest} runs: how many there were at most (more than the
+ * scheduler's parallelism means it had to compensate for pinned carriers)
+ * and how much CPU time they used. Also measures the CPU time of the whole
+ * process, which is all there is to go by when platform threads are used.
+ * <p>
+ * Carriers are found with {@link Thread#getAllStackTraces()}, which only
+ * lists platform threads, so the cost of a sample doesn't grow with the
+ * number of virtual threads. Not thread safe: only the thread running the
+ * test uses it.
+ */
+final class CarrierMonitor {
+    private final ThreadMXBean threadBean;
+    private final boolean cpuTimeSupported;
+    // carrier thread id -> its CPU time at start() (absent: started later)
+    private final Map<Long, Long> nsStartCpuTimes;
+    // carrier thread id -> its CPU time at the last sample()
+    private final Map<Long, Long> nsLastCpuTimes;
+    private int peakCarrierCount;
+    private long nsProcessStartCpuTime;
+    private long nsProcessCpuTime;
+
+    public CarrierMonitor() {
+        threadBean = ManagementFactory.getThreadMXBean();
+        cpuTimeSupported = threadBean.isThreadCpuTimeSupported() &&
+            threadBean.isThreadCpuTimeEnabled();
+        nsStartCpuTimes = new HashMap<>();
+        nsLastCpuTimes = new HashMap<>();
+    }
+
+    public void start() {
+        nsProcessStartCpuTime = readProcessCpuTime();
+        for ( Thread thread : findCarriers() ) {
+            long nsCpuTime = getCpuTime(thread);
+            if (nsCpuTime >= 0) {
+                nsStartCpuTimes.put(thread.getId(), nsCpuTime);
+            }
+        }
+        sample();
+    }
+
+    /**
+     * Records the current carrier count and CPU times. Call it regularly: a
+     * carrier which retires between samples only counts up to its last one.
+     */
+    public void sample() {
+        List<Thread> carriers = findCarriers();
+        peakCarrierCount = Math.max(peakCarrierCount, carriers.size());
+        for ( Thread thread : carriers ) {
+            long nsCpuTime = getCpuTime(thread);
+            if (nsCpuTime >= 0) {
+                nsLastCpuTimes.put(thread.getId(), nsCpuTime);
+            }
+        }
+    }
+
+    /** Takes the last sample and stops the process CPU clock. */
+    public void stop() {
+        sample();
+        long nsNow = readProcessCpuTime();
+        nsProcessCpuTime = nsNow < 0 || nsProcessStartCpuTime < 0
+            ? -1L
+            : nsNow - nsProcessStartCpuTime;
+    }
+
+    public int getPeakCarrierCount() {
+        return peakCarrierCount;
+    }
+
+    /** CPU time used by carriers from start() to stop(), -1 if it can't be measured. */
+    public long getCarrierCpuTime() {
+        if (!cpuTimeSupported) {
+            return -1L;
+        }
+        long nsTotal = 0L;
+        for ( Map.Entry<Long, Long> entry : nsLastCpuTimes.entrySet() ) {
+            Long nsStart = nsStartCpuTimes.get(entry.getKey());
+            nsTotal += entry.getValue() - (nsStart != null ? nsStart : 0L);
+        }
+        return nsTotal;
+    }
+
+    /** CPU time used by the process from start() to stop(), -1 if unknown. */
+    public long getProcessCpuTime() {
+        return nsProcessCpuTime;
+    }
+
+    private List<Thread> findCarriers() {
+        List<Thread> carriers = new ArrayList<>();
+        for ( Thread thread : Thread.getAllStackTraces().keySet() ) {
+            if (VirtualThreads.isCarrierThread(thread)) {
+                carriers.add(thread);
+            }
+        }
+        return carriers;
+    }
+
+    private long getCpuTime(Thread thread) {
+        return cpuTimeSupported ? threadBean.getThreadCpuTime(thread.getId()) : -1L;
+    }
+
+    private static long readProcessCpuTime() {
+        OperatingSystemMXBean osBean = ManagementFactory.getOperatingSystemMXBean();
+        if (osBean instanceof com.sun.management.OperatingSystemMXBean) {
+            return ((com.sun.management.OperatingSystemMXBean) osBean).getProcessCpuTime();
+        }
+        return -1L;
+    }
+}
@@ -0,0 +1,113 @@
+package com.abc.bench;
+
+import java.io.*;
+import java.nio.charset.*;
+import java.util.*;
+
+/**
+ * Writes {@link BenchmarkResult}s in the same JSON layout as JMH's
+ * <tt>-rf json</tt> output (one object per benchmark, "thrpt" mode, a
+ * single fork) so the usual JMH result viewers and diff tools can read it.
+ */
+public class JsonResultWriter {
+    private final BenchmarkOptions options;
+
+    public JsonResultWriter(BenchmarkOptions options) {
+        this.options = options;
+    }
+
+    public void write(List<BenchmarkResult> results, File file) throws IOException {
+        File parent = file.getAbsoluteFile().getParentFile();
+        if (parent != null && !parent.isDirectory() && !parent.mkdirs()) {
+            throw new IOException("unable to create directory " + parent);
+        }
+        try (Writer out = new BufferedWriter(new OutputStreamWriter(
+                new FileOutputStream(file), StandardCharsets.UTF_8))) {
+
+            write(results, out);
+        }
+    }
+
+    public void write(List<BenchmarkResult> results, Writer out) throws IOException {
+        String msIterationTime = options.getMsIterationTime() + " ms";
+        out.write("[\n");
+        for ( int i = 0; i < results.size(); i++ ) {
+            BenchmarkResult result = results.get(i);
+            Benchmark benchmark = result.getBenchmark();
+            out.write("    {\n");
+            out.write("        \"benchmark\" : " + quote(benchmark.getName()) + ",\n");
+            out.write("        \"mode\" : \"thrpt\",\n");
+            out.write("        \"threads\" : " + benchmark.getThreadCount() + ",\n");
+            out.write("        \"forks\" : 1,\n");
+            out.write("        \"jvm\" : " + quote(System.getProperty("java.home")) + ",\n");
+            out.write("        \"jdkVersion\" : " + quote(System.getProperty("java.version")) + ",\n");
+            out.write("        \"warmupIterations\" : " + options.getWarmupIterationCount() + ",\n");
+            out.write("        \"warmupTime\" : " + quote(msIterationTime) + ",\n");
+            out.write("        \"measurementIterations\" : " + options.getMeasurementIterationCount() + ",\n");
+            out.write("        \"measurementTime\" : " + quote(msIterationTime) + ",\n");
+            if (!benchmark.getParams().isEmpty()) {
+                out.write("        \"params\" : {\n");
+                Iterator<Map.Entry<String, String>> iter =
+                    benchmark.getParams().entrySet().iterator();
+                while (iter.hasNext()) {
+                    Map.Entry<String, String> entry = iter.next();
+                    out.write("            " + quote(entry.getKey()) + " : " +
+                        quote(entry.getValue()) + (iter.hasNext() ? ",\n" : "\n"));
+                }
+                out.write("        },\n");
+            }
+            out.write("        \"primaryMetric\" : {\n");
+            out.write("            \"score\" : " + number(result.getMean()) + ",\n");
+            out.write("            \"scoreError\" : " + number(result.getError()) + ",\n");
+            out.write("            \"scoreConfidence\" : [\n");
+            out.write("                " + number(result.getMean() - result.getError()) + ",\n");
+            out.write("                " + number(result.getMean() + result.getError()) + "\n");
+            out.write("            ],\n");
+            out.write("            \"scoreUnit\" : \"ops/s\",\n");
+            out.write("            \"rawData\" : [\n");
+            out.write("                [\n");
+            double[] opsPerSecond = result.getOpsPerSecond();
+            for ( int j = 0; j < opsPerSecond.length; j++ ) {
+                out.write("                    " + number(opsPerSecond[j]) +
+                    (j < opsPerSecond.length - 1 ? ",\n" : "\n"));
+            }
+            out.write("                ]\n");
+            out.write("            ]\n");
+            out.write("        },\n");
+            out.write("        \"secondaryMetrics\" : {\n");
+            out.write("        }\n");
+            out.write(i < results.size() - 1 ? "    },\n" : "    }\n");
+        }
+        out.write("]\n");
+    }
+
+    // JSON has no NaN - JMH writes "NaN" as a string, so do the same
+    private static String number(double value) {
+        if (Double.isNaN(value) || Double.isInfinite(value)) {
+            return "\"NaN\"";
+        }
+        return String.format(Locale.ROOT, "%.3f", value);
+    }
+
+    private static String quote(String text) {
+        StringBuilder sb = new StringBuilder(text.length() + 2);
+        sb.append('"');
+        for ( int i = 0; i < text.length(); i++ ) {
+            char ch = text.charAt(i);
+            switch ( ch ) {
+                case '"':  sb.append("\\\""); break;
+                case '\\': sb.append("\\\\"); break;
+                case '\n': sb.append("\\n"); break;
+                case '\r': sb.append("\\r"); break;
+                case '\t': sb.append("\\t"); break;
+                default:
+                    if (ch < 0x20) {
+                        sb.append(String.format("\\u%04x", (int) ch));
+                    } else {
+                        sb.append(ch);
+                    }
+            }
+        }
+        return sb.append('"').toString();
+    }
+}
@@ -0,0 +1,31 @@
+package com.abc.bench;
+
+/**
+ * The outcome of one timed iteration: how many operations were completed
+ * and how long it took. Instances are immutable.
+ */
+public final class Measurement {
+    private final long operationCount;
+    private final long nsElapsed;
+
+    public Measurement(long operationCount, long nsElapsed) {
+        if (nsElapsed <= 0) {
+            throw new IllegalArgumentException(
+                "nsElapsed=" + nsElapsed + ", but must be positive");
+        }
+        this.operationCount = operationCount;
+        this.nsElapsed = nsElapsed;
+    }
+
+    public long getOperationCount() {
+        return operationCount;
+    }
+
+    public long getNsElapsed() {
+        return nsElapsed;
+    }
+
+    public double getOperationsPerSecond() {
+        return operationCount * 1e9 / nsElapsed;
+    }
+}
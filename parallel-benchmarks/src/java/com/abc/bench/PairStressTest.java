@@ -0,0 +1,141 @@
+package com.abc.bench;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
+
+/**
+ * A stress test which runs a (very) large number of producer/consumer pairs
+ * at once - one producer thread and one consumer thread per pair - to see
+ * how a blocking structure copes with tens of thousands of virtual threads
+ * waiting in it. Each producer does operationCount operations and so does
+ * each consumer; the test is over when every thread has finished.
+ * <p>
+ * Unlike a {@link Benchmark} this doesn't run for a fixed time: it runs to
+ * completion, or until the timeout passes. A structure whose waiting threads
+ * pin their carriers (Object.wait() inside synchronized, on the JDKs where
+ * that pins) can run out of carriers and stall. That is reported as a
+ * result, not as a failure; the stalled threads are then interrupted so they
+ * don't hold on to their carriers during the next test.
+ */
+public abstract class PairStressTest {
+    private static final long MS_SAMPLE_INTERVAL = 100;
+    private static final long MS_STOP_TIMEOUT = 10000;
+
+    private final String name;
+
+    protected PairStressTest(String name) {
+        if (name == null) {
+            throw new IllegalArgumentException("name must not be null");
+        }
+        this.name = name;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Called before the threads are created: create whatever the pairs will
+     * use (one shared structure, or one per pair).
+     */
+    protected abstract void setUp(int pairCount) throws Exception;
+
+    /** The producer of pair pairIndex: do operationCount operations. */
+    protected abstract void produce(int pairIndex, int operationCount) throws Exception;
+
+    /** The consumer of pair pairIndex: do operationCount operations. */
+    protected abstract void consume(int pairIndex, int operationCount) throws Exception;
+
+    /** Called after the run (even if it failed). */
+    protected void tearDown() throws Exception {
+    }
+
+    /**
+     * Starts pairCount pairs of threads from threadFactory, releases them all
+     * at once and waits (at most msTimeout) for them to finish.
+     * @throws IllegalStateException if a producer or consumer threw.
+     */
+    public StressResult run(int pairCount,
+                            final int operationCount,
+                            ThreadFactory threadFactory,
+                            boolean virtual,
+                            long msTimeout) throws Exception {
+
+        setUp(pairCount);
+        try {
+            final CountDownLatch startGate = new CountDownLatch(1);
+            final CountDownLatch finished = new CountDownLatch(2 * pairCount);
+            final AtomicInteger completedConsumerCount = new AtomicInteger();
+            final List<Throwable> failures =
+                Collections.synchronizedList(new ArrayList<Throwable>());
+
+            List<Thread> threads = new ArrayList<>(2 * pairCount);
+            for ( int i = 0; i < 2 * pairCount; i++ ) {
+                final boolean isProducer = i % 2 == 0;
+                final int pairIndex = i / 2;
+                Thread thread = threadFactory.newThread(new Runnable() {
+                    @Override
+                    public void run() {
+                        try {
+                            startGate.await();
+                            if (isProducer) {
+                                produce(pairIndex, operationCount);
+                            } else {
+                                consume(pairIndex, operationCount);
+                                completedConsumerCount.incrementAndGet();
+                            }
+                        } catch ( InterruptedException x ) {
+                            // stalled, and told to give up
+                        } catch ( Throwable x ) {
+                            failures.add(x);
+                        } finally {
+                            finished.countDown();
+                        }
+                    }
+                });
+                threads.add(thread);
+                thread.start();
+            }
+
+            CarrierMonitor monitor = new CarrierMonitor();
+            monitor.start();
+            long nsStart = System.nanoTime();
+            startGate.countDown();
+
+            long nsEndTime = nsStart + TimeUnit.MILLISECONDS.toNanos(msTimeout);
+            boolean completed = false;
+            while (!completed && nsEndTime - System.nanoTime() > 0L) {
+                long nsWait = Math.min(nsEndTime - System.nanoTime(),
+                    TimeUnit.MILLISECONDS.toNanos(MS_SAMPLE_INTERVAL));
+                completed = finished.await(nsWait, TimeUnit.NANOSECONDS);
+                monitor.sample();
+            }
+            long nsElapsed = System.nanoTime() - nsStart;
+            monitor.stop();
+
+            if (!completed) {
+                for ( Thread thread : threads ) {
+                    thread.interrupt();
+                }
+                if (!finished.await(MS_STOP_TIMEOUT, TimeUnit.MILLISECONDS)) {
+                    throw new IllegalStateException(finished.getCount() +
+                        " threads did not stop within " + MS_STOP_TIMEOUT +
+                        "ms of being interrupted");
+                }
+            }
+
+            if (!failures.isEmpty()) {
+                throw new IllegalStateException(
+                    "producer or consumer failed", failures.get(0));
+            }
+
+            return new StressResult(name, pairCount, operationCount, virtual,
+                completed, completedConsumerCount.get(), nsElapsed,
+                monitor.getPeakCarrierCount(), monitor.getCarrierCpuTime(),
+                monitor.getProcessCpuTime());
+        } finally {
+            tearDown();
+        }
+    }
+}
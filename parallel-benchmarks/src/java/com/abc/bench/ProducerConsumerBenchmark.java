@@ -0,0 +1,185 @@
+package com.abc.bench;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * A {@link Benchmark} which moves items from producer threads to consumer
+ * threads through some shared structure (a FIFO, a handoff, ...) and counts
+ * the items which come out the consumer side.
+ * <p>
+ * All of the threads are released together, run for the iteration time, and
+ * then are stopped by setting the {@link StopSignal} and interrupting them
+ * (so threads blocked inside the structure get out too). An
+ * InterruptedException from produce() or consume() is the normal way out.
+ */
+public abstract class ProducerConsumerBenchmark extends Benchmark {
+    private static final long MS_STOP_TIMEOUT = 10000;
+
+    private final int producerCount;
+    private final int consumerCount;
+
+    protected ProducerConsumerBenchmark(String name,
+                                        int producerCount,
+                                        int consumerCount,
+                                        Map<String, String> extraParams) {
+
+        super(name, withThreadParams(producerCount, consumerCount, extraParams));
+        if (producerCount < 1 || consumerCount < 1) {
+            throw new IllegalArgumentException(
+                "need at least one producer and one consumer");
+        }
+        this.producerCount = producerCount;
+        this.consumerCount = consumerCount;
+    }
+
+    protected ProducerConsumerBenchmark(String name,
+                                        int producerCount,
+                                        int consumerCount) {
+
+        this(name, producerCount, consumerCount,
+            Collections.<String, String>emptyMap());
+    }
+
+    private static Map<String, String> withThreadParams(int producerCount,
+                                                        int consumerCount,
+                                                        Map<String, String> extraParams) {
+
+        Map<String, String> map = params(
+            "producers", producerCount, "consumers", consumerCount);
+        map.putAll(extraParams);
+        return map;
+    }
+
+    @Override
+    public int getThreadCount() {
+        return producerCount + consumerCount;
+    }
+
+    /**
+     * Adds items until stop says to quit (or the thread is interrupted).
+     * Call counter.increment() (or add()) for each item added.
+     */
+    protected abstract void produce(int producerIndex,
+                                    StopSignal stop,
+                                    OperationCounter counter) throws Exception;
+
+    /**
+     * Removes items until stop says to quit (or the thread is interrupted).
+     * Call counter.increment() (or add()) for each item removed - these are
+     * the operations which are reported.
+     */
+    protected abstract void consume(int consumerIndex,
+                                    StopSignal stop,
+                                    OperationCounter counter) throws Exception;
+
+    @Override
+    public Measurement runIteration(long nsDuration) throws Exception {
+        final StopSignal stop = new StopSignal();
+        final CountDownLatch startGate = new CountDownLatch(1);
+        final List<Throwable> failures =
+            Collections.synchronizedList(new ArrayList<Throwable>());
+
+        OperationCounter[] consumerCounters = new OperationCounter[consumerCount];
+        Thread[] threads = new Thread[producerCount + consumerCount];
+        for ( int i = 0; i < threads.length; i++ ) {
+            final boolean isProducer = i < producerCount;
+            final int index = isProducer ? i : i - producerCount;
+            final OperationCounter counter = new OperationCounter();
+            if (!isProducer) {
+                consumerCounters[index] = counter;
+            }
+
+            threads[i] = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        startGate.await();
+                        if (isProducer) {
+                            produce(index, stop, counter);
+                        } else {
+                            consume(index, stop, counter);
+                        }
+                    } catch ( InterruptedException x ) {
+                        // this is how we're told to stop
+                    } catch ( Throwable x ) {
+                        if (!stop.isStopped()) {
+                            failures.add(x);
+                        }
+                    }
+                }
+            }, getName() + (isProducer ? "-producer-" : "-consumer-") + index);
+            threads[i].setDaemon(true);
+            threads[i].start();
+        }
+
+        long nsStart = System.nanoTime();
+        startGate.countDown();
+        TimeUnit.NANOSECONDS.sleep(nsDuration);
+        stop.stop();
+        long nsElapsed = System.nanoTime() - nsStart;
+
+        for ( Thread thread : threads ) {
+            thread.interrupt();
+        }
+        for ( Thread thread : threads ) {
+            thread.join(MS_STOP_TIMEOUT);
+            if (thread.isAlive()) {
+                throw new IllegalStateException(
+                    thread.getName() + " did not stop within " +
+                    MS_STOP_TIMEOUT + "ms");
+            }
+        }
+
+        if (!failures.isEmpty()) {
+            throw new IllegalStateException(
+                "worker thread failed", failures.get(0));
+        }
+
+        long operationCount = 0;
+        for ( OperationCounter counter : consumerCounters ) {
+            operationCount += counter.getCount();
+        }
+        return new Measurement(operationCount, nsElapsed);
+    }
+
+    /**
+     * Set once the iteration time is up. Workers should check
+     * {@link #isStopped()} every time around their loop.
+     */
+    public static final class StopSignal {
+        private volatile boolean stopped;
+
+        public boolean isStopped() {
+            return stopped;
+        }
+
+        void stop() {
+            stopped = true;
+        }
+    } // type StopSignal
+
+    /**
+     * Counts the operations of a single worker thread (so no atomics are
+     * needed). Only read after the worker has been joined.
+     */
+    public static final class OperationCounter {
+        @SuppressWarnings("unused")
+        private long p1, p2, p3, p4, p5, p6, p7; // keep off others' cache line
+        private long count;
+        @SuppressWarnings("unused")
+        private long q1, q2, q3, q4, q5, q6, q7;
+
+        public void increment() {
+            count++;
+        }
+
+        public void add(long delta) {
+            count += delta;
+        }
+
+        public long getCount() {
+            return count;
+        }
+    } // type OperationCounter
+}
@@ -0,0 +1,43 @@
+package com.abc.bench;
+
+import java.util.*;
+
+/**
+ * A {@link Benchmark} which calls {@link #runOperation()} over and over on
+ * the calling thread. Every result is folded into a value which is
+ * published when the iteration ends, so the JIT can't throw the work away.
+ */
+public abstract class SingleThreadBenchmark extends Benchmark {
+    // only checked for the time after every this many operations
+    private static final int OPERATIONS_PER_TIME_CHECK = 64;
+
+    // written so the results of runOperation() are never dead code
+    private static volatile long blackhole;
+
+    protected SingleThreadBenchmark(String name, Map<String, String> params) {
+        super(name, params);
+    }
+
+    /**
+     * Performs one operation and returns anything derived from its result.
+     */
+    protected abstract long runOperation();
+
+    @Override
+    public Measurement runIteration(long nsDuration) {
+        long checksum = 0;
+        long operationCount = 0;
+        long nsStart = System.nanoTime();
+        long nsEnd = nsStart + nsDuration;
+        long nsNow;
+        do {
+            for ( int i = 0; i < OPERATIONS_PER_TIME_CHECK; i++ ) {
+                checksum += runOperation();
+            }
+            operationCount += OPERATIONS_PER_TIME_CHECK;
+            nsNow = System.nanoTime();
+        } while (nsNow < nsEnd);
+        blackhole = checksum;
+        return new Measurement(operationCount, nsNow - nsStart);
+    }
+}
@@ -0,0 +1,134 @@
+package com.abc.bench;
+
+import java.util.regex.*;
+
+/**
+ * The command line options understood by the stress tests:
+ * <pre>
+ *   -p N         producer/consumer pairs (default 100000 on virtual
+ *                threads, 1000 on platform threads)
+ *   -n N         operations per producer and per consumer (default 10)
+ *   -timeout S   seconds before a run counts as stalled (default 60)
+ *   -platform    use platform threads even if virtual threads are available
+ *   REGEX        only run tests whose name contains a match
+ * </pre>
+ * Instances are immutable.
+ */
+public final class StressOptions {
+    private static final int DEFAULT_VIRTUAL_PAIR_COUNT = 100000;
+    private static final int DEFAULT_PLATFORM_PAIR_COUNT = 1000;
+
+    private final int pairCount;
+    private final int operationCount;
+    private final long msTimeout;
+    private final boolean virtual;
+    private final Pattern filter;
+
+    private StressOptions(int pairCount,
+                          int operationCount,
+                          long msTimeout,
+                          boolean virtual,
+                          Pattern filter) {
+
+        this.pairCount = pairCount;
+        this.operationCount = operationCount;
+        this.msTimeout = msTimeout;
+        this.virtual = virtual;
+        this.filter = filter;
+    }
+
+    /**
+     * Parses the command line.
+     * @throws IllegalArgumentException if anything is not understood.
+     */
+    public static StressOptions parse(String[] args) {
+        int pairCount = 0;
+        int operationCount = 10;
+        long msTimeout = 60000;
+        boolean platform = false;
+        Pattern filter = null;
+
+        for ( int i = 0; i < args.length; i++ ) {
+            String arg = args[i];
+            if (arg.equals("-p")) {
+                pairCount = parseInt(arg, valueOf(args, ++i), 1);
+            } else if (arg.equals("-n")) {
+                operationCount = parseInt(arg, valueOf(args, ++i), 1);
+            } else if (arg.equals("-timeout")) {
+                msTimeout = 1000L * parseInt(arg, valueOf(args, ++i), 1);
+            } else if (arg.equals("-platform")) {
+                platform = true;
+            } else if (arg.startsWith("-")) {
+                throw new IllegalArgumentException("unknown option: " + arg);
+            } else if (filter != null) {
+                throw new IllegalArgumentException(
+                    "only one filter is allowed, got: " + arg);
+            } else {
+                try {
+                    filter = Pattern.compile(arg);
+                } catch ( PatternSyntaxException x ) {
+                    throw new IllegalArgumentException(
+                        "bad filter: " + x.getMessage(), x);
+                }
+            }
+        }
+
+        boolean virtual = !platform && VirtualThreads.isAvailable();
+        if (pairCount == 0) {
+            pairCount = virtual
+                ? DEFAULT_VIRTUAL_PAIR_COUNT
+                : DEFAULT_PLATFORM_PAIR_COUNT;
+        }
+        return new StressOptions(pairCount, operationCount, msTimeout,
+            virtual, filter);
+    }
+
+    private static String valueOf(String[] args, int index) {
+        if (index >= args.length) {
+            throw new IllegalArgumentException(
+                "missing value after " + args[index - 1]);
+        }
+        return args[index];
+    }
+
+    private static int parseInt(String option, String text, int minValue) {
+        int value;
+        try {
+            value = Integer.parseInt(text.trim());
+        } catch ( NumberFormatException x ) {
+            throw new IllegalArgumentException(
+                option + " needs a number, got: " + text);
+        }
+        if (value < minValue) {
+            throw new IllegalArgumentException(
+                option + " must be at least " + minValue + ", got: " + value);
+        }
+        return value;
+    }
+
+    public int getPairCount() {
+        return pairCount;
+    }
+
+    public int getOperationCount() {
+        return operationCount;
+    }
+
+    public long getMsTimeout() {
+        return msTimeout;
+    }
+
+    /** True if the pairs run on virtual threads. */
+    public boolean isVirtual() {
+        return virtual;
+    }
+
+    /** True if there is no filter or the filter matches the test's name. */
+    public boolean isSelected(PairStressTest test) {
+        return filter == null || filter.matcher(test.getName()).find();
+    }
+
+    public static String getUsage() {
+        return "options: [-p PAIRS] [-n OPS] [-timeout SECONDS] [-platform] [REGEX]";
+    }
+}
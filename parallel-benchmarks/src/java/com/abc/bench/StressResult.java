@@ -0,0 +1,110 @@
+package com.abc.bench;
+
+import java.util.concurrent.*;
+
+/**
+ * What happened in one run of a {@link PairStressTest}. Throughput only
+ * counts the operations of the pairs whose consumer finished. Immutable.
+ */
+public final class StressResult {
+    private final String name;
+    private final int pairCount;
+    private final int operationCount;
+    private final boolean virtual;
+    private final boolean completed;
+    private final int completedPairCount;
+    private final long nsElapsed;
+    private final int peakCarrierCount;
+    private final long nsCarrierCpuTime;
+    private final long nsProcessCpuTime;
+
+    public StressResult(String name,
+                        int pairCount,
+                        int operationCount,
+                        boolean virtual,
+                        boolean completed,
+                        int completedPairCount,
+                        long nsElapsed,
+                        int peakCarrierCount,
+                        long nsCarrierCpuTime,
+                        long nsProcessCpuTime) {
+
+        this.name = name;
+        this.pairCount = pairCount;
+        this.operationCount = operationCount;
+        this.virtual = virtual;
+        this.completed = completed;
+        this.completedPairCount = completedPairCount;
+        this.nsElapsed = nsElapsed;
+        this.peakCarrierCount = peakCarrierCount;
+        this.nsCarrierCpuTime = nsCarrierCpuTime;
+        this.nsProcessCpuTime = nsProcessCpuTime;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getPairCount() {
+        return pairCount;
+    }
+
+    /** Operations per producer (and per consumer). */
+    public int getOperationCount() {
+        return operationCount;
+    }
+
+    /** True if the pairs ran on virtual threads. */
+    public boolean isVirtual() {
+        return virtual;
+    }
+
+    /** False if the run stalled and was stopped at the timeout. */
+    public boolean isCompleted() {
+        return completed;
+    }
+
+    public int getCompletedPairCount() {
+        return completedPairCount;
+    }
+
+    public long getNsElapsed() {
+        return nsElapsed;
+    }
+
+    /** Consumer operations per second (of the pairs which completed). */
+    public double getOperationsPerSecond() {
+        double operations = (double) completedPairCount * operationCount;
+        return operations * TimeUnit.SECONDS.toNanos(1) / Math.max(1L, nsElapsed);
+    }
+
+    /** Most carrier threads seen at once (0 for platform threads). */
+    public int getPeakCarrierCount() {
+        return peakCarrierCount;
+    }
+
+    /**
+     * Carrier CPU time as a fraction of what the scheduler's parallelism
+     * could have used in the elapsed time; NaN for platform threads or if
+     * thread CPU time can't be measured.
+     */
+    public double getCarrierUtilisation() {
+        if (!virtual || nsCarrierCpuTime < 0) {
+            return Double.NaN;
+        }
+        return (double) nsCarrierCpuTime /
+            ((double) nsElapsed * VirtualThreads.getSchedulerParallelism());
+    }
+
+    /**
+     * Process CPU time as a fraction of all of the CPUs for the elapsed time
+     * (NaN if unknown).
+     */
+    public double getProcessCpuUtilisation() {
+        if (nsProcessCpuTime < 0) {
+            return Double.NaN;
+        }
+        return (double) nsProcessCpuTime /
+            ((double) nsElapsed * Runtime.getRuntime().availableProcessors());
+    }
+}
@@ -0,0 +1,145 @@
+package com.abc.bench;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * Runs {@link PairStressTest}s one after the other in this JVM and prints a
+ * line per test plus a summary table: throughput, how many carrier threads
+ * there were at most and how busy they were.
+ * <p>
+ * Low carrier utilisation with blocked virtual threads waiting to run, a
+ * peak carrier count above the scheduler's parallelism, or a stall all point
+ * at carriers being pinned. Run with -Djdk.tracePinnedThreads=full (JDK 21
+ * to 23) to get a stack trace of every place a virtual thread pins its
+ * carrier.
+ */
+public class StressRunner {
+    private final StressOptions options;
+
+    public StressRunner(StressOptions options) {
+        this.options = options;
+    }
+
+    /**
+     * Runs all of the selected tests. A test which throws is reported and
+     * skipped (the others still run).
+     * @return the results of the tests which didn't throw.
+     */
+    public List<StressResult> runAll(List<PairStressTest> tests) {
+        ThreadFactory threadFactory = options.isVirtual()
+            ? VirtualThreads.virtualThreadFactory()
+            : VirtualThreads.platformThreadFactory("stress");
+
+        List<StressResult> results = new ArrayList<>();
+        for ( PairStressTest test : tests ) {
+            if (!options.isSelected(test)) {
+                continue;
+            }
+            System.out.println("# Stress test: " + test.getName());
+            try {
+                StressResult result = test.run(options.getPairCount(),
+                    options.getOperationCount(), threadFactory,
+                    options.isVirtual(), options.getMsTimeout());
+                printResult(result);
+                results.add(result);
+            } catch ( Exception x ) {
+                System.out.println("# FAILED: " + test.getName());
+                x.printStackTrace(System.out);
+            }
+        }
+        return results;
+    }
+
+    private static void printResult(StressResult result) {
+        if (!result.isCompleted()) {
+            System.out.printf(Locale.ROOT,
+                "STALLED: only %,d of %,d pairs finished in %,d ms%n",
+                result.getCompletedPairCount(), result.getPairCount(),
+                TimeUnit.NANOSECONDS.toMillis(result.getNsElapsed()));
+        }
+        String carriers = result.isVirtual()
+            ? String.format(Locale.ROOT, "carriers: peak %d, utilisation %s",
+                result.getPeakCarrierCount(),
+                formatPercent(result.getCarrierUtilisation()))
+            : "carriers: n/a (platform threads)";
+        System.out.printf(Locale.ROOT,
+            "Result: %,.0f ops/s in %,d ms, %s, process CPU %s%n%n",
+            result.getOperationsPerSecond(),
+            TimeUnit.NANOSECONDS.toMillis(result.getNsElapsed()),
+            carriers,
+            formatPercent(result.getProcessCpuUtilisation()));
+    }
+
+    private static String formatPercent(double fraction) {
+        if (Double.isNaN(fraction)) {
+            return "n/a";
+        }
+        return String.format(Locale.ROOT, "%.1f%%", 100.0 * fraction);
+    }
+
+    public void printSummary(List<StressResult> results) {
+        int nameWidth = "Test".length();
+        for ( StressResult result : results ) {
+            nameWidth = Math.max(nameWidth, result.getName().length());
+        }
+        String format = "%-" + nameWidth + "s  %9s  %16s  %8s  %8s  %11s%n";
+        System.out.printf(Locale.ROOT, format,
+            "Test", "Pairs", "Score", "Carriers", "Carrier%", "Status");
+        for ( StressResult result : results ) {
+            System.out.printf(Locale.ROOT, format,
+                result.getName(),
+                String.format(Locale.ROOT, "%,d", result.getPairCount()),
+                String.format(Locale.ROOT, "%,.0f", result.getOperationsPerSecond()),
+                result.isVirtual() ? String.valueOf(result.getPeakCarrierCount()) : "-",
+                formatPercent(result.getCarrierUtilisation()),
+                result.isCompleted() ? "completed" : "STALLED");
+        }
+        System.out.println("(scores in consumer ops/s)");
+    }
+
+    /**
+     * Everything a stress main() needs: parses args, runs the tests, prints
+     * the summary and exits with status 1 if a test threw (a stall is a
+     * result, not a failure).
+     */
+    public static void run(String[] args, List<PairStressTest> tests) {
+        StressOptions options;
+        try {
+            options = StressOptions.parse(args);
+        } catch ( IllegalArgumentException x ) {
+            System.err.println(x.getMessage());
+            System.err.println(StressOptions.getUsage());
+            System.exit(2);
+            return;
+        }
+
+        System.out.printf("# JVM: %s %s, %d CPU(s)%n",
+            System.getProperty("java.vm.name"),
+            System.getProperty("java.version"),
+            Runtime.getRuntime().availableProcessors());
+        if (options.isVirtual()) {
+            System.out.printf("# Virtual threads, scheduler parallelism %d%n",
+                VirtualThreads.getSchedulerParallelism());
+        } else if (!VirtualThreads.isAvailable()) {
+            System.out.println("# Virtual threads are not available on this JDK (21+ needed), using platform threads");
+        } else {
+            System.out.println("# Platform threads");
+        }
+        System.out.printf(Locale.ROOT, "# %,d pairs x %,d ops, timeout %,d ms%n%n",
+            options.getPairCount(), options.getOperationCount(),
+            options.getMsTimeout());
+
+        StressRunner runner = new StressRunner(options);
+        List<StressResult> results = runner.runAll(tests);
+        runner.printSummary(results);
+
+        int selectedCount = 0;
+        for ( PairStressTest test : tests ) {
+            if (options.isSelected(test)) {
+                selectedCount++;
+            }
+        }
+        System.exit(results.size() == selectedCount ? 0 : 1);
+    }
+}
@@ -0,0 +1,79 @@
+package com.abc.bench;
+
+import java.lang.reflect.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
+
+/**
+ * Creates virtual threads without needing a JDK 21 compiler: the
+ * Thread.ofVirtual() builder is looked up by reflection, so this compiles
+ * (and runs, with platform threads instead) on older JDKs too.
+ */
+public final class VirtualThreads {
+    private static final ThreadFactory VIRTUAL_FACTORY = createVirtualFactory();
+    private static final String CARRIER_CLASS_NAME = "jdk.internal.misc.CarrierThread";
+
+    // no instances
+    private VirtualThreads() {
+    }
+
+    private static ThreadFactory createVirtualFactory() {
+        try {
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            Class<?> builderType = Class.forName("java.lang.Thread$Builder");
+            return (ThreadFactory) builderType.getMethod("factory").invoke(builder);
+        } catch ( ReflectiveOperationException x ) {
+            // before JDK 21 (or a preview JDK without --enable-preview)
+            return null;
+        }
+    }
+
+    /** True if this JVM can create virtual threads. */
+    public static boolean isAvailable() {
+        return VIRTUAL_FACTORY != null;
+    }
+
+    /**
+     * Returns a factory for (unstarted) virtual threads.
+     * @throws UnsupportedOperationException if {@link #isAvailable()} is false.
+     */
+    public static ThreadFactory virtualThreadFactory() {
+        if (VIRTUAL_FACTORY == null) {
+            throw new UnsupportedOperationException(
+                "virtual threads need JDK 21 or later, this is " +
+                System.getProperty("java.version"));
+        }
+        return VIRTUAL_FACTORY;
+    }
+
+    /**
+     * Returns a factory for daemon platform threads named namePrefix-N, with
+     * a small stack so a few thousand of them fit.
+     */
+    public static ThreadFactory platformThreadFactory(final String namePrefix) {
+        final AtomicInteger nextId = new AtomicInteger();
+        return new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable task) {
+                Thread thread = new Thread(null, task,
+                    namePrefix + "-" + nextId.getAndIncrement(), 256 * 1024);
+                thread.setDaemon(true);
+                return thread;
+            }
+        };
+    }
+
+    /** True if thread is one of the carrier threads virtual threads run on. */
+    public static boolean isCarrierThread(Thread thread) {
+        return thread.getClass().getName().equals(CARRIER_CLASS_NAME);
+    }
+
+    /**
+     * The number of carrier threads the virtual thread scheduler aims to
+     * keep busy (it adds more for a while when a virtual thread pins one).
+     */
+    public static int getSchedulerParallelism() {
+        return Integer.getInteger("jdk.virtualThreadScheduler.parallelism",
+            Runtime.getRuntime().availableProcessors());
+    }
+}
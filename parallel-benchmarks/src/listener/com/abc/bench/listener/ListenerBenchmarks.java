@@ -0,0 +1,210 @@
+package com.abc.bench.listener;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+import com.abc.bench.*;
+import com.programix.thread.*;
+
+/**
+ * Notifications per second of the listener managers in parallel-common,
+ * with 1, 4, 16 and 64 listeners registered and N threads notifying at the
+ * same time for each N in the thread counts:
+ * <ul>
+ * <li>ListenerManager - takes its reentrant notification lock and its
+ * add/remove lock on every notification</li>
+ * <li>CopyOnWriteListenerManager - reads a volatile snapshot array, no
+ * locks (synchronous dispatch)</li>
+ * </ul>
+ * Each listener just bumps a counter, so the score is the managers' own
+ * cost. One operation is one notifyListeners() call, however many listeners
+ * it reaches.
+ */
+public class ListenerBenchmarks implements BenchmarkGroup {
+    private static final int[] LISTENER_COUNTS = new int[] { 1, 4, 16, 64 };
+
+    public static interface CountingListener {
+        void eventHappened(long value);
+    } // type CountingListener
+
+    private static final class Counter implements CountingListener {
+        @SuppressWarnings("unused")
+        private long total;
+
+        @Override
+        public void eventHappened(long value) {
+            total += value; // racy with several threads, that's fine here
+        }
+    } // type Counter
+
+    private static final ListenerManager.NotifyAction<CountingListener> ACTION =
+        new ListenerManager.NotifyAction<CountingListener>() {
+            @Override
+            public void performAction(CountingListener listener) {
+                listener.eventHappened(1);
+            }
+        };
+
+    /** Adapts the two managers (which share no interface) for the benchmark. */
+    private static abstract class ManagerFactory {
+        private final String name;
+
+        protected ManagerFactory(String name) {
+            this.name = name;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        /** Returns something which does one notification per run(). */
+        public abstract Runnable create(int listenerCount);
+    } // type ManagerFactory
+
+    private static final ManagerFactory[] FACTORIES = new ManagerFactory[] {
+        new ManagerFactory("ListenerManager") {
+            @Override
+            public Runnable create(int listenerCount) {
+                final ListenerManager<CountingListener> manager =
+                    new ListenerManager<>(CountingListener.class);
+                for ( int i = 0; i < listenerCount; i++ ) {
+                    manager.addListener(new Counter());
+                }
+                return new Runnable() {
+                    @Override
+                    public void run() {
+                        manager.notifyListeners(ACTION);
+                    }
+                };
+            }
+        },
+        new ManagerFactory("CopyOnWriteListenerManager") {
+            @Override
+            public Runnable create(int listenerCount) {
+                final CopyOnWriteListenerManager<CountingListener> manager =
+                    new CopyOnWriteListenerManager<>(CountingListener.class);
+                for ( int i = 0; i < listenerCount; i++ ) {
+                    manager.addListener(new Counter());
+                }
+                return new Runnable() {
+                    @Override
+                    public void run() {
+                        manager.notifyListeners(ACTION);
+                    }
+                };
+            }
+        }
+    };
+
+    /**
+     * N threads calling notifyListeners() on the same manager as fast as
+     * they can for the iteration time.
+     */
+    private static class NotifyBenchmark extends Benchmark {
+        private static final long MS_STOP_TIMEOUT = 10000;
+        private static final int NOTIFICATIONS_PER_STOP_CHECK = 64;
+
+        private final ManagerFactory factory;
+        private final int threadCount;
+        private final int listenerCount;
+        private Runnable notifier;
+        private volatile boolean stopped;
+
+        public NotifyBenchmark(ManagerFactory factory, int threadCount, int listenerCount) {
+            super("listener." + factory.getName(),
+                params("threads", threadCount, "listeners", listenerCount));
+            this.factory = factory;
+            this.threadCount = threadCount;
+            this.listenerCount = listenerCount;
+        }
+
+        @Override
+        public int getThreadCount() {
+            return threadCount;
+        }
+
+        @Override
+        public void setUp() {
+            notifier = factory.create(listenerCount);
+        }
+
+        @Override
+        public void tearDown() {
+            notifier = null;
+        }
+
+        @Override
+        public Measurement runIteration(long nsDuration) throws Exception {
+            final Runnable localNotifier = notifier;
+            final CountDownLatch startGate = new CountDownLatch(1);
+            final long[] counts = new long[threadCount];
+            final List<Throwable> failures =
+                Collections.synchronizedList(new ArrayList<Throwable>());
+            stopped = false;
+
+            Thread[] threads = new Thread[threadCount];
+            for ( int i = 0; i < threads.length; i++ ) {
+                final int index = i;
+                threads[i] = new Thread(new Runnable() {
+                    @Override
+                    public void run() {
+                        try {
+                            startGate.await();
+                            long count = 0;
+                            while (!stopped) {
+                                for ( int j = 0; j < NOTIFICATIONS_PER_STOP_CHECK; j++ ) {
+                                    localNotifier.run();
+                                }
+                                count += NOTIFICATIONS_PER_STOP_CHECK;
+                            }
+                            counts[index] = count; // read after join()
+                        } catch ( Throwable x ) {
+                            failures.add(x);
+                        }
+                    }
+                }, getName() + "-notifier-" + i);
+                threads[i].setDaemon(true);
+                threads[i].start();
+            }
+
+            long nsStart = System.nanoTime();
+            startGate.countDown();
+            TimeUnit.NANOSECONDS.sleep(nsDuration);
+            stopped = true;
+            long nsElapsed = System.nanoTime() - nsStart;
+
+            long operationCount = 0;
+            for ( int i = 0; i < threads.length; i++ ) {
+                threads[i].join(MS_STOP_TIMEOUT);
+                if (threads[i].isAlive()) {
+                    throw new IllegalStateException(
+                        threads[i].getName() + " did not stop within " +
+                        MS_STOP_TIMEOUT + "ms");
+                }
+                operationCount += counts[i];
+            }
+            if (!failures.isEmpty()) {
+                throw new IllegalStateException(
+                    "notifier thread failed", failures.get(0));
+            }
+            return new Measurement(operationCount, nsElapsed);
+        }
+    } // type NotifyBenchmark
+
+    @Override
+    public List<Benchmark> createBenchmarks(BenchmarkOptions options) {
+        List<Benchmark> benchmarks = new ArrayList<>();
+        for ( ManagerFactory factory : FACTORIES ) {
+            for ( int listenerCount : LISTENER_COUNTS ) {
+                for ( int threadCount : options.getThreadCounts() ) {
+                    benchmarks.add(new NotifyBenchmark(factory, threadCount, listenerCount));
+                }
+            }
+        }
+        return benchmarks;
+    }
+
+    public static void main(String[] args) {
+        BenchmarkRunner.run(args, new ListenerBenchmarks());
+    }
+}
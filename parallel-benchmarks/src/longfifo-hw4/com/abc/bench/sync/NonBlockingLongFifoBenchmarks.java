@@ -0,0 +1,137 @@
+package com.abc.bench.sync;
+
+import java.util.*;
+
+import com.abc.bench.*;
+import com.abc.sync.*;
+
+/**
+ * Throughput of the non-blocking {@link LongFifo} implementations in
+ * hw4-clf-solutionA, with N producers and N consumers for each N in the
+ * thread counts.
+ * <p>
+ * Nothing in this LongFifo ever waits, so a producer which finds it full (or
+ * a consumer which finds it empty) yields and tries again. Consumers remove
+ * either one value at a time with {@link LongFifo#poll(long)} (remove=poll)
+ * or up to 64 at a time with {@link LongFifo#pollInto(long[])}
+ * (remove=pollInto). The score is values removed per second.
+ */
+public class NonBlockingLongFifoBenchmarks implements BenchmarkGroup {
+    private static final int CAPACITY = 1024;
+    private static final int POLL_INTO_SIZE = 64;
+    private static final long EMPTY = Long.MIN_VALUE;
+
+    private static abstract class FifoFactory {
+        private final String name;
+
+        protected FifoFactory(String name) {
+            this.name = name;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public abstract LongFifo create(int capacity);
+    } // type FifoFactory
+
+    private static final FifoFactory[] FACTORIES = new FifoFactory[] {
+        new FifoFactory("CircularArrayLongFifo") {
+            @Override
+            public LongFifo create(int capacity) {
+                return new CircularArrayLongFifo(capacity);
+            }
+        },
+        new FifoFactory("MpmcRingLongFifo") {
+            @Override
+            public LongFifo create(int capacity) {
+                return new MpmcRingLongFifo(capacity);
+            }
+        }
+    };
+
+    private static class LongFifoBenchmark extends ProducerConsumerBenchmark {
+        private final FifoFactory factory;
+        private final boolean usePollInto;
+        private LongFifo fifo;
+
+        public LongFifoBenchmark(FifoFactory factory,
+                                 int threadCount,
+                                 boolean usePollInto) {
+
+            super("longfifo.hw4." + factory.getName(), threadCount, threadCount,
+                params("remove", usePollInto ? "pollInto" : "poll",
+                    "capacity", CAPACITY));
+            this.factory = factory;
+            this.usePollInto = usePollInto;
+        }
+
+        @Override
+        public void setUp() {
+            fifo = factory.create(CAPACITY);
+        }
+
+        @Override
+        public void tearDown() {
+            fifo = null;
+        }
+
+        @Override
+        protected void produce(int producerIndex,
+                               StopSignal stop,
+                               OperationCounter counter) {
+
+            long value = 0;
+            while (!stop.isStopped()) {
+                if (fifo.add(value)) {
+                    value++;
+                } else {
+                    Thread.yield(); // full
+                }
+            }
+        }
+
+        @Override
+        protected void consume(int consumerIndex,
+                               StopSignal stop,
+                               OperationCounter counter) {
+
+            if (usePollInto) {
+                long[] buffer = new long[POLL_INTO_SIZE];
+                while (!stop.isStopped()) {
+                    int count = fifo.pollInto(buffer);
+                    if (count > 0) {
+                        counter.add(count);
+                    } else {
+                        Thread.yield(); // empty
+                    }
+                }
+            } else {
+                while (!stop.isStopped()) {
+                    if (fifo.poll(EMPTY) != EMPTY) {
+                        counter.increment();
+                    } else {
+                        Thread.yield(); // empty
+                    }
+                }
+            }
+        }
+    } // type LongFifoBenchmark
+
+    @Override
+    public List<Benchmark> createBenchmarks(BenchmarkOptions options) {
+        List<Benchmark> benchmarks = new ArrayList<>();
+        for ( FifoFactory factory : FACTORIES ) {
+            for ( boolean usePollInto : new boolean[] { false, true } ) {
+                for ( int threadCount : options.getThreadCounts() ) {
+                    benchmarks.add(new LongFifoBenchmark(factory, threadCount, usePollInto));
+                }
+            }
+        }
+        return benchmarks;
+    }
+
+    public static void main(String[] args) {
+        BenchmarkRunner.run(args, new NonBlockingLongFifoBenchmarks());
+    }
+}
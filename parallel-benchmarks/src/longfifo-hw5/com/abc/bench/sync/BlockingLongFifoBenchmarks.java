@@ -0,0 +1,104 @@
+package com.abc.bench.sync;
+
+import java.util.*;
+
+import com.abc.bench.*;
+import com.abc.sync.*;
+
+/**
+ * Throughput of the blocking {@link LongFifo} implementations in
+ * hw5-wn-solution (wait/notify and Condition based), with N producers and N
+ * consumers for each N in the thread counts. The score is values removed
+ * per second.
+ */
+public class BlockingLongFifoBenchmarks implements BenchmarkGroup {
+    private static final int CAPACITY = 1024;
+
+    private static abstract class FifoFactory {
+        private final String name;
+
+        protected FifoFactory(String name) {
+            this.name = name;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public abstract LongFifo create(int capacity);
+    } // type FifoFactory
+
+    private static final FifoFactory[] FACTORIES = new FifoFactory[] {
+        new FifoFactory("CircularArrayLongFifo") {
+            @Override
+            public LongFifo create(int capacity) {
+                return new CircularArrayLongFifo(capacity);
+            }
+        },
+        new FifoFactory("ConditionCircularArrayLongFifo") {
+            @Override
+            public LongFifo create(int capacity) {
+                return new ConditionCircularArrayLongFifo(capacity);
+            }
+        }
+    };
+
+    private static class LongFifoBenchmark extends ProducerConsumerBenchmark {
+        private final FifoFactory factory;
+        private LongFifo fifo;
+
+        public LongFifoBenchmark(FifoFactory factory, int threadCount) {
+            super("longfifo.hw5." + factory.getName(), threadCount, threadCount,
+                params("capacity", CAPACITY));
+            this.factory = factory;
+        }
+
+        @Override
+        public void setUp() {
+            fifo = factory.create(CAPACITY);
+        }
+
+        @Override
+        public void tearDown() {
+            fifo = null;
+        }
+
+        @Override
+        protected void produce(int producerIndex,
+                               StopSignal stop,
+                               OperationCounter counter) throws InterruptedException {
+
+            long value = 0;
+            while (!stop.isStopped()) {
+                fifo.add(value);
+                value++;
+            }
+        }
+
+        @Override
+        protected void consume(int consumerIndex,
+                               StopSignal stop,
+                               OperationCounter counter) throws InterruptedException {
+
+            while (!stop.isStopped()) {
+                fifo.remove();
+                counter.increment();
+            }
+        }
+    } // type LongFifoBenchmark
+
+    @Override
+    public List<Benchmark> createBenchmarks(BenchmarkOptions options) {
+        List<Benchmark> benchmarks = new ArrayList<>();
+        for ( FifoFactory factory : FACTORIES ) {
+            for ( int threadCount : options.getThreadCounts() ) {
+                benchmarks.add(new LongFifoBenchmark(factory, threadCount));
+            }
+        }
+        return benchmarks;
+    }
+
+    public static void main(String[] args) {
+        BenchmarkRunner.run(args, new BlockingLongFifoBenchmarks());
+    }
+}
@@ -0,0 +1,167 @@
+package com.abc.bench.pipeline;
+
+import java.util.regex.*;
+
+/**
+ * The command line options understood by {@link PrimePipelineBenchmarks}:
+ * <pre>
+ *   -w 1,2,4       worker counts (default 1,2,4)
+ *   -b 10,1000     batch sizes, numbers per batch (default 10,1000)
+ *   -c 4,256       capacities of both FIFOs (default 4,256)
+ *   -start N       first number tested (default 1000000000)
+ *   -count N       numbers tested per run (default 1000000)
+ *   -wi N          untimed warmup runs of every configuration (default 1)
+ *   REGEX          only run configurations whose name contains a match
+ * </pre>
+ * Instances are immutable.
+ */
+public final class PipelineOptions {
+    private final int[] workerCounts;
+    private final int[] batchSizes;
+    private final int[] capacities;
+    private final long start;
+    private final long count;
+    private final int warmupRunCount;
+    private final Pattern filter;
+
+    private PipelineOptions(int[] workerCounts,
+                            int[] batchSizes,
+                            int[] capacities,
+                            long start,
+                            long count,
+                            int warmupRunCount,
+                            Pattern filter) {
+
+        this.workerCounts = workerCounts;
+        this.batchSizes = batchSizes;
+        this.capacities = capacities;
+        this.start = start;
+        this.count = count;
+        this.warmupRunCount = warmupRunCount;
+        this.filter = filter;
+    }
+
+    /**
+     * Parses the command line.
+     * @throws IllegalArgumentException if anything is not understood.
+     */
+    public static PipelineOptions parse(String[] args) {
+        int[] workerCounts = new int[] { 1, 2, 4 };
+        int[] batchSizes = new int[] { 10, 1000 };
+        int[] capacities = new int[] { 4, 256 };
+        long start = 1000000000L;
+        long count = 1000000L;
+        int warmupRunCount = 1;
+        Pattern filter = null;
+
+        for ( int i = 0; i < args.length; i++ ) {
+            String arg = args[i];
+            if (arg.equals("-w")) {
+                workerCounts = parseIntList(arg, valueOf(args, ++i));
+            } else if (arg.equals("-b")) {
+                batchSizes = parseIntList(arg, valueOf(args, ++i));
+            } else if (arg.equals("-c")) {
+                capacities = parseIntList(arg, valueOf(args, ++i));
+            } else if (arg.equals("-start")) {
+                start = parseLong(arg, valueOf(args, ++i), 0);
+            } else if (arg.equals("-count")) {
+                count = parseLong(arg, valueOf(args, ++i), 1);
+            } else if (arg.equals("-wi")) {
+                warmupRunCount = (int) Math.min(Integer.MAX_VALUE,
+                    parseLong(arg, valueOf(args, ++i), 0));
+            } else if (arg.startsWith("-")) {
+                throw new IllegalArgumentException("unknown option: " + arg);
+            } else if (filter != null) {
+                throw new IllegalArgumentException(
+                    "only one filter is allowed, got: " + arg);
+            } else {
+                try {
+                    filter = Pattern.compile(arg);
+                } catch ( PatternSyntaxException x ) {
+                    throw new IllegalArgumentException(
+                        "bad filter: " + x.getMessage(), x);
+                }
+            }
+        }
+
+        if (count > Long.MAX_VALUE - start) {
+            throw new IllegalArgumentException(
+                "-start plus -count must not be more than " + Long.MAX_VALUE);
+        }
+        return new PipelineOptions(workerCounts, batchSizes, capacities,
+            start, count, warmupRunCount, filter);
+    }
+
+    private static String valueOf(String[] args, int index) {
+        if (index >= args.length) {
+            throw new IllegalArgumentException(
+                "missing value after " + args[index - 1]);
+        }
+        return args[index];
+    }
+
+    private static long parseLong(String option, String text, long minValue) {
+        long value;
+        try {
+            value = Long.parseLong(text.trim());
+        } catch ( NumberFormatException x ) {
+            throw new IllegalArgumentException(
+                option + " needs a number, got: " + text);
+        }
+        if (value < minValue) {
+            throw new IllegalArgumentException(
+                option + " must be at least " + minValue + ", got: " + value);
+        }
+        return value;
+    }
+
+    private static int[] parseIntList(String option, String text) {
+        String[] parts = text.split(",");
+        int[] values = new int[parts.length];
+        for ( int i = 0; i < parts.length; i++ ) {
+            long value = parseLong(option, parts[i], 1);
+            if (value > Integer.MAX_VALUE) {
+                throw new IllegalArgumentException(
+                    option + " values must be at most " + Integer.MAX_VALUE +
+                    ", got: " + value);
+            }
+            values[i] = (int) value;
+        }
+        return values;
+    }
+
+    public int[] getWorkerCounts() {
+        return workerCounts.clone();
+    }
+
+    public int[] getBatchSizes() {
+        return batchSizes.clone();
+    }
+
+    public int[] getCapacities() {
+        return capacities.clone();
+    }
+
+    public long getStart() {
+        return start;
+    }
+
+    /** Numbers tested per run. */
+    public long getCount() {
+        return count;
+    }
+
+    public int getWarmupRunCount() {
+        return warmupRunCount;
+    }
+
+    /** True if there is no filter or the filter matches name. */
+    public boolean isSelected(String name) {
+        return filter == null || filter.matcher(name).find();
+    }
+
+    public static String getUsage() {
+        return "options: [-w WORKERS,...] [-b BATCH,...] [-c CAPACITY,...] " +
+            "[-start N] [-count N] [-wi N] [REGEX]";
+    }
+}
@@ -0,0 +1,104 @@
+package com.abc.bench.pipeline;
+
+/**
+ * What one {@link PrimePipeline} run did and how long it took. Occupancies
+ * and full fractions are between 0 and 1, or NaN if the run was too short
+ * to be sampled. Instances are immutable.
+ */
+public final class PipelineResult {
+    private final int workerCount;
+    private final int batchSize;
+    private final int capacity;
+    private final long candidateCount;
+    private final long batchCount;
+    private final long primeCount;
+    private final long nsElapsed;
+    private final double candidateOccupancy;
+    private final double candidateFullFraction;
+    private final double resultOccupancy;
+    private final double resultFullFraction;
+
+    public PipelineResult(int workerCount,
+                          int batchSize,
+                          int capacity,
+                          long candidateCount,
+                          long batchCount,
+                          long primeCount,
+                          long nsElapsed,
+                          double candidateOccupancy,
+                          double candidateFullFraction,
+                          double resultOccupancy,
+                          double resultFullFraction) {
+
+        this.workerCount = workerCount;
+        this.batchSize = batchSize;
+        this.capacity = capacity;
+        this.candidateCount = candidateCount;
+        this.batchCount = batchCount;
+        this.primeCount = primeCount;
+        this.nsElapsed = nsElapsed;
+        this.candidateOccupancy = candidateOccupancy;
+        this.candidateFullFraction = candidateFullFraction;
+        this.resultOccupancy = resultOccupancy;
+        this.resultFullFraction = resultFullFraction;
+    }
+
+    public int getWorkerCount() {
+        return workerCount;
+    }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    /** Capacity of the candidates FIFO. */
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /** Numbers tested. */
+    public long getCandidateCount() {
+        return candidateCount;
+    }
+
+    /** Batches which went through both FIFOs (END markers not included). */
+    public long getBatchCount() {
+        return batchCount;
+    }
+
+    public long getPrimeCount() {
+        return primeCount;
+    }
+
+    public long getNsElapsed() {
+        return nsElapsed;
+    }
+
+    public double getCandidatesPerSecond() {
+        return candidateCount * 1e9 / nsElapsed;
+    }
+
+    public double getBatchesPerSecond() {
+        return batchCount * 1e9 / nsElapsed;
+    }
+
+    /** Mean count of the candidates FIFO as a fraction of its capacity. */
+    public double getCandidateOccupancy() {
+        return candidateOccupancy;
+    }
+
+    /** Fraction of the samples which found the candidates FIFO full. */
+    public double getCandidateFullFraction() {
+        return candidateFullFraction;
+    }
+
+    /** Mean count of the results FIFO as a fraction of its capacity. */
+    public double getResultOccupancy() {
+        return resultOccupancy;
+    }
+
+    /** Fraction of the samples which found the results FIFO full. */
+    public double getResultFullFraction() {
+        return resultFullFraction;
+    }
+}
@@ -0,0 +1,280 @@
+package com.abc.bench.pipeline;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+import com.abc.pp.fifo.*;
+import com.abc.pp.prime.*;
+
+/**
+ * Finds the primes in a range with a producer/consumer pipeline built on two
+ * {@link PPBoundedFifo}s:
+ * <pre>
+ *   generator --candidates--&gt; N workers --results--&gt; aggregator
+ * </pre>
+ * The generator cuts [start, limit) into batches of batchSize numbers and
+ * adds each one to the candidates FIFO as a long[] { first, end }. Each
+ * worker removes a batch, tests every number in it with
+ * {@link PrimeTools#isPrime(long)} and adds the primes it found (a long[],
+ * possibly empty) to the results FIFO. The aggregator removes the result
+ * batches and counts the primes.
+ * <p>
+ * When the range is used up the generator adds one {@link #END} marker per
+ * worker; each worker passes its marker on to the results FIFO and quits,
+ * and the aggregator quits after it has seen them all. So both FIFOs are
+ * empty again after a run and the same pipeline can be run again.
+ * <p>
+ * While it runs, a sampler thread reads both FIFOs' counts every
+ * millisecond, which gives their mean occupancy and how often they were
+ * full: a full candidates FIFO means the workers can't keep up (good), a
+ * full results FIFO means the aggregator can't (bad).
+ */
+public class PrimePipeline {
+    /** Marks the end of the batches; compared by reference. */
+    private static final long[] END = new long[0];
+    private static final long MS_SAMPLE_INTERVAL = 1;
+
+    private final PPBoundedFifo<long[]> candidates;
+    private final PPBoundedFifo<long[]> results;
+    private final int workerCount;
+    private final int batchSize;
+
+    /**
+     * @param candidates carries the batches from the generator to the
+     * workers; must be empty.
+     * @param results carries the primes from the workers to the
+     * aggregator; must be empty.
+     * @param workerCount number of worker threads, at least 1.
+     * @param batchSize numbers per batch, at least 1.
+     */
+    public PrimePipeline(PPBoundedFifo<long[]> candidates,
+                         PPBoundedFifo<long[]> results,
+                         int workerCount,
+                         int batchSize) {
+
+        if (candidates == null || results == null) {
+            throw new IllegalArgumentException("fifos must not be null");
+        }
+        if (candidates == results) {
+            throw new IllegalArgumentException("candidates and results must be different fifos");
+        }
+        if (workerCount < 1) {
+            throw new IllegalArgumentException(
+                "workerCount must be at least 1, got " + workerCount);
+        }
+        if (batchSize < 1) {
+            throw new IllegalArgumentException(
+                "batchSize must be at least 1, got " + batchSize);
+        }
+        this.candidates = candidates;
+        this.results = results;
+        this.workerCount = workerCount;
+        this.batchSize = batchSize;
+    }
+
+    public int getWorkerCount() {
+        return workerCount;
+    }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    /**
+     * Finds the primes in [start, limit) and waits for the pipeline to
+     * finish.
+     * @throws IllegalStateException if one of the pipeline's threads failed
+     * (the others are interrupted).
+     * @throws InterruptedException if the calling thread is interrupted
+     * while waiting (the pipeline's threads are interrupted too).
+     */
+    public PipelineResult run(final long start, final long limit) throws InterruptedException {
+        if (start < 0 || limit < start) {
+            throw new IllegalArgumentException(
+                "need 0 <= start <= limit, got [" + start + ", " + limit + ")");
+        }
+
+        final Sampler sampler = new Sampler();
+        final long[] primeCount = new long[1];
+        final long[] batchCount = new long[1];
+
+        final List<Thread> threads = new ArrayList<>();
+        final List<Throwable> failures =
+            Collections.synchronizedList(new ArrayList<Throwable>());
+        final CountDownLatch startGate = new CountDownLatch(1);
+
+        threads.add(createThread("pipeline-generator", startGate, threads, failures, new Task() {
+            @Override
+            public void run() throws InterruptedException {
+                for ( long first = start; first < limit; ) {
+                    long end = limit - first <= batchSize ? limit : first + batchSize;
+                    candidates.add(new long[] { first, end });
+                    first = end;
+                }
+                for ( int i = 0; i < workerCount; i++ ) {
+                    candidates.add(END);
+                }
+            }
+        }));
+        for ( int i = 0; i < workerCount; i++ ) {
+            threads.add(createThread("pipeline-worker-" + i, startGate, threads, failures, new Task() {
+                @Override
+                public void run() throws InterruptedException {
+                    long[] primes = new long[64];
+                    for ( long[] batch = candidates.remove(); batch != END; batch = candidates.remove() ) {
+                        int foundCount = 0;
+                        for ( long n = batch[0]; n < batch[1]; n++ ) {
+                            if (PrimeTools.isPrime(n)) {
+                                if (foundCount == primes.length) {
+                                    primes = Arrays.copyOf(primes, 2 * foundCount);
+                                }
+                                primes[foundCount++] = n;
+                            }
+                        }
+                        results.add(Arrays.copyOf(primes, foundCount));
+                    }
+                    results.add(END);
+                }
+            }));
+        }
+        threads.add(createThread("pipeline-aggregator", startGate, threads, failures, new Task() {
+            @Override
+            public void run() throws InterruptedException {
+                for ( int endCount = 0; endCount < workerCount; ) {
+                    long[] primes = results.remove();
+                    if (primes == END) {
+                        endCount++;
+                    } else {
+                        primeCount[0] += primes.length;
+                        batchCount[0]++;
+                    }
+                }
+            }
+        }));
+
+        Thread samplerThread = new Thread(sampler, "pipeline-sampler");
+        samplerThread.setDaemon(true);
+
+        long nsElapsed;
+        try {
+            for ( Thread thread : threads ) {
+                thread.start();
+            }
+            samplerThread.start();
+            long nsStart = System.nanoTime();
+            startGate.countDown();
+            for ( Thread thread : threads ) {
+                thread.join();
+            }
+            nsElapsed = System.nanoTime() - nsStart;
+        } finally {
+            sampler.stop();
+            samplerThread.interrupt();
+            for ( Thread thread : threads ) {
+                thread.interrupt();
+            }
+        }
+        samplerThread.join();
+
+        if (!failures.isEmpty()) {
+            // markers or batches may have been left behind
+            candidates.clear();
+            results.clear();
+            throw new IllegalStateException("pipeline thread failed", failures.get(0));
+        }
+
+        return new PipelineResult(workerCount, batchSize,
+            candidates.getCapacity(), limit - start, batchCount[0],
+            primeCount[0], nsElapsed,
+            sampler.getMeanOccupancy(sampler.candidateCountSum, candidates),
+            sampler.getFullFraction(sampler.candidateFullCount),
+            sampler.getMeanOccupancy(sampler.resultCountSum, results),
+            sampler.getFullFraction(sampler.resultFullCount));
+    }
+
+    /**
+     * Creates a daemon thread which waits for startGate and then runs task.
+     * If the task throws, the failure is recorded and all of the threads
+     * are interrupted so nobody is left waiting on a FIFO.
+     */
+    private static Thread createThread(String name,
+                                       final CountDownLatch startGate,
+                                       final List<Thread> threads,
+                                       final List<Throwable> failures,
+                                       final Task task) {
+
+        Thread thread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    startGate.await();
+                    task.run();
+                } catch ( InterruptedException x ) {
+                    // another thread failed, or run() was interrupted
+                } catch ( Throwable x ) {
+                    failures.add(x);
+                    for ( Thread other : threads ) {
+                        other.interrupt();
+                    }
+                }
+            }
+        }, name);
+        thread.setDaemon(true);
+        return thread;
+    }
+
+    private static interface Task {
+        void run() throws InterruptedException;
+    } // type Task
+
+    /**
+     * Samples both FIFOs' counts every {@link #MS_SAMPLE_INTERVAL} ms until
+     * stopped. The sums are only read after the thread has been joined.
+     */
+    private class Sampler implements Runnable {
+        private volatile boolean stopped;
+        private long sampleCount;
+        private long candidateCountSum;
+        private long candidateFullCount;
+        private long resultCountSum;
+        private long resultFullCount;
+
+        @Override
+        public void run() {
+            try {
+                while (!stopped) {
+                    int candidateCount = candidates.getCount();
+                    int resultCount = results.getCount();
+                    sampleCount++;
+                    candidateCountSum += candidateCount;
+                    resultCountSum += resultCount;
+                    if (candidateCount == candidates.getCapacity()) {
+                        candidateFullCount++;
+                    }
+                    if (resultCount == results.getCapacity()) {
+                        resultFullCount++;
+                    }
+                    Thread.sleep(MS_SAMPLE_INTERVAL);
+                }
+            } catch ( InterruptedException x ) {
+                // stopped
+            }
+        }
+
+        public void stop() {
+            stopped = true;
+        }
+
+        /** Mean count as a fraction of capacity; NaN if never sampled. */
+        public double getMeanOccupancy(long countSum, PPBoundedFifo<long[]> fifo) {
+            return sampleCount == 0
+                ? Double.NaN
+                : (double) countSum / sampleCount / fifo.getCapacity();
+        }
+
+        /** Fraction of the samples which found the fifo full. */
+        public double getFullFraction(long fullCount) {
+            return sampleCount == 0 ? Double.NaN : (double) fullCount / sampleCount;
+        }
+    } // type Sampler
+}
@@ -0,0 +1,183 @@
+package com.abc.bench.pipeline;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+import com.abc.pp.fifo.*;
+import com.abc.pp.fifo.impl.*;
+
+/**
+ * End-to-end benchmark of the {@link PPBoundedFifo}s in hw6-solution: runs
+ * the same {@link PrimePipeline} (a generator, N workers and an aggregator
+ * connected by two FIFOs of the implementation under test) for every
+ * combination of worker count, batch size and capacity in the
+ * {@link PipelineOptions}, and reports the numbers tested per second and how
+ * full the two FIFOs were.
+ * <p>
+ * With big batches the prime tests dominate and every FIFO scores about the
+ * same; small batches (and small capacities) make the FIFO's own cost - and
+ * its waiting and waking - show. The single-producer / single-consumer FIFO
+ * only runs with 1 worker. Every run has to find the same number of primes,
+ * otherwise it counts as a failure.
+ */
+public class PrimePipelineBenchmarks {
+    private static abstract class FifoFactory {
+        private final String name;
+        private final boolean singleProducerSingleConsumer;
+
+        protected FifoFactory(String name, boolean singleProducerSingleConsumer) {
+            this.name = name;
+            this.singleProducerSingleConsumer = singleProducerSingleConsumer;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public boolean isSingleProducerSingleConsumer() {
+            return singleProducerSingleConsumer;
+        }
+
+        public abstract PPBoundedFifo<long[]> create(int capacity);
+    } // type FifoFactory
+
+    private static final FifoFactory[] FACTORIES = new FifoFactory[] {
+        new FifoFactory("CircularArrayPPBoundedFifo", false) {
+            @Override
+            public PPBoundedFifo<long[]> create(int capacity) {
+                return new CircularArrayPPBoundedFifo<>(capacity, long[].class);
+            }
+        },
+        new FifoFactory("ConditionCircularArrayPPBoundedFifo", false) {
+            @Override
+            public PPBoundedFifo<long[]> create(int capacity) {
+                return new ConditionCircularArrayPPBoundedFifo<>(capacity, long[].class);
+            }
+        },
+        new FifoFactory("MpmcArrayPPBoundedFifo", false) {
+            @Override
+            public PPBoundedFifo<long[]> create(int capacity) {
+                return new MpmcArrayPPBoundedFifo<>(capacity, long[].class);
+            }
+        },
+        new FifoFactory("SpscArrayPPBoundedFifo", true) {
+            @Override
+            public PPBoundedFifo<long[]> create(int capacity) {
+                return new SpscArrayPPBoundedFifo<>(capacity, long[].class);
+            }
+        }
+    };
+
+    private static String formatPercent(double fraction) {
+        if (Double.isNaN(fraction)) {
+            return "n/a";
+        }
+        return String.format(Locale.ROOT, "%.1f%%", 100.0 * fraction);
+    }
+
+    private static void printSummary(List<String> names, List<PipelineResult> results) {
+        int nameWidth = "Pipeline".length();
+        for ( String name : names ) {
+            nameWidth = Math.max(nameWidth, name.length());
+        }
+        String format = "%-" + nameWidth + "s  %16s  %14s  %11s  %8s  %11s  %8s%n";
+        System.out.printf(Locale.ROOT, format, "Pipeline", "Score",
+            "Batches/s", "Candidates", "Full", "Results", "Full");
+        for ( int i = 0; i < results.size(); i++ ) {
+            PipelineResult result = results.get(i);
+            System.out.printf(Locale.ROOT, format,
+                names.get(i),
+                String.format(Locale.ROOT, "%,.0f", result.getCandidatesPerSecond()),
+                String.format(Locale.ROOT, "%,.0f", result.getBatchesPerSecond()),
+                formatPercent(result.getCandidateOccupancy()),
+                formatPercent(result.getCandidateFullFraction()),
+                formatPercent(result.getResultOccupancy()),
+                formatPercent(result.getResultFullFraction()));
+        }
+        System.out.println("(scores in numbers tested per second; Candidates and Results are the");
+        System.out.println(" mean occupancy of each FIFO, Full how often it was sampled full)");
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        PipelineOptions options;
+        try {
+            options = PipelineOptions.parse(args);
+        } catch ( IllegalArgumentException x ) {
+            System.err.println(x.getMessage());
+            System.err.println(PipelineOptions.getUsage());
+            System.exit(2);
+            return;
+        }
+
+        long start = options.getStart();
+        long limit = start + options.getCount();
+        long warmupLimit = start + Math.max(1, options.getCount() / 10);
+        System.out.printf("# JVM: %s %s, %d CPU(s)%n",
+            System.getProperty("java.vm.name"),
+            System.getProperty("java.version"),
+            Runtime.getRuntime().availableProcessors());
+        System.out.printf(Locale.ROOT, "# Range [%,d, %,d), %d warmup run(s) over the first tenth%n%n",
+            start, limit, options.getWarmupRunCount());
+
+        List<String> names = new ArrayList<>();
+        List<PipelineResult> results = new ArrayList<>();
+        long expectedPrimeCount = -1;
+        boolean failed = false;
+        for ( FifoFactory factory : FACTORIES ) {
+            for ( int workerCount : options.getWorkerCounts() ) {
+                if (factory.isSingleProducerSingleConsumer() && workerCount != 1) {
+                    continue;
+                }
+                for ( int batchSize : options.getBatchSizes() ) {
+                    for ( int capacity : options.getCapacities() ) {
+                        String name = String.format(Locale.ROOT,
+                            "pipeline.%s workers=%d batch=%d capacity=%d",
+                            factory.getName(), workerCount, batchSize, capacity);
+                        if (!options.isSelected(name)) {
+                            continue;
+                        }
+
+                        System.out.println("# Pipeline: " + name);
+                        try {
+                            PrimePipeline pipeline = new PrimePipeline(
+                                factory.create(capacity), factory.create(capacity),
+                                workerCount, batchSize);
+                            for ( int i = 0; i < options.getWarmupRunCount(); i++ ) {
+                                pipeline.run(start, warmupLimit);
+                            }
+                            PipelineResult result = pipeline.run(start, limit);
+
+                            if (expectedPrimeCount < 0) {
+                                expectedPrimeCount = result.getPrimeCount();
+                            } else if (result.getPrimeCount() != expectedPrimeCount) {
+                                throw new IllegalStateException("found " +
+                                    result.getPrimeCount() + " primes, expected " +
+                                    expectedPrimeCount);
+                            }
+                            System.out.printf(Locale.ROOT,
+                                "Result: %,.0f numbers/s, %,.0f batches/s, %,d primes in %,d ms; " +
+                                "candidates %s full (%s of the time), results %s full (%s)%n%n",
+                                result.getCandidatesPerSecond(),
+                                result.getBatchesPerSecond(),
+                                result.getPrimeCount(),
+                                TimeUnit.NANOSECONDS.toMillis(result.getNsElapsed()),
+                                formatPercent(result.getCandidateOccupancy()),
+                                formatPercent(result.getCandidateFullFraction()),
+                                formatPercent(result.getResultOccupancy()),
+                                formatPercent(result.getResultFullFraction()));
+                            names.add(name);
+                            results.add(result);
+                        } catch ( RuntimeException x ) {
+                            System.out.println("# FAILED: " + name);
+                            x.printStackTrace(System.out);
+                            failed = true;
+                        }
+                    }
+                }
+            }
+        }
+
+        printSummary(names, results);
+        System.exit(failed ? 1 : 0);
+    }
+}
@@ -0,0 +1,108 @@
+package com.abc.bench.pond;
+
+import java.util.*;
+
+import com.abc.bench.*;
+import com.abc.pp.producerconsumer.*;
+import com.abc.pp.producerconsumer.Pond.PondState;
+
+/**
+ * Runs {@link PairStressTest} pairs (100,000 of them on virtual threads by
+ * default) through the monitor-based {@link Pond} from
+ * exw10_PetsAndFood/s10_PetsAndFood_EfficientWaiting and its
+ * {@link java.util.concurrent.locks.ReentrantLock} twin {@link ConditionPond}.
+ * <p>
+ * Every pair gets its own pond and plays the Demo: the producer (Bob) waits
+ * for EMPTY and puts food in (FOOD_ONLY), the consumer (Alice) waits for
+ * FOOD_ONLY, lets the pets out (PETS) and back in (EMPTY). One operation is
+ * one trip around that cycle.
+ */
+public class PondStressTests {
+
+    public static List<PairStressTest> createTests() {
+        List<PairStressTest> tests = new ArrayList<>();
+        tests.add(new PairStressTest("pond.Pond") {
+            private Pond[] ponds;
+
+            @Override
+            protected void setUp(int pairCount) {
+                ponds = new Pond[pairCount];
+                for ( int i = 0; i < ponds.length; i++ ) {
+                    ponds[i] = new Pond();
+                }
+            }
+
+            @Override
+            protected void produce(int pairIndex, int operationCount)
+                    throws InterruptedException {
+
+                Pond pond = ponds[pairIndex];
+                for ( int i = 0; i < operationCount; i++ ) {
+                    pond.waitUntilStateIs(PondState.EMPTY);
+                    pond.setPondState(PondState.FOOD_ONLY);
+                }
+            }
+
+            @Override
+            protected void consume(int pairIndex, int operationCount)
+                    throws InterruptedException {
+
+                Pond pond = ponds[pairIndex];
+                for ( int i = 0; i < operationCount; i++ ) {
+                    pond.waitUntilStateIs(PondState.FOOD_ONLY);
+                    pond.setPondState(PondState.PETS);
+                    pond.setPondState(PondState.EMPTY);
+                }
+            }
+
+            @Override
+            protected void tearDown() {
+                ponds = null;
+            }
+        });
+        tests.add(new PairStressTest("pond.ConditionPond") {
+            private ConditionPond[] ponds;
+
+            @Override
+            protected void setUp(int pairCount) {
+                ponds = new ConditionPond[pairCount];
+                for ( int i = 0; i < ponds.length; i++ ) {
+                    ponds[i] = new ConditionPond();
+                }
+            }
+
+            @Override
+            protected void produce(int pairIndex, int operationCount)
+                    throws InterruptedException {
+
+                ConditionPond pond = ponds[pairIndex];
+                for ( int i = 0; i < operationCount; i++ ) {
+                    pond.waitUntilStateIs(PondState.EMPTY);
+                    pond.setPondState(PondState.FOOD_ONLY);
+                }
+            }
+
+            @Override
+            protected void consume(int pairIndex, int operationCount)
+                    throws InterruptedException {
+
+                ConditionPond pond = ponds[pairIndex];
+                for ( int i = 0; i < operationCount; i++ ) {
+                    pond.waitUntilStateIs(PondState.FOOD_ONLY);
+                    pond.setPondState(PondState.PETS);
+                    pond.setPondState(PondState.EMPTY);
+                }
+            }
+
+            @Override
+            protected void tearDown() {
+                ponds = null;
+            }
+        });
+        return tests;
+    }
+
+    public static void main(String[] args) {
+        StressRunner.run(args, createTests());
+    }
+}
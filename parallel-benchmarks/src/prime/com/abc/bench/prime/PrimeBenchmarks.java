@@ -0,0 +1,92 @@
+package com.abc.bench.prime;
+
+import java.util.*;
+
+import com.abc.bench.*;
+import com.abc.pp.prime.*;
+
+/**
+ * Cost of one primality test in exw10_PrimeCheck, on 32-bit inputs (in
+ * [2^31, 2^32)) and 64-bit inputs (in [2^62, 2^63)):
+ * <ul>
+ * <li>isPrime - {@link PrimeTools#isPrime(long)}: small-prime trial
+ * division, then deterministic Miller-Rabin</li>
+ * <li>trialDivision - {@link PrimeTools#isPrimeByTrialDivision(long)}:
+ * every odd divisor up to sqrt(n); 32-bit inputs only, a 64-bit prime takes
+ * seconds</li>
+ * </ul>
+ * Each is run on random odd numbers (input=random, most of them have a
+ * small factor) and on primes (input=prime, the worst case: every witness
+ * base is tried). Each operation tests the next of 1024 precomputed inputs;
+ * the ns/op figure of the result line is the cost of a single test.
+ */
+public class PrimeBenchmarks implements BenchmarkGroup {
+    private static final int INPUT_COUNT = 1024;
+    private static final long SEED = 20170705L;
+
+    private enum Input { RANDOM, PRIME }
+
+    private static abstract class PrimeBenchmark extends SingleThreadBenchmark {
+        private final long[] inputs;
+        private int index;
+
+        protected PrimeBenchmark(String name, int bits, Input input) {
+            super(name, params("bits", bits, "input", input.name().toLowerCase(Locale.ROOT)));
+            inputs = createInputs(bits, input);
+        }
+
+        protected abstract boolean test(long n);
+
+        @Override
+        protected long runOperation() {
+            long n = inputs[index];
+            index = (index + 1) & (INPUT_COUNT - 1);
+            return test(n) ? n : 0;
+        }
+    } // type PrimeBenchmark
+
+    /**
+     * Odd numbers in [2^31, 2^32) for 32 bits or [2^62, 2^63) for 64 bits
+     * (a long has no 64th bit to spare); only primes for Input.PRIME.
+     */
+    private static long[] createInputs(int bits, Input input) {
+        Random random = new Random(SEED + bits);
+        long topBit = bits == 64 ? 1L << 62 : 1L << (bits - 1);
+        long[] inputs = new long[INPUT_COUNT];
+        for ( int i = 0; i < inputs.length; ) {
+            long n = topBit | (random.nextLong() & (topBit - 1)) | 1;
+            if (input == Input.RANDOM || PrimeTools.isPrime(n)) {
+                inputs[i++] = n;
+            }
+        }
+        return inputs;
+    }
+
+    @Override
+    public List<Benchmark> createBenchmarks(BenchmarkOptions options) {
+        List<Benchmark> benchmarks = new ArrayList<>();
+        for ( int bits : new int[] { 32, 64 } ) {
+            for ( Input input : Input.values() ) {
+                benchmarks.add(new PrimeBenchmark("prime.isPrime", bits, input) {
+                    @Override
+                    protected boolean test(long n) {
+                        return PrimeTools.isPrime(n);
+                    }
+                });
+            }
+        }
+        for ( Input input : Input.values() ) {
+            benchmarks.add(new PrimeBenchmark("prime.trialDivision", 32, input) {
+                @Override
+                protected boolean test(long n) {
+                    return PrimeTools.isPrimeByTrialDivision(n);
+                }
+            });
+        }
+        return benchmarks;
+    }
+
+    public static void main(String[] args) {
+        BenchmarkRunner.run(args, new PrimeBenchmarks());
+    }
+}
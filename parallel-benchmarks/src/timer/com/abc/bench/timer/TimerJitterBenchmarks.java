@@ -0,0 +1,250 @@
+package com.abc.bench.timer;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+import com.programix.thread.*;
+
+/**
+ * How close to their deadlines N periodic timers fire, for each N in the
+ * {@link TimerOptions}:
+ * <ul>
+ * <li>PeriodicScheduler - the shared timing wheel in parallel-common, one
+ * timer thread, parking and then spinning for the last 100 us</li>
+ * <li>PeriodicScheduler-nospin - the same, but parking all the way</li>
+ * <li>ThreadPerTimer - one thread per timer sleeping until each absolute
+ * deadline, the drift correction of exw3's SleepDrifting and hw3's
+ * CountdownWorker (only up to 1000 timers)</li>
+ * </ul>
+ * The timers' first deadlines are spread over one period. The report shows
+ * the ticks fired against the ticks expected (a shortfall is drift or
+ * skipped work) and the mean, p99 and max lateness per tick.
+ */
+public class TimerJitterBenchmarks {
+    private static final int MAX_THREAD_PER_TIMER_COUNT = 1000;
+
+    private static abstract class TimerFactory {
+        private final String name;
+
+        protected TimerFactory(String name) {
+            this.name = name;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * Runs timerCount timers of nsPeriod for msDuration and returns the
+         * lateness of all of their ticks.
+         */
+        public abstract PeriodicScheduler.JitterStats run(int timerCount,
+                                                          long nsPeriod,
+                                                          long msDuration)
+                throws InterruptedException;
+    } // type TimerFactory
+
+    private static final Runnable NO_WORK = new Runnable() {
+        @Override
+        public void run() {
+        }
+    };
+
+    private static PeriodicScheduler.JitterStats runScheduler(long nsSpinThreshold,
+                                                              int timerCount,
+                                                              long nsPeriod,
+                                                              long msDuration)
+            throws InterruptedException {
+
+        PeriodicScheduler scheduler = new PeriodicScheduler("timer-bench",
+            PeriodicScheduler.DEFAULT_NS_TICK_DURATION,
+            PeriodicScheduler.DEFAULT_WHEEL_SIZE,
+            nsSpinThreshold);
+        try {
+            for ( int i = 0; i < timerCount; i++ ) {
+                scheduler.schedule(NO_WORK,
+                    nsPeriod + nsPeriod * i / timerCount, nsPeriod,
+                    TimeUnit.NANOSECONDS, PeriodicScheduler.MissedTickPolicy.CATCH_UP);
+            }
+            Thread.sleep(msDuration);
+            return scheduler.getJitterStats();
+        } finally {
+            scheduler.shutdown();
+            scheduler.waitUntilTerminated(10000L);
+        }
+    }
+
+    private static final TimerFactory[] FACTORIES = new TimerFactory[] {
+        new TimerFactory("PeriodicScheduler") {
+            @Override
+            public PeriodicScheduler.JitterStats run(int timerCount,
+                                                     long nsPeriod,
+                                                     long msDuration)
+                    throws InterruptedException {
+
+                return runScheduler(PeriodicScheduler.DEFAULT_NS_SPIN_THRESHOLD,
+                    timerCount, nsPeriod, msDuration);
+            }
+        },
+        new TimerFactory("PeriodicScheduler-nospin") {
+            @Override
+            public PeriodicScheduler.JitterStats run(int timerCount,
+                                                     long nsPeriod,
+                                                     long msDuration)
+                    throws InterruptedException {
+
+                return runScheduler(0L, timerCount, nsPeriod, msDuration);
+            }
+        },
+        new TimerFactory("ThreadPerTimer") {
+            @Override
+            public PeriodicScheduler.JitterStats run(int timerCount,
+                                                     final long nsPeriod,
+                                                     long msDuration)
+                    throws InterruptedException {
+
+                final PeriodicScheduler.JitterRecorder recorder =
+                    new PeriodicScheduler.JitterRecorder();
+                final long nsStart = System.nanoTime();
+                Thread[] threads = new Thread[timerCount];
+                for ( int i = 0; i < threads.length; i++ ) {
+                    final long nsFirstDeadline =
+                        nsStart + nsPeriod + nsPeriod * i / timerCount;
+                    threads[i] = new Thread(new Runnable() {
+                        @Override
+                        public void run() {
+                            try {
+                                long nsDeadline = nsFirstDeadline;
+                                while (true) {
+                                    long nsRemaining = nsDeadline - System.nanoTime();
+                                    if (nsRemaining > 0L) {
+                                        TimeUnit.NANOSECONDS.sleep(nsRemaining);
+                                        continue;
+                                    }
+                                    recorder.record(-nsRemaining);
+                                    nsDeadline += nsPeriod;
+                                }
+                            } catch ( InterruptedException x ) {
+                                // stopped
+                            }
+                        }
+                    }, "timer-" + i);
+                    threads[i].setDaemon(true);
+                    threads[i].start();
+                }
+
+                long msStarting = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - nsStart);
+                Thread.sleep(Math.max(0L, msDuration - msStarting));
+                PeriodicScheduler.JitterStats stats = recorder.getStats();
+                for ( Thread thread : threads ) {
+                    thread.interrupt();
+                }
+                for ( Thread thread : threads ) {
+                    thread.join(10000L);
+                }
+                return stats;
+            }
+        }
+    };
+
+    /** The ticks the timers would fire in msDuration if none fell behind. */
+    private static long expectedTickCount(int timerCount, long nsPeriod, long msDuration) {
+        long nsDuration = TimeUnit.MILLISECONDS.toNanos(msDuration);
+        long total = 0L;
+        for ( int i = 0; i < timerCount; i++ ) {
+            long nsFirstDeadline = nsPeriod + nsPeriod * i / timerCount;
+            if (nsFirstDeadline <= nsDuration) {
+                total += (nsDuration - nsFirstDeadline) / nsPeriod + 1L;
+            }
+        }
+        return total;
+    }
+
+    private static String formatUs(double ns) {
+        return String.format(Locale.ROOT, "%,.1f", ns / 1e3);
+    }
+
+    private static void printSummary(List<String> names,
+                                     List<PeriodicScheduler.JitterStats> results,
+                                     List<Long> expectedTickCounts) {
+
+        int nameWidth = "Timers".length();
+        for ( String name : names ) {
+            nameWidth = Math.max(nameWidth, name.length());
+        }
+        String format = "%-" + nameWidth + "s  %12s  %12s  %10s  %10s  %10s%n";
+        System.out.printf(Locale.ROOT, format, "Timers", "Ticks",
+            "Expected", "Mean us", "p99 us", "Max us");
+        for ( int i = 0; i < results.size(); i++ ) {
+            PeriodicScheduler.JitterStats stats = results.get(i);
+            System.out.printf(Locale.ROOT, format,
+                names.get(i),
+                String.format(Locale.ROOT, "%,d", stats.getCount()),
+                String.format(Locale.ROOT, "%,d", expectedTickCounts.get(i)),
+                formatUs(stats.getNsMean()),
+                formatUs(stats.getNsP99()),
+                formatUs(stats.getNsMax()));
+        }
+        System.out.println("(lateness per tick in microseconds, from the deadline to the task;");
+        System.out.println(" fewer ticks than expected means the timers fell behind)");
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        TimerOptions options;
+        try {
+            options = TimerOptions.parse(args);
+        } catch ( IllegalArgumentException x ) {
+            System.err.println(x.getMessage());
+            System.err.println(TimerOptions.getUsage());
+            System.exit(2);
+            return;
+        }
+
+        long nsPeriod = TimeUnit.MILLISECONDS.toNanos(options.getMsPeriod());
+        long msDuration = options.getMsDuration();
+        System.out.printf("# JVM: %s %s, %d CPU(s)%n",
+            System.getProperty("java.vm.name"),
+            System.getProperty("java.version"),
+            Runtime.getRuntime().availableProcessors());
+        System.out.printf(Locale.ROOT, "# Period %,d ms, %,d ms per configuration%n%n",
+            options.getMsPeriod(), msDuration);
+
+        List<String> names = new ArrayList<>();
+        List<PeriodicScheduler.JitterStats> results = new ArrayList<>();
+        List<Long> expectedTickCounts = new ArrayList<>();
+        boolean failed = false;
+        for ( TimerFactory factory : FACTORIES ) {
+            for ( int timerCount : options.getTimerCounts() ) {
+                String name = String.format(Locale.ROOT, "timer.%s timers=%d",
+                    factory.getName(), timerCount);
+                if (!options.isSelected(name)) {
+                    continue;
+                }
+                if (factory.getName().equals("ThreadPerTimer") &&
+                        timerCount > MAX_THREAD_PER_TIMER_COUNT) {
+                    System.out.println("# Skipped: " + name + " (more than " +
+                        MAX_THREAD_PER_TIMER_COUNT + " threads)");
+                    continue;
+                }
+
+                System.out.println("# Timers: " + name);
+                try {
+                    PeriodicScheduler.JitterStats stats =
+                        factory.run(timerCount, nsPeriod, msDuration);
+                    long expected = expectedTickCount(timerCount, nsPeriod, msDuration);
+                    System.out.println("Result: " + stats + "\n");
+                    names.add(name);
+                    results.add(stats);
+                    expectedTickCounts.add(expected);
+                } catch ( RuntimeException x ) {
+                    System.out.println("# FAILED: " + name);
+                    x.printStackTrace(System.out);
+                    failed = true;
+                }
+            }
+        }
+
+        printSummary(names, results, expectedTickCounts);
+        System.exit(failed ? 1 : 0);
+    }
+}
@@ -0,0 +1,126 @@
+package com.abc.bench.timer;
+
+import java.util.regex.*;
+
+/**
+ * The command line options understood by {@link TimerJitterBenchmarks}:
+ * <pre>
+ *   -n 1,100,1000  timer counts (default 1,100,1000)
+ *   -p MS          period of every timer in milliseconds (default 10)
+ *   -d MS          how long each configuration runs (default 3000)
+ *   REGEX          only run configurations whose name contains a match
+ * </pre>
+ * Instances are immutable.
+ */
+public final class TimerOptions {
+    private final int[] timerCounts;
+    private final long msPeriod;
+    private final long msDuration;
+    private final Pattern filter;
+
+    private TimerOptions(int[] timerCounts,
+                         long msPeriod,
+                         long msDuration,
+                         Pattern filter) {
+
+        this.timerCounts = timerCounts;
+        this.msPeriod = msPeriod;
+        this.msDuration = msDuration;
+        this.filter = filter;
+    }
+
+    /**
+     * Parses the command line.
+     * @throws IllegalArgumentException if anything is not understood.
+     */
+    public static TimerOptions parse(String[] args) {
+        int[] timerCounts = new int[] { 1, 100, 1000 };
+        long msPeriod = 10L;
+        long msDuration = 3000L;
+        Pattern filter = null;
+
+        for ( int i = 0; i < args.length; i++ ) {
+            String arg = args[i];
+            if (arg.equals("-n")) {
+                timerCounts = parseIntList(arg, valueOf(args, ++i));
+            } else if (arg.equals("-p")) {
+                msPeriod = parseLong(arg, valueOf(args, ++i), 1);
+            } else if (arg.equals("-d")) {
+                msDuration = parseLong(arg, valueOf(args, ++i), 1);
+            } else if (arg.startsWith("-")) {
+                throw new IllegalArgumentException("unknown option: " + arg);
+            } else if (filter != null) {
+                throw new IllegalArgumentException(
+                    "only one filter is allowed, got: " + arg);
+            } else {
+                try {
+                    filter = Pattern.compile(arg);
+                } catch ( PatternSyntaxException x ) {
+                    throw new IllegalArgumentException(
+                        "bad filter: " + x.getMessage(), x);
+                }
+            }
+        }
+        return new TimerOptions(timerCounts, msPeriod, msDuration, filter);
+    }
+
+    private static String valueOf(String[] args, int index) {
+        if (index >= args.length) {
+            throw new IllegalArgumentException(
+                "missing value after " + args[index - 1]);
+        }
+        return args[index];
+    }
+
+    private static long parseLong(String option, String text, long minValue) {
+        long value;
+        try {
+            value = Long.parseLong(text.trim());
+        } catch ( NumberFormatException x ) {
+            throw new IllegalArgumentException(
+                option + " needs a number, got: " + text);
+        }
+        if (value < minValue) {
+            throw new IllegalArgumentException(
+                option + " must be at least " + minValue + ", got: " + value);
+        }
+        return value;
+    }
+
+    private static int[] parseIntList(String option, String text) {
+        String[] parts = text.split(",");
+        int[] values = new int[parts.length];
+        for ( int i = 0; i < parts.length; i++ ) {
+            long value = parseLong(option, parts[i], 1);
+            if (value > Integer.MAX_VALUE) {
+                throw new IllegalArgumentException(
+                    option + " values must be at most " + Integer.MAX_VALUE +
+                    ", got: " + value);
+            }
+            values[i] = (int) value;
+        }
+        return values;
+    }
+
+    public int[] getTimerCounts() {
+        return timerCounts.clone();
+    }
+
+    public long getMsPeriod() {
+        return msPeriod;
+    }
+
+    /** How long each configuration runs. */
+    public long getMsDuration() {
+        return msDuration;
+    }
+
+    /** True if there is no filter or the filter matches name. */
+    public boolean isSelected(String name) {
+        return filter == null || filter.matcher(name).find();
+    }
+
+    public static String getUsage() {
+        return "options: [-n TIMERS,...] [-p MS] [-d MS] [REGEX]";
+    }
+}
@@ -15,6 +15,7 @@ public class AndDSFilter<T> implements DSFilter<T> {
     private final DSFilter<T>[] filters;
 
     @SafeVarargs
+    @SuppressWarnings("varargs")
     public AndDSFilter(DSFilter<T>... filters) {
         if ( ObjectTools.isAnySlotEmpty(filters) ) {
             throw new IllegalArgumentException("at least one filter must be " +
@@ -30,6 +31,7 @@ public class AndDSFilter<T> implements DSFilter<T> {
      * returned and there's no need to evaluate the remaining filters.
      */
     @SafeVarargs
+    @SuppressWarnings("varargs")
     public static <T> AndDSFilter<T> createWithNotNullScreen(DSFilter<T>... filters) {
         Builder<T> builder = new Builder<T>();
         builder.add(new NotNullDSFilter<T>());
@@ -62,7 +64,7 @@ public class AndDSFilter<T> implements DSFilter<T> {
             return new AndDSFilter<>(listToArray(filterList));
         }
 
-        @SuppressWarnings("unchecked")
+        @SuppressWarnings({ "unchecked", "rawtypes" })
         private DSFilter<T>[] listToArray(List<DSFilter<T>> list) {
             return list.toArray(new DSFilter[0]);
         }
@@ -73,6 +75,7 @@ public class AndDSFilter<T> implements DSFilter<T> {
         }
 
         @SafeVarargs
+        @SuppressWarnings("varargs")
         public final void addAll(DSFilter<T>... filters) {
             if ( ObjectTools.isAnySlotEmpty(filters) ) {
                 throw new IllegalArgumentException(
@@ -12,6 +12,7 @@ public class OrDSFilter<T> implements DSFilter<T> {
     private final DSFilter<T>[] filters;
 
     @SafeVarargs
+    @SuppressWarnings("varargs")
     public OrDSFilter(DSFilter<T>... filters) {
         if ( ObjectTools.isAnySlotEmpty(filters) ) {
             throw new IllegalArgumentException("at least one filter must be " +
@@ -35,7 +35,7 @@ public abstract class AbstractDSKeyValuePair<K, V>
     public int hashCode() {
         synchronized ( this ) {
             if ( cachedHashCode == null ) {
-                cachedHashCode = new Integer(
+                cachedHashCode = Integer.valueOf(
                     getKey() == null ? 0 : getKey().hashCode());
             }
             return cachedHashCode.intValue();
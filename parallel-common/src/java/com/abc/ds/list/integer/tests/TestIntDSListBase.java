@@ -91,7 +91,7 @@ abstract class TestIntDSListBase extends TestDSBase {
         }
         Integer[] wrappedValues = new Integer[values.length];
         for ( int i = 0; i < wrappedValues.length; i++ ) {
-            wrappedValues[i] = new Integer(values[i]);
+            wrappedValues[i] = Integer.valueOf(values[i]);
         }
         return wrappedValues;
     }
@@ -296,7 +296,7 @@ abstract class TestIntDSListBase extends TestDSBase {
         public int[] removeAndReturnMatches(IntDSFilter filter) {
             int[] results = peekMatches(filter);
             for ( int item : results ) {
-               list.remove(new Integer(item));
+               list.remove(Integer.valueOf(item));
             }
             return results;
         }
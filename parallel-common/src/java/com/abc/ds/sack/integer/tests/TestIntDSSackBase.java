@@ -94,7 +94,7 @@ abstract class TestIntDSSackBase extends TestDSBase {
         }
         Integer[] wrappedValues = new Integer[values.length];
         for ( int i = 0; i < wrappedValues.length; i++ ) {
-            wrappedValues[i] = new Integer(values[i]);
+            wrappedValues[i] = Integer.valueOf(values[i]);
         }
         return wrappedValues;
     }
@@ -244,7 +244,7 @@ abstract class TestIntDSSackBase extends TestDSBase {
         public int[] removeAndReturnMatches(IntDSFilter filter) {
             int[] results = peekMatches(filter);
             for ( int item : results ) {
-               list.remove(new Integer(item));
+               list.remove(Integer.valueOf(item));
             }
             return results;
         }
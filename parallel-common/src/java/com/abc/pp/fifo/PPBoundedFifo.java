@@ -1,5 +1,8 @@
 package com.abc.pp.fifo;
 
+import java.util.concurrent.*;
+import java.util.function.*;
+
 public interface PPBoundedFifo<T> {
     /** The type of items stored. */
     Class<T> getItemType();
@@ -63,6 +66,62 @@ public interface PPBoundedFifo<T> {
      */
     T[] removeAll();
 
+    /**
+     * Immediately removes as many items as are available (but no more than
+     * buffer.length) into buffer starting at index 0, without waiting and
+     * without allocating a new array. Any slots in buffer past the returned
+     * count are left untouched.
+     * If currently empty, 0 is returned (non-blocking).
+     * <p>
+     * The default implementation calls {@link #remove()} repeatedly while
+     * holding {@link #getLockObject()}, so it is only correct for
+     * implementations which synchronize on that lock.
+     * @return the number of items removed and stored into buffer.
+     */
+    default int removeInto(T[] buffer) {
+        synchronized ( getLockObject() ) {
+            try {
+                int removeCount = Math.min(getCount(), buffer.length);
+                for ( int i = 0; i < removeCount; i++ ) {
+                    buffer[i] = remove();
+                }
+                return removeCount;
+            } catch ( InterruptedException x ) {
+                throw new RuntimeException("this should 'never' happen", x);
+            }
+        }
+    }
+
+    /**
+     * Immediately removes as many items as are available (but no more than
+     * max) and passes each of them, in order, to sink without waiting and
+     * without allocating.
+     * If currently empty, 0 is returned (non-blocking). If max is 0 or
+     * negative, nothing is removed and 0 is returned.
+     * <p>
+     * Implementations may call sink while holding an internal lock, so sink
+     * should be quick and must not wait on another thread which uses this
+     * fifo. If sink throws, the items already passed to it stay removed.
+     * <p>
+     * The default implementation calls {@link #remove()} repeatedly while
+     * holding {@link #getLockObject()}, so it is only correct for
+     * implementations which synchronize on that lock.
+     * @return the number of items removed and passed to sink.
+     */
+    default int drain(Consumer<? super T> sink, int max) {
+        synchronized ( getLockObject() ) {
+            try {
+                int removeCount = Math.min(getCount(), max);
+                for ( int i = 0; i < removeCount; i++ ) {
+                    sink.accept(remove());
+                }
+                return Math.max(removeCount, 0);
+            } catch ( InterruptedException x ) {
+                throw new RuntimeException("this should 'never' happen", x);
+            }
+        }
+    }
+
     /**
      * Returns a reference to use for synchronized blocks which need to
      * call multiple methods without other threads being able to get in.
@@ -81,6 +140,25 @@ public interface PPBoundedFifo<T> {
      */
     boolean waitUntilEmpty(long msTimeout) throws InterruptedException;
 
+    /**
+     * Same as {@link #waitUntilEmpty(long)}, but with the timeout
+     * in the specified unit.
+     * Implementations should measure the deadline with <tt>System.nanoTime()</tt>
+     * (so it isn't affected by wall-clock adjustments) and the
+     * <tt>msTimeout</tt> version delegates to this one.
+     * A timeout of 0 means the waiting should never time out.
+     * <p>
+     * The default implementation only has whole-ms granularity: it rounds
+     * the timeout UP to the next ms (so it never returns early, 1.9 ms
+     * waits 2 ms) and calls {@link #waitUntilEmpty(long)}. Implementations
+     * which need sub-ms precision must override it.
+     */
+    default boolean waitUntilEmpty(long timeout, TimeUnit unit)
+            throws InterruptedException {
+
+        return waitUntilEmpty(toMillisRoundedUp(timeout, unit));
+    }
+
     /**
      * Waits until the fifo is empty (no timeout).
      * If currently empty, the calling thread returns right away.
@@ -99,6 +177,25 @@ public interface PPBoundedFifo<T> {
      */
     boolean waitWhileEmpty(long msTimeout) throws InterruptedException;
 
+    /**
+     * Same as {@link #waitWhileEmpty(long)}, but with the timeout
+     * in the specified unit.
+     * Implementations should measure the deadline with <tt>System.nanoTime()</tt>
+     * (so it isn't affected by wall-clock adjustments) and the
+     * <tt>msTimeout</tt> version delegates to this one.
+     * A timeout of 0 means the waiting should never time out.
+     * <p>
+     * The default implementation only has whole-ms granularity: it rounds
+     * the timeout UP to the next ms (so it never returns early, 1.9 ms
+     * waits 2 ms) and calls {@link #waitWhileEmpty(long)}. Implementations
+     * which need sub-ms precision must override it.
+     */
+    default boolean waitWhileEmpty(long timeout, TimeUnit unit)
+            throws InterruptedException {
+
+        return waitWhileEmpty(toMillisRoundedUp(timeout, unit));
+    }
+
     /**
      * Waits while the fifo is empty (no timeout).
      * If not currently empty, the calling thread returns right away.
@@ -117,6 +214,25 @@ public interface PPBoundedFifo<T> {
      */
     boolean waitUntilFull(long msTimeout) throws InterruptedException;
 
+    /**
+     * Same as {@link #waitUntilFull(long)}, but with the timeout
+     * in the specified unit.
+     * Implementations should measure the deadline with <tt>System.nanoTime()</tt>
+     * (so it isn't affected by wall-clock adjustments) and the
+     * <tt>msTimeout</tt> version delegates to this one.
+     * A timeout of 0 means the waiting should never time out.
+     * <p>
+     * The default implementation only has whole-ms granularity: it rounds
+     * the timeout UP to the next ms (so it never returns early, 1.9 ms
+     * waits 2 ms) and calls {@link #waitUntilFull(long)}. Implementations
+     * which need sub-ms precision must override it.
+     */
+    default boolean waitUntilFull(long timeout, TimeUnit unit)
+            throws InterruptedException {
+
+        return waitUntilFull(toMillisRoundedUp(timeout, unit));
+    }
+
     /**
      * Waits until the fifo is full (on timeout).
      * If currently full, the calling thread returns right away.
@@ -135,10 +251,46 @@ public interface PPBoundedFifo<T> {
      */
     boolean waitWhileFull(long msTimeout) throws InterruptedException;
 
+    /**
+     * Same as {@link #waitWhileFull(long)}, but with the timeout
+     * in the specified unit.
+     * Implementations should measure the deadline with <tt>System.nanoTime()</tt>
+     * (so it isn't affected by wall-clock adjustments) and the
+     * <tt>msTimeout</tt> version delegates to this one.
+     * A timeout of 0 means the waiting should never time out.
+     * <p>
+     * The default implementation only has whole-ms granularity: it rounds
+     * the timeout UP to the next ms (so it never returns early, 1.9 ms
+     * waits 2 ms) and calls {@link #waitWhileFull(long)}. Implementations
+     * which need sub-ms precision must override it.
+     */
+    default boolean waitWhileFull(long timeout, TimeUnit unit)
+            throws InterruptedException {
+
+        return waitWhileFull(toMillisRoundedUp(timeout, unit));
+    }
+
     /**
      * Waits while the fifo is full (no timeout).
      * If not currently full, the calling thread returns right away.
      * @throws InterruptedException if interrupted while waiting
      */
     void waitWhileFull() throws InterruptedException;
+
+    /**
+     * Converts a TimeUnit timeout for the <tt>msTimeout</tt> methods:
+     * 0 or less is passed on as it is and anything else is rounded UP to a
+     * whole ms (at most Long.MAX_VALUE).
+     */
+    private static long toMillisRoundedUp(long timeout, TimeUnit unit) {
+        if (timeout <= 0) {
+            return timeout;
+        }
+        long msTimeout = unit.toMillis(timeout);
+        if (msTimeout < Long.MAX_VALUE &&
+                unit.convert(msTimeout, TimeUnit.MILLISECONDS) < timeout) {
+            msTimeout++;
+        }
+        return msTimeout;
+    }
 }
@@ -192,7 +192,8 @@ abstract class TestPPBoundedFifoBase extends TestDSBase {
             expectedRemoveList.add(item);
         }
 
-        public void appendExpectedItemsToBeRemoved(@SuppressWarnings("unchecked") T... items) {
+        @SuppressWarnings("unchecked")
+        public void appendExpectedItemsToBeRemoved(T... items) {
             if (items == null || items.length == 0) return;
             for ( T item : items ) {
                 appendExpectedItemToBeRemoved(item);
@@ -310,7 +311,8 @@ abstract class TestPPBoundedFifoBase extends TestDSBase {
             addList.add(item);
         }
 
-        public void appendItemsToBeAdded(@SuppressWarnings("unchecked") T... items) {
+        @SuppressWarnings("unchecked")
+        public void appendItemsToBeAdded(T... items) {
             if (items == null || items.length == 0) return;
             for ( T item : items ) {
                 appendItemToBeAdded(item);
@@ -0,0 +1,157 @@
+package com.abc.pp.fifo.tests;
+
+import java.util.*;
+import java.util.function.*;
+
+import com.abc.pp.fifo.*;
+
+/* deliberate package access */
+class TestPPBoundedFifoDrain extends TestPPBoundedFifoBase {
+    public TestPPBoundedFifoDrain(PPBoundedFifoFactory factory) {
+        super("drain(Consumer, int)", factory);
+    }
+
+    @Override
+    protected void performTests() {
+        testOnEmpty();
+        testMaxZeroOrLess();
+        testMaxBiggerThanCount();
+        testMaxSmallerThanCount();
+        testWrappedAround();
+        testSinkThrowsPartway();
+    }
+
+    private void testOnEmpty() {
+        outln(" - drain() on empty -");
+        PPBoundedFifo<String> fifo = createDS(10);
+        Collector sink = new Collector();
+        outln("drain(sink, 5)", fifo.drain(sink, 5), 0);
+        testHelper.check("items passed to sink", sink.getItems(), new String[0]);
+    }
+
+    private void testMaxZeroOrLess() {
+        outln(" - drain() with max of 0 and less -");
+        PPBoundedFifo<String> fifo = createDS(10);
+        String[] fruits = getFruits(3);
+        add(fifo, fruits);
+
+        Collector sink = new Collector();
+        outln("drain(sink, 0)", fifo.drain(sink, 0), 0);
+        outln("drain(sink, -1)", fifo.drain(sink, -1), 0);
+        outln("drain(sink, Integer.MIN_VALUE)", fifo.drain(sink, Integer.MIN_VALUE), 0);
+        testHelper.check("items passed to sink", sink.getItems(), new String[0]);
+        outln("getCount()", fifo.getCount(), 3);
+        checkRemoveAll(fifo, fruits);
+    }
+
+    private void testMaxBiggerThanCount() {
+        outln(" - drain() on a partly filled fifo, max bigger than count -");
+        PPBoundedFifo<String> fifo = createDS(10);
+        String[] fruits = getFruits(4);
+        add(fifo, fruits);
+
+        Collector sink = new Collector();
+        outln("drain(sink, 8)", fifo.drain(sink, 8), 4);
+        testHelper.check("items passed to sink", sink.getItems(), fruits);
+        outln("isEmpty()", fifo.isEmpty(), true);
+    }
+
+    private void testMaxSmallerThanCount() {
+        outln(" - drain() with max smaller than count -");
+        PPBoundedFifo<String> fifo = createDS(10);
+        String[] fruits = getFruits(6);
+        add(fifo, fruits);
+
+        Collector sink = new Collector();
+        outln("drain(sink, 4)", fifo.drain(sink, 4), 4);
+        testHelper.check("items passed to sink", sink.getItems(), Arrays.copyOf(fruits, 4));
+        outln("getCount()", fifo.getCount(), 2);
+        checkRemoveAll(fifo, Arrays.copyOfRange(fruits, 4, 6));
+    }
+
+    private void testWrappedAround() {
+        outln(" - drain() when the items wrap around the end of the storage -");
+        PPBoundedFifo<String> fifo = createDS(5);
+        add(fifo, "JUNK A", "JUNK B", "JUNK C", "keep D");
+        Collector junkSink = new Collector();
+        outln("drain(junkSink, 3)", fifo.drain(junkSink, 3), 3);
+        testHelper.check("items passed to junkSink", junkSink.getItems(),
+            new String[] { "JUNK A", "JUNK B", "JUNK C" });
+
+        String[] fruits = getFruits(4);
+        add(fifo, fruits);
+        outln("isFull()", fifo.isFull(), true);
+
+        String[] expected = new String[5];
+        expected[0] = "keep D";
+        System.arraycopy(fruits, 0, expected, 1, fruits.length);
+
+        Collector sink = new Collector();
+        outln("drain(sink, 10)", fifo.drain(sink, 10), 5);
+        testHelper.check("items passed to sink", sink.getItems(), expected);
+        outln("isEmpty()", fifo.isEmpty(), true);
+    }
+
+    private void testSinkThrowsPartway() {
+        outln(" - drain() with a sink which throws on the 3rd item -");
+        PPBoundedFifo<String> fifo = createDS(10);
+        String[] fruits = getFruits(5);
+        add(fifo, fruits);
+
+        Collector sink = new Collector(3);
+        try {
+            int count = fifo.drain(sink, 10);
+            outln("drain(sink, 10) returned " + count + ", expected SinkException", false);
+        } catch ( SinkException x ) {
+            outln("drain(sink, 10) passed along the SinkException thrown by sink", true);
+        }
+        testHelper.check("items passed to sink", sink.getItems(), Arrays.copyOf(fruits, 3));
+        outln("item which made the sink throw is not left in the fifo...");
+        outln("getCount()", fifo.getCount(), 2);
+        checkRemoveAll(fifo, Arrays.copyOfRange(fruits, 3, 5));
+
+        outln("fifo still works after that...");
+        add(fifo, "apple", "banana");
+        Collector laterSink = new Collector();
+        outln("drain(laterSink, 10)", fifo.drain(laterSink, 10), 2);
+        testHelper.check("items passed to laterSink", laterSink.getItems(),
+            new String[] { "apple", "banana" });
+    }
+
+    private static class SinkException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        public SinkException(String msg) {
+            super(msg);
+        }
+    } // type SinkException
+
+    /**
+     * Keeps everything it is handed, optionally throwing a SinkException
+     * after keeping the Nth item.
+     */
+    private static class Collector implements Consumer<String> {
+        private final List<String> items = new ArrayList<>();
+        private final int throwOnItemNumber;
+
+        public Collector(int throwOnItemNumber) {
+            this.throwOnItemNumber = throwOnItemNumber;
+        }
+
+        public Collector() {
+            this(0);
+        }
+
+        @Override
+        public void accept(String item) {
+            items.add(item);
+            if (items.size() == throwOnItemNumber) {
+                throw new SinkException("thrown on purpose on item #" + throwOnItemNumber);
+            }
+        }
+
+        public String[] getItems() {
+            return items.toArray(new String[0]);
+        }
+    } // type Collector
+}
@@ -0,0 +1,110 @@
+package com.abc.pp.fifo.tests;
+
+import java.util.*;
+
+import com.abc.pp.fifo.*;
+
+/* deliberate package access */
+class TestPPBoundedFifoRemoveInto extends TestPPBoundedFifoBase {
+    private static final String UNTOUCHED = "UNTOUCHED";
+
+    public TestPPBoundedFifoRemoveInto(PPBoundedFifoFactory factory) {
+        super("removeInto(T[])", factory);
+    }
+
+    @Override
+    protected void performTests() {
+        testOnEmpty();
+        testZeroLengthBuffer();
+        testBufferBiggerThanCount();
+        testBufferSmallerThanCount();
+        testWrappedAround();
+    }
+
+    private void testOnEmpty() {
+        outln(" - removeInto() on empty -");
+        PPBoundedFifo<String> fifo = createDS(10);
+        String[] buffer = createBuffer(5);
+        outln("removeInto(buffer[5])", fifo.removeInto(buffer), 0);
+        testHelper.check("buffer (untouched)", buffer, createBuffer(5));
+        outln("isEmpty()", fifo.isEmpty(), true);
+    }
+
+    private void testZeroLengthBuffer() {
+        outln(" - removeInto() with a zero-length buffer -");
+        PPBoundedFifo<String> fifo = createDS(10);
+        add(fifo, getFruits(2));
+        outln("removeInto(buffer[0])", fifo.removeInto(new String[0]), 0);
+        outln("getCount()", fifo.getCount(), 2);
+        checkRemoveAll(fifo, getFruits(2));
+    }
+
+    private void testBufferBiggerThanCount() {
+        outln(" - removeInto() on a partly filled fifo, buffer bigger than count -");
+        PPBoundedFifo<String> fifo = createDS(10);
+        String[] fruits = getFruits(3);
+        add(fifo, fruits);
+        String[] buffer = createBuffer(5);
+        outln("removeInto(buffer[5])", fifo.removeInto(buffer), 3);
+        testHelper.check("buffer[0..2]", Arrays.copyOf(buffer, 3), fruits);
+        testHelper.check("buffer[3..4] (untouched)",
+            Arrays.copyOfRange(buffer, 3, 5), createBuffer(2));
+        outln("isEmpty()", fifo.isEmpty(), true);
+    }
+
+    private void testBufferSmallerThanCount() {
+        outln(" - removeInto() with a buffer smaller than count -");
+        PPBoundedFifo<String> fifo = createDS(10);
+        String[] fruits = getFruits(6);
+        add(fifo, fruits);
+        String[] buffer = createBuffer(4);
+        outln("removeInto(buffer[4])", fifo.removeInto(buffer), 4);
+        testHelper.check("buffer", buffer, Arrays.copyOf(fruits, 4));
+        outln("getCount()", fifo.getCount(), 2);
+        checkRemoveAll(fifo, Arrays.copyOfRange(fruits, 4, 6));
+    }
+
+    private void testWrappedAround() {
+        outln(" - removeInto() when the items wrap around the end of the storage -");
+        PPBoundedFifo<String> fifo = createDS(5);
+        String[] expected = fillWrappedAround(fifo);
+        String[] buffer = createBuffer(8);
+        outln("removeInto(buffer[8])", fifo.removeInto(buffer), expected.length);
+        testHelper.check("buffer[0.." + (expected.length - 1) + "]",
+            Arrays.copyOf(buffer, expected.length), expected);
+        outln("isEmpty()", fifo.isEmpty(), true);
+
+        outln("fifo still works after that...");
+        add(fifo, "apple");
+        checkRemoveAll(fifo, "apple");
+    }
+
+    /**
+     * Leaves fifo (capacity 5) full, with its items running past the end of
+     * the storage and on from the start.
+     */
+    private String[] fillWrappedAround(PPBoundedFifo<String> fifo) {
+        add(fifo, "JUNK A", "JUNK B", "JUNK C", "keep D");
+        try {
+            for ( int i = 0; i < 3; i++ ) {
+                outln("remove() -> " + fifo.remove());
+            }
+        } catch ( InterruptedException x ) {
+            failureExceptionWithStackTrace(x);
+        }
+        String[] fruits = getFruits(4);
+        add(fifo, fruits);
+        outln("isFull()", fifo.isFull(), true);
+
+        String[] expected = new String[5];
+        expected[0] = "keep D";
+        System.arraycopy(fruits, 0, expected, 1, fruits.length);
+        return expected;
+    }
+
+    private static String[] createBuffer(int length) {
+        String[] buffer = new String[length];
+        Arrays.fill(buffer, UNTOUCHED);
+        return buffer;
+    }
+}
@@ -0,0 +1,119 @@
+package com.abc.pp.fifo.tests;
+
+import java.util.concurrent.*;
+
+import com.abc.pp.fifo.*;
+import com.programix.testing.*;
+
+/* deliberate package access */
+class TestPPBoundedFifoTimedWaitTimeUnit extends TestPPBoundedFifoBase {
+    public TestPPBoundedFifoTimedWaitTimeUnit(PPBoundedFifoFactory factory,
+                                              TestThreadFactory threadFactory) {
+        super("timed waits with a TimeUnit", factory, threadFactory);
+    }
+
+    @Override
+    protected void performTests() {
+        try {
+            testTimesOut(50_000, TimeUnit.MICROSECONDS);
+            testTimesOut(1_500, TimeUnit.MICROSECONDS);
+            testTimesOut(3_000_000, TimeUnit.NANOSECONDS);
+            testAlreadyMet();
+            testMetWhileWaiting();
+        } catch ( InterruptedException x ) {
+            // this should not happen, but it's a failure if it does
+            failureExceptionWithStackTrace(x);
+        }
+    }
+
+    private void testTimesOut(long timeout, TimeUnit unit) throws InterruptedException {
+        outln(" - each wait times out after " + timeout + " " + unit + " -");
+        final PPBoundedFifo<String> fifo = createDS(3);
+
+        checkTimesOut("waitWhileEmpty", new TimedWait() {
+            @Override
+            public boolean callWait(long timeout, TimeUnit unit) throws InterruptedException {
+                return fifo.waitWhileEmpty(timeout, unit);
+            }
+        }, timeout, unit);
+
+        checkTimesOut("waitUntilFull", new TimedWait() {
+            @Override
+            public boolean callWait(long timeout, TimeUnit unit) throws InterruptedException {
+                return fifo.waitUntilFull(timeout, unit);
+            }
+        }, timeout, unit);
+
+        add(fifo, getFruits(1));
+        checkTimesOut("waitUntilEmpty", new TimedWait() {
+            @Override
+            public boolean callWait(long timeout, TimeUnit unit) throws InterruptedException {
+                return fifo.waitUntilEmpty(timeout, unit);
+            }
+        }, timeout, unit);
+
+        add(fifo, getFruits(1, 2));
+        checkTimesOut("waitWhileFull", new TimedWait() {
+            @Override
+            public boolean callWait(long timeout, TimeUnit unit) throws InterruptedException {
+                return fifo.waitWhileFull(timeout, unit);
+            }
+        }, timeout, unit);
+    }
+
+    private void checkTimesOut(String methodName,
+                               TimedWait timedWait,
+                               long timeout,
+                               TimeUnit unit) throws InterruptedException {
+
+        String call = methodName + "(" + timeout + ", " + unit + ")";
+        long nsTimeout = unit.toNanos(timeout);
+        long nsStart = System.nanoTime();
+        boolean result = timedWait.callWait(timeout, unit);
+        long nsElapsed = System.nanoTime() - nsStart;
+
+        outln(call, result, false);
+        if (nsElapsed >= nsTimeout) {
+            outln(String.format("%s returned after %.3f ms, not before its timeout",
+                call, nsElapsed / 1e6), true);
+        } else {
+            outln(String.format("%s returned after only %.3f ms, before its timeout of %.3f ms",
+                call, nsElapsed / 1e6, nsTimeout / 1e6), false);
+        }
+    }
+
+    private void testAlreadyMet() throws InterruptedException {
+        outln(" - each wait returns true right away when already met -");
+        PPBoundedFifo<String> fifo = createDS(3);
+        outln("waitUntilEmpty(1, SECONDS)", fifo.waitUntilEmpty(1, TimeUnit.SECONDS), true);
+        outln("waitWhileFull(1, SECONDS)", fifo.waitWhileFull(1, TimeUnit.SECONDS), true);
+
+        add(fifo, getFruits(3));
+        outln("waitWhileEmpty(1, SECONDS)", fifo.waitWhileEmpty(1, TimeUnit.SECONDS), true);
+        outln("waitUntilFull(1, SECONDS)", fifo.waitUntilFull(1, TimeUnit.SECONDS), true);
+
+        outln("a timeout of 0 means don't wait at all when already met...");
+        outln("waitUntilFull(0, NANOSECONDS)", fifo.waitUntilFull(0, TimeUnit.NANOSECONDS), true);
+    }
+
+    private void testMetWhileWaiting() throws InterruptedException {
+        outln(" - waitWhileEmpty(30, SECONDS) returns true once another thread adds -");
+        PPBoundedFifo<String> fifo = createDS(3);
+        Adder<String> adder = new Adder<>(fifo, 200, 0);
+        try {
+            adder.appendItemsToBeAdded(getFruits(1));
+            long nsStart = System.nanoTime();
+            boolean result = fifo.waitWhileEmpty(30, TimeUnit.SECONDS);
+            long msElapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - nsStart);
+            outln("waitWhileEmpty(30, SECONDS)", result, true);
+            outln("returned well before its timeout (" + msElapsed + " ms)", msElapsed < 10_000);
+        } finally {
+            adder.stopRequest();
+            adder.waitUntilDone(2000);
+        }
+    }
+
+    private static interface TimedWait {
+        boolean callWait(long timeout, TimeUnit unit) throws InterruptedException;
+    } // type TimedWait
+}
@@ -22,12 +22,15 @@ public class TestSuitePPBoundedFifo {
             new TestPPBoundedFifoRemove(dsFactory),
             new TestPPBoundedFifoRemoveAtLeastOne(dsFactory),
             new TestPPBoundedFifoRemoveAll(dsFactory),
+            new TestPPBoundedFifoRemoveInto(dsFactory),
+            new TestPPBoundedFifoDrain(dsFactory),
             new TestPPBoundedFifoAddAndRemoveMoreThanCapacity(dsFactory, threadFactory),
             new TestPPBoundedFifoAddAllUpToCapacity(dsFactory),
             new TestPPBoundedFifoWaitWhileFull(dsFactory, threadFactory),
             new TestPPBoundedFifoWaitWhileEmpty(dsFactory, threadFactory),
             new TestPPBoundedFifoWaitUntilFull(dsFactory, threadFactory),
             new TestPPBoundedFifoWaitUntilEmpty(dsFactory, threadFactory),
+            new TestPPBoundedFifoTimedWaitTimeUnit(dsFactory, threadFactory),
             new TestPPBoundedFifoRemoveWhenInitiallyEmpty(dsFactory, threadFactory),
             new TestPPBoundedFifoAddWhenInitiallyFull(dsFactory, threadFactory),
         };
@@ -2,6 +2,8 @@ package com.programix.testing;
 
 import java.util.*;
 
+import com.programix.thread.*;
+
 /** deliberate package scope */
 class BasicTestThreadFactory implements TestThreadFactory {
     private static final WorkWrapper[] WORK_WRAPPER_ZERO_LEN_ARRAY = new WorkWrapper[0];
@@ -28,10 +30,18 @@ class BasicTestThreadFactory implements TestThreadFactory {
     }
 
     @Override
-    public void forciblyStopAllLiveThreads() {
-        for (WorkWrapper ww : workWrapperStore.getAllWork()) {
-            ww.forceStop();
+    public boolean waitUntilAllLiveThreadsDone(long msTimeout) {
+        return workWrapperStore.waitUntilEmpty(msTimeout);
+    }
+
+    @Override
+    public String[] getLiveThreadNames() {
+        WorkWrapper[] allWork = workWrapperStore.getAllWork();
+        String[] names = new String[allWork.length];
+        for (int i = 0; i < names.length; i++) {
+            names[i] = allWork[i].getActualThreadName();
         }
+        return names;
     }
 
     private synchronized String generateUniqueThreadName(String suggestedThreadName) {
@@ -50,12 +60,10 @@ class BasicTestThreadFactory implements TestThreadFactory {
         private final Runnable rawWork;
         private final Thread internalThread;
         private volatile boolean interruptRequested;
-        private volatile boolean forceStopRequested;
 
         public WorkWrapper(Runnable rawWork, String suggestedThreadName) {
             this.rawWork = rawWork;
             interruptRequested = false;
-            forceStopRequested = false;
 
             workWrapperStore.addWork(this);
             internalThread = new Thread(
@@ -66,6 +74,8 @@ class BasicTestThreadFactory implements TestThreadFactory {
                     }
                 },
                 generateUniqueThreadName(suggestedThreadName));
+            // never forcibly stopped, so don't let one keep the VM alive
+            internalThread.setDaemon(true);
             internalThread.start();
         }
 
@@ -85,12 +95,6 @@ class BasicTestThreadFactory implements TestThreadFactory {
             interruptRequested = true;
             internalThread.interrupt();
         }
-
-        @SuppressWarnings("deprecation")
-        public void forceStop() {
-            forceStopRequested = true;
-            internalThread.stop();
-        }
     } // type WorkWrapper
 
     private static class WorkWrapperStore {
@@ -105,7 +109,31 @@ class BasicTestThreadFactory implements TestThreadFactory {
         }
 
         public synchronized boolean removeWork(WorkWrapper ww) {
-            return liveWorkSet.remove(ww);
+            boolean removed = liveWorkSet.remove(ww);
+            if (liveWorkSet.isEmpty()) {
+                notifyAll();
+            }
+            return removed;
+        }
+
+        public synchronized boolean waitUntilEmpty(long msTimeout) {
+            long msEndTime = System.currentTimeMillis() + msTimeout;
+            try {
+                while (!liveWorkSet.isEmpty()) {
+                    if (msTimeout == ThreadTools.NO_TIMEOUT) {
+                        wait();
+                    } else {
+                        long msRemaining = msEndTime - System.currentTimeMillis();
+                        if (msRemaining <= 0L) {
+                            return ThreadTools.TIMED_OUT;
+                        }
+                        wait(msRemaining);
+                    }
+                }
+                return true;
+            } catch ( InterruptedException x ) {
+                throw new InterruptException(x);
+            }
         }
 
         public synchronized WorkWrapper[] getAllWork() {
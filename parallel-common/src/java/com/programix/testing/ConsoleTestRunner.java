@@ -0,0 +1,280 @@
+package com.programix.testing;
+
+import java.io.*;
+import java.util.*;
+
+import com.programix.thread.*;
+import com.programix.time.*;
+
+/**
+ * Runs the same {@link TestChunk}s as {@link ParallelTestingPane}, but
+ * without Swing (for build machines): the chunks are run by a
+ * {@link TestScheduler}, the results are streamed to the console, a
+ * summary with each chunk's elapsed time is printed at the end, and the
+ * exit code is 0 only if every chunk succeeded.
+ * <p>
+ * {@link ParallelTestingPane#createFramedInstance} runs this instead of the
+ * window when AWT is headless (<tt>-Djava.awt.headless=true</tt>), so the
+ * existing test mains work unchanged. It is configured with system
+ * properties:
+ * <pre>
+ *   testing.threads=N     chunks run at the same time (default CPU count)
+ *   testing.timeout=MS    per-chunk timeout, 0 for none (default 60000)
+ *   testing.history=FILE  durations of earlier runs, to start the longest
+ *                         chunks first; updated at the end
+ *   testing.shard=I/N     only run every Nth chunk starting at I (0-based),
+ *                         to split one suite across N JVMs
+ *   testing.json=FILE     also write the report as JSON ("-" for stdout,
+ *                         which then only gets the JSON)
+ *   testing.verbose=true  stream every line, not just failures and results
+ * </pre>
+ */
+public class ConsoleTestRunner {
+    public static final int EXIT_SUCCEEDED = 0;
+    public static final int EXIT_FAILED = 1;
+    public static final int EXIT_USAGE = 2;
+
+    private final int threadCount;
+    private final long msTestTimeout;
+    private final File historyFile;
+    private final int shardIndex;
+    private final int shardCount;
+    private final String jsonTarget;
+    private final boolean verbose;
+    private final PrintStream out;
+
+    /**
+     * Reads the configuration from the system properties.
+     * @throws IllegalArgumentException if a property can't be understood.
+     */
+    public ConsoleTestRunner() {
+        threadCount = (int) parseLong("testing.threads",
+            Runtime.getRuntime().availableProcessors(), 1);
+        msTestTimeout = parseLong("testing.timeout",
+            TestScheduler.DEFAULT_MS_TEST_TIMEOUT, 0);
+
+        String historyPath = System.getProperty("testing.history");
+        historyFile = historyPath != null ? new File(historyPath) : null;
+
+        String shard = System.getProperty("testing.shard", "0/1").trim();
+        int slashIndex = shard.indexOf('/');
+        try {
+            shardIndex = Integer.parseInt(shard.substring(0, Math.max(0, slashIndex)));
+            shardCount = Integer.parseInt(shard.substring(slashIndex + 1));
+        } catch ( NumberFormatException x ) {
+            throw new IllegalArgumentException(
+                "testing.shard must look like I/N, not " + shard);
+        }
+        if ( shardCount < 1 || shardIndex < 0 || shardIndex >= shardCount ) {
+            throw new IllegalArgumentException("testing.shard must have " +
+                "0 <= I < N, not " + shard);
+        }
+
+        jsonTarget = System.getProperty("testing.json");
+        verbose = Boolean.getBoolean("testing.verbose");
+
+        // with JSON on stdout, everything else goes to stderr
+        out = "-".equals(jsonTarget) ? System.err : System.out;
+    }
+
+    private static long parseLong(String name, long defaultValue, long minValue) {
+        String text = System.getProperty(name);
+        if ( text == null ) {
+            return defaultValue;
+        }
+        long value;
+        try {
+            value = Long.parseLong(text.trim());
+        } catch ( NumberFormatException x ) {
+            throw new IllegalArgumentException(
+                name + " needs a number, not " + text);
+        }
+        if ( value < minValue || value > Integer.MAX_VALUE ) {
+            throw new IllegalArgumentException(name + " must be from " +
+                minValue + " to " + Integer.MAX_VALUE + ", not " + value);
+        }
+        return value;
+    }
+
+    /**
+     * Runs the chunks of control (or this JVM's shard of them) and reports
+     * on them; returns the exit code.
+     */
+    public int runTests(ParallelTestingPane.Control control)
+            throws InterruptException {
+
+        TestThreadFactory threadFactory = new BasicTestThreadFactory();
+        TestChunk[] allChunks = control.createNewTestChunks(threadFactory);
+
+        List<TestChunk> chunkList = new ArrayList<>();
+        for ( int i = shardIndex; i < allChunks.length; i += shardCount ) {
+            chunkList.add(allChunks[i]);
+        }
+        TestChunk[] chunks = chunkList.toArray(new TestChunk[0]);
+
+        TestDurationHistory history = loadHistory();
+
+        int nameWidth = 1;
+        for ( TestChunk chunk : chunks ) {
+            nameWidth = Math.max(nameWidth, chunk.getDisplayName().length());
+        }
+        for ( TestChunk chunk : chunks ) {
+            chunk.addListener(new ChunkListener(chunk.getDisplayName(), nameWidth));
+        }
+
+        TestScheduler scheduler = new TestScheduler(
+            chunks, threadCount, msTestTimeout, history);
+        println(String.format("%s: %d of %d test(s) (shard %d/%d), " +
+            "%d at a time, timeout %,d ms",
+            control.getTitle(), chunks.length, allChunks.length,
+            shardIndex, shardCount, scheduler.getPoolSize(), msTestTimeout));
+
+        TestScheduler.Report report = scheduler.run();
+
+        threadFactory.interruptAllLiveThreads();
+        if ( !threadFactory.waitUntilAllLiveThreadsDone(1000) ) {
+            for ( String name : threadFactory.getLiveThreadNames() ) {
+                println("abandoning thread '" + name +
+                    "' which did not respond to interrupts");
+            }
+        }
+
+        printSummary(report, nameWidth);
+        saveHistory(history);
+        writeJson(report);
+
+        return report.isAllSucceeded() ? EXIT_SUCCEEDED : EXIT_FAILED;
+    }
+
+    /** Runs the tests of control, then exits with the result. */
+    public static void runTestsAndExit(ParallelTestingPane.Control control) {
+        ConsoleTestRunner runner;
+        try {
+            runner = new ConsoleTestRunner();
+        } catch ( IllegalArgumentException x ) {
+            System.err.println(x.getMessage());
+            System.exit(EXIT_USAGE);
+            return;
+        }
+
+        int exitCode;
+        try {
+            exitCode = runner.runTests(control);
+        } catch ( RuntimeException x ) {
+            x.printStackTrace();
+            exitCode = EXIT_FAILED;
+        }
+        System.out.flush();
+        System.exit(exitCode);
+    }
+
+    private TestDurationHistory loadHistory() {
+        if ( historyFile == null ) {
+            return null;
+        }
+        try {
+            return TestDurationHistory.load(historyFile);
+        } catch ( IOException x ) {
+            println("could not read " + historyFile + ", ignoring it: " + x);
+            return new TestDurationHistory();
+        }
+    }
+
+    private void saveHistory(TestDurationHistory history) {
+        if ( history == null ) {
+            return;
+        }
+        try {
+            history.save(historyFile);
+        } catch ( IOException x ) {
+            println("could not write " + historyFile + ": " + x);
+        }
+    }
+
+    private void writeJson(TestScheduler.Report report) {
+        if ( jsonTarget == null ) {
+            return;
+        }
+        try {
+            if ( "-".equals(jsonTarget) ) {
+                Writer writer = new OutputStreamWriter(System.out, "UTF-8");
+                report.writeJson(writer);
+            } else {
+                try ( Writer writer = new OutputStreamWriter(
+                        new FileOutputStream(jsonTarget), "UTF-8") ) {
+                    report.writeJson(writer);
+                }
+            }
+        } catch ( IOException x ) {
+            println("could not write the JSON report to " + jsonTarget + ": " + x);
+        }
+    }
+
+    private void printSummary(TestScheduler.Report report, int nameWidth) {
+        String format = "%-10s %-" + nameWidth + "s  %12s  %,8d passed  %,6d failed%s";
+        DateTime zero = new DateTime(0L);
+        ElapsedTimeFormatter formatter = new ElapsedTimeFormatter(zero);
+
+        println("");
+        for ( TestScheduler.Result result : report.getResults() ) {
+            println(String.format(format,
+                result.getFinalState().name(),
+                result.getDisplayName(),
+                formatter.formatElapsedTime(new DateTime(result.getMsElapsed())),
+                result.getPassCount(),
+                result.getFailCount(),
+                result.isTimedOut() ? "  (timed out)" : ""));
+        }
+        println(String.format("%s: %,d passed, %,d failed in %s (%s of test time)",
+            report.isAllSucceeded() ? "SUCCEEDED" : "FAILED",
+            report.getPassCount(),
+            report.getFailCount(),
+            formatter.formatElapsedTime(new DateTime(report.getMsWallElapsed())),
+            formatter.formatElapsedTime(new DateTime(report.getMsTotalElapsed()))));
+    }
+
+    private void println(String line) {
+        synchronized ( out ) {
+            out.println(line);
+        }
+    }
+
+    /**
+     * Streams one chunk's output, each line prefixed with the chunk's name
+     * (the chunks run at the same time), and a result line with its elapsed
+     * time when it's done. Unless verbose, the passing lines are skipped.
+     */
+    private class ChunkListener extends TestChunk.StandardBaseListener {
+        private final String namePrefix;
+        private ElapsedTimeFormatter chunkTimeFormatter;
+
+        public ChunkListener(String displayName, int nameWidth) {
+            namePrefix = String.format("%-" + nameWidth + "s|", displayName);
+        }
+
+        @Override
+        protected synchronized void println(boolean isError, String line) {
+            if ( isError || verbose ) {
+                ConsoleTestRunner.this.println(namePrefix + line);
+            }
+        }
+
+        @Override
+        public synchronized void testStateChanged(TestChunk.ListenerEventMeta meta,
+                                                  TestState oldState,
+                                                  TestState newState) {
+
+            super.testStateChanged(meta, oldState, newState);
+
+            if ( newState == TestState.RUNNING ) {
+                chunkTimeFormatter = new ElapsedTimeFormatter(meta.getWhenItOccurred());
+            } else if ( newState.isComplete() ) {
+                String elapsed = chunkTimeFormatter != null ?
+                    chunkTimeFormatter.formatElapsedTime(meta.getWhenItOccurred()) :
+                    "-";
+                ConsoleTestRunner.this.println(String.format("%s%-10s %s %s",
+                    namePrefix, newState.name(), elapsed, passFailCountsMessage()));
+            }
+        }
+    } // type ChunkListener
+}
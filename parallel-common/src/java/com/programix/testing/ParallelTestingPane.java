@@ -159,7 +159,17 @@ public class ParallelTestingPane {
         }
     }
 
+    /**
+     * Shows the tests of control in a new window; if there is no display
+     * (AWT is headless) runs them with a {@link ConsoleTestRunner} and
+     * exits instead.
+     */
     public static void createFramedInstance(final Control control) {
+        if ( GraphicsEnvironment.isHeadless() ) {
+            ConsoleTestRunner.runTestsAndExit(control);
+            return;
+        }
+
         if ( SwingUtilities.isEventDispatchThread() == false ) {
             SwingUtilities.invokeLater(new Runnable() {
                 @Override
@@ -227,13 +237,17 @@ public class ParallelTestingPane {
         private void runWork() {
             try {
                 threadFactory.interruptAllLiveThreads();
-                Thread.sleep(1000);
+                if ( threadFactory.waitUntilAllLiveThreadsDone(1000) ) return;
                 threadFactory.interruptAllLiveThreads();
-                Thread.sleep(1000);
-            } catch ( InterruptedException x ) {
+                if ( threadFactory.waitUntilAllLiveThreadsDone(1000) ) return;
+
+                // they're daemon threads, left to finish on their own
+                for ( String name : threadFactory.getLiveThreadNames() ) {
+                    System.err.println("abandoning thread '" + name +
+                        "' which did not respond to interrupts");
+                }
+            } catch ( InterruptException x ) {
                 // ignore
-            } finally {
-                threadFactory.forciblyStopAllLiveThreads();
             }
         }
     } // type ThreadFactoryShutdownHelper
@@ -375,10 +389,12 @@ public class ParallelTestingPane {
     }
 
     private static class TestChunkTableModel extends AbstractTableModel {
+        private static final long serialVersionUID = 1L;
+
         private final TableModelColumn<TestChunkModel, ?>[] columns;
         private TestChunkModel[] testChunkModels = TestChunkModel.ZERO_LEN_ARRAY;
 
-        @SuppressWarnings("unchecked")
+        @SuppressWarnings({ "unchecked", "rawtypes" })
         public TestChunkTableModel(boolean showPoints) {
             List<TableModelColumn<TestChunkModel, ?>> colList = new ArrayList<>();
             colList.add(
@@ -547,9 +563,12 @@ public class ParallelTestingPane {
         public static abstract class CellRenderer<C>
                 extends DefaultTableCellRenderer.UIResource {
 
+            private static final long serialVersionUID = 1L;
         }
 
         private static class StateCellRenderer extends CellRenderer<TestState> {
+            private static final long serialVersionUID = 1L;
+
             @Override
             protected void setValue(Object value) {
                 TestState state = (TestState) (value != null ? value : TestState.NEVER_STARTED);
@@ -610,9 +629,14 @@ public class ParallelTestingPane {
 
                 @Override
                 public void incrementPassedCount(ListenerEventMeta meta) {
+                    addPassedCount(meta, 1);
+                }
+
+                @Override
+                public void addPassedCount(ListenerEventMeta meta, int count) {
                     synchronized ( totalCount.getLockObject() ) {
-                        passCount.increment();
-                        totalCount.increment();
+                        passCount.setCount(passCount.getCount() + count);
+                        totalCount.setCount(totalCount.getCount() + count);
                         passCountExceedsExpectedPassCount =
                             passCount.getCount() > testChunk.getScoringInfo().getExpectedPassCount();
                         listenerManager.notifyListeners(notifyAction);
@@ -621,9 +645,14 @@ public class ParallelTestingPane {
 
                 @Override
                 public void incrementFailedCount(ListenerEventMeta meta) {
+                    addFailedCount(meta, 1);
+                }
+
+                @Override
+                public void addFailedCount(ListenerEventMeta meta, int count) {
                     synchronized ( totalCount.getLockObject() ) {
-                        failCount.increment();
-                        totalCount.increment();
+                        failCount.setCount(failCount.getCount() + count);
+                        totalCount.setCount(totalCount.getCount() + count);
                         listenerManager.notifyListeners(notifyAction);
                     }
                 }
@@ -91,7 +91,7 @@ public class StandardTestChunk implements TestChunk {
         private final StandardTestChunk owner;
         private final DisconnectableListener runTestsOutputDisconnectableListener;
         private final DisconnectableListener broadcastInputDisconnectableListener;
-        private final BufferedListener bufferedListener;
+        private final BatchingListener bufferedListener;
 
         private final BooleanState everStarted;
         private final BooleanState stillRunning;
@@ -105,7 +105,7 @@ public class StandardTestChunk implements TestChunk {
             this.owner = owner;
 
             broadcastInputDisconnectableListener = new DisconnectableListener(owner.broadcastListener);
-            bufferedListener = new BufferedListener(100, broadcastInputDisconnectableListener.getDisconnectableListener());
+            bufferedListener = new BatchingListener(1024, broadcastInputDisconnectableListener.getDisconnectableListener());
             runTestsOutputDisconnectableListener = new DisconnectableListener(bufferedListener.getBufferFillingListener());
 
             everStarted = new BooleanState(false);
@@ -141,11 +141,14 @@ public class StandardTestChunk implements TestChunk {
                 r,
                 "main-" + owner.getDisplayName());
 
+            // threads are never forcibly stopped; any the test creates
+            // inherit this, so one which ignores interrupts can be
+            // abandoned without keeping the VM alive
+            testMainThread.setDaemon(true);
             testMainThread.start();
             return true;
         }
 
-        @SuppressWarnings("deprecation")
         public synchronized void cancelIfRunning() {
             if ( everStarted.isTrue() &&
                  stillRunning.isTrue() &&
@@ -162,7 +165,7 @@ public class StandardTestChunk implements TestChunk {
 
                 owner.stateMonitor.transitionToIfPermitted(TestState.CANCELLED);
 
-                interruptAndStopAllButMainThread();
+                interruptAllButMainThread();
 
                 try {
 //ThreadTools.outln("inside cancelIfRunning(), trying to join testMainThread for 2 seconds");
@@ -180,7 +183,7 @@ public class StandardTestChunk implements TestChunk {
                 }
 
                 if ( testMainThread.isAlive() ) {
-                    testMainThread.stop();
+                    reportAbandoned(new Thread[] { testMainThread });
                 }
             }
         }
@@ -226,7 +229,7 @@ public class StandardTestChunk implements TestChunk {
                 // wait a short while, but proceed anyway if still not shutdown
                 bufferedListener.waitUntilShutdown(500L);
 
-                interruptAndStopAllButMainThread();
+                interruptAllButMainThread();
                 activeThreadGroup = null;
                 stillRunning.setState(false);
             }
@@ -253,8 +256,7 @@ public class StandardTestChunk implements TestChunk {
             return list.toArray(new Thread[0]);
         }
 
-        @SuppressWarnings("deprecation")
-        private void interruptAndStopAllButMainThread() {
+        private void interruptAllButMainThread() {
             for ( int i = 0; i < 5; i++ ) {
                 if ( i > 0 ) ThreadTools.nap(200); // pause to give a chance
 
@@ -268,10 +270,19 @@ public class StandardTestChunk implements TestChunk {
 
             Thread[] otherThreads = findAllThreadsInTreeExceptMain();
             if ( otherThreads.length > 0 ) {
-                for ( Thread thread : otherThreads ) {
-                    thread.stop();
-                }
-                ThreadTools.nap(200); // pause to give a chance
+                reportAbandoned(otherThreads);
+            }
+        }
+
+        /**
+         * The threads ignored every interrupt; they are daemon threads, so
+         * they are left to finish (or not) on their own.
+         */
+        private void reportAbandoned(Thread[] threads) {
+            for ( Thread thread : threads ) {
+                System.err.println("test '" + owner.getDisplayName() +
+                    "': abandoning thread '" + thread.getName() +
+                    "' which did not respond to interrupts");
             }
         }
     } // type ThreadManager
@@ -372,47 +383,59 @@ public class StandardTestChunk implements TestChunk {
         } // type BroadcastProxyHandler
     } // type BroadcastManager
 
-    private static class BufferedListener {
+    /**
+     * Sits between the test's threads and the broadcast listener. The test
+     * threads' calls are encoded as small {@link Event} records in a bounded
+     * ring (a test thread waits while the ring is full) and one internal
+     * thread drains the ring a whole batch at a time and replays the events,
+     * in order, to the draining listener - so slow listeners (the Swing
+     * pane) never hold up the tests, and no reflection is involved.
+     * <p>
+     * Counter increments are coalesced: a passed (or failed) increment
+     * which arrives while the previous event still in the ring is of the
+     * same kind is added to that event's count, so a burst of 1000
+     * increments reaches the listeners as one
+     * {@link TestChunk.Listener#addPassedCount} with a count of 1000 (and
+     * the meta of the first one).
+     */
+    private static class BatchingListener {
         private final TestChunk.Listener bufferDrainingListener;
         private final TestChunk.Listener bufferFillingListener;
-        private final BufferedProxyHandler proxyHandler;
 
         private final Waiter waiter;
         private final Object lockObject;
         private final StateMonitor<BufferState> bufferState;
-        private final Waiter.Condition runningAndEmptyCondition;
-        private final BoundedFIFO<MethodArgEntry> fifo;
+
+        // the ring: count events starting at index head, guarded by lockObject
+        private final Event[] ring;
+        private int head;
+        private int count;
 
         private volatile Thread internalThread;
 
-        public BufferedListener(int capacity,
+        public BatchingListener(int capacity,
                                 TestChunk.Listener bufferDrainingListener) {
 
             ObjectTools.paramNullCheck(
                 bufferDrainingListener, "bufferDrainingListener");
+            if ( capacity < 1 ) {
+                throw new IllegalArgumentException(
+                    "capacity must be at least 1, not " + capacity);
+            }
             this.bufferDrainingListener = bufferDrainingListener;
 
+            // bufferState's transitions notifyAll() on lockObject, which
+            // wakes anyone waiting on the ring too
             waiter = new Waiter(new Object());
             this.lockObject = waiter.getLockObject();
             bufferState = new StateMonitor<BufferState>(
                 BufferState.NEVER_STARTED, waiter);
-            fifo = new BoundedFIFO<>(capacity, waiter);
 
-            runningAndEmptyCondition = waiter.createCondition(
-                    new Waiter.Expression() {
+            ring = new Event[capacity];
+            head = 0;
+            count = 0;
 
-                @Override
-                public boolean isTrue() {
-                    return bufferState.getState() == BufferState.RUNNING &&
-                           fifo.isEmpty();
-                }
-            });
-
-            proxyHandler = new BufferedProxyHandler(Listener.class);
-            bufferFillingListener = (Listener) Proxy.newProxyInstance(
-                getClass().getClassLoader(),
-                new Class<?>[] { Listener.class },
-                proxyHandler);
+            bufferFillingListener = new FillingListener();
         }
 
         public TestChunk.Listener getBufferFillingListener() {
@@ -436,7 +459,7 @@ public class StandardTestChunk implements TestChunk {
                     }
                 };
 
-                internalThread = new Thread(r, "BufferedListener");
+                internalThread = new Thread(r, "BatchingListener");
                 internalThread.start();
             }
         }
@@ -472,86 +495,247 @@ public class StandardTestChunk implements TestChunk {
             return bufferState.waitUntilStateIs(BufferState.SHUTDOWN, msTimeout);
         }
 
+        /**
+         * Adds event to the ring (or to the count of the last event in the
+         * ring), waiting while the ring is full. Quietly drops the event if
+         * the buffer isn't going to deliver any more.
+         */
+        private void add(Event event) throws InterruptException {
+            synchronized ( lockObject ) {
+                try {
+                    while ( true ) {
+                        if ( bufferState.matchesAny(BufferState.NEVER_STARTED,
+                                BufferState.RUNNING,
+                                BufferState.PENDING_SHUTDOWN_WHEN_DRAINED) == false ) {
+                            return;
+                        }
+                        if ( count > 0 && event.isCounter() ) {
+                            Event last = ring[(head + count - 1) % ring.length];
+                            if ( last.kind == event.kind &&
+                                 last.count <= Integer.MAX_VALUE - event.count ) {
+
+                                last.count += event.count;
+                                return;
+                            }
+                        }
+                        if ( count < ring.length ) {
+                            ring[(head + count) % ring.length] = event;
+                            count++;
+                            lockObject.notifyAll();
+                            return;
+                        }
+                        lockObject.wait();
+                    }
+                } catch ( InterruptedException x ) {
+                    throw new InterruptException(x);
+                }
+            }
+        }
+
         private void runWork() {
+            Event[] batch = new Event[ring.length];
             try {
                 while ( true ) {
-                    MethodArgEntry entry = null;
+                    int batchCount;
 
                     synchronized ( lockObject ) {
-                        runningAndEmptyCondition.waitWhileTrue();
-                        if ( bufferState.matchesAny(BufferState.RUNNING) ) {
-                            // normal situation - still running and not empty
-                            entry = fifo.remove();
-                        } else if ( bufferState.matchesAny(
-                                BufferState.PENDING_SHUTDOWN_WHEN_DRAINED) ) {
-
-                            if ( fifo.isEmpty() ) {
-                                return; // all done
-                            } else {
-                                // not empty
-                                entry = fifo.remove();
-                            }
-                        } else if ( bufferState.matchesAny(BufferState.PENDING_SHUTDOWN_ASAP) ) {
+                        while ( count == 0 &&
+                                bufferState.matchesAny(BufferState.RUNNING) ) {
+                            lockObject.wait();
+                        }
+                        if ( bufferState.matchesAny(BufferState.PENDING_SHUTDOWN_ASAP) ||
+                             count == 0 ) {
                             return; // all done
                         }
+
+                        // take everything there is, the writers can go on
+                        batchCount = count;
+                        for ( int i = 0; i < batchCount; i++ ) {
+                            int index = (head + i) % ring.length;
+                            batch[i] = ring[index];
+                            ring[index] = null;
+                        }
+                        head = (head + batchCount) % ring.length;
+                        count = 0;
+                        lockObject.notifyAll();
                     } // sync
 
-                    // invoke without holding the lock
-                    if ( entry != null ) { // null check just to be safe
-//ThreadTools.nap(100);
-                        entry.method.invoke(
-                            bufferDrainingListener, entry.args);
+                    // deliver without holding the lock
+                    for ( int i = 0; i < batchCount; i++ ) {
+                        try {
+                            batch[i].deliverTo(bufferDrainingListener);
+                        } catch ( InterruptException x ) {
+                            return;
+                        } catch ( RuntimeException x ) {
+                            x.printStackTrace();
+                        } finally {
+                            batch[i] = null;
+                        }
                     }
                 } // while
+            } catch ( InterruptedException x ) {
+                // ignore
             } catch ( InterruptException x ) {
                 // ignore
-            } catch ( Exception x ) {
-//ThreadTools.outln(x);
-                x.printStackTrace();
             } finally {
                 bufferState.transitionToIfPermitted(BufferState.SHUTDOWN);
             }
         }
 
-        private class BufferedProxyHandler implements InvocationHandler {
-            private final Class<?> interfaceType;
+        /** Encodes each call as an Event and adds it to the ring. */
+        private class FillingListener implements TestChunk.Listener {
+            @Override
+            public void outln(ListenerEventMeta meta, String line) {
+                add(new Event(EventKind.OUTLN, meta).withText(line));
+            }
 
-            public BufferedProxyHandler(Class<?> interfaceType) {
-                ObjectTools.paramNullCheck(interfaceType, "interfaceType");
-                this.interfaceType = interfaceType;
+            @Override
+            public void outStackTrace(ListenerEventMeta meta, Throwable t) {
+                add(new Event(EventKind.OUT_STACK_TRACE, meta).withThrowable(t));
             }
 
             @Override
-            public Object invoke(Object proxy, Method method, Object[] args)
-                    throws Throwable {
+            public void outlnErrorText(ListenerEventMeta meta, String line) {
+                add(new Event(EventKind.OUTLN_ERROR_TEXT, meta).withText(line));
+            }
 
-                if ( interfaceType.equals(method.getDeclaringClass()) ) {
-//ThreadTools.outln("inside BufferedListener, adding method to FIFO and returning null, method=" + method.getName() + ", args.length=" + (args == null ? 0 : args.length) + ", fifo.size=" + fifo.getSize());
-                    fifo.add(new MethodArgEntry(method, args));
-                    return null;
-                } else {
-//if ( !"toString".equals(method.getName() ) ) {
-//    ThreadTools.outln("inside BufferedListener, proxy to 'this', method=" + method.getName() + ", args.length=" + (args == null ? 0 : args.length) + ", fifo.size=" + fifo.getSize());
-//}
-                    return method.invoke(this, args);
+            @Override
+            public void outErrorStackTrace(ListenerEventMeta meta, Throwable t) {
+                add(new Event(EventKind.OUT_ERROR_STACK_TRACE, meta).withThrowable(t));
+            }
+
+            @Override
+            public void incrementPassedCount(ListenerEventMeta meta) {
+                add(new Event(EventKind.PASSED, meta));
+            }
+
+            @Override
+            public void addPassedCount(ListenerEventMeta meta, int delta) {
+                if ( delta > 0 ) {
+                    add(new Event(EventKind.PASSED, meta).withCount(delta));
                 }
             }
 
+            @Override
+            public void incrementFailedCount(ListenerEventMeta meta) {
+                add(new Event(EventKind.FAILED, meta));
+            }
+
+            @Override
+            public void addFailedCount(ListenerEventMeta meta, int delta) {
+                if ( delta > 0 ) {
+                    add(new Event(EventKind.FAILED, meta).withCount(delta));
+                }
+            }
+
+            @Override
+            public void testStateChanged(ListenerEventMeta meta,
+                                         TestState oldState,
+                                         TestState newState) {
+
+                add(new Event(EventKind.STATE_CHANGED, meta)
+                    .withStates(oldState, newState));
+            }
+
             @Override
             public String toString() {
-                return getClass().getSimpleName()  + "[fifo.size=" + fifo.getSize() + "]";
+                synchronized ( lockObject ) {
+                    return getClass().getSimpleName() + "[count=" + count + "]";
+                }
+            }
+        } // type FillingListener
+
+        private static enum EventKind {
+            OUTLN,
+            OUT_STACK_TRACE,
+            OUTLN_ERROR_TEXT,
+            OUT_ERROR_STACK_TRACE,
+            PASSED,
+            FAILED,
+            STATE_CHANGED;
+        } // type EventKind
+
+        /**
+         * One buffered call; only the fields its kind needs are set. count
+         * is only changed (by coalescing) while the event is in the ring.
+         */
+        private static final class Event {
+            public final EventKind kind;
+            public final ListenerEventMeta meta;
+            public String text;
+            public Throwable throwable;
+            public TestState oldState;
+            public TestState newState;
+            public int count;
+
+            public Event(EventKind kind, ListenerEventMeta meta) {
+                this.kind = kind;
+                this.meta = meta;
+                count = 1;
+            }
+
+            public Event withText(String text) {
+                this.text = text;
+                return this;
             }
-        }
 
-        private static class MethodArgEntry {
-            public final Method method;
-            public final Object[] args;
+            public Event withThrowable(Throwable throwable) {
+                this.throwable = throwable;
+                return this;
+            }
+
+            public Event withStates(TestState oldState, TestState newState) {
+                this.oldState = oldState;
+                this.newState = newState;
+                return this;
+            }
 
-            public MethodArgEntry(Method method, Object[] args) {
-                this.method = method;
-                this.args = args;
+            public Event withCount(int count) {
+                this.count = count;
+                return this;
+            }
+
+            public boolean isCounter() {
+                return kind == EventKind.PASSED || kind == EventKind.FAILED;
+            }
+
+            public void deliverTo(TestChunk.Listener listener) {
+                switch ( kind ) {
+                    case OUTLN:
+                        listener.outln(meta, text);
+                        break;
+                    case OUT_STACK_TRACE:
+                        listener.outStackTrace(meta, throwable);
+                        break;
+                    case OUTLN_ERROR_TEXT:
+                        listener.outlnErrorText(meta, text);
+                        break;
+                    case OUT_ERROR_STACK_TRACE:
+                        listener.outErrorStackTrace(meta, throwable);
+                        break;
+                    case PASSED:
+                        if ( count == 1 ) {
+                            listener.incrementPassedCount(meta);
+                        } else {
+                            listener.addPassedCount(meta, count);
+                        }
+                        break;
+                    case FAILED:
+                        if ( count == 1 ) {
+                            listener.incrementFailedCount(meta);
+                        } else {
+                            listener.addFailedCount(meta, count);
+                        }
+                        break;
+                    case STATE_CHANGED:
+                        listener.testStateChanged(meta, oldState, newState);
+                        break;
+                    default:
+                        throw new IllegalStateException(
+                            "unsupported kind=" + kind + ", needs fixing");
+                }
             }
-        } // type MethodArgEntry
+        } // type Event
 
         private static enum BufferState
                 implements StateMonitor.Monitorable<BufferState> {
@@ -602,7 +786,7 @@ public class StandardTestChunk implements TestChunk {
                 return false;
             }
         } // type BufferState
-    } // type BufferedListener
+    } // type BatchingListener
 
     private static class DisconnectableListener {
         private final TestChunk.Listener rawListener;
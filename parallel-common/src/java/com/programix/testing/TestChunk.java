@@ -29,6 +29,28 @@ public interface TestChunk {
         void incrementPassedCount(ListenerEventMeta meta);
         void incrementFailedCount(ListenerEventMeta meta);
 
+        /**
+         * Adds count (which may be more than 1) to the passed count in one
+         * call; used when several increments were coalesced. The default
+         * implementation calls {@link #incrementPassedCount} count times.
+         */
+        default void addPassedCount(ListenerEventMeta meta, int count) {
+            for ( int i = 0; i < count; i++ ) {
+                incrementPassedCount(meta);
+            }
+        }
+
+        /**
+         * Adds count (which may be more than 1) to the failed count in one
+         * call. The default implementation calls
+         * {@link #incrementFailedCount} count times.
+         */
+        default void addFailedCount(ListenerEventMeta meta, int count) {
+            for ( int i = 0; i < count; i++ ) {
+                incrementFailedCount(meta);
+            }
+        }
+
         void testStateChanged(ListenerEventMeta meta,
                               TestState oldState,
                               TestState newState);
@@ -197,6 +219,18 @@ public interface TestChunk {
             failCounter.increment();
         }
 
+        @Override
+        public synchronized void addPassedCount(ListenerEventMeta meta,
+                                                int count) {
+            passCounter.setCount(passCounter.getCount() + count);
+        }
+
+        @Override
+        public synchronized void addFailedCount(ListenerEventMeta meta,
+                                                int count) {
+            failCounter.setCount(failCounter.getCount() + count);
+        }
+
         protected synchronized String passFailCountsMessage() {
             return String.format("[%,d passed, %,d failed, %,d total]",
                 passCounter.getCount(),
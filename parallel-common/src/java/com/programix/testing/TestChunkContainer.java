@@ -205,6 +205,30 @@ public class TestChunkContainer implements TestChunk {
             });
         }
 
+        @Override
+        public void addPassedCount(final ListenerEventMeta meta,
+                                   final int count) {
+            listenerManager.notifyListeners(
+                new ListenerManager.NotifyAction<TestChunk.Listener>() {
+                @Override
+                public void performAction(TestChunk.Listener listener) {
+                    listener.addPassedCount(meta, count);
+                }
+            });
+        }
+
+        @Override
+        public void addFailedCount(final ListenerEventMeta meta,
+                                   final int count) {
+            listenerManager.notifyListeners(
+                new ListenerManager.NotifyAction<TestChunk.Listener>() {
+                @Override
+                public void performAction(TestChunk.Listener listener) {
+                    listener.addFailedCount(meta, count);
+                }
+            });
+        }
+
         @Override
         public void outln(final ListenerEventMeta meta, final String line) {
             listenerManager.notifyListeners(
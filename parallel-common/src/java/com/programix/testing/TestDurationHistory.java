@@ -0,0 +1,92 @@
+package com.programix.testing;
+
+import java.io.*;
+import java.util.*;
+
+import com.programix.util.*;
+
+/**
+ * How long each test (by display name) took on previous runs, so that
+ * {@link TestScheduler} can start the longest ones first. Stored as a plain
+ * properties file of display name to milliseconds.
+ * <p>
+ * A new duration is averaged with the previous one, so one slow run (a busy
+ * machine) doesn't reorder everything.
+ */
+public class TestDurationHistory {
+    /** Returned by {@link #getMsDuration(String)} for an unknown test. */
+    public static final long UNKNOWN = -1L;
+
+    private final Map<String, Long> msDurationMap;
+
+    /** Creates an empty history. */
+    public TestDurationHistory() {
+        msDurationMap = new HashMap<>();
+    }
+
+    /**
+     * Loads the history saved in file, or returns an empty one if file
+     * doesn't exist yet.
+     */
+    public static TestDurationHistory load(File file) throws IOException {
+        ObjectTools.paramNullCheck(file, "file");
+
+        TestDurationHistory history = new TestDurationHistory();
+        if ( !file.exists() ) {
+            return history;
+        }
+
+        Properties props = new Properties();
+        try ( InputStream in = new BufferedInputStream(new FileInputStream(file)) ) {
+            props.load(in);
+        }
+        for ( String name : props.stringPropertyNames() ) {
+            try {
+                long msDuration = Long.parseLong(props.getProperty(name).trim());
+                if ( msDuration >= 0L ) {
+                    history.msDurationMap.put(name, msDuration);
+                }
+            } catch ( NumberFormatException x ) {
+                // skip the bad entry, it will be replaced on the next save
+            }
+        }
+        return history;
+    }
+
+    public synchronized void save(File file) throws IOException {
+        ObjectTools.paramNullCheck(file, "file");
+
+        Properties props = new Properties();
+        for ( Map.Entry<String, Long> entry : msDurationMap.entrySet() ) {
+            props.setProperty(entry.getKey(), String.valueOf(entry.getValue()));
+        }
+        try ( OutputStream out = new BufferedOutputStream(new FileOutputStream(file)) ) {
+            props.store(out, "test durations in milliseconds");
+        }
+    }
+
+    /**
+     * Returns the expected duration of the named test in milliseconds, or
+     * {@link #UNKNOWN} if it has never been recorded.
+     */
+    public synchronized long getMsDuration(String displayName) {
+        Long msDuration = msDurationMap.get(displayName);
+        return msDuration != null ? msDuration.longValue() : UNKNOWN;
+    }
+
+    public synchronized void record(String displayName, long msDuration) {
+        ObjectTools.paramNullCheck(displayName, "displayName");
+        if ( msDuration < 0L ) {
+            throw new IllegalArgumentException(
+                "msDuration must not be negative, not " + msDuration);
+        }
+
+        Long previous = msDurationMap.get(displayName);
+        msDurationMap.put(displayName, previous == null ?
+            msDuration : (previous.longValue() + msDuration) / 2L);
+    }
+
+    public synchronized int getCount() {
+        return msDurationMap.size();
+    }
+}
@@ -0,0 +1,477 @@
+package com.programix.testing;
+
+import java.io.*;
+import java.util.*;
+
+import com.programix.thread.*;
+import com.programix.util.*;
+
+/**
+ * Runs {@link TestChunk}s without a GUI, at most poolSize of them at a time
+ * (by default one per CPU), and blocks until all of them are done.
+ * <p>
+ * The chunks are started longest first according to a
+ * {@link TestDurationHistory} - ones it doesn't know yet go first of all -
+ * so the long ones don't end up running alone at the end and the whole run
+ * takes about as long as its longest chunk (given enough CPUs). Each chunk
+ * which hasn't finished msTestTimeout after it was started is cancelled with
+ * {@link TestChunk#cancelAllTests()}, which interrupts its threads (and
+ * abandons ones which ignore that); no thread is ever forcibly stopped.
+ * <p>
+ * Every chunk must be independent of the others: they run concurrently, in
+ * whatever order the history gives.
+ */
+public class TestScheduler {
+    public static final long DEFAULT_MS_TEST_TIMEOUT = 60000L;
+
+    private final TestChunk[] chunks;
+    private final int poolSize;
+    private final long msTestTimeout;
+    private final TestDurationHistory history;
+
+    private final Object lockObject;
+    private final BooleanState everRun;
+
+    /**
+     * @param chunks the chunks to run, none of them started yet.
+     * @param poolSize the most chunks which run at the same time.
+     * @param msTestTimeout how long a chunk may run before it is cancelled,
+     * {@link ThreadTools#NO_TIMEOUT} for no limit.
+     * @param history the expected durations (updated with the new ones when
+     * the run is done), or null to start the chunks in the order given.
+     */
+    public TestScheduler(TestChunk[] chunks,
+                         int poolSize,
+                         long msTestTimeout,
+                         TestDurationHistory history) {
+
+        ObjectTools.paramNullCheck(chunks, "chunks");
+        if ( poolSize < 1 ) {
+            throw new IllegalArgumentException(
+                "poolSize must be at least 1, not " + poolSize);
+        }
+        if ( msTestTimeout < 0L ) {
+            throw new IllegalArgumentException(
+                "msTestTimeout must not be negative, not " + msTestTimeout);
+        }
+        this.chunks = chunks.clone();
+        for ( int i = 0; i < this.chunks.length; i++ ) {
+            ObjectTools.paramNullCheck(this.chunks[i], "chunks[" + i + "]");
+        }
+        this.poolSize = poolSize;
+        this.msTestTimeout = msTestTimeout;
+        this.history = history;
+
+        lockObject = new Object();
+        everRun = new BooleanState(false);
+    }
+
+    public TestScheduler(TestChunk[] chunks, TestDurationHistory history) {
+        this(chunks, Runtime.getRuntime().availableProcessors(),
+            DEFAULT_MS_TEST_TIMEOUT, history);
+    }
+
+    public TestScheduler(BaseTest[] tests, TestDurationHistory history) {
+        this(StandardTestChunk.createAll(tests), history);
+    }
+
+    public int getPoolSize() {
+        return poolSize;
+    }
+
+    /**
+     * Returns the chunks in the order they will be started: longest
+     * expected duration first, unknown durations before all known ones, and
+     * the given order among equals.
+     */
+    public TestChunk[] getStartOrder() {
+        TestChunk[] order = chunks.clone();
+        if ( history == null ) {
+            return order;
+        }
+
+        final Map<TestChunk, Long> msExpectedMap = new HashMap<>();
+        for ( TestChunk chunk : order ) {
+            long msExpected = history.getMsDuration(chunk.getDisplayName());
+            msExpectedMap.put(chunk, msExpected == TestDurationHistory.UNKNOWN ?
+                Long.MAX_VALUE : msExpected);
+        }
+        // stable, so equals keep the given order
+        Arrays.sort(order, new Comparator<TestChunk>() {
+            @Override
+            public int compare(TestChunk a, TestChunk b) {
+                return Long.compare(msExpectedMap.get(b), msExpectedMap.get(a));
+            }
+        });
+        return order;
+    }
+
+    /**
+     * Runs all of the chunks and waits until every one of them is done.
+     * Can only be called once.
+     * @throws InterruptException if the calling thread is interrupted; the
+     * chunks which are running are cancelled first.
+     */
+    public Report run() throws InterruptException {
+        if ( !everRun.ifFalseSetTrue() ) {
+            throw new IllegalStateException("run() can only be called one time");
+        }
+
+        TestChunk[] order = getStartOrder();
+        ChunkTracker[] trackers = new ChunkTracker[chunks.length];
+        Map<TestChunk, ChunkTracker> trackerMap = new HashMap<>();
+        for ( int i = 0; i < chunks.length; i++ ) {
+            trackers[i] = new ChunkTracker(chunks[i]);
+            trackerMap.put(chunks[i], trackers[i]);
+        }
+
+        long msRunStart = System.currentTimeMillis();
+        List<ChunkTracker> runningList = new ArrayList<>();
+        int nextIndex = 0;
+        try {
+            synchronized ( lockObject ) {
+                while ( true ) {
+                    for ( Iterator<ChunkTracker> it = runningList.iterator(); it.hasNext(); ) {
+                        if ( it.next().isDone() ) {
+                            it.remove();
+                        }
+                    }
+
+                    while ( runningList.size() < poolSize && nextIndex < order.length ) {
+                        ChunkTracker tracker = trackerMap.get(order[nextIndex]);
+                        nextIndex++;
+                        tracker.start(msRunStart);
+                        runningList.add(tracker);
+                    }
+
+                    if ( runningList.isEmpty() ) {
+                        break; // all done
+                    }
+
+                    long msNow = System.currentTimeMillis();
+                    long msWait = Long.MAX_VALUE;
+                    for ( ChunkTracker tracker : runningList ) {
+                        if ( msTestTimeout == ThreadTools.NO_TIMEOUT ||
+                             tracker.isTimedOut() ) {
+                            continue;
+                        }
+                        long msRemaining = tracker.msStart + msTestTimeout - msNow;
+                        if ( msRemaining <= 0L ) {
+                            tracker.timeout();
+                        } else {
+                            msWait = Math.min(msWait, msRemaining);
+                        }
+                    }
+
+                    if ( !anyDone(runningList) ) {
+                        lockObject.wait(msWait == Long.MAX_VALUE ? 0L : msWait);
+                    }
+                }
+            }
+        } catch ( InterruptedException x ) {
+            for ( ChunkTracker tracker : runningList ) {
+                tracker.chunk.cancelAllTests();
+            }
+            throw new InterruptException(x);
+        }
+        long msWallElapsed = System.currentTimeMillis() - msRunStart;
+
+        Result[] results = new Result[trackers.length];
+        for ( int i = 0; i < results.length; i++ ) {
+            results[i] = trackers[i].createResult();
+            if ( history != null ) {
+                history.record(results[i].getDisplayName(),
+                    results[i].getMsElapsed());
+            }
+        }
+        return new Report(results, poolSize, msWallElapsed);
+    }
+
+    private static boolean anyDone(List<ChunkTracker> trackers) {
+        for ( ChunkTracker tracker : trackers ) {
+            if ( tracker.isDone() ) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Follows one chunk: counts its passes and failures and notices when it
+     * is done. Guarded by lockObject.
+     */
+    private class ChunkTracker extends TestChunk.ListenerAdapter {
+        private final TestChunk chunk;
+        private long msStartOffset;
+        private long msStart;
+        private long msEnd;
+        private int passCount;
+        private int failCount;
+        private TestState finalState;
+        private boolean timedOut;
+
+        public ChunkTracker(TestChunk chunk) {
+            this.chunk = chunk;
+            msStart = -1L;
+        }
+
+        /** Called while holding lockObject. */
+        public void start(long msRunStart) {
+            msStart = System.currentTimeMillis();
+            msStartOffset = msStart - msRunStart;
+            chunk.addListener(this);
+            if ( !chunk.kickoffTestsAsync() ) {
+                // already started or cancelled elsewhere, nothing to wait for
+                finalState = chunk.getTestState().isComplete() ?
+                    chunk.getTestState() : TestState.CANCELLED;
+                msEnd = msStart;
+            }
+        }
+
+        /** Called while holding lockObject. */
+        public void timeout() {
+            timedOut = true;
+            chunk.cancelAllTests();
+        }
+
+        public boolean isDone() {
+            return finalState != null;
+        }
+
+        public boolean isTimedOut() {
+            return timedOut;
+        }
+
+        @Override
+        public void incrementPassedCount(TestChunk.ListenerEventMeta meta) {
+            addPassedCount(meta, 1);
+        }
+
+        @Override
+        public void addPassedCount(TestChunk.ListenerEventMeta meta, int count) {
+            synchronized ( lockObject ) {
+                passCount += count;
+            }
+        }
+
+        @Override
+        public void incrementFailedCount(TestChunk.ListenerEventMeta meta) {
+            addFailedCount(meta, 1);
+        }
+
+        @Override
+        public void addFailedCount(TestChunk.ListenerEventMeta meta, int count) {
+            synchronized ( lockObject ) {
+                failCount += count;
+            }
+        }
+
+        @Override
+        public void testStateChanged(TestChunk.ListenerEventMeta meta,
+                                     TestState oldState,
+                                     TestState newState) {
+
+            if ( newState.isComplete() ) {
+                synchronized ( lockObject ) {
+                    if ( finalState == null ) {
+                        finalState = newState;
+                        msEnd = System.currentTimeMillis();
+                        lockObject.notifyAll();
+                    }
+                }
+            }
+        }
+
+        public Result createResult() {
+            synchronized ( lockObject ) {
+                return new Result(chunk.getDisplayName(), finalState, timedOut,
+                    passCount, failCount, msStartOffset, msEnd - msStart);
+            }
+        }
+    } // type ChunkTracker
+
+    /** How one chunk went. Instances are immutable. */
+    public static class Result {
+        private final String displayName;
+        private final TestState finalState;
+        private final boolean timedOut;
+        private final int passCount;
+        private final int failCount;
+        private final long msStartOffset;
+        private final long msElapsed;
+
+        public Result(String displayName,
+                      TestState finalState,
+                      boolean timedOut,
+                      int passCount,
+                      int failCount,
+                      long msStartOffset,
+                      long msElapsed) {
+
+            this.displayName = displayName;
+            this.finalState = finalState;
+            this.timedOut = timedOut;
+            this.passCount = passCount;
+            this.failCount = failCount;
+            this.msStartOffset = msStartOffset;
+            this.msElapsed = msElapsed;
+        }
+
+        public String getDisplayName() {
+            return displayName;
+        }
+
+        /** SUCCEEDED, FAILED or CANCELLED (which includes timed out). */
+        public TestState getFinalState() {
+            return finalState;
+        }
+
+        public boolean isTimedOut() {
+            return timedOut;
+        }
+
+        public boolean isSucceeded() {
+            return finalState == TestState.SUCCEEDED;
+        }
+
+        public int getPassCount() {
+            return passCount;
+        }
+
+        public int getFailCount() {
+            return failCount;
+        }
+
+        /** When the chunk was started, relative to the start of the run. */
+        public long getMsStartOffset() {
+            return msStartOffset;
+        }
+
+        public long getMsElapsed() {
+            return msElapsed;
+        }
+    } // type Result
+
+    /**
+     * The results of a whole run, in the order the chunks were given.
+     * Instances are immutable.
+     */
+    public static class Report {
+        private final Result[] results;
+        private final int poolSize;
+        private final long msWallElapsed;
+
+        public Report(Result[] results, int poolSize, long msWallElapsed) {
+            ObjectTools.paramNullCheck(results, "results");
+            this.results = results.clone();
+            this.poolSize = poolSize;
+            this.msWallElapsed = msWallElapsed;
+        }
+
+        public Result[] getResults() {
+            return results.clone();
+        }
+
+        public int getPoolSize() {
+            return poolSize;
+        }
+
+        /** From starting the first chunk until the last one was done. */
+        public long getMsWallElapsed() {
+            return msWallElapsed;
+        }
+
+        /** The sum of every chunk's elapsed time. */
+        public long getMsTotalElapsed() {
+            long total = 0L;
+            for ( Result result : results ) {
+                total += result.getMsElapsed();
+            }
+            return total;
+        }
+
+        public int getPassCount() {
+            int total = 0;
+            for ( Result result : results ) {
+                total += result.getPassCount();
+            }
+            return total;
+        }
+
+        public int getFailCount() {
+            int total = 0;
+            for ( Result result : results ) {
+                total += result.getFailCount();
+            }
+            return total;
+        }
+
+        public boolean isAllSucceeded() {
+            for ( Result result : results ) {
+                if ( !result.isSucceeded() ) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        /** Writes this report as one JSON object. */
+        public void writeJson(Writer writer) throws IOException {
+            writer.write("{\n");
+            writer.write("  \"poolSize\": " + poolSize + ",\n");
+            writer.write("  \"msWallElapsed\": " + msWallElapsed + ",\n");
+            writer.write("  \"msTotalElapsed\": " + getMsTotalElapsed() + ",\n");
+            writer.write("  \"passCount\": " + getPassCount() + ",\n");
+            writer.write("  \"failCount\": " + getFailCount() + ",\n");
+            writer.write("  \"allSucceeded\": " + isAllSucceeded() + ",\n");
+            writer.write("  \"tests\": [");
+            for ( int i = 0; i < results.length; i++ ) {
+                Result result = results[i];
+                writer.write(i == 0 ? "\n" : ",\n");
+                writer.write("    {\"name\": " + quoteJson(result.getDisplayName()) +
+                    ", \"state\": \"" + result.getFinalState().name() + "\"" +
+                    ", \"timedOut\": " + result.isTimedOut() +
+                    ", \"passCount\": " + result.getPassCount() +
+                    ", \"failCount\": " + result.getFailCount() +
+                    ", \"msStartOffset\": " + result.getMsStartOffset() +
+                    ", \"msElapsed\": " + result.getMsElapsed() + "}");
+            }
+            writer.write(results.length == 0 ? "]\n" : "\n  ]\n");
+            writer.write("}\n");
+            writer.flush();
+        }
+
+        public String toJson() {
+            StringWriter sw = new StringWriter();
+            try {
+                writeJson(sw);
+            } catch ( IOException x ) {
+                throw new IllegalStateException(x); // not with a StringWriter
+            }
+            return sw.toString();
+        }
+
+        public static String quoteJson(String s) {
+            StringBuilder sb = new StringBuilder(s.length() + 2);
+            sb.append('"');
+            for ( int i = 0; i < s.length(); i++ ) {
+                char c = s.charAt(i);
+                switch ( c ) {
+                    case '"': sb.append("\\\""); break;
+                    case '\\': sb.append("\\\\"); break;
+                    case '\n': sb.append("\\n"); break;
+                    case '\r': sb.append("\\r"); break;
+                    case '\t': sb.append("\\t"); break;
+                    default:
+                        if ( c < 0x20 ) {
+                            sb.append(String.format("\\u%04x", (int) c));
+                        } else {
+                            sb.append(c);
+                        }
+                }
+            }
+            sb.append('"');
+            return sb.toString();
+        }
+    } // type Report
+}
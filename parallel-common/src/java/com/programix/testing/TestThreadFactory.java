@@ -3,5 +3,16 @@ package com.programix.testing;
 public interface TestThreadFactory {
     String createThreadFor(Runnable work, String suggestedThreadName);
     void interruptAllLiveThreads();
-    void forciblyStopAllLiveThreads();
+
+    /**
+     * Waits up to msTimeout (0 waits forever) for every thread created by
+     * this factory to finish. Threads are never forcibly stopped; ones which
+     * are still alive after this returns false are abandoned (they are
+     * daemon threads).
+     * @return true if all are done, false if some are still alive.
+     */
+    boolean waitUntilAllLiveThreadsDone(long msTimeout);
+
+    /** Names of the threads created by this factory which are still alive. */
+    String[] getLiveThreadNames();
 }
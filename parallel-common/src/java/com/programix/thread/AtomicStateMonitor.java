@@ -0,0 +1,329 @@
+package com.programix.thread;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
+import java.util.concurrent.locks.*;
+
+import com.programix.util.*;
+
+/**
+ * Same API as {@link StateMonitor} (less the lock object), but without a
+ * lock: the state is held in an {@link AtomicReference} and changed with
+ * compareAndSet, and waiting threads are parked with {@link LockSupport}.
+ * <p>
+ * {@link StateMonitor} wakes every waiting thread on every transition (via
+ * notifyAll()) and each one re-checks its own condition. Here a waiting
+ * thread registers itself in a queue per state instead:
+ * <ul>
+ * <li>waitUntilStateIs(X) and waitUntilMatchesAny(..., X, ...) register
+ * under "until X" and are only unparked by a transition <i>to</i> X;</li>
+ * <li>waitWhileStateIs(X) registers under "while X" and is only unparked by
+ * a transition <i>from</i> X.</li>
+ * </ul>
+ * So with hundreds of threads waiting on different states, a transition
+ * only wakes the ones it concerns.
+ * <p>
+ * A waiting thread registers first and checks the state second, and a
+ * transition changes the state first and looks for waiters second, so no
+ * wakeup can be lost. Like with {@link StateMonitor}, a state which only
+ * lasts a moment may be missed by a waiter (it re-checks the current state
+ * when it runs again).
+ * <p>
+ * Listeners are notified after the state has changed, on the thread which
+ * changed it; if transitions race, the notifications of different
+ * transitions may overlap.
+ */
+public class AtomicStateMonitor<T extends StateMonitor.Monitorable<T>>
+        implements ThreadSafe {
+
+    private final AtomicReference<T> state;
+    private final ConcurrentMap<T, Queue<WaitNode>> untilQueues;
+    private final ConcurrentMap<T, Queue<WaitNode>> whileQueues;
+    private final CopyOnWriteListenerManager<StateMonitor.Listener<T>> listenerManager;
+
+    /**
+     * Creates an instance that is initially set to the state of
+     * <tt>initialState</tt>.
+     */
+    @SuppressWarnings("unchecked")
+    public AtomicStateMonitor(T initialState) {
+        ObjectTools.paramNullCheck(initialState, "initialState");
+        state = new AtomicReference<>(initialState);
+        untilQueues = new ConcurrentHashMap<>();
+        whileQueues = new ConcurrentHashMap<>();
+
+        Class<?> lType = StateMonitor.Listener.class;
+        listenerManager = (CopyOnWriteListenerManager<StateMonitor.Listener<T>>)
+            new CopyOnWriteListenerManager<>(lType);
+    }
+
+    /** Returns the current state, never null */
+    public T getState() {
+        return state.get();
+    }
+
+    /**
+     * Returns true if this state matches one or more of the specified
+     * targetStates.
+     */
+    @SuppressWarnings("unchecked")
+    public boolean matchesAny(T... targetStates) {
+        return isAnyOf(state.get(), targetStates);
+    }
+
+    private static boolean isAnyOf(Object value, Object[] targets) {
+        for ( Object target : targets ) {
+            if ( value == target ) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public void transitionTo(T proposedNewState) throws IllegalStateException {
+        ObjectTools.paramNullCheck(proposedNewState, "proposedNewState");
+        while ( true ) {
+            T oldState = state.get();
+            if ( !oldState.canTransitionTo(proposedNewState) ) {
+                throw new IllegalStateException("cannot transition from " +
+                    oldState + " to " + proposedNewState);
+            }
+            if ( changeState(oldState, proposedNewState) ) {
+                return;
+            }
+        }
+    }
+
+    public boolean transitionToIfPermitted(T proposedNewState) {
+        ObjectTools.paramNullCheck(proposedNewState, "proposedNewState");
+        while ( true ) {
+            T oldState = state.get();
+            if ( !oldState.canTransitionTo(proposedNewState) ) {
+                return false;
+            }
+            if ( changeState(oldState, proposedNewState) ) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Changes the state from oldState (already checked to allow it) to
+     * newState, then unparks the threads waiting for this transition and
+     * notifies the listeners.
+     * @return false if another thread changed the state first (the caller
+     * has to check canTransitionTo() again).
+     */
+    private boolean changeState(T oldState, T newState) {
+        if ( oldState == newState ) {
+            return true;
+        }
+        if ( !state.compareAndSet(oldState, newState) ) {
+            return false;
+        }
+        unparkAll(untilQueues.get(newState));
+        unparkAll(whileQueues.get(oldState));
+        notifyListeners(oldState, newState);
+        return true;
+    }
+
+    private static void unparkAll(Queue<WaitNode> queue) {
+        if ( queue != null ) {
+            for ( WaitNode node : queue ) {
+                LockSupport.unpark(node.thread);
+            }
+        }
+    }
+
+    private Queue<WaitNode> queueFor(ConcurrentMap<T, Queue<WaitNode>> queues,
+                                     T key) {
+
+        Queue<WaitNode> queue = queues.get(key);
+        if ( queue == null ) {
+            Queue<WaitNode> newQueue = new ConcurrentLinkedQueue<>();
+            queue = queues.putIfAbsent(key, newQueue);
+            if ( queue == null ) {
+                queue = newQueue;
+            }
+        }
+        return queue;
+    }
+
+    /**
+     * Registers the calling thread under each of keys in queues and parks
+     * it until the state is one of targetStates (waitUntil true) or isn't
+     * (waitUntil false), or until msTimeout runs out (0 waits forever).
+     * @return true when done, {@link ThreadTools#TIMED_OUT} on timeout.
+     */
+    private boolean await(ConcurrentMap<T, Queue<WaitNode>> queues,
+                          Object[] targetStates,
+                          boolean waitUntil,
+                          long msTimeout) throws InterruptException {
+
+        if ( isAnyOf(state.get(), targetStates) == waitUntil ) {
+            return true;
+        }
+
+        boolean forever = msTimeout == ThreadTools.NO_TIMEOUT;
+        long nsDeadline = System.nanoTime() +
+            TimeUnit.MILLISECONDS.toNanos(Math.max(0L, msTimeout));
+
+        WaitNode node = new WaitNode(Thread.currentThread());
+        List<Queue<WaitNode>> registeredQueues = new ArrayList<>(targetStates.length);
+        try {
+            for ( Object targetState : targetStates ) {
+                @SuppressWarnings("unchecked")
+                Queue<WaitNode> queue = queueFor(queues, (T) targetState);
+                queue.add(node);
+                registeredQueues.add(queue);
+            }
+
+            while ( true ) {
+                if ( isAnyOf(state.get(), targetStates) == waitUntil ) {
+                    return true;
+                }
+                if ( forever ) {
+                    LockSupport.park(this);
+                } else {
+                    long nsRemaining = nsDeadline - System.nanoTime();
+                    if ( nsRemaining <= 0L ) {
+                        return ThreadTools.TIMED_OUT;
+                    }
+                    LockSupport.parkNanos(this, nsRemaining);
+                }
+                if ( Thread.interrupted() ) {
+                    throw new InterruptException(new InterruptedException());
+                }
+            }
+        } finally {
+            for ( Queue<WaitNode> queue : registeredQueues ) {
+                queue.remove(node);
+            }
+        }
+    }
+
+    private boolean waitUntilStateIs(T targetState,
+                                     long msTimeout,
+                                     boolean useTimedOutException)
+            throws TimedOutException, InterruptException {
+
+        ObjectTools.paramNullCheck(targetState, "targetState");
+        boolean success =
+            await(untilQueues, new Object[] { targetState }, true, msTimeout);
+        return checkTimeout(success, msTimeout, useTimedOutException);
+    }
+
+    private boolean waitWhileStateIs(T targetState,
+                                     long msTimeout,
+                                     boolean useTimedOutException)
+             throws TimedOutException, InterruptException {
+
+        ObjectTools.paramNullCheck(targetState, "targetState");
+        boolean success =
+            await(whileQueues, new Object[] { targetState }, false, msTimeout);
+        return checkTimeout(success, msTimeout, useTimedOutException);
+    }
+
+    private static boolean checkTimeout(boolean success,
+                                        long msTimeout,
+                                        boolean useTimedOutException)
+            throws TimedOutException {
+
+        if ( !success && useTimedOutException ) {
+            throw new TimedOutException(msTimeout);
+        }
+        return success;
+    }
+
+    public void waitUntilStateIsWithTimedOutException(T targetState,
+                                                      long msTimeout)
+            throws TimedOutException, InterruptException {
+
+        waitUntilStateIs(targetState, msTimeout, true);
+    }
+
+    /**
+     * Returns {@link ThreadTools#TIMED_OUT} if a timeout occurs.
+     */
+    public boolean waitUntilStateIs(final T targetState, long msTimeout)
+            throws InterruptException {
+
+        return waitUntilStateIs(targetState, msTimeout, false);
+    }
+
+    public void waitUntilStateIs(T targetState) throws InterruptException {
+        waitUntilStateIs(targetState, ThreadTools.NO_TIMEOUT, false);
+    }
+
+    /**
+     * Waits until the state matches one or more of the specified
+     * targetStates; only a transition to one of them unparks the calling
+     * thread.
+     * Returns {@link ThreadTools#TIMED_OUT} if a timeout occurs.
+     */
+    @SuppressWarnings("unchecked")
+    public boolean waitUntilMatchesAny(long msTimeout, T... targetStates)
+            throws InterruptException {
+
+        ObjectTools.paramNullCheck(targetStates, "targetStates");
+        return await(untilQueues, targetStates, true, msTimeout);
+    }
+
+    /**
+     * Waits (no timeout) until the state matches one or more of the
+     * specified targetStates.
+     */
+    @SuppressWarnings("unchecked")
+    public void waitUntilMatchesAny(T... targetStates) throws InterruptException {
+        waitUntilMatchesAny(ThreadTools.NO_TIMEOUT, targetStates);
+    }
+
+    public void waitWhileStateIsWithTimedOutException(T targetState,
+                                                      long msTimeout)
+            throws TimedOutException, InterruptException {
+
+        waitWhileStateIs(targetState, msTimeout, true);
+    }
+
+    /**
+     * Returns {@link ThreadTools#TIMED_OUT} if a timeout occurs.
+     */
+    public boolean waitWhileStateIs(T targetState, long msTimeout)
+            throws InterruptException {
+
+        return waitWhileStateIs(targetState, msTimeout, false);
+    }
+
+    public void waitWhileStateIs(T targetState) throws InterruptException {
+        waitWhileStateIs(targetState, ThreadTools.NO_TIMEOUT, false);
+    }
+
+    public boolean addListener(StateMonitor.Listener<T> listener) {
+        return listenerManager.addListener(listener);
+    }
+
+    public boolean removeListener(StateMonitor.Listener<T> listener) {
+        return listenerManager.removeListener(listener);
+    }
+
+    private void notifyListeners(final T oldState, final T newState) {
+        listenerManager.notifyListeners(
+            new ListenerManager.NotifyAction<StateMonitor.Listener<T>>() {
+
+            @Override
+            public void performAction(StateMonitor.Listener<T> listener) {
+                listener.stateChanged(oldState, newState);
+            }
+        });
+    }
+
+    /** One waiting thread; the same node may be in more than one queue. */
+    private static final class WaitNode {
+        public final Thread thread;
+
+        public WaitNode(Thread thread) {
+            this.thread = thread;
+        }
+    } // type WaitNode
+}
@@ -0,0 +1,231 @@
+package com.programix.thread;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
+
+import com.programix.util.*;
+
+/**
+ * Same API as {@link ListenerManager}, for managers which notify far more
+ * often than listeners come and go. The listeners are kept in a volatile
+ * array which is replaced (never changed) by {@link #addListener(Object)}
+ * and {@link #removeListener(Object)}, so {@link #notifyListeners}
+ * takes no lock at all: it reads the array once and calls each listener in
+ * that snapshot. A listener added during a notification is not called by
+ * it; one removed during it still may be.
+ * <p>
+ * Unlike {@link ListenerManager}, notifications from different threads are
+ * not made to take turns - if the listeners need that, notify from one
+ * thread (or while holding a lock, as {@link StateMonitor} does), or use
+ * asynchronous dispatch.
+ * <p>
+ * With an Executor, notifications are asynchronous: notifyListeners() just
+ * queues the action (with the listener snapshot of that moment) and
+ * returns. The queued notifications are run in the order they were queued,
+ * one at a time, by a single task on the executor, so the listeners are
+ * never called concurrently and a slow listener doesn't hold up the
+ * notifying thread. A listener which throws (even an Error) is reported to
+ * the executor thread's uncaught exception handler and the rest are still
+ * notified.
+ * If the executor rejects the dispatch task, the queued notifications are
+ * run on the notifying thread instead, so none are ever left behind.
+ */
+public class CopyOnWriteListenerManager<L> {
+    private volatile L[] listeners;
+    private final Object addRemoveLock;
+
+    private final Executor asyncExecutor;
+    private final Queue<Notification<L>> pendingNotifications;
+    private final AtomicBoolean dispatchScheduled;
+    private final Runnable dispatchTask;
+
+    /**
+     * @param pListenerZeroLenArray zero length array of the listener type.
+     * @param asyncExecutor runs the notifications asynchronously, or null
+     * to run them on the notifying thread.
+     */
+    public CopyOnWriteListenerManager(L[] pListenerZeroLenArray,
+                                      Executor asyncExecutor) {
+
+        ObjectTools.paramNullCheck(pListenerZeroLenArray, "pListenerZeroLenArray");
+        if ( pListenerZeroLenArray.length != 0 ) {
+            throw new IllegalArgumentException(
+                "pListenerZeroLenArray must have a length of 0, not " +
+                pListenerZeroLenArray.length);
+        }
+        listeners = pListenerZeroLenArray;
+        addRemoveLock = new Object();
+
+        this.asyncExecutor = asyncExecutor;
+        pendingNotifications = new ConcurrentLinkedQueue<>();
+        dispatchScheduled = new AtomicBoolean(false);
+        dispatchTask = new Runnable() {
+            @Override
+            public void run() {
+                dispatchPending();
+            }
+        };
+    }
+
+    public CopyOnWriteListenerManager(L[] pListenerZeroLenArray) {
+        this(pListenerZeroLenArray, null);
+    }
+
+    public CopyOnWriteListenerManager(Class<L> listenerType,
+                                      Executor asyncExecutor) {
+
+        this(ListenerManager.createArrayFromType(listenerType, 0), asyncExecutor);
+    }
+
+    public CopyOnWriteListenerManager(Class<L> listenerType) {
+        this(listenerType, null);
+    }
+
+    /** True if notifications are run by an Executor. */
+    public boolean isAsynchronous() {
+        return asyncExecutor != null;
+    }
+
+    public int getListenerCount() {
+        return listeners.length;
+    }
+
+    /**
+     * Adds listener unless it's null or already added (as determined by
+     * equals(), like {@link ListenerManager}).
+     */
+    public boolean addListener(L listener) {
+        if ( listener == null ) return false;
+
+        synchronized ( addRemoveLock ) {
+            L[] current = listeners;
+            if ( indexOf(current, listener) >= 0 ) {
+                return false;
+            }
+            L[] changed = Arrays.copyOf(current, current.length + 1);
+            changed[current.length] = listener;
+            listeners = changed;
+            return true;
+        }
+    }
+
+    public boolean removeListener(L listener) {
+        if ( listener == null ) return false;
+
+        synchronized ( addRemoveLock ) {
+            L[] current = listeners;
+            int index = indexOf(current, listener);
+            if ( index < 0 ) {
+                return false;
+            }
+            L[] changed = Arrays.copyOf(current, current.length - 1);
+            System.arraycopy(current, index + 1, changed, index,
+                current.length - index - 1);
+            listeners = changed;
+            return true;
+        }
+    }
+
+    private static int indexOf(Object[] array, Object value) {
+        for ( int i = 0; i < array.length; i++ ) {
+            if ( array[i].equals(value) ) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Calls action for each listener - right away on the calling thread,
+     * or later on the executor if this manager is asynchronous (or right
+     * away after all, if the executor rejects the work).
+     */
+    public void notifyListeners(ListenerManager.NotifyAction<L> action) {
+        ObjectTools.paramNullCheck(action, "action");
+
+        L[] snapshot = listeners;
+        if ( snapshot.length == 0 ) {
+            return;
+        }
+        if ( asyncExecutor == null ) {
+            for ( L listener : snapshot ) {
+                action.performAction(listener);
+            }
+            return;
+        }
+
+        pendingNotifications.add(new Notification<L>(snapshot, action));
+        scheduleDispatch();
+    }
+
+    /** Starts a dispatch of the queued notifications unless one is on. */
+    private void scheduleDispatch() {
+        if ( dispatchScheduled.compareAndSet(false, true) ) {
+            try {
+                asyncExecutor.execute(dispatchTask);
+            } catch ( RuntimeException x ) {
+                // rejected (e.g. the executor was shut down): we still own
+                // dispatchScheduled, so deliver right here rather than
+                // leave this (and anything queued meanwhile) stranded
+                dispatchPending();
+            } catch ( Error x ) {
+                // the next notification gets to try again
+                dispatchScheduled.set(false);
+                throw x;
+            }
+        }
+    }
+
+    /**
+     * Runs the queued notifications until there are none left. Only one
+     * thread is ever in here (dispatchScheduled guards it).
+     */
+    private void dispatchPending() {
+        boolean ownsDispatch = true;
+        try {
+            while ( true ) {
+                Notification<L> notification;
+                while ( (notification = pendingNotifications.poll()) != null ) {
+                    for ( L listener : notification.listeners ) {
+                        try {
+                            notification.action.performAction(listener);
+                        } catch ( Throwable x ) {
+                            Thread thread = Thread.currentThread();
+                            thread.getUncaughtExceptionHandler().uncaughtException(thread, x);
+                        }
+                    }
+                }
+
+                dispatchScheduled.set(false);
+                ownsDispatch = false;
+                // a notification queued after the poll() above but before the
+                // set() saw dispatchScheduled still true and didn't schedule us
+                if ( pendingNotifications.isEmpty() ||
+                     !dispatchScheduled.compareAndSet(false, true) ) {
+                    return;
+                }
+                ownsDispatch = true;
+            }
+        } finally {
+            if ( ownsDispatch ) {
+                // the uncaught exception handler threw: without this, every
+                // later notification would be queued and never delivered
+                dispatchScheduled.set(false);
+                if ( !pendingNotifications.isEmpty() ) {
+                    scheduleDispatch();
+                }
+            }
+        }
+    }
+
+    private static final class Notification<L> {
+        public final L[] listeners;
+        public final ListenerManager.NotifyAction<L> action;
+
+        public Notification(L[] listeners, ListenerManager.NotifyAction<L> action) {
+            this.listeners = listeners;
+            this.action = action;
+        }
+    } // type Notification
+}
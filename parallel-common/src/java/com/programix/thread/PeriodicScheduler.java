@@ -0,0 +1,556 @@
+package com.programix.thread;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.locks.*;
+
+import com.programix.util.*;
+
+/**
+ * Runs any number of periodic tasks on one timer thread, each tick at an
+ * absolute deadline (start + n * period, from {@link System#nanoTime()}),
+ * so a late tick never pushes the later ones back - there's no drift to
+ * correct.
+ * <p>
+ * The tasks are kept in a hashed timing wheel: wheelSize slots of
+ * tickDuration each, a task going into the slot of its next deadline
+ * (modulo the wheel). At the start of every tick the timer thread takes the
+ * due tasks out of the next tick's slot, so scheduling, firing and
+ * cancelling cost the same with ten tasks or ten thousand. It then waits
+ * for each of them in deadline order: it parks until spinThreshold before
+ * the deadline and spins (with {@link Thread#onSpinWait()}) for the rest,
+ * since parking alone is often tens of microseconds late.
+ * <p>
+ * When a tick is missed (a task or the machine was too slow), the task's
+ * {@link MissedTickPolicy} decides: CATCH_UP runs the missed ticks right
+ * away, one after the other, SKIP drops them and waits for the next
+ * deadline still ahead. Either way the deadlines stay on the original
+ * grid.
+ * <p>
+ * The tasks run on the timer thread, so they must be short - hand anything
+ * longer to another thread. A task which throws anything (an Error too) is
+ * cancelled, what it threw is kept (see {@link PeriodicTask#getFailure()})
+ * and passed to the timer thread's uncaught exception handler, and the
+ * other tasks keep running. If the timer thread ends anyway, the scheduler
+ * is shut down, so schedule() throws instead of accepting tasks which would
+ * never run.
+ * <p>
+ * How late each tick was (from its deadline to the moment its task was
+ * called) is kept per task and for the whole scheduler; see
+ * {@link JitterStats}.
+ */
+public class PeriodicScheduler implements ThreadSafe {
+    public static final long DEFAULT_NS_TICK_DURATION = TimeUnit.MILLISECONDS.toNanos(1);
+    public static final int DEFAULT_WHEEL_SIZE = 512;
+    public static final long DEFAULT_NS_SPIN_THRESHOLD = TimeUnit.MICROSECONDS.toNanos(100);
+
+    public static enum MissedTickPolicy {
+        /** Run the missed ticks right away, one after the other. */
+        CATCH_UP,
+
+        /** Drop the missed ticks and wait for the next deadline. */
+        SKIP;
+    } // type MissedTickPolicy
+
+    private final long nsTickDuration;
+    private final long nsSpinThreshold;
+    private final long nsWheelStart;
+    private final List<PeriodicTask>[] wheel;
+    private final int wheelMask;
+    private final Queue<PeriodicTask> pendingTasks;
+    private final JitterRecorder jitterRecorder;
+    private final Thread timerThread;
+    private volatile boolean shutdownRequested;
+
+    // only used by the timer thread
+    private final PriorityQueue<PeriodicTask> dueQueue;
+    private long nextTick; // the next tick whose slot will be collected
+    private int wheelTaskCount;
+
+    /**
+     * @param threadName the name of the timer thread.
+     * @param nsTickDuration the time covered by one slot of the wheel.
+     * @param wheelSize the number of slots, a power of 2.
+     * @param nsSpinThreshold spin instead of park for the last this many
+     * nanoseconds before a deadline, 0 to only park.
+     */
+    @SuppressWarnings("unchecked")
+    public PeriodicScheduler(String threadName,
+                             long nsTickDuration,
+                             int wheelSize,
+                             long nsSpinThreshold) {
+
+        ObjectTools.paramNullCheck(threadName, "threadName");
+        if ( nsTickDuration < 1L ) {
+            throw new IllegalArgumentException(
+                "nsTickDuration must be at least 1, not " + nsTickDuration);
+        }
+        if ( wheelSize < 1 || Integer.bitCount(wheelSize) != 1 ) {
+            throw new IllegalArgumentException(
+                "wheelSize must be a power of 2, not " + wheelSize);
+        }
+        if ( nsSpinThreshold < 0L ) {
+            throw new IllegalArgumentException(
+                "nsSpinThreshold must not be negative, not " + nsSpinThreshold);
+        }
+        this.nsTickDuration = nsTickDuration;
+        this.nsSpinThreshold = nsSpinThreshold;
+
+        wheel = (List<PeriodicTask>[]) new List<?>[wheelSize];
+        for ( int i = 0; i < wheel.length; i++ ) {
+            wheel[i] = new ArrayList<>();
+        }
+        wheelMask = wheelSize - 1;
+        pendingTasks = new ConcurrentLinkedQueue<>();
+        jitterRecorder = new JitterRecorder();
+        dueQueue = new PriorityQueue<>(16, new Comparator<PeriodicTask>() {
+            @Override
+            public int compare(PeriodicTask a, PeriodicTask b) {
+                return Long.compare(a.nsDeadline - nsWheelStart,
+                                    b.nsDeadline - nsWheelStart);
+            }
+        });
+
+        nsWheelStart = System.nanoTime();
+        nextTick = 0L;
+        wheelTaskCount = 0;
+        shutdownRequested = false;
+
+        timerThread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                runWork();
+            }
+        }, threadName);
+        timerThread.setDaemon(true);
+        timerThread.start();
+    }
+
+    /**
+     * Uses the defaults, except that with only one CPU there's no spinning:
+     * the spinning thread would just be holding up everything else.
+     */
+    public PeriodicScheduler() {
+        this("PeriodicScheduler", DEFAULT_NS_TICK_DURATION, DEFAULT_WHEEL_SIZE,
+            Runtime.getRuntime().availableProcessors() > 1 ?
+                DEFAULT_NS_SPIN_THRESHOLD : 0L);
+    }
+
+    /**
+     * Runs task every period, the first time after initialDelay.
+     * @throws IllegalStateException if this scheduler has been shut down.
+     */
+    public PeriodicTask schedule(Runnable task,
+                                 long initialDelay,
+                                 long period,
+                                 TimeUnit unit,
+                                 MissedTickPolicy policy)
+            throws IllegalStateException {
+
+        ObjectTools.paramNullCheck(task, "task");
+        ObjectTools.paramNullCheck(unit, "unit");
+        ObjectTools.paramNullCheck(policy, "policy");
+        if ( initialDelay < 0L ) {
+            throw new IllegalArgumentException(
+                "initialDelay must not be negative, not " + initialDelay);
+        }
+        long nsPeriod = unit.toNanos(period);
+        if ( nsPeriod < 1L ) {
+            throw new IllegalArgumentException(
+                "period must be at least 1 ns, not " + period + " " + unit);
+        }
+        if ( shutdownRequested ) {
+            throw new IllegalStateException("scheduler has been shut down");
+        }
+
+        PeriodicTask periodicTask = new PeriodicTask(task, nsPeriod, policy,
+            System.nanoTime() + unit.toNanos(initialDelay));
+        pendingTasks.add(periodicTask);
+        LockSupport.unpark(timerThread);
+        return periodicTask;
+    }
+
+    /** Runs task every period (the first time after one period). */
+    public PeriodicTask schedule(Runnable task, long period, TimeUnit unit)
+            throws IllegalStateException {
+
+        return schedule(task, period, period, unit, MissedTickPolicy.CATCH_UP);
+    }
+
+    /**
+     * Stops the timer thread (after the task it's running, if any); no
+     * more ticks fire and nothing more can be scheduled.
+     */
+    public void shutdown() {
+        shutdownRequested = true;
+        LockSupport.unpark(timerThread);
+    }
+
+    public boolean isShutdown() {
+        return shutdownRequested;
+    }
+
+    /**
+     * Waits up to msTimeout (0 waits forever) for the timer thread to end
+     * after {@link #shutdown()}.
+     * Returns {@link ThreadTools#TIMED_OUT} if a timeout occurs.
+     */
+    public boolean waitUntilTerminated(long msTimeout) throws InterruptException {
+        try {
+            timerThread.join(msTimeout);
+            return !timerThread.isAlive();
+        } catch ( InterruptedException x ) {
+            throw new InterruptException(x);
+        }
+    }
+
+    /** Lateness of every tick of every task so far. */
+    public JitterStats getJitterStats() {
+        return jitterRecorder.getStats();
+    }
+
+    private long tickStart(long tick) {
+        return nsWheelStart + tick * nsTickDuration;
+    }
+
+    private long tickOf(long nsTime) {
+        return Math.max(0L, (nsTime - nsWheelStart) / nsTickDuration);
+    }
+
+    private void runWork() {
+        try {
+            while ( !shutdownRequested ) {
+                if ( wheelTaskCount == 0 &&
+                     dueQueue.isEmpty() &&
+                     pendingTasks.isEmpty() ) {
+
+                    // nothing to do until something is scheduled; the
+                    // wheel is empty, so the ticks in between can be skipped
+                    LockSupport.park(this);
+                    nextTick = Math.max(nextTick, tickOf(System.nanoTime()) + 1L);
+                    continue;
+                }
+
+                PeriodicTask pending;
+                while ( (pending = pendingTasks.poll()) != null ) {
+                    insert(pending);
+                }
+
+                // collect one tick ahead: at the start of tick n, the due
+                // tasks of tick n + 1 go into the dueQueue
+                if ( System.nanoTime() - tickStart(nextTick - 1L) >= 0L ) {
+                    collectTick(nextTick);
+                    nextTick++;
+                } else if ( !dueQueue.isEmpty() ) {
+                    fireNextDue();
+                } else {
+                    LockSupport.parkNanos(this,
+                        tickStart(nextTick - 1L) - System.nanoTime());
+                }
+            }
+        } finally {
+            // however the thread ends, nothing more will fire
+            shutdownRequested = true;
+            for ( List<PeriodicTask> slot : wheel ) {
+                slot.clear();
+            }
+            dueQueue.clear();
+            pendingTasks.clear();
+        }
+    }
+
+    /** Puts task in the dueQueue if its tick was already collected. */
+    private void insert(PeriodicTask task) {
+        if ( task.cancelled ) {
+            return;
+        }
+        if ( task.nsDeadline - tickStart(nextTick) < 0L ) {
+            dueQueue.add(task);
+        } else {
+            wheel[(int) (tickOf(task.nsDeadline) & wheelMask)].add(task);
+            wheelTaskCount++;
+        }
+    }
+
+    private void collectTick(long tick) {
+        List<PeriodicTask> slot = wheel[(int) (tick & wheelMask)];
+        long nsTickEnd = tickStart(tick + 1L);
+        int keepCount = 0;
+        for ( int i = 0; i < slot.size(); i++ ) {
+            PeriodicTask task = slot.get(i);
+            if ( task.cancelled ) {
+                wheelTaskCount--;
+            } else if ( task.nsDeadline - nsTickEnd < 0L ) {
+                wheelTaskCount--;
+                dueQueue.add(task);
+            } else {
+                // a later time around the wheel
+                slot.set(keepCount, task);
+                keepCount++;
+            }
+        }
+        slot.subList(keepCount, slot.size()).clear();
+    }
+
+    private void fireNextDue() {
+        PeriodicTask task = dueQueue.peek();
+        if ( task.cancelled ) {
+            dueQueue.poll();
+            return;
+        }
+        if ( !waitUntil(task.nsDeadline) ) {
+            return; // something new to look at first
+        }
+        dueQueue.poll();
+
+        long nsNow = System.nanoTime();
+        long nsLateness = nsNow - task.nsDeadline;
+        jitterRecorder.record(nsLateness);
+        task.fire(nsLateness);
+        if ( !task.cancelled ) {
+            task.advance(System.nanoTime());
+            insert(task);
+        }
+    }
+
+    /**
+     * Parks until nsSpinThreshold before nsDeadline, then spins.
+     * @return false if woken early because something was scheduled or
+     * shutdown was requested.
+     */
+    private boolean waitUntil(long nsDeadline) {
+        while ( true ) {
+            if ( shutdownRequested || !pendingTasks.isEmpty() ) {
+                return false;
+            }
+            long nsRemaining = nsDeadline - System.nanoTime();
+            if ( nsRemaining <= 0L ) {
+                return true;
+            }
+            if ( nsRemaining > nsSpinThreshold ) {
+                LockSupport.parkNanos(this, nsRemaining - nsSpinThreshold);
+            } else {
+                Thread.onSpinWait();
+            }
+        }
+    }
+
+    /**
+     * One scheduled task, returned by schedule() so it can be cancelled and
+     * its statistics read.
+     */
+    public final class PeriodicTask {
+        private final Runnable task;
+        private final long nsPeriod;
+        private final MissedTickPolicy policy;
+        private final JitterRecorder taskJitterRecorder;
+        private volatile boolean cancelled;
+        private volatile long tickCount;
+        private volatile long missedTickCount;
+        private volatile Throwable failure;
+
+        // only used by the timer thread
+        private long nsDeadline;
+
+        private PeriodicTask(Runnable task,
+                             long nsPeriod,
+                             MissedTickPolicy policy,
+                             long nsFirstDeadline) {
+
+            this.task = task;
+            this.nsPeriod = nsPeriod;
+            this.policy = policy;
+            this.nsDeadline = nsFirstDeadline;
+            taskJitterRecorder = new JitterRecorder();
+            cancelled = false;
+            tickCount = 0L;
+            missedTickCount = 0L;
+        }
+
+        /**
+         * No more ticks after this returns (unless it's called by the task
+         * itself, which then finishes the current one).
+         */
+        public void cancel() {
+            cancelled = true;
+        }
+
+        public boolean isCancelled() {
+            return cancelled;
+        }
+
+        public long getNsPeriod() {
+            return nsPeriod;
+        }
+
+        public MissedTickPolicy getMissedTickPolicy() {
+            return policy;
+        }
+
+        /** The number of times the task has run. */
+        public long getTickCount() {
+            return tickCount;
+        }
+
+        /** The number of ticks dropped by the SKIP policy. */
+        public long getMissedTickCount() {
+            return missedTickCount;
+        }
+
+        /** Lateness of this task's ticks so far. */
+        public JitterStats getJitterStats() {
+            return taskJitterRecorder.getStats();
+        }
+
+        /**
+         * What the task threw, which also cancelled it, or null if it
+         * hasn't thrown.
+         */
+        public Throwable getFailure() {
+            return failure;
+        }
+
+        private void fire(long nsLateness) {
+            taskJitterRecorder.record(nsLateness);
+            tickCount++; // only the timer thread writes it
+            try {
+                task.run();
+            } catch ( Throwable x ) {
+                // even an Error only ends this task, not the timer thread
+                failure = x;
+                cancelled = true;
+                Thread thread = Thread.currentThread();
+                thread.getUncaughtExceptionHandler().uncaughtException(thread, x);
+            }
+        }
+
+        /** Moves nsDeadline to the next tick this task's policy runs. */
+        private void advance(long nsNow) {
+            nsDeadline += nsPeriod;
+            long nsBehind = nsNow - nsDeadline;
+            if ( nsBehind > 0L && policy == MissedTickPolicy.SKIP ) {
+                long skipCount = nsBehind / nsPeriod + 1L;
+                nsDeadline += skipCount * nsPeriod;
+                missedTickCount += skipCount;
+            }
+        }
+    } // type PeriodicTask
+
+    /**
+     * Mean, 99th percentile and max of how late the ticks were, in
+     * nanoseconds. The percentile is read from a histogram whose buckets
+     * are about 6% wide. Instances are immutable.
+     */
+    public static final class JitterStats {
+        private final long count;
+        private final double nsMean;
+        private final long nsP99;
+        private final long nsMax;
+
+        public JitterStats(long count, double nsMean, long nsP99, long nsMax) {
+            this.count = count;
+            this.nsMean = nsMean;
+            this.nsP99 = nsP99;
+            this.nsMax = nsMax;
+        }
+
+        /** The number of ticks measured. */
+        public long getCount() {
+            return count;
+        }
+
+        public double getNsMean() {
+            return nsMean;
+        }
+
+        public long getNsP99() {
+            return nsP99;
+        }
+
+        public long getNsMax() {
+            return nsMax;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%,d ticks late by mean %,.1f us, " +
+                "p99 %,.1f us, max %,.1f us",
+                count, nsMean / 1e3, nsP99 / 1e3, nsMax / 1e3);
+        }
+    } // type JitterStats
+
+    /**
+     * Collects lateness values into a histogram for {@link JitterStats}:
+     * exact below 16 ns, then 16 buckets per power of 2. Also usable on its
+     * own, to measure other timers the same way.
+     */
+    public static final class JitterRecorder implements ThreadSafe {
+        private static final int SUB_BUCKET_BITS = 4;
+        private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+        private static final int BUCKET_COUNT =
+            SUB_BUCKET_COUNT + (63 - SUB_BUCKET_BITS) * SUB_BUCKET_COUNT;
+
+        private final long[] bucketCounts;
+        private long count;
+        private long nsTotal;
+        private long nsMax;
+
+        public JitterRecorder() {
+            bucketCounts = new long[BUCKET_COUNT];
+        }
+
+        /** Records one lateness; negative values (early) count as 0. */
+        public synchronized void record(long nsLateness) {
+            long value = Math.max(0L, nsLateness);
+            bucketCounts[bucketIndex(value)]++;
+            count++;
+            nsTotal += value;
+            nsMax = Math.max(nsMax, value);
+        }
+
+        public synchronized void reset() {
+            Arrays.fill(bucketCounts, 0L);
+            count = 0L;
+            nsTotal = 0L;
+            nsMax = 0L;
+        }
+
+        public synchronized JitterStats getStats() {
+            if ( count == 0L ) {
+                return new JitterStats(0L, 0.0, 0L, 0L);
+            }
+            long p99Rank = (long) Math.ceil(count * 0.99);
+            long seen = 0L;
+            long nsP99 = nsMax;
+            for ( int i = 0; i < bucketCounts.length; i++ ) {
+                seen += bucketCounts[i];
+                if ( seen >= p99Rank ) {
+                    nsP99 = Math.min(nsMax, bucketUpperBound(i));
+                    break;
+                }
+            }
+            return new JitterStats(count, (double) nsTotal / count, nsP99, nsMax);
+        }
+
+        private static int bucketIndex(long value) {
+            if ( value < SUB_BUCKET_COUNT ) {
+                return (int) value;
+            }
+            int exponent = 63 - Long.numberOfLeadingZeros(value);
+            int subBucket = (int) (value >>> (exponent - SUB_BUCKET_BITS)) &
+                (SUB_BUCKET_COUNT - 1);
+            return SUB_BUCKET_COUNT +
+                (exponent - SUB_BUCKET_BITS) * SUB_BUCKET_COUNT + subBucket;
+        }
+
+        private static long bucketUpperBound(int index) {
+            if ( index < SUB_BUCKET_COUNT ) {
+                return index;
+            }
+            int shift = (index - SUB_BUCKET_COUNT) / SUB_BUCKET_COUNT;
+            int subBucket = (index - SUB_BUCKET_COUNT) % SUB_BUCKET_COUNT;
+            long lower = (long) (SUB_BUCKET_COUNT + subBucket) << shift;
+            return lower + (1L << shift) - 1L;
+        }
+    } // type JitterRecorder
+}
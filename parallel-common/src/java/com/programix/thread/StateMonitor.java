@@ -6,7 +6,8 @@ public class StateMonitor<T extends StateMonitor.Monitorable<T>>
         implements ThreadSafe {
 
     private T state;
-    private final ListenerManager<Listener<T>> listenerManager;
+    // notified while holding lockObject, so no notification lock is needed
+    private final CopyOnWriteListenerManager<Listener<T>> listenerManager;
 
     private final Object lockObject;
     private final Waiter waiter;
@@ -78,7 +79,8 @@ public class StateMonitor<T extends StateMonitor.Monitorable<T>>
 //        new ListenerManager<StateMonitor.Listener<T>>((Class<StateMonitor.Listener<T>>) StateMonitor.Listener.class);
 
         Class<?> lType = StateMonitor.Listener.class;
-        listenerManager = (ListenerManager<Listener<T>>) new ListenerManager<>(lType);
+        listenerManager = (CopyOnWriteListenerManager<Listener<T>>)
+            new CopyOnWriteListenerManager<>(lType);
     }
 
     /**
@@ -0,0 +1,164 @@
+package com.programix.thread.tests;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
+
+import com.programix.testing.*;
+import com.programix.thread.*;
+
+/* deliberate package access */
+class TestCopyOnWriteListenerManagerThrowing extends BaseTest {
+    private static final long MS_TIMEOUT = 2000L;
+
+    public TestCopyOnWriteListenerManagerThrowing() {
+        super("async notify - after a listener, the handler or the executor throws");
+    }
+
+    public interface ValueListener {
+        void valueChanged(int value);
+    } // type ValueListener
+
+    @Override
+    protected void performTests() {
+        try {
+            testListenerThrowsError();
+            testHandlerThrows();
+            testExecutorRejects();
+        } catch ( Exception x ) {
+            failureExceptionWithStackTrace(x);
+        }
+    }
+
+    private void testListenerThrowsError() throws InterruptedException {
+        outln("***** Testing: a listener throws an Error *****");
+        final Queue<Throwable> reported = new ConcurrentLinkedQueue<>();
+        ExecutorService executor = Executors.newSingleThreadExecutor(
+            createThreadFactory(new Thread.UncaughtExceptionHandler() {
+                @Override
+                public void uncaughtException(Thread thread, Throwable x) {
+                    reported.add(x);
+                }
+            }));
+        try {
+            CopyOnWriteListenerManager<ValueListener> manager =
+                new CopyOnWriteListenerManager<>(ValueListener.class, executor);
+            final BlockingQueue<Integer> received = new LinkedBlockingQueue<>();
+            manager.addListener(new ValueListener() {
+                @Override
+                public void valueChanged(int value) {
+                    if ( value == 1 ) {
+                        throw new AssertionError("listener failed on purpose");
+                    }
+                    received.add(value);
+                }
+            });
+
+            manager.notifyListeners(createNotifyAction(1));
+            manager.notifyListeners(createNotifyAction(2));
+            outln("later notification still arrives",
+                received.poll(MS_TIMEOUT, TimeUnit.MILLISECONDS), Integer.valueOf(2));
+            outln("Error passed to the uncaught exception handler",
+                reported.peek() instanceof AssertionError, true);
+
+            manager.notifyListeners(createNotifyAction(3));
+            outln("and the one after that",
+                received.poll(MS_TIMEOUT, TimeUnit.MILLISECONDS), Integer.valueOf(3));
+        } finally {
+            executor.shutdownNow();
+            outln("*****************************************");
+        }
+    }
+
+    private void testHandlerThrows() throws InterruptedException {
+        outln("***** Testing: the uncaught exception handler throws *****");
+        ExecutorService executor = Executors.newSingleThreadExecutor(
+            createThreadFactory(new Thread.UncaughtExceptionHandler() {
+                @Override
+                public void uncaughtException(Thread thread, Throwable x) {
+                    if ( x instanceof IllegalStateException ) {
+                        throw new AssertionError("handler failed on purpose");
+                    }
+                    // otherwise, just let the dying worker thread go quietly
+                }
+            }));
+        try {
+            CopyOnWriteListenerManager<ValueListener> manager =
+                new CopyOnWriteListenerManager<>(ValueListener.class, executor);
+            final BlockingQueue<Integer> received = new LinkedBlockingQueue<>();
+            manager.addListener(new ValueListener() {
+                @Override
+                public void valueChanged(int value) {
+                    if ( value == 1 ) {
+                        throw new IllegalStateException("listener failed on purpose");
+                    }
+                    received.add(value);
+                }
+            });
+
+            manager.notifyListeners(createNotifyAction(1));
+            manager.notifyListeners(createNotifyAction(2));
+            outln("later notification still arrives",
+                received.poll(MS_TIMEOUT, TimeUnit.MILLISECONDS), Integer.valueOf(2));
+
+            manager.notifyListeners(createNotifyAction(3));
+            outln("and the one after that",
+                received.poll(MS_TIMEOUT, TimeUnit.MILLISECONDS), Integer.valueOf(3));
+        } finally {
+            executor.shutdownNow();
+            outln("*****************************************");
+        }
+    }
+
+    private void testExecutorRejects() throws InterruptedException {
+        outln("***** Testing: the executor rejects the dispatch *****");
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        CopyOnWriteListenerManager<ValueListener> manager =
+            new CopyOnWriteListenerManager<>(ValueListener.class, executor);
+        final AtomicInteger total = new AtomicInteger(0);
+        manager.addListener(new ValueListener() {
+            @Override
+            public void valueChanged(int value) {
+                total.addAndGet(value);
+            }
+        });
+
+        executor.shutdown();
+        outln("executor terminated",
+            executor.awaitTermination(MS_TIMEOUT, TimeUnit.MILLISECONDS), true);
+        try {
+            manager.notifyListeners(createNotifyAction(10));
+            manager.notifyListeners(createNotifyAction(100));
+            outln("notified on the calling thread instead", total.get(), 110);
+        } catch ( RejectedExecutionException x ) {
+            outln("notifyListeners() threw " + x, false);
+        } finally {
+            outln("*****************************************");
+        }
+    }
+
+    private static ListenerManager.NotifyAction<ValueListener> createNotifyAction(
+            final int value) {
+
+        return new ListenerManager.NotifyAction<ValueListener>() {
+            @Override
+            public void performAction(ValueListener listener) {
+                listener.valueChanged(value);
+            }
+        };
+    }
+
+    private static ThreadFactory createThreadFactory(
+            final Thread.UncaughtExceptionHandler handler) {
+
+        return new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable r) {
+                Thread thread = new Thread(r, "CopyOnWriteListenerManager-test");
+                thread.setDaemon(true);
+                thread.setUncaughtExceptionHandler(handler);
+                return thread;
+            }
+        };
+    }
+}
@@ -0,0 +1,19 @@
+package com.programix.thread.tests;
+
+import com.programix.testing.*;
+
+public class TestSuiteCopyOnWriteListenerManager {
+    // no instances
+    private TestSuiteCopyOnWriteListenerManager() {
+    }
+
+    public static BaseTest[] createAllTests() {
+        return new BaseTest[] {
+            new TestCopyOnWriteListenerManagerThrowing(),
+        };
+    }
+
+    public static TestChunk[] createAllTestChunks() {
+        return StandardTestChunk.createAll(createAllTests());
+    }
+}
@@ -0,0 +1,25 @@
+package com.programix.thread.tests.gui;
+
+import com.programix.testing.*;
+import com.programix.thread.tests.*;
+
+public class GuiTestCopyOnWriteListenerManager {
+    public static void main(String[] args) {
+        ParallelTestingPane.createFramedInstance(new ParallelTestingPane.Control() {
+            @Override
+            public String getTitle() {
+                return "Testing of CopyOnWriteListenerManager";
+            }
+
+            @Override
+            public TestChunk[] createNewTestChunks(TestThreadFactory threadFactory) {
+                return TestSuiteCopyOnWriteListenerManager.createAllTestChunks();
+            }
+
+            @Override
+            public boolean shouldShowPoints() {
+                return false;
+            }
+        });
+    }
+}